@@ -49,13 +49,14 @@ BIG_DECIMAL_LITERAL : FLOATING_POINT_NUMBER ('bd'|'BD') ;
 fragment
 EXPONENT : ('e'|'E') ('+'|'-')? ('0'..'9')+ ;
 
+// NOTE : the enclosing quotes (and doubled single quotes) are removed from the token text by HqlTokenFactory
 CHARACTER_LITERAL
-	:	'\'' ( ESCAPE_SEQUENCE | ~('\''|'\\') ) '\'' {setText(getText().substring(1, getText().length()-1));}
+	:	'\'' ( ESCAPE_SEQUENCE | ~('\''|'\\') ) '\''
 	;
 
 STRING_LITERAL
-	:	'"' ( ESCAPE_SEQUENCE | ~('\\'|'"') )* '"' {setText(getText().substring(1, getText().length()-1));}
-	|	('\'' ( ESCAPE_SEQUENCE | ~('\\'|'\'') )* '\'')+ {setText(getText().substring(1, getText().length()-1).replace("''", "'"));}
+	:	'"' ( ESCAPE_SEQUENCE | ~('\\'|'"') )* '"'
+	|	('\'' ( ESCAPE_SEQUENCE | ~('\\'|'\'') )* '\'')+
 	;
 
 fragment
@@ -16,53 +16,10 @@ package org.hibernate.sqm.parser.internal.hql.antlr;
 
 @members {
 	/**
+	 * Called when a keyword is used as an identifier, with the keyword token
 	 */
 	protected void logUseOfReservedWordAsIdentifier(Token token) {
 	}
-
-	/**
-	 * Determine if the text of the new upcoming token LT(1), if one, matches
-	 * the passed argument.  Internally calls doesUpcomingTokenMatchAny( 1, checks )
-	 */
-	protected boolean doesUpcomingTokenMatchAny(String... checks) {
-		return doesUpcomingTokenMatchAny( 1, checks );
-	}
-
-	/**
-	 * Determine if the text of the new upcoming token LT(offset), if one, matches
-	 * the passed argument.
-	 */
-	protected boolean doesUpcomingTokenMatchAny(int offset, String... checks) {
-		final Token token = retrieveUpcomingToken( offset );
-		if ( token != null ) {
-			if ( token.getType() == IDENTIFIER ) {
-				// todo : is this really a check we want?
-
-				final String textToValidate = token.getText();
-				if ( textToValidate != null ) {
-					for ( String check : checks ) {
-						if ( textToValidate.equalsIgnoreCase( check ) ) {
-							return true;
-						}
-					}
-				}
-			}
-		}
-
-		return false;
-	}
-
-	protected Token retrieveUpcomingToken(int offset) {
-		if ( null == _input ) {
-			return null;
-		}
-		return _input.LT( offset );
-	}
-
-	protected String retrieveUpcomingTokenText(int offset) {
-		Token token = retrieveUpcomingToken( offset );
-		return token == null ? null : token.getText();
-	}
 }
 
 statement
@@ -210,8 +167,9 @@ path
 	;
 
 pathRoot
-	: identifier																			# SimplePathRoot
-	| TREAT LEFT_PAREN dotIdentifierSequence AS dotIdentifierSequence RIGHT_PAREN			# TreatedPathRoot
+	// NOTE : a plain identifier root is matched as a SimplePath; allowing it here as well made every
+	//		dotted path ambiguous, forcing full-context (LL) prediction
+	: TREAT LEFT_PAREN dotIdentifierSequence AS dotIdentifierSequence RIGHT_PAREN			# TreatedPathRoot
 	| KEY LEFT_PAREN mapReference RIGHT_PAREN												# MapKeyPathRoot
 	| VALUE LEFT_PAREN collectionReference RIGHT_PAREN				   						# CollectionValuePathRoot
 	;
@@ -268,9 +226,6 @@ mainEntityPersisterReference
 	;
 
 identificationVariableDef
-//	: AS? {!doesUpcomingTokenMatchAny("where","join")}? identificationVariable
-//	: AS identificationVariable
-//	| {!doesUpcomingTokenMatchAny("where","join")}? identificationVariable
 	: (AS identificationVariable)
 	| IDENTIFIER
 	;
@@ -769,7 +724,7 @@ identifier
 	| WHERE
 	| WITH
 	| YEAR) {
-	    logUseOfReservedWordAsIdentifier(getCurrentToken());
+	    logUseOfReservedWordAsIdentifier($start);
 	}
 	;
 
@@ -22,6 +22,7 @@ import org.hibernate.sqm.query.expression.CollectionIndexFunction;
 import org.hibernate.sqm.query.expression.CollectionSizeFunction;
 import org.hibernate.sqm.query.expression.CollectionValuePathExpression;
 import org.hibernate.sqm.query.expression.ConcatExpression;
+import org.hibernate.sqm.query.expression.ConcatListExpression;
 import org.hibernate.sqm.query.expression.ConstantEnumExpression;
 import org.hibernate.sqm.query.expression.ConstantFieldExpression;
 import org.hibernate.sqm.query.expression.CountFunction;
@@ -53,6 +54,7 @@ import org.hibernate.sqm.query.expression.NullifExpression;
 import org.hibernate.sqm.query.expression.PositionalParameterExpression;
 import org.hibernate.sqm.query.expression.SubQueryExpression;
 import org.hibernate.sqm.query.expression.SumFunction;
+import org.hibernate.sqm.query.expression.SyntheticParameterExpression;
 import org.hibernate.sqm.query.expression.UnaryOperationExpression;
 import org.hibernate.sqm.query.from.CrossJoinedFromElement;
 import org.hibernate.sqm.query.from.FromClause;
@@ -60,6 +62,7 @@ import org.hibernate.sqm.query.from.FromElementSpace;
 import org.hibernate.sqm.query.from.JoinedFromElement;
 import org.hibernate.sqm.query.from.QualifiedAttributeJoinFromElement;
 import org.hibernate.sqm.query.from.QualifiedEntityJoinFromElement;
+import org.hibernate.sqm.query.from.QualifiedJoinedFromElement;
 import org.hibernate.sqm.query.from.RootEntityFromElement;
 import org.hibernate.sqm.query.order.OrderByClause;
 import org.hibernate.sqm.query.order.SortSpecification;
@@ -69,20 +72,33 @@ import org.hibernate.sqm.query.predicate.EmptinessPredicate;
 import org.hibernate.sqm.query.predicate.GroupedPredicate;
 import org.hibernate.sqm.query.predicate.InSubQueryPredicate;
 import org.hibernate.sqm.query.predicate.InListPredicate;
+import org.hibernate.sqm.query.predicate.JunctionPredicate;
 import org.hibernate.sqm.query.predicate.LikePredicate;
+import org.hibernate.sqm.query.predicate.LiteralInListPredicate;
 import org.hibernate.sqm.query.predicate.MemberOfPredicate;
 import org.hibernate.sqm.query.predicate.NegatedPredicate;
 import org.hibernate.sqm.query.predicate.NullnessPredicate;
 import org.hibernate.sqm.query.predicate.OrPredicate;
+import org.hibernate.sqm.query.predicate.Predicate;
 import org.hibernate.sqm.query.predicate.RelationalPredicate;
 import org.hibernate.sqm.query.predicate.WhereClause;
 import org.hibernate.sqm.query.select.DynamicInstantiation;
+import org.hibernate.sqm.query.select.DynamicInstantiationArgument;
 import org.hibernate.sqm.query.select.SelectClause;
 import org.hibernate.sqm.query.select.Selection;
 import org.hibernate.sqm.query.set.Assignment;
 import org.hibernate.sqm.query.set.SetClause;
 
 /**
+ * Base SemanticQueryWalker implementation which visits the entire tree.  Each visit method visits
+ * the children of the node (if any) and returns the node itself.
+ * <p/>
+ * FromElements are visited as part of their FromElementSpace; references to a FromElement from
+ * elsewhere in the tree (attribute references, e.g.) do not visit the FromElement again.
+ * <p/>
+ * The walk is recursive, so its stack use grows with the depth of the tree; see
+ * {@link SemanticQueryTraversal} for walking arbitrarily deep trees.
+ *
  * @author Steve Ebersole
  */
 public class BaseSemanticQueryWalker<T> implements SemanticQueryWalker<T> {
@@ -94,7 +110,9 @@ public class BaseSemanticQueryWalker<T> implements SemanticQueryWalker<T> {
 	@Override
 	public T visitSelectStatement(SelectStatement statement) {
 		visitQuerySpec( statement.getQuerySpec() );
-		visitOrderByClause( statement.getOrderByClause() );
+		if ( statement.getOrderByClause() != null ) {
+			visitOrderByClause( statement.getOrderByClause() );
+		}
 		return (T) statement;
 	}
 
@@ -117,7 +135,7 @@ public class BaseSemanticQueryWalker<T> implements SemanticQueryWalker<T> {
 	@Override
 	public T visitAssignment(Assignment assignment) {
 		visitAttributeReferenceExpression( assignment.getStateField() );
-		assignment.getStateField().accept( this );
+		assignment.getValue().accept( this );
 		return (T) assignment;
 	}
 
@@ -127,7 +145,9 @@ public class BaseSemanticQueryWalker<T> implements SemanticQueryWalker<T> {
 		for ( AttributeReferenceExpression stateField : statement.getStateFields() ) {
 			stateField.accept( this );
 		}
-		visitQuerySpec( statement.getSelectQuery() );
+		if ( statement.getSelectQuery() != null ) {
+			visitQuerySpec( statement.getSelectQuery() );
+		}
 		return (T) statement;
 	}
 
@@ -142,7 +162,9 @@ public class BaseSemanticQueryWalker<T> implements SemanticQueryWalker<T> {
 	public T visitQuerySpec(QuerySpec querySpec) {
 		visitFromClause( querySpec.getFromClause() );
 		visitSelectClause( querySpec.getSelectClause() );
-		visitWhereClause( querySpec.getWhereClause() );
+		if ( querySpec.getWhereClause() != null ) {
+			visitWhereClause( querySpec.getWhereClause() );
+		}
 		return (T) querySpec;
 	}
 
@@ -159,6 +181,12 @@ public class BaseSemanticQueryWalker<T> implements SemanticQueryWalker<T> {
 		visitRootEntityFromElement( fromElementSpace.getRoot() );
 		for ( JoinedFromElement joinedFromElement : fromElementSpace.getJoins() ) {
 			joinedFromElement.accept( this );
+			if ( joinedFromElement instanceof QualifiedJoinedFromElement ) {
+				final QualifiedJoinedFromElement qualifiedJoin = (QualifiedJoinedFromElement) joinedFromElement;
+				if ( qualifiedJoin.getOnClausePredicate() != null ) {
+					qualifiedJoin.getOnClausePredicate().accept( this );
+				}
+			}
 		}
 		return (T) fromElementSpace;
 	}
@@ -199,12 +227,19 @@ public class BaseSemanticQueryWalker<T> implements SemanticQueryWalker<T> {
 
 	@Override
 	public T visitDynamicInstantiation(DynamicInstantiation dynamicInstantiation) {
+		if ( dynamicInstantiation.getArguments() != null ) {
+			for ( DynamicInstantiationArgument argument : dynamicInstantiation.getArguments() ) {
+				argument.getExpression().accept( this );
+			}
+		}
 		return (T) dynamicInstantiation;
 	}
 
 	@Override
 	public T visitWhereClause(WhereClause whereClause) {
-		whereClause.getPredicate().accept( this );
+		if ( whereClause.getPredicate() != null ) {
+			whereClause.getPredicate().accept( this );
+		}
 		return (T) whereClause;
 	}
 
@@ -228,6 +263,14 @@ public class BaseSemanticQueryWalker<T> implements SemanticQueryWalker<T> {
 		return (T) predicate;
 	}
 
+	@Override
+	public T visitJunctionPredicate(JunctionPredicate predicate) {
+		for ( Predicate subPredicate : predicate.getPredicates() ) {
+			subPredicate.accept( this );
+		}
+		return (T) predicate;
+	}
+
 	@Override
 	public T visitRelationalPredicate(RelationalPredicate predicate) {
 		predicate.getLeftHandExpression().accept( this );
@@ -259,7 +302,9 @@ public class BaseSemanticQueryWalker<T> implements SemanticQueryWalker<T> {
 	public T visitLikePredicate(LikePredicate predicate) {
 		predicate.getMatchExpression().accept( this );
 		predicate.getPattern().accept( this );
-		predicate.getEscapeCharacter().accept( this );
+		if ( predicate.getEscapeCharacter() != null ) {
+			predicate.getEscapeCharacter().accept( this );
+		}
 		return (T) predicate;
 	}
 
@@ -284,6 +329,12 @@ public class BaseSemanticQueryWalker<T> implements SemanticQueryWalker<T> {
 		return (T) predicate;
 	}
 
+	@Override
+	public T visitLiteralInListPredicate(LiteralInListPredicate predicate) {
+		predicate.getTestExpression().accept( this );
+		return (T) predicate;
+	}
+
 	@Override
 	public T visitInSubQueryPredicate(InSubQueryPredicate predicate) {
 		predicate.getTestExpression().accept( this );
@@ -315,6 +366,11 @@ public class BaseSemanticQueryWalker<T> implements SemanticQueryWalker<T> {
 		return (T) expression;
 	}
 
+	@Override
+	public T visitSyntheticParameterExpression(SyntheticParameterExpression expression) {
+		return (T) expression;
+	}
+
 	@Override
 	public T visitEntityTypeExpression(EntityTypeExpression expression) {
 		return (T) expression;
@@ -333,11 +389,15 @@ public class BaseSemanticQueryWalker<T> implements SemanticQueryWalker<T> {
 
 	@Override
 	public T visitFunctionExpression(FunctionExpression expression) {
+		for ( Expression argument : expression.getArguments() ) {
+			argument.accept( this );
+		}
 		return (T) expression;
 	}
 
 	@Override
 	public T visitAvgFunction(AvgFunction expression) {
+		expression.getArgument().accept( this );
 		return (T) expression;
 	}
 
@@ -348,21 +408,25 @@ public class BaseSemanticQueryWalker<T> implements SemanticQueryWalker<T> {
 
 	@Override
 	public T visitCountFunction(CountFunction expression) {
+		expression.getArgument().accept( this );
 		return (T) expression;
 	}
 
 	@Override
 	public T visitMaxFunction(MaxFunction expression) {
+		expression.getArgument().accept( this );
 		return (T) expression;
 	}
 
 	@Override
 	public T visitMinFunction(MinFunction expression) {
+		expression.getArgument().accept( this );
 		return (T) expression;
 	}
 
 	@Override
 	public T visitSumFunction(SumFunction expression) {
+		expression.getArgument().accept( this );
 		return (T) expression;
 	}
 
@@ -473,6 +537,14 @@ public class BaseSemanticQueryWalker<T> implements SemanticQueryWalker<T> {
 		return (T) expression;
 	}
 
+	@Override
+	public T visitConcatListExpression(ConcatListExpression expression) {
+		for ( Expression operand : expression.getOperands() ) {
+			operand.accept( this );
+		}
+		return (T) expression;
+	}
+
 	@Override
 	public T visitConstantEnumExpression(ConstantEnumExpression expression) {
 		return (T) expression;
@@ -485,31 +557,54 @@ public class BaseSemanticQueryWalker<T> implements SemanticQueryWalker<T> {
 
 	@Override
 	public T visitBinaryArithmeticExpression(BinaryArithmeticExpression expression) {
+		expression.getLeftHandOperand().accept( this );
+		expression.getRightHandOperand().accept( this );
 		return (T) expression;
 	}
 
 	@Override
 	public T visitSubQueryExpression(SubQueryExpression expression) {
+		visitQuerySpec( expression.getQuerySpec() );
 		return (T) expression;
 	}
 
 	@Override
 	public T visitSimpleCaseExpression(CaseSimpleExpression expression) {
+		expression.getFixture().accept( this );
+		for ( CaseSimpleExpression.WhenFragment whenFragment : expression.getWhenFragments() ) {
+			whenFragment.getCheckValue().accept( this );
+			whenFragment.getResult().accept( this );
+		}
+		if ( expression.getOtherwise() != null ) {
+			expression.getOtherwise().accept( this );
+		}
 		return (T) expression;
 	}
 
 	@Override
 	public T visitSearchedCaseExpression(CaseSearchedExpression expression) {
+		for ( CaseSearchedExpression.WhenFragment whenFragment : expression.getWhenFragments() ) {
+			whenFragment.getPredicate().accept( this );
+			whenFragment.getResult().accept( this );
+		}
+		if ( expression.getOtherwise() != null ) {
+			expression.getOtherwise().accept( this );
+		}
 		return (T) expression;
 	}
 
 	@Override
 	public T visitCoalesceExpression(CoalesceExpression expression) {
+		for ( Expression value : expression.getValues() ) {
+			value.accept( this );
+		}
 		return (T) expression;
 	}
 
 	@Override
 	public T visitNullifExpression(NullifExpression expression) {
+		expression.getFirstArgument().accept( this );
+		expression.getSecondArgument().accept( this );
 		return (T) expression;
 	}
 }
@@ -8,9 +8,17 @@ package org.hibernate.sqm;
 
 import org.hibernate.sqm.StrictJpaComplianceViolation;
 import org.hibernate.sqm.domain.DomainMetamodel;
+import org.hibernate.sqm.parser.HqlInterpretationMode;
+import org.hibernate.sqm.parser.HqlParseProfile;
+import org.hibernate.sqm.parser.HqlPredictionMode;
+import org.hibernate.sqm.parser.QueryLimits;
 
 /**
  * Contextual information related to the consumer/caller of the parser - a callback API.
+ * <p/>
+ * Note that a ConsumerContext (and its DomainMetamodel) used for
+ * {@link SemanticQueryInterpreter#interpretAll batch interpretation} is accessed concurrently
+ * and so must be thread-safe.
  *
  * @author Steve Ebersole
  */
@@ -43,4 +51,33 @@ public interface ConsumerContext {
 	 * the JPQL subset.  {@code false} indicates to allow the full HQL superset.
 	 */
 	boolean useStrictJpaCompliance();
+
+	/**
+	 * The prediction mode the HQL/JPQL parser should use.
+	 *
+	 * @return The prediction mode; generally {@link HqlPredictionMode#SLL_WITH_LL_FALLBACK}
+	 */
+	HqlPredictionMode getHqlPredictionMode();
+
+	/**
+	 * How the HQL/JPQL parser should deal with syntax errors.
+	 *
+	 * @return The parse profile; {@link HqlParseProfile#FAIL_FAST} is recommended for production use
+	 */
+	HqlParseProfile getHqlParseProfile();
+
+	/**
+	 * How HQL/JPQL queries should be interpreted.
+	 *
+	 * @return The interpretation mode; {@link HqlInterpretationMode#SINGLE_PASS} is recommended for
+	 * large queries
+	 */
+	HqlInterpretationMode getHqlInterpretationMode();
+
+	/**
+	 * The limits to apply when interpreting queries, protecting against hostile or pathological ones.
+	 *
+	 * @return The limits; {@link QueryLimits#NONE} for none
+	 */
+	QueryLimits getQueryLimits();
 }
@@ -0,0 +1,934 @@
+/*
+ * Hibernate, Relational Persistence for Idiomatic Java
+ *
+ * License: Apache License, Version 2.0
+ * See the LICENSE file in the root directory or visit http://www.apache.org/licenses/LICENSE-2.0
+ */
+package org.hibernate.sqm;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.hibernate.sqm.domain.EntityType;
+import org.hibernate.sqm.parser.ParsingException;
+import org.hibernate.sqm.path.AttributeBinding;
+import org.hibernate.sqm.path.AttributeBindingSource;
+import org.hibernate.sqm.query.DeleteStatement;
+import org.hibernate.sqm.query.InsertSelectStatement;
+import org.hibernate.sqm.query.QuerySpec;
+import org.hibernate.sqm.query.SelectStatement;
+import org.hibernate.sqm.query.Statement;
+import org.hibernate.sqm.query.UpdateStatement;
+import org.hibernate.sqm.query.expression.AttributeReferenceExpression;
+import org.hibernate.sqm.query.expression.AvgFunction;
+import org.hibernate.sqm.query.expression.BinaryArithmeticExpression;
+import org.hibernate.sqm.query.expression.CaseSearchedExpression;
+import org.hibernate.sqm.query.expression.CaseSimpleExpression;
+import org.hibernate.sqm.query.expression.CoalesceExpression;
+import org.hibernate.sqm.query.expression.CollectionIndexFunction;
+import org.hibernate.sqm.query.expression.CollectionSizeFunction;
+import org.hibernate.sqm.query.expression.CollectionValuePathExpression;
+import org.hibernate.sqm.query.expression.ConcatExpression;
+import org.hibernate.sqm.query.expression.ConcatListExpression;
+import org.hibernate.sqm.query.expression.ConstantEnumExpression;
+import org.hibernate.sqm.query.expression.ConstantFieldExpression;
+import org.hibernate.sqm.query.expression.CountFunction;
+import org.hibernate.sqm.query.expression.CountStarFunction;
+import org.hibernate.sqm.query.expression.EntityTypeExpression;
+import org.hibernate.sqm.query.expression.Expression;
+import org.hibernate.sqm.query.expression.FunctionExpression;
+import org.hibernate.sqm.query.expression.LiteralBigDecimalExpression;
+import org.hibernate.sqm.query.expression.LiteralBigIntegerExpression;
+import org.hibernate.sqm.query.expression.LiteralCharacterExpression;
+import org.hibernate.sqm.query.expression.LiteralDoubleExpression;
+import org.hibernate.sqm.query.expression.LiteralFalseExpression;
+import org.hibernate.sqm.query.expression.LiteralFloatExpression;
+import org.hibernate.sqm.query.expression.LiteralIntegerExpression;
+import org.hibernate.sqm.query.expression.LiteralLongExpression;
+import org.hibernate.sqm.query.expression.LiteralNullExpression;
+import org.hibernate.sqm.query.expression.LiteralStringExpression;
+import org.hibernate.sqm.query.expression.LiteralTrueExpression;
+import org.hibernate.sqm.query.expression.MapEntryFunction;
+import org.hibernate.sqm.query.expression.MapKeyPathExpression;
+import org.hibernate.sqm.query.expression.MaxElementFunction;
+import org.hibernate.sqm.query.expression.MaxFunction;
+import org.hibernate.sqm.query.expression.MaxIndexFunction;
+import org.hibernate.sqm.query.expression.MinElementFunction;
+import org.hibernate.sqm.query.expression.MinFunction;
+import org.hibernate.sqm.query.expression.MinIndexFunction;
+import org.hibernate.sqm.query.expression.NamedParameterExpression;
+import org.hibernate.sqm.query.expression.NullifExpression;
+import org.hibernate.sqm.query.expression.PositionalParameterExpression;
+import org.hibernate.sqm.query.expression.SubQueryExpression;
+import org.hibernate.sqm.query.expression.SumFunction;
+import org.hibernate.sqm.query.expression.SyntheticParameterExpression;
+import org.hibernate.sqm.query.expression.UnaryOperationExpression;
+import org.hibernate.sqm.query.from.CrossJoinedFromElement;
+import org.hibernate.sqm.query.from.FromClause;
+import org.hibernate.sqm.query.from.FromElement;
+import org.hibernate.sqm.query.from.FromElementSpace;
+import org.hibernate.sqm.query.from.FromElementTable;
+import org.hibernate.sqm.query.from.JoinedFromElement;
+import org.hibernate.sqm.query.from.QualifiedAttributeJoinFromElement;
+import org.hibernate.sqm.query.from.QualifiedEntityJoinFromElement;
+import org.hibernate.sqm.query.from.RootEntityFromElement;
+import org.hibernate.sqm.query.order.OrderByClause;
+import org.hibernate.sqm.query.order.SortSpecification;
+import org.hibernate.sqm.query.predicate.AndPredicate;
+import org.hibernate.sqm.query.predicate.BetweenPredicate;
+import org.hibernate.sqm.query.predicate.EmptinessPredicate;
+import org.hibernate.sqm.query.predicate.GroupedPredicate;
+import org.hibernate.sqm.query.predicate.InListPredicate;
+import org.hibernate.sqm.query.predicate.InPredicate;
+import org.hibernate.sqm.query.predicate.InSubQueryPredicate;
+import org.hibernate.sqm.query.predicate.JunctionPredicate;
+import org.hibernate.sqm.query.predicate.LikePredicate;
+import org.hibernate.sqm.query.predicate.LiteralInListPredicate;
+import org.hibernate.sqm.query.predicate.MemberOfPredicate;
+import org.hibernate.sqm.query.predicate.NegatedPredicate;
+import org.hibernate.sqm.query.predicate.NullnessPredicate;
+import org.hibernate.sqm.query.predicate.OrPredicate;
+import org.hibernate.sqm.query.predicate.Predicate;
+import org.hibernate.sqm.query.predicate.RelationalPredicate;
+import org.hibernate.sqm.query.predicate.WhereClause;
+import org.hibernate.sqm.query.select.DynamicInstantiation;
+import org.hibernate.sqm.query.select.DynamicInstantiationArgument;
+import org.hibernate.sqm.query.select.SelectClause;
+import org.hibernate.sqm.query.select.Selection;
+import org.hibernate.sqm.query.set.Assignment;
+import org.hibernate.sqm.query.set.SetClause;
+
+/**
+ * A SemanticQueryWalker which makes a deep copy of the tree it walks.  Each visit method returns
+ * the copy of the visited node.
+ * <p/>
+ * Intended as a base for passes which need to produce a variation of a query (see
+ * {@link org.hibernate.sqm.parser.QuerySplitter} e.g.); subclasses override the visit methods for
+ * the nodes they want to replace.  FromElements are copied exactly once; all references to a
+ * FromElement in the rest of the tree are redirected to its copy.
+ * <p/>
+ * A copier instance is stateful and should be used to copy a single statement.
+ *
+ * @author agent
+ */
+@SuppressWarnings("unchecked")
+public class SemanticQueryCopier extends BaseSemanticQueryWalker {
+	// the copies, indexed by the unique id of their original
+	private final FromElementTable fromElementCopies = new FromElementTable();
+
+	private FromClause currentFromClauseCopy;
+	private FromElementSpace currentFromElementSpaceCopy;
+
+	/**
+	 * Copy the given statement.
+	 *
+	 * @param statement The statement to copy
+	 *
+	 * @return The copy
+	 */
+	public Statement copy(Statement statement) {
+		return (Statement) statement.accept( this );
+	}
+
+	/**
+	 * Locate the copy of a FromElement which has already been copied.
+	 *
+	 * @param fromElement The original FromElement
+	 *
+	 * @return The copy
+	 */
+	protected FromElement findFromElementCopy(FromElement fromElement) {
+		final FromElement copy = fromElementCopies.get( fromElement.getUniqueId() );
+		if ( copy == null ) {
+			throw new ParsingException( "FromElement [" + fromElement.asLoggableText() + "] not found in copy map" );
+		}
+		return copy;
+	}
+
+	/**
+	 * The entity type to use for the copy of the given root FromElement.  Subclasses can override
+	 * this to re-target a query to a different entity.
+	 *
+	 * @param rootEntityFromElement The original root FromElement
+	 *
+	 * @return The entity type for the copy
+	 */
+	protected EntityType determineRootEntityType(RootEntityFromElement rootEntityFromElement) {
+		return rootEntityFromElement.getBoundModelType();
+	}
+
+
+	// ~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+	// statements
+
+	@Override
+	public Statement visitStatement(Statement statement) {
+		return (Statement) statement.accept( this );
+	}
+
+	@Override
+	public SelectStatement visitSelectStatement(SelectStatement statement) {
+		final SelectStatement copy = new SelectStatement();
+		copy.applyQuerySpec( visitQuerySpec( statement.getQuerySpec() ) );
+		copy.applyOrderByClause( visitOrderByClause( statement.getOrderByClause() ) );
+		return copy;
+	}
+
+	@Override
+	public UpdateStatement visitUpdateStatement(UpdateStatement statement) {
+		final UpdateStatement copy = new UpdateStatement( visitRootEntityFromElement( statement.getEntityFromElement() ) );
+		for ( Assignment assignment : statement.getSetClause().getAssignments() ) {
+			copy.getSetClause().addAssignment( visitAssignment( assignment ) );
+		}
+		copyWhereClausePredicate( statement.getWhereClause(), copy.getWhereClause() );
+		return copy;
+	}
+
+	@Override
+	public SetClause visitSetClause(SetClause setClause) {
+		final SetClause copy = new SetClause();
+		for ( Assignment assignment : setClause.getAssignments() ) {
+			copy.addAssignment( visitAssignment( assignment ) );
+		}
+		return copy;
+	}
+
+	@Override
+	public Assignment visitAssignment(Assignment assignment) {
+		return new Assignment(
+				visitAttributeReferenceExpression( assignment.getStateField() ),
+				(Expression) assignment.getValue().accept( this )
+		);
+	}
+
+	@Override
+	public InsertSelectStatement visitInsertSelectStatement(InsertSelectStatement statement) {
+		final InsertSelectStatement copy = new InsertSelectStatement( visitRootEntityFromElement( statement.getInsertTarget() ) );
+		for ( AttributeReferenceExpression stateField : statement.getStateFields() ) {
+			copy.addInsertTargetStateField( visitAttributeReferenceExpression( stateField ) );
+		}
+		copy.setSelectQuery( visitQuerySpec( statement.getSelectQuery() ) );
+		return copy;
+	}
+
+	@Override
+	public DeleteStatement visitDeleteStatement(DeleteStatement statement) {
+		final DeleteStatement copy = new DeleteStatement( visitRootEntityFromElement( statement.getEntityFromElement() ) );
+		copyWhereClausePredicate( statement.getWhereClause(), copy.getWhereClause() );
+		return copy;
+	}
+
+	private void copyWhereClausePredicate(WhereClause original, WhereClause copy) {
+		if ( original.getPredicate() != null ) {
+			copy.setPredicate( (Predicate) original.getPredicate().accept( this ) );
+		}
+	}
+
+	@Override
+	public QuerySpec visitQuerySpec(QuerySpec querySpec) {
+		// NOTE : it is important that we visit the FromClause first so that the
+		// 		fromElementCopies gets built before other parts of the queryspec
+		// 		are visited
+		final FromClause fromClause = visitFromClause( querySpec.getFromClause() );
+		final SelectClause selectClause = visitSelectClause( querySpec.getSelectClause() );
+		final WhereClause whereClause = visitWhereClause( querySpec.getWhereClause() );
+		return new QuerySpec( fromClause, selectClause, whereClause );
+	}
+
+
+	// ~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+	// from-clause
+
+	@Override
+	public FromClause visitFromClause(FromClause fromClause) {
+		final FromClause previousCurrent = currentFromClauseCopy;
+		try {
+			final FromClause copy = new FromClause();
+			currentFromClauseCopy = copy;
+			for ( FromElementSpace space : fromClause.getFromElementSpaces() ) {
+				visitFromElementSpace( space );
+			}
+			return copy;
+		}
+		finally {
+			currentFromClauseCopy = previousCurrent;
+		}
+	}
+
+	@Override
+	public FromElementSpace visitFromElementSpace(FromElementSpace fromElementSpace) {
+		if ( currentFromClauseCopy == null ) {
+			throw new ParsingException( "Current FromClause copy was null" );
+		}
+
+		final FromElementSpace previousCurrent = currentFromElementSpaceCopy;
+		try {
+			final FromElementSpace copy = currentFromClauseCopy.makeFromElementSpace();
+			currentFromElementSpaceCopy = copy;
+			copy.setRoot( visitRootEntityFromElement( fromElementSpace.getRoot() ) );
+			for ( JoinedFromElement joinedFromElement : fromElementSpace.getJoins() ) {
+				copy.addJoin( (JoinedFromElement) joinedFromElement.accept( this ) );
+			}
+			return copy;
+		}
+		finally {
+			currentFromElementSpaceCopy = previousCurrent;
+		}
+	}
+
+	@Override
+	public RootEntityFromElement visitRootEntityFromElement(RootEntityFromElement rootEntityFromElement) {
+		final RootEntityFromElement existingCopy = (RootEntityFromElement) fromElementCopies.get( rootEntityFromElement.getUniqueId() );
+		if ( existingCopy != null ) {
+			return existingCopy;
+		}
+
+		// NOTE : DML statements define their target root outside of any FromElementSpace
+		final RootEntityFromElement copy = new RootEntityFromElement(
+				rootEntityFromElement.getContainingSpace() == null ? null : currentFromElementSpaceCopy,
+				rootEntityFromElement.getUniqueId(),
+				explicitAlias( rootEntityFromElement ),
+				determineRootEntityType( rootEntityFromElement )
+		);
+		fromElementCopies.put( rootEntityFromElement.getUniqueId(), copy );
+		return copy;
+	}
+
+	@Override
+	public CrossJoinedFromElement visitCrossJoinedFromElement(CrossJoinedFromElement joinedFromElement) {
+		final CrossJoinedFromElement existingCopy = (CrossJoinedFromElement) fromElementCopies.get( joinedFromElement.getUniqueId() );
+		if ( existingCopy != null ) {
+			return existingCopy;
+		}
+
+		final CrossJoinedFromElement copy = new CrossJoinedFromElement(
+				currentFromElementSpaceCopy,
+				joinedFromElement.getUniqueId(),
+				explicitAlias( joinedFromElement ),
+				joinedFromElement.getBoundModelType()
+		);
+		fromElementCopies.put( joinedFromElement.getUniqueId(), copy );
+		return copy;
+	}
+
+	@Override
+	public QualifiedEntityJoinFromElement visitQualifiedEntityJoinFromElement(QualifiedEntityJoinFromElement joinedFromElement) {
+		final QualifiedEntityJoinFromElement existingCopy = (QualifiedEntityJoinFromElement) fromElementCopies.get( joinedFromElement.getUniqueId() );
+		if ( existingCopy != null ) {
+			return existingCopy;
+		}
+
+		final QualifiedEntityJoinFromElement copy = new QualifiedEntityJoinFromElement(
+				currentFromElementSpaceCopy,
+				joinedFromElement.getUniqueId(),
+				explicitAlias( joinedFromElement ),
+				joinedFromElement.getBoundModelType(),
+				joinedFromElement.getJoinType()
+		);
+		// register the copy before copying the predicate, which generally refers to the join itself
+		fromElementCopies.put( joinedFromElement.getUniqueId(), copy );
+		if ( joinedFromElement.getOnClausePredicate() != null ) {
+			copy.setOnClausePredicate( (Predicate) joinedFromElement.getOnClausePredicate().accept( this ) );
+		}
+		return copy;
+	}
+
+	@Override
+	public QualifiedAttributeJoinFromElement visitQualifiedAttributeJoinFromElement(QualifiedAttributeJoinFromElement joinedFromElement) {
+		final QualifiedAttributeJoinFromElement existingCopy = (QualifiedAttributeJoinFromElement) fromElementCopies.get( joinedFromElement.getUniqueId() );
+		if ( existingCopy != null ) {
+			return existingCopy;
+		}
+
+		final QualifiedAttributeJoinFromElement copy = new QualifiedAttributeJoinFromElement(
+				currentFromElementSpaceCopy,
+				joinedFromElement.getUniqueId(),
+				explicitAlias( joinedFromElement ),
+				joinedFromElement.getJoinedAttributeDescriptor(),
+				joinedFromElement.getIntrinsicSubclassIndicator(),
+				joinedFromElement.asLoggableText(),
+				joinedFromElement.getJoinType(),
+				copyAttributeBindingSource( joinedFromElement.getAttributeBindingSource() ),
+				joinedFromElement.isFetched()
+		);
+		// register the copy before copying the predicate, which generally refers to the join itself
+		fromElementCopies.put( joinedFromElement.getUniqueId(), copy );
+		if ( joinedFromElement.getOnClausePredicate() != null ) {
+			copy.setOnClausePredicate( (Predicate) joinedFromElement.getOnClausePredicate().accept( this ) );
+		}
+		return copy;
+	}
+
+	private static String explicitAlias(FromElement fromElement) {
+		// leave implicit aliases implicit; the copy keeps the unique id they are rendered from
+		return fromElement.isImplicitlyAliased() ? null : fromElement.getIdentificationVariable();
+	}
+
+	private AttributeBindingSource copyAttributeBindingSource(AttributeBindingSource attributeBindingSource) {
+		if ( attributeBindingSource instanceof FromElement ) {
+			return findFromElementCopy( (FromElement) attributeBindingSource );
+		}
+		return attributeBindingSource;
+	}
+
+
+	// ~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+	// select-clause
+
+	@Override
+	public SelectClause visitSelectClause(SelectClause selectClause) {
+		final SelectClause copy = new SelectClause( selectClause.isDistinct() );
+		for ( Selection selection : selectClause.getSelections() ) {
+			copy.addSelection( visitSelection( selection ) );
+		}
+		return copy;
+	}
+
+	@Override
+	public Selection visitSelection(Selection selection) {
+		return new Selection(
+				copyExpression( selection.getExpression() ),
+				selection.getAlias()
+		);
+	}
+
+	@Override
+	public DynamicInstantiation visitDynamicInstantiation(DynamicInstantiation dynamicInstantiation) {
+		final DynamicInstantiation copy = dynamicInstantiation.makeShallowCopy();
+		if ( dynamicInstantiation.getArguments() != null ) {
+			for ( DynamicInstantiationArgument aliasedArgument : dynamicInstantiation.getArguments() ) {
+				copy.addArgument(
+						new DynamicInstantiationArgument(
+								copyExpression( aliasedArgument.getExpression() ),
+								aliasedArgument.getAlias()
+						)
+				);
+			}
+		}
+		return copy;
+	}
+
+	/**
+	 * Copies an expression.  FromElements used as expressions (in the select-clause e.g.) are not
+	 * copied again but resolved to their copy.
+	 */
+	protected Expression copyExpression(Expression expression) {
+		if ( expression instanceof FromElement ) {
+			return findFromElementCopy( (FromElement) expression );
+		}
+		return (Expression) expression.accept( this );
+	}
+
+
+	// ~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+	// predicates
+
+	@Override
+	public WhereClause visitWhereClause(WhereClause whereClause) {
+		if ( whereClause == null ) {
+			return null;
+		}
+		if ( whereClause.getPredicate() == null ) {
+			return new WhereClause();
+		}
+		return new WhereClause( (Predicate) whereClause.getPredicate().accept( this ) );
+	}
+
+	@Override
+	public GroupedPredicate visitGroupedPredicate(GroupedPredicate predicate) {
+		return new GroupedPredicate( (Predicate) predicate.getSubPredicate().accept( this ) );
+	}
+
+	@Override
+	public AndPredicate visitAndPredicate(AndPredicate predicate) {
+		return new AndPredicate(
+				(Predicate) predicate.getLeftHandPredicate().accept( this ),
+				(Predicate) predicate.getRightHandPredicate().accept( this )
+		);
+	}
+
+	@Override
+	public OrPredicate visitOrPredicate(OrPredicate predicate) {
+		return new OrPredicate(
+				(Predicate) predicate.getLeftHandPredicate().accept( this ),
+				(Predicate) predicate.getRightHandPredicate().accept( this )
+		);
+	}
+
+	@Override
+	public JunctionPredicate visitJunctionPredicate(JunctionPredicate predicate) {
+		final List<Predicate> predicates = predicate.getPredicates();
+		final List<Predicate> copies = new ArrayList<Predicate>( predicates.size() );
+		for ( Predicate subPredicate : predicates ) {
+			copies.add( (Predicate) subPredicate.accept( this ) );
+		}
+		return new JunctionPredicate( predicate.getNature(), copies );
+	}
+
+	@Override
+	public RelationalPredicate visitRelationalPredicate(RelationalPredicate predicate) {
+		return new RelationalPredicate(
+				predicate.getType(),
+				copyExpression( predicate.getLeftHandExpression() ),
+				copyExpression( predicate.getRightHandExpression() )
+		);
+	}
+
+	@Override
+	public EmptinessPredicate visitIsEmptyPredicate(EmptinessPredicate predicate) {
+		return new EmptinessPredicate(
+				copyExpression( predicate.getExpression() ),
+				predicate.isNegated()
+		);
+	}
+
+	@Override
+	public NullnessPredicate visitIsNullPredicate(NullnessPredicate predicate) {
+		return new NullnessPredicate(
+				copyExpression( predicate.getExpression() ),
+				predicate.isNegated()
+		);
+	}
+
+	@Override
+	public BetweenPredicate visitBetweenPredicate(BetweenPredicate predicate) {
+		return new BetweenPredicate(
+				copyExpression( predicate.getExpression() ),
+				copyExpression( predicate.getLowerBound() ),
+				copyExpression( predicate.getUpperBound() ),
+				predicate.isNegated()
+		);
+	}
+
+	@Override
+	public LikePredicate visitLikePredicate(LikePredicate predicate) {
+		return new LikePredicate(
+				copyExpression( predicate.getMatchExpression() ),
+				copyExpression( predicate.getPattern() ),
+				predicate.getEscapeCharacter() == null ? null : copyLikeEscape( predicate.getEscapeCharacter() ),
+				predicate.isNegated()
+		);
+	}
+
+	/**
+	 * Copies the escape character expression of a LIKE predicate.
+	 *
+	 * @param escapeCharacter The escape character expression
+	 *
+	 * @return The copy
+	 */
+	protected Expression copyLikeEscape(Expression escapeCharacter) {
+		return copyExpression( escapeCharacter );
+	}
+
+	@Override
+	public MemberOfPredicate visitMemberOfPredicate(MemberOfPredicate predicate) {
+		return new MemberOfPredicate(
+				visitAttributeReferenceExpression( predicate.getAttributeReferenceExpression() ),
+				predicate.isNegated()
+		);
+	}
+
+	@Override
+	public NegatedPredicate visitNegatedPredicate(NegatedPredicate predicate) {
+		return new NegatedPredicate(
+				(Predicate) predicate.getWrappedPredicate().accept( this )
+		);
+	}
+
+	@Override
+	public InListPredicate visitInListPredicate(InListPredicate predicate) {
+		final List<Expression> listExpressionsCopy = new ArrayList<Expression>( predicate.getListExpressions().size() );
+		for ( Expression expression : predicate.getListExpressions() ) {
+			listExpressionsCopy.add( copyExpression( expression ) );
+		}
+		return new InListPredicate(
+				copyExpression( predicate.getTestExpression() ),
+				listExpressionsCopy,
+				predicate.isNegated()
+		);
+	}
+
+	@Override
+	public InPredicate visitLiteralInListPredicate(LiteralInListPredicate predicate) {
+		// the values are immutable, and so shared with the copy
+		return new LiteralInListPredicate( copyExpression( predicate.getTestExpression() ), predicate );
+	}
+
+	@Override
+	public InSubQueryPredicate visitInSubQueryPredicate(InSubQueryPredicate predicate) {
+		return new InSubQueryPredicate(
+				copyExpression( predicate.getTestExpression() ),
+				visitSubQueryExpression( predicate.getSubQueryExpression() ),
+				predicate.isNegated()
+		);
+	}
+
+
+	// ~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+	// order-by
+
+	@Override
+	public OrderByClause visitOrderByClause(OrderByClause orderByClause) {
+		if ( orderByClause == null ) {
+			return null;
+		}
+
+		final OrderByClause copy = new OrderByClause();
+		for ( SortSpecification sortSpecification : orderByClause.getSortSpecifications() ) {
+			copy.addSortSpecification( visitSortSpecification( sortSpecification ) );
+		}
+		return copy;
+	}
+
+	@Override
+	public SortSpecification visitSortSpecification(SortSpecification sortSpecification) {
+		return new SortSpecification(
+				copyExpression( sortSpecification.getSortExpression() ),
+				sortSpecification.getCollation(),
+				sortSpecification.getSortOrder()
+		);
+	}
+
+
+	// ~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+	// expressions
+
+	@Override
+	public PositionalParameterExpression visitPositionalParameterExpression(PositionalParameterExpression expression) {
+		return new PositionalParameterExpression( expression.getPosition(), expression.getExpressionType() );
+	}
+
+	@Override
+	public NamedParameterExpression visitNamedParameterExpression(NamedParameterExpression expression) {
+		return new NamedParameterExpression( expression.getName(), expression.getExpressionType() );
+	}
+
+	@Override
+	public SyntheticParameterExpression visitSyntheticParameterExpression(SyntheticParameterExpression expression) {
+		return new SyntheticParameterExpression( expression.getSyntheticPosition(), expression.getExpressionType() );
+	}
+
+	@Override
+	public EntityTypeExpression visitEntityTypeExpression(EntityTypeExpression expression) {
+		return new EntityTypeExpression( expression.getExpressionType() );
+	}
+
+	@Override
+	public UnaryOperationExpression visitUnaryOperationExpression(UnaryOperationExpression expression) {
+		return new UnaryOperationExpression(
+				expression.getOperation(),
+				copyExpression( expression.getOperand() ),
+				expression.getExpressionType()
+		);
+	}
+
+	@Override
+	public AttributeReferenceExpression visitAttributeReferenceExpression(AttributeReferenceExpression expression) {
+		return new AttributeReferenceExpression(
+				copyAttributeBindingSource( expression.getAttributeBindingSource() ),
+				expression.getBoundAttribute()
+		);
+	}
+
+	@Override
+	public FunctionExpression visitFunctionExpression(FunctionExpression expression) {
+		final List<Expression> argumentsCopy = new ArrayList<Expression>( expression.getArguments().size() );
+		for ( Expression argument : expression.getArguments() ) {
+			argumentsCopy.add( copyExpression( argument ) );
+		}
+		return new FunctionExpression(
+				expression.getFunctionName(),
+				expression.getExpressionType(),
+				argumentsCopy
+		);
+	}
+
+	@Override
+	public AvgFunction visitAvgFunction(AvgFunction expression) {
+		return new AvgFunction(
+				copyExpression( expression.getArgument() ),
+				expression.isDistinct(),
+				expression.getExpressionType()
+		);
+	}
+
+	@Override
+	public CountStarFunction visitCountStarFunction(CountStarFunction expression) {
+		return new CountStarFunction( expression.isDistinct(), expression.getExpressionType() );
+	}
+
+	@Override
+	public CountFunction visitCountFunction(CountFunction expression) {
+		return new CountFunction(
+				copyExpression( expression.getArgument() ),
+				expression.isDistinct(),
+				expression.getExpressionType()
+		);
+	}
+
+	@Override
+	public MaxFunction visitMaxFunction(MaxFunction expression) {
+		return new MaxFunction(
+				copyExpression( expression.getArgument() ),
+				expression.isDistinct(),
+				expression.getExpressionType()
+		);
+	}
+
+	@Override
+	public MinFunction visitMinFunction(MinFunction expression) {
+		return new MinFunction(
+				copyExpression( expression.getArgument() ),
+				expression.isDistinct(),
+				expression.getExpressionType()
+		);
+	}
+
+	@Override
+	public SumFunction visitSumFunction(SumFunction expression) {
+		return new SumFunction(
+				copyExpression( expression.getArgument() ),
+				expression.isDistinct(),
+				expression.getExpressionType()
+		);
+	}
+
+	@Override
+	public CollectionSizeFunction visitCollectionSizeFunction(CollectionSizeFunction function) {
+		final AttributeBinding pluralAttributeBinding = function.getPluralAttributeBinding();
+		final AttributeBinding pluralAttributeBindingCopy;
+		if ( pluralAttributeBinding instanceof FromElement ) {
+			pluralAttributeBindingCopy = (AttributeBinding) findFromElementCopy( (FromElement) pluralAttributeBinding );
+		}
+		else if ( pluralAttributeBinding instanceof AttributeReferenceExpression ) {
+			pluralAttributeBindingCopy = visitAttributeReferenceExpression( (AttributeReferenceExpression) pluralAttributeBinding );
+		}
+		else {
+			pluralAttributeBindingCopy = pluralAttributeBinding;
+		}
+		return new CollectionSizeFunction( pluralAttributeBindingCopy, function.getExpressionType() );
+	}
+
+	@Override
+	public CollectionValuePathExpression visitCollectionValueFunction(CollectionValuePathExpression function) {
+		return new CollectionValuePathExpression(
+				(QualifiedAttributeJoinFromElement) findFromElementCopy( function.getPluralAttributeBinding() ),
+				function.getElementType()
+		);
+	}
+
+	@Override
+	public MapKeyPathExpression visitMapKeyFunction(MapKeyPathExpression function) {
+		return new MapKeyPathExpression(
+				findFromElementCopy( function.getFromElement() ),
+				function.getMapKeyType()
+		);
+	}
+
+	// NOTE : the remaining collection functions refer to the collection by alias only and are immutable,
+	// 		so they are simply shared
+
+	@Override
+	public CollectionIndexFunction visitCollectionIndexFunction(CollectionIndexFunction function) {
+		return function;
+	}
+
+	@Override
+	public MapEntryFunction visitMapEntryFunction(MapEntryFunction function) {
+		return function;
+	}
+
+	@Override
+	public MaxElementFunction visitMaxElementFunction(MaxElementFunction function) {
+		return function;
+	}
+
+	@Override
+	public MinElementFunction visitMinElementFunction(MinElementFunction function) {
+		return function;
+	}
+
+	@Override
+	public MaxIndexFunction visitMaxIndexFunction(MaxIndexFunction function) {
+		return function;
+	}
+
+	@Override
+	public MinIndexFunction visitMinIndexFunction(MinIndexFunction function) {
+		return function;
+	}
+
+	@Override
+	public Expression visitLiteralStringExpression(LiteralStringExpression expression) {
+		return new LiteralStringExpression(
+				expression.getLiteralValue(),
+				expression.getExpressionType()
+		);
+	}
+
+	@Override
+	public Expression visitLiteralCharacterExpression(LiteralCharacterExpression expression) {
+		return new LiteralCharacterExpression(
+				expression.getLiteralValue(),
+				expression.getExpressionType()
+		);
+	}
+
+	@Override
+	public Expression visitLiteralDoubleExpression(LiteralDoubleExpression expression) {
+		return new LiteralDoubleExpression(
+				expression.getLiteralValue(),
+				expression.getExpressionType()
+		);
+	}
+
+	@Override
+	public Expression visitLiteralIntegerExpression(LiteralIntegerExpression expression) {
+		return new LiteralIntegerExpression(
+				expression.getLiteralValue(),
+				expression.getExpressionType()
+		);
+	}
+
+	@Override
+	public Expression visitLiteralBigIntegerExpression(LiteralBigIntegerExpression expression) {
+		return new LiteralBigIntegerExpression(
+				expression.getLiteralValue(),
+				expression.getExpressionType()
+		);
+	}
+
+	@Override
+	public Expression visitLiteralBigDecimalExpression(LiteralBigDecimalExpression expression) {
+		return new LiteralBigDecimalExpression(
+				expression.getLiteralValue(),
+				expression.getExpressionType()
+		);
+	}
+
+	@Override
+	public Expression visitLiteralFloatExpression(LiteralFloatExpression expression) {
+		return new LiteralFloatExpression(
+				expression.getLiteralValue(),
+				expression.getExpressionType()
+		);
+	}
+
+	@Override
+	public Expression visitLiteralLongExpression(LiteralLongExpression expression) {
+		return new LiteralLongExpression(
+				expression.getLiteralValue(),
+				expression.getExpressionType()
+		);
+	}
+
+	@Override
+	public LiteralTrueExpression visitLiteralTrueExpression(LiteralTrueExpression expression) {
+		return new LiteralTrueExpression( expression.getExpressionType() );
+	}
+
+	@Override
+	public LiteralFalseExpression visitLiteralFalseExpression(LiteralFalseExpression expression) {
+		return new LiteralFalseExpression( expression.getExpressionType() );
+	}
+
+	@Override
+	public LiteralNullExpression visitLiteralNullExpression(LiteralNullExpression expression) {
+		return new LiteralNullExpression();
+	}
+
+	@Override
+	public ConcatExpression visitConcatExpression(ConcatExpression expression) {
+		return new ConcatExpression(
+				copyExpression( expression.getLeftHandOperand() ),
+				copyExpression( expression.getRightHandOperand() ),
+				expression.getExpressionType()
+		);
+	}
+
+	@Override
+	public ConcatListExpression visitConcatListExpression(ConcatListExpression expression) {
+		final List<Expression> operands = expression.getOperands();
+		final List<Expression> copies = new ArrayList<Expression>( operands.size() );
+		for ( Expression operand : operands ) {
+			copies.add( copyExpression( operand ) );
+		}
+		return new ConcatListExpression( copies, expression.getExpressionType() );
+	}
+
+	@Override
+	public ConstantEnumExpression visitConstantEnumExpression(ConstantEnumExpression expression) {
+		return new ConstantEnumExpression( expression.getValue(), expression.getExpressionType() );
+	}
+
+	@Override
+	public ConstantFieldExpression visitConstantFieldExpression(ConstantFieldExpression expression) {
+		return new ConstantFieldExpression( expression.getValue(), expression.getExpressionType() );
+	}
+
+	@Override
+	public BinaryArithmeticExpression visitBinaryArithmeticExpression(BinaryArithmeticExpression expression) {
+		return new BinaryArithmeticExpression(
+				expression.getOperation(),
+				copyExpression( expression.getLeftHandOperand() ),
+				copyExpression( expression.getRightHandOperand() ),
+				expression.getExpressionType()
+		);
+	}
+
+	@Override
+	public SubQueryExpression visitSubQueryExpression(SubQueryExpression expression) {
+		return new SubQueryExpression(
+				visitQuerySpec( expression.getQuerySpec() ),
+				expression.getExpressionType()
+		);
+	}
+
+	@Override
+	public CaseSimpleExpression visitSimpleCaseExpression(CaseSimpleExpression expression) {
+		final CaseSimpleExpression copy = new CaseSimpleExpression( copyExpression( expression.getFixture() ) );
+		for ( CaseSimpleExpression.WhenFragment whenFragment : expression.getWhenFragments() ) {
+			copy.when(
+					copyExpression( whenFragment.getCheckValue() ),
+					copyExpression( whenFragment.getResult() )
+			);
+		}
+		if ( expression.getOtherwise() != null ) {
+			copy.otherwise( copyExpression( expression.getOtherwise() ) );
+		}
+		return copy;
+	}
+
+	@Override
+	public CaseSearchedExpression visitSearchedCaseExpression(CaseSearchedExpression expression) {
+		final CaseSearchedExpression copy = new CaseSearchedExpression();
+		for ( CaseSearchedExpression.WhenFragment whenFragment : expression.getWhenFragments() ) {
+			copy.when(
+					(Predicate) whenFragment.getPredicate().accept( this ),
+					copyExpression( whenFragment.getResult() )
+			);
+		}
+		if ( expression.getOtherwise() != null ) {
+			copy.otherwise( copyExpression( expression.getOtherwise() ) );
+		}
+		return copy;
+	}
+
+	@Override
+	public CoalesceExpression visitCoalesceExpression(CoalesceExpression expression) {
+		final CoalesceExpression copy = new CoalesceExpression();
+		for ( Expression value : expression.getValues() ) {
+			copy.value( copyExpression( value ) );
+		}
+		return copy;
+	}
+
+	@Override
+	public NullifExpression visitNullifExpression(NullifExpression expression) {
+		return new NullifExpression(
+				copyExpression( expression.getFirstArgument() ),
+				copyExpression( expression.getSecondArgument() )
+		);
+	}
+}
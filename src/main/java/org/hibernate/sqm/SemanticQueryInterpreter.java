@@ -6,19 +6,36 @@
  */
 package org.hibernate.sqm;
 
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
 import javax.persistence.criteria.CriteriaDelete;
 import javax.persistence.criteria.CriteriaQuery;
 import javax.persistence.criteria.CriteriaUpdate;
 
+import org.hibernate.sqm.cache.InterpretationCache;
+import org.hibernate.sqm.cache.InterpretationCacheKey;
+import org.hibernate.sqm.parser.BatchInterpretationResult;
+import org.hibernate.sqm.parser.HqlDecisionProfile;
+import org.hibernate.sqm.parser.HqlInterpretationMode;
+import org.hibernate.sqm.parser.HqlParseStatistics;
+import org.hibernate.sqm.parser.HqlWarmUpResult;
 import org.hibernate.sqm.parser.InterpretationException;
+import org.hibernate.sqm.parser.LiteralParameterizer;
 import org.hibernate.sqm.parser.NotYetImplementedException;
+import org.hibernate.sqm.parser.ParameterizedStatement;
 import org.hibernate.sqm.parser.QueryException;
+import org.hibernate.sqm.parser.internal.BatchInterpreter;
 import org.hibernate.sqm.parser.internal.ParsingContext;
+import org.hibernate.sqm.parser.internal.QueryLimitGuard;
 import org.hibernate.sqm.parser.internal.criteria.OrderByProcessor;
 import org.hibernate.sqm.parser.internal.criteria.QuerySpecProcessor;
 import org.hibernate.sqm.parser.internal.hql.HqlParseTreeBuilder;
+import org.hibernate.sqm.parser.internal.hql.HqlWarmUp;
 import org.hibernate.sqm.parser.internal.hql.antlr.HqlParser;
 import org.hibernate.sqm.parser.internal.hql.SemanticQueryBuilder;
+import org.hibernate.sqm.parser.internal.hql.single.SinglePassSemanticQueryBuilder;
 import org.hibernate.sqm.query.DeleteStatement;
 import org.hibernate.sqm.query.SelectStatement;
 import org.hibernate.sqm.query.Statement;
@@ -36,17 +53,26 @@ public class SemanticQueryInterpreter {
 	 * @param query The HQL/JPQL query to interpret
 	 * @param consumerContext Callback information
 	 *
-	 * @return The semantic representation of the incoming query.
+	 * @return The semantic representation of the incoming query; the Statement is {@link Statement#freeze() frozen}.
+	 *
+	 * @throws org.hibernate.sqm.parser.QueryLimitExceededException If the query exceeds one of the
+	 * {@link ConsumerContext#getQueryLimits() limits}
 	 */
 	public static Statement interpret(String query, ConsumerContext consumerContext) {
-		final ParsingContext parsingContext = new ParsingContext( consumerContext );
-
-		// first, ask Antlr to build the parse tree
-		final HqlParser parser = HqlParseTreeBuilder.INSTANCE.parseHql( query );
-
-		// then we perform semantic analysis and building the semantic representation...
 		try {
-			return new SemanticQueryBuilder( parsingContext ).visitStatement( parser.statement() );
+			final QueryLimitGuard queryLimitGuard = new QueryLimitGuard( consumerContext.getQueryLimits() );
+			queryLimitGuard.checkInputLength( query.length() );
+
+			Statement statement = null;
+			if ( consumerContext.getHqlInterpretationMode() == HqlInterpretationMode.SINGLE_PASS ) {
+				statement = interpretSinglePass( query, consumerContext, queryLimitGuard );
+			}
+			if ( statement == null ) {
+				statement = interpretTwoPass( query, consumerContext, queryLimitGuard );
+			}
+			// and finally make it immutable so that it can be shared
+			statement.freeze();
+			return statement;
 		}
 		catch (QueryException e) {
 			throw e;
@@ -56,13 +82,237 @@ public class SemanticQueryInterpreter {
 		}
 	}
 
+	private static Statement interpretTwoPass(
+			String query,
+			ConsumerContext consumerContext,
+			QueryLimitGuard queryLimitGuard) {
+		final ParsingContext parsingContext = new ParsingContext( consumerContext, queryLimitGuard );
+
+		// first, ask Antlr to build the parse tree
+		final HqlParser.StatementContext statementTree = HqlParseTreeBuilder.INSTANCE.parseStatement(
+				query,
+				consumerContext.getHqlPredictionMode(),
+				consumerContext.getHqlParseProfile(),
+				queryLimitGuard
+		);
+
+		// then we perform semantic analysis and building the semantic representation...
+		return new SemanticQueryBuilder( parsingContext ).visitStatement( statementTree );
+	}
+
+	private static Statement interpretSinglePass(
+			String query,
+			ConsumerContext consumerContext,
+			QueryLimitGuard queryLimitGuard) {
+		final SinglePassSemanticQueryBuilder builder = new SinglePassSemanticQueryBuilder(
+				new ParsingContext( consumerContext, queryLimitGuard )
+		);
+		final boolean completed = HqlParseTreeBuilder.INSTANCE.parseStatementSinglePass(
+				query,
+				consumerContext.getHqlPredictionMode(),
+				consumerContext.getHqlParseProfile(),
+				builder.getParseTreeListener(),
+				queryLimitGuard
+		);
+		// errors in the query found along the way are only reported once the query is known to be
+		// syntactically valid (as the two-pass interpretation does); on syntax errors let the two-pass
+		// interpretation handle (and report) them as configured
+		return completed ? builder.getStatement() : null;
+	}
+
+	/**
+	 * Performs the interpretation of a HQL/JPQL query string, consulting the given cache first.  The
+	 * interpretation is added to the cache if it was not already there.
+	 *
+	 * @param query The HQL/JPQL query to interpret
+	 * @param consumerContext Callback information
+	 * @param cache The cache of interpretations; may be {@code null} in which case no caching is performed
+	 *
+	 * @return The semantic representation of the incoming query.
+	 *
+	 * @throws org.hibernate.sqm.parser.QueryLimitExceededException If the query exceeds one of the
+	 * {@link ConsumerContext#getQueryLimits() limits}; the limits are part of the cache key, so cached
+	 * interpretations are only shared between callers applying the same limits
+	 */
+	public static Statement interpret(String query, ConsumerContext consumerContext, InterpretationCache cache) {
+		if ( cache == null ) {
+			return interpret( query, consumerContext );
+		}
+
+		// reject over-long queries before hashing them for the lookup
+		new QueryLimitGuard( consumerContext.getQueryLimits() ).checkInputLength( query.length() );
+
+		final InterpretationCacheKey key = InterpretationCacheKey.from( query, consumerContext );
+		final Statement cached = cache.get( key );
+		if ( cached != null ) {
+			return cached;
+		}
+
+		return cache.put( key, interpret( query, consumerContext ) );
+	}
+
+	/**
+	 * Performs the interpretation of a HQL/JPQL query string, replacing its literals by
+	 * {@link org.hibernate.sqm.query.expression.SyntheticParameterExpression synthetic parameters} as
+	 * described for {@link LiteralParameterizer}.  Interpretations are cached; queries differing only
+	 * in the values of such literals (as when building HQL by concatenation) share one parameterized
+	 * Statement, and so whatever is derived from it downstream (e.g. the SQL).
+	 *
+	 * @param query The HQL/JPQL query to interpret
+	 * @param consumerContext Callback information
+	 * @param cache The cache of interpretations
+	 *
+	 * @return The (frozen) parameterized Statement, shared with structurally identical queries, along with
+	 * the literal values of this query
+	 *
+	 * @throws org.hibernate.sqm.parser.QueryLimitExceededException If the query exceeds one of the
+	 * {@link ConsumerContext#getQueryLimits() limits}
+	 */
+	public static ParameterizedStatement interpretParameterized(
+			String query,
+			ConsumerContext consumerContext,
+			InterpretationCache cache) {
+		new QueryLimitGuard( consumerContext.getQueryLimits() ).checkInputLength( query.length() );
+
+		final InterpretationCacheKey key = InterpretationCacheKey.from( query, consumerContext );
+		final ParameterizedStatement cached = cache.getParameterized( key );
+		if ( cached != null ) {
+			return cached;
+		}
+
+		return cache.putParameterized( key, interpret( query, consumerContext ) );
+	}
+
+	/**
+	 * Access to statistics about the HQL/JPQL parsing performed.
+	 *
+	 * @return The parse statistics
+	 */
+	public static HqlParseStatistics getHqlParseStatistics() {
+		return HqlParseTreeBuilder.INSTANCE.getStatistics();
+	}
+
+	/**
+	 * Interprets a batch of named HQL/JPQL queries in parallel, using a pool of (daemon) threads sized
+	 * to the number of available processors.  The pool is shut down afterwards.
+	 * <p/>
+	 * The ConsumerContext (and its DomainMetamodel) will be accessed concurrently and so must be
+	 * thread-safe.
+	 *
+	 * @param queries The queries to interpret, keyed by name
+	 * @param consumerContext Callback information
+	 *
+	 * @return The interpreted Statements plus any failures
+	 */
+	public static BatchInterpretationResult interpretAll(Map<String,String> queries, ConsumerContext consumerContext) {
+		return new BatchInterpreter( consumerContext ).interpretAll( queries );
+	}
+
+	/**
+	 * Interprets a batch of named HQL/JPQL queries in parallel using the given executor.
+	 * <p/>
+	 * The ConsumerContext (and its DomainMetamodel) will be accessed concurrently and so must be
+	 * thread-safe.
+	 *
+	 * @param queries The queries to interpret, keyed by name
+	 * @param consumerContext Callback information
+	 * @param executor The executor to perform the interpretations; it is not shut down
+	 *
+	 * @return The interpreted Statements plus any failures
+	 */
+	public static BatchInterpretationResult interpretAll(
+			Map<String,String> queries,
+			ConsumerContext consumerContext,
+			ExecutorService executor) {
+		return new BatchInterpreter( consumerContext ).interpretAll( queries, executor );
+	}
+
+	/**
+	 * Warm up the HQL parser on a background thread using its built-in synthetic corpus.
+	 *
+	 * @param consumerContext Callback information
+	 *
+	 * @return A Future for the warm-up result, which reports the time spent
+	 *
+	 * @see #warmUp(Iterable, ConsumerContext)
+	 */
+	public static Future<HqlWarmUpResult> warmUp(ConsumerContext consumerContext) {
+		return warmUp( null, consumerContext );
+	}
+
+	/**
+	 * Warm up the HQL parser on a background thread.  Parsing a representative set of queries
+	 * at startup populates the (shared) DFA caches of the lexer and parser, which otherwise makes the
+	 * first queries parsed after startup considerably slower than later ones.
+	 * <p/>
+	 * The built-in synthetic corpus, exercising every parser rule, is always parsed; {@code queries}
+	 * adds to that.  Only syntactic analysis is performed.
+	 *
+	 * @param queries Additional, representative, queries to parse; may be {@code null}
+	 * @param consumerContext Callback information
+	 *
+	 * @return A Future for the warm-up result, which reports the time spent
+	 */
+	public static Future<HqlWarmUpResult> warmUp(Iterable<String> queries, ConsumerContext consumerContext) {
+		final FutureTask<HqlWarmUpResult> warmUpTask = new FutureTask<HqlWarmUpResult>(
+				new HqlWarmUp( queries, consumerContext.getHqlPredictionMode() )
+		);
+		final Thread thread = new Thread( warmUpTask, "hql-parser-warm-up" );
+		thread.setDaemon( true );
+		thread.start();
+		return warmUpTask;
+	}
+
+	/**
+	 * The number of DFA states cached by the HQL lexer and parser.  These caches are shared by all
+	 * parses and grow with the variety of queries parsed; see {@link #clearHqlParserCaches()}.
+	 *
+	 * @return The number of cached DFA states
+	 */
+	public static int getHqlParserDfaStateCount() {
+		return HqlParseTreeBuilder.INSTANCE.getDfaStateCount();
+	}
+
+	/**
+	 * Release the DFA and prediction context caches of the HQL lexer and parser, e.g. after
+	 * warm-up with a corpus unlike the queries actually used or to bound their memory use.
+	 */
+	public static void clearHqlParserCaches() {
+		HqlParseTreeBuilder.INSTANCE.clearDfaCaches();
+	}
+
+	/**
+	 * Diagnostic : parse the given queries with decision profiling enabled, reporting which decisions of
+	 * the HQL parser need full-context lookahead, report ambiguities, miss the DFA cache, etc.  Only
+	 * syntactic analysis is performed, on the calling thread; profiling slows parsing down considerably.
+	 *
+	 * @param queries The queries to profile, generally a representative corpus of the application's queries
+	 * @param consumerContext Callback information
+	 *
+	 * @return The decision profile; see {@link HqlDecisionProfile#toReport()}
+	 */
+	public static HqlDecisionProfile profileHqlDecisions(Iterable<String> queries, ConsumerContext consumerContext) {
+		return HqlParseTreeBuilder.INSTANCE.profileDecisions( queries, consumerContext.getHqlPredictionMode() );
+	}
+
+	/**
+	 * Set the maximum number of idle HQL lexer/parser instances kept for reuse by later parses; by
+	 * default the number of available processors.  The pool is not bound to threads, so it is
+	 * suitable for virtual threads as well.
+	 *
+	 * @param maxPooledParsers The maximum; {@code 0} creates a new lexer and parser for every parse
+	 */
+	public static void setHqlParserPoolSize(int maxPooledParsers) {
+		HqlParseTreeBuilder.INSTANCE.setMaxPooledParsers( maxPooledParsers );
+	}
+
 	/**
 	 * Perform the interpretation of a (select) criteria query.
 	 *
 	 * @param query The criteria query
 	 * @param consumerContext Callback information
 	 *
-	 * @return The semantic representation of the incoming query.
+	 * @return The semantic representation of the incoming query; the Statement is {@link Statement#freeze() frozen}.
 	 */
 	public static SelectStatement interpret(CriteriaQuery query, ConsumerContext consumerContext) {
 		final ParsingContext parsingContext = new ParsingContext( consumerContext );
@@ -71,6 +321,7 @@ public class SemanticQueryInterpreter {
 		final SelectStatement selectStatement = new SelectStatement();
 		selectStatement.applyQuerySpec( rootQuerySpecProcessor.visitQuerySpec( query ) );
 		selectStatement.applyOrderByClause( OrderByProcessor.processOrderBy( rootQuerySpecProcessor, query ) );
+		selectStatement.freeze();
 
 		return selectStatement;
 	}
@@ -0,0 +1,744 @@
+/*
+ * Hibernate, Relational Persistence for Idiomatic Java
+ *
+ * License: Apache License, Version 2.0
+ * See the LICENSE file in the root directory or visit http://www.apache.org/licenses/LICENSE-2.0
+ */
+package org.hibernate.sqm;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.hibernate.sqm.query.DeleteStatement;
+import org.hibernate.sqm.query.InsertSelectStatement;
+import org.hibernate.sqm.query.QuerySpec;
+import org.hibernate.sqm.query.SelectStatement;
+import org.hibernate.sqm.query.Statement;
+import org.hibernate.sqm.query.UpdateStatement;
+import org.hibernate.sqm.query.expression.AttributeReferenceExpression;
+import org.hibernate.sqm.query.expression.AvgFunction;
+import org.hibernate.sqm.query.expression.BinaryArithmeticExpression;
+import org.hibernate.sqm.query.expression.CaseSearchedExpression;
+import org.hibernate.sqm.query.expression.CaseSimpleExpression;
+import org.hibernate.sqm.query.expression.CoalesceExpression;
+import org.hibernate.sqm.query.expression.CollectionIndexFunction;
+import org.hibernate.sqm.query.expression.CollectionSizeFunction;
+import org.hibernate.sqm.query.expression.CollectionValuePathExpression;
+import org.hibernate.sqm.query.expression.ConcatExpression;
+import org.hibernate.sqm.query.expression.ConcatListExpression;
+import org.hibernate.sqm.query.expression.ConstantEnumExpression;
+import org.hibernate.sqm.query.expression.ConstantFieldExpression;
+import org.hibernate.sqm.query.expression.CountFunction;
+import org.hibernate.sqm.query.expression.CountStarFunction;
+import org.hibernate.sqm.query.expression.EntityTypeExpression;
+import org.hibernate.sqm.query.expression.Expression;
+import org.hibernate.sqm.query.expression.FunctionExpression;
+import org.hibernate.sqm.query.expression.LiteralBigDecimalExpression;
+import org.hibernate.sqm.query.expression.LiteralBigIntegerExpression;
+import org.hibernate.sqm.query.expression.LiteralCharacterExpression;
+import org.hibernate.sqm.query.expression.LiteralDoubleExpression;
+import org.hibernate.sqm.query.expression.LiteralFalseExpression;
+import org.hibernate.sqm.query.expression.LiteralFloatExpression;
+import org.hibernate.sqm.query.expression.LiteralIntegerExpression;
+import org.hibernate.sqm.query.expression.LiteralLongExpression;
+import org.hibernate.sqm.query.expression.LiteralNullExpression;
+import org.hibernate.sqm.query.expression.LiteralStringExpression;
+import org.hibernate.sqm.query.expression.LiteralTrueExpression;
+import org.hibernate.sqm.query.expression.MapEntryFunction;
+import org.hibernate.sqm.query.expression.MapKeyPathExpression;
+import org.hibernate.sqm.query.expression.MaxElementFunction;
+import org.hibernate.sqm.query.expression.MaxFunction;
+import org.hibernate.sqm.query.expression.MaxIndexFunction;
+import org.hibernate.sqm.query.expression.MinElementFunction;
+import org.hibernate.sqm.query.expression.MinFunction;
+import org.hibernate.sqm.query.expression.MinIndexFunction;
+import org.hibernate.sqm.query.expression.NamedParameterExpression;
+import org.hibernate.sqm.query.expression.NullifExpression;
+import org.hibernate.sqm.query.expression.PositionalParameterExpression;
+import org.hibernate.sqm.query.expression.SubQueryExpression;
+import org.hibernate.sqm.query.expression.SumFunction;
+import org.hibernate.sqm.query.expression.SyntheticParameterExpression;
+import org.hibernate.sqm.query.expression.UnaryOperationExpression;
+import org.hibernate.sqm.query.from.CrossJoinedFromElement;
+import org.hibernate.sqm.query.from.FromClause;
+import org.hibernate.sqm.query.from.FromElementSpace;
+import org.hibernate.sqm.query.from.JoinedFromElement;
+import org.hibernate.sqm.query.from.QualifiedAttributeJoinFromElement;
+import org.hibernate.sqm.query.from.QualifiedEntityJoinFromElement;
+import org.hibernate.sqm.query.from.QualifiedJoinedFromElement;
+import org.hibernate.sqm.query.from.RootEntityFromElement;
+import org.hibernate.sqm.query.order.OrderByClause;
+import org.hibernate.sqm.query.order.SortSpecification;
+import org.hibernate.sqm.query.predicate.AndPredicate;
+import org.hibernate.sqm.query.predicate.BetweenPredicate;
+import org.hibernate.sqm.query.predicate.EmptinessPredicate;
+import org.hibernate.sqm.query.predicate.GroupedPredicate;
+import org.hibernate.sqm.query.predicate.InSubQueryPredicate;
+import org.hibernate.sqm.query.predicate.InListPredicate;
+import org.hibernate.sqm.query.predicate.JunctionPredicate;
+import org.hibernate.sqm.query.predicate.LikePredicate;
+import org.hibernate.sqm.query.predicate.LiteralInListPredicate;
+import org.hibernate.sqm.query.predicate.MemberOfPredicate;
+import org.hibernate.sqm.query.predicate.NegatedPredicate;
+import org.hibernate.sqm.query.predicate.NullnessPredicate;
+import org.hibernate.sqm.query.predicate.OrPredicate;
+import org.hibernate.sqm.query.predicate.Predicate;
+import org.hibernate.sqm.query.predicate.RelationalPredicate;
+import org.hibernate.sqm.query.predicate.WhereClause;
+import org.hibernate.sqm.query.select.DynamicInstantiation;
+import org.hibernate.sqm.query.select.DynamicInstantiationArgument;
+import org.hibernate.sqm.query.select.SelectClause;
+import org.hibernate.sqm.query.select.Selection;
+import org.hibernate.sqm.query.set.Assignment;
+import org.hibernate.sqm.query.set.SetClause;
+
+/**
+ * Walks a SQM tree using an explicit stack rather than recursion, so that trees of any depth can be
+ * walked in constant (Java) stack : the predicate and expression rules of the grammar are
+ * left-recursive, so a generated filter of thousands of OR'ed conditions is a tree thousands of levels
+ * deep, which recursive walkers such as {@link BaseSemanticQueryWalker} may not survive.
+ * <p/>
+ * The {@link Callback} is told about each node as the walk enters it (pre-order) and again as it leaves
+ * it, after all of the node's children (post-order).  Nodes are the Statements, clauses, FromElementSpaces,
+ * selections, sort specifications, assignments, predicates and expressions of the tree; the children of
+ * each are visited in the same order as {@link BaseSemanticQueryWalker} visits them.  As there,
+ * FromElements are children of their FromElementSpace (the on-clause predicate of a join following the
+ * join), and references to a FromElement from elsewhere in the tree are leaves.
+ *
+ * @author agent
+ */
+public class SemanticQueryTraversal {
+	/**
+	 * Receives the nodes of the tree as it is walked
+	 */
+	public interface Callback {
+		/**
+		 * Called as the walk enters a node, before any of its children
+		 *
+		 * @param node The node
+		 *
+		 * @return {@code true} to walk the node's children; {@code false} to skip them.  {@link #leave} is
+		 * called either way.
+		 */
+		boolean enter(Object node);
+
+		/**
+		 * Called as the walk leaves a node, after all of its children
+		 *
+		 * @param node The node
+		 */
+		void leave(Object node);
+	}
+
+	private static final int INITIAL_STACK_SIZE = 32;
+
+	private SemanticQueryTraversal() {
+	}
+
+	/**
+	 * Walk the tree rooted at the given node
+	 *
+	 * @param node The root node; generally a {@link Statement}, but it can be any node of the tree
+	 * @param callback The callback for the nodes walked
+	 */
+	public static void traverse(Object node, Callback callback) {
+		final ChildCollector childCollector = new ChildCollector();
+
+		// nodes still to be entered, and nodes entered but still to be left
+		Object[] nodes = new Object[INITIAL_STACK_SIZE];
+		boolean[] entered = new boolean[INITIAL_STACK_SIZE];
+		int size = 0;
+
+		nodes[size++] = node;
+		while ( size > 0 ) {
+			final Object current = nodes[--size];
+			if ( entered[size] ) {
+				nodes[size] = null;
+				entered[size] = false;
+				callback.leave( current );
+				continue;
+			}
+
+			// leave it for when its children are done
+			entered[size++] = true;
+
+			if ( callback.enter( current ) ) {
+				final List<Object> children = childCollector.collectChildren( current );
+				if ( size + children.size() > nodes.length ) {
+					final int newLength = Math.max( nodes.length * 2, size + children.size() );
+					nodes = Arrays.copyOf( nodes, newLength );
+					entered = Arrays.copyOf( entered, newLength );
+				}
+				// in reverse, so that the first child is on top
+				for ( int i = children.size() - 1; i >= 0; i-- ) {
+					nodes[size++] = children.get( i );
+				}
+			}
+		}
+	}
+
+	/**
+	 * Lists the direct children of a node; walker methods do not recurse
+	 */
+	private static class ChildCollector implements SemanticQueryWalker<Object> {
+		private final List<Object> children = new ArrayList<Object>();
+
+		private List<Object> collectChildren(Object node) {
+			children.clear();
+			if ( node instanceof Expression ) {
+				( (Expression) node ).accept( this );
+			}
+			else if ( node instanceof Predicate ) {
+				( (Predicate) node ).accept( this );
+			}
+			else if ( node instanceof Statement ) {
+				( (Statement) node ).accept( this );
+			}
+			else if ( node instanceof QuerySpec ) {
+				visitQuerySpec( (QuerySpec) node );
+			}
+			else if ( node instanceof FromClause ) {
+				visitFromClause( (FromClause) node );
+			}
+			else if ( node instanceof FromElementSpace ) {
+				visitFromElementSpace( (FromElementSpace) node );
+			}
+			else if ( node instanceof SelectClause ) {
+				visitSelectClause( (SelectClause) node );
+			}
+			else if ( node instanceof Selection ) {
+				visitSelection( (Selection) node );
+			}
+			else if ( node instanceof WhereClause ) {
+				visitWhereClause( (WhereClause) node );
+			}
+			else if ( node instanceof OrderByClause ) {
+				visitOrderByClause( (OrderByClause) node );
+			}
+			else if ( node instanceof SortSpecification ) {
+				visitSortSpecification( (SortSpecification) node );
+			}
+			else if ( node instanceof SetClause ) {
+				visitSetClause( (SetClause) node );
+			}
+			else if ( node instanceof Assignment ) {
+				visitAssignment( (Assignment) node );
+			}
+			else {
+				throw new IllegalArgumentException( "Unexpected SQM node type : " + node.getClass().getName() );
+			}
+
+			// drop absent optional parts (e.g. the where clause of an update or delete statement)
+			for ( int i = children.size() - 1; i >= 0; i-- ) {
+				if ( children.get( i ) == null ) {
+					children.remove( i );
+				}
+			}
+			return children;
+		}
+
+		@Override
+		public Object visitStatement(Statement statement) {
+			return statement.accept( this );
+		}
+
+		@Override
+		public Object visitSelectStatement(SelectStatement statement) {
+			children.add( statement.getQuerySpec() );
+			if ( statement.getOrderByClause() != null ) {
+				children.add( statement.getOrderByClause() );
+			}
+			return null;
+		}
+
+		@Override
+		public Object visitUpdateStatement(UpdateStatement statement) {
+			children.add( statement.getEntityFromElement() );
+			children.add( statement.getSetClause() );
+			children.add( statement.getWhereClause() );
+			return null;
+		}
+
+		@Override
+		public Object visitSetClause(SetClause setClause) {
+			for ( Assignment assignment : setClause.getAssignments() ) {
+				children.add( assignment );
+			}
+			return null;
+		}
+
+		@Override
+		public Object visitAssignment(Assignment assignment) {
+			children.add( assignment.getStateField() );
+			children.add( assignment.getValue() );
+			return null;
+		}
+
+		@Override
+		public Object visitInsertSelectStatement(InsertSelectStatement statement) {
+			children.add( statement.getInsertTarget() );
+			for ( AttributeReferenceExpression stateField : statement.getStateFields() ) {
+				children.add( stateField );
+			}
+			if ( statement.getSelectQuery() != null ) {
+				children.add( statement.getSelectQuery() );
+			}
+			return null;
+		}
+
+		@Override
+		public Object visitDeleteStatement(DeleteStatement statement) {
+			children.add( statement.getEntityFromElement() );
+			children.add( statement.getWhereClause() );
+			return null;
+		}
+
+		@Override
+		public Object visitQuerySpec(QuerySpec querySpec) {
+			children.add( querySpec.getFromClause() );
+			children.add( querySpec.getSelectClause() );
+			if ( querySpec.getWhereClause() != null ) {
+				children.add( querySpec.getWhereClause() );
+			}
+			return null;
+		}
+
+		@Override
+		public Object visitFromClause(FromClause fromClause) {
+			for ( FromElementSpace fromElementSpace : fromClause.getFromElementSpaces() ) {
+				children.add( fromElementSpace );
+			}
+			return null;
+		}
+
+		@Override
+		public Object visitFromElementSpace(FromElementSpace fromElementSpace) {
+			children.add( fromElementSpace.getRoot() );
+			for ( JoinedFromElement joinedFromElement : fromElementSpace.getJoins() ) {
+				children.add( joinedFromElement );
+				if ( joinedFromElement instanceof QualifiedJoinedFromElement ) {
+					final QualifiedJoinedFromElement qualifiedJoin = (QualifiedJoinedFromElement) joinedFromElement;
+					if ( qualifiedJoin.getOnClausePredicate() != null ) {
+						children.add( qualifiedJoin.getOnClausePredicate() );
+					}
+				}
+			}
+			return null;
+		}
+
+		@Override
+		public Object visitCrossJoinedFromElement(CrossJoinedFromElement joinedFromElement) {
+			return null;
+		}
+
+		@Override
+		public Object visitQualifiedEntityJoinFromElement(QualifiedEntityJoinFromElement joinedFromElement) {
+			return null;
+		}
+
+		@Override
+		public Object visitQualifiedAttributeJoinFromElement(QualifiedAttributeJoinFromElement joinedFromElement) {
+			return null;
+		}
+
+		@Override
+		public Object visitRootEntityFromElement(RootEntityFromElement rootEntityFromElement) {
+			return null;
+		}
+
+		@Override
+		public Object visitSelectClause(SelectClause selectClause) {
+			for ( Selection selection : selectClause.getSelections() ) {
+				children.add( selection );
+			}
+			return null;
+		}
+
+		@Override
+		public Object visitSelection(Selection selection) {
+			children.add( selection.getExpression() );
+			return null;
+		}
+
+		@Override
+		public Object visitDynamicInstantiation(DynamicInstantiation dynamicInstantiation) {
+			if ( dynamicInstantiation.getArguments() != null ) {
+				for ( DynamicInstantiationArgument argument : dynamicInstantiation.getArguments() ) {
+					children.add( argument.getExpression() );
+				}
+			}
+			return null;
+		}
+
+		@Override
+		public Object visitWhereClause(WhereClause whereClause) {
+			if ( whereClause.getPredicate() != null ) {
+				children.add( whereClause.getPredicate() );
+			}
+			return null;
+		}
+
+		@Override
+		public Object visitGroupedPredicate(GroupedPredicate predicate) {
+			children.add( predicate.getSubPredicate() );
+			return null;
+		}
+
+		@Override
+		public Object visitAndPredicate(AndPredicate predicate) {
+			children.add( predicate.getLeftHandPredicate() );
+			children.add( predicate.getRightHandPredicate() );
+			return null;
+		}
+
+		@Override
+		public Object visitOrPredicate(OrPredicate predicate) {
+			children.add( predicate.getLeftHandPredicate() );
+			children.add( predicate.getRightHandPredicate() );
+			return null;
+		}
+
+		@Override
+		public Object visitJunctionPredicate(JunctionPredicate predicate) {
+			children.addAll( predicate.getPredicates() );
+			return null;
+		}
+
+		@Override
+		public Object visitRelationalPredicate(RelationalPredicate predicate) {
+			children.add( predicate.getLeftHandExpression() );
+			children.add( predicate.getRightHandExpression() );
+			return null;
+		}
+
+		@Override
+		public Object visitIsEmptyPredicate(EmptinessPredicate predicate) {
+			children.add( predicate.getExpression() );
+			return null;
+		}
+
+		@Override
+		public Object visitIsNullPredicate(NullnessPredicate predicate) {
+			children.add( predicate.getExpression() );
+			return null;
+		}
+
+		@Override
+		public Object visitBetweenPredicate(BetweenPredicate predicate) {
+			children.add( predicate.getExpression() );
+			children.add( predicate.getLowerBound() );
+			children.add( predicate.getUpperBound() );
+			return null;
+		}
+
+		@Override
+		public Object visitLikePredicate(LikePredicate predicate) {
+			children.add( predicate.getMatchExpression() );
+			children.add( predicate.getPattern() );
+			if ( predicate.getEscapeCharacter() != null ) {
+				children.add( predicate.getEscapeCharacter() );
+			}
+			return null;
+		}
+
+		@Override
+		public Object visitMemberOfPredicate(MemberOfPredicate predicate) {
+			children.add( predicate.getAttributeReferenceExpression() );
+			return null;
+		}
+
+		@Override
+		public Object visitNegatedPredicate(NegatedPredicate predicate) {
+			children.add( predicate.getWrappedPredicate() );
+			return null;
+		}
+
+		@Override
+		public Object visitInListPredicate(InListPredicate predicate) {
+			children.add( predicate.getTestExpression() );
+			for ( Expression expression : predicate.getListExpressions() ) {
+				children.add( expression );
+			}
+			return null;
+		}
+
+		@Override
+		public Object visitLiteralInListPredicate(LiteralInListPredicate predicate) {
+			// the values are not nodes
+			children.add( predicate.getTestExpression() );
+			return null;
+		}
+
+		@Override
+		public Object visitInSubQueryPredicate(InSubQueryPredicate predicate) {
+			children.add( predicate.getTestExpression() );
+			children.add( predicate.getSubQueryExpression() );
+			return null;
+		}
+
+		@Override
+		public Object visitOrderByClause(OrderByClause orderByClause) {
+			for ( SortSpecification sortSpecification : orderByClause.getSortSpecifications() ) {
+				children.add( sortSpecification );
+			}
+			return null;
+		}
+
+		@Override
+		public Object visitSortSpecification(SortSpecification sortSpecification) {
+			children.add( sortSpecification.getSortExpression() );
+			return null;
+		}
+
+		@Override
+		public Object visitPositionalParameterExpression(PositionalParameterExpression expression) {
+			return null;
+		}
+
+		@Override
+		public Object visitNamedParameterExpression(NamedParameterExpression expression) {
+			return null;
+		}
+
+		@Override
+		public Object visitSyntheticParameterExpression(SyntheticParameterExpression expression) {
+			return null;
+		}
+
+		@Override
+		public Object visitEntityTypeExpression(EntityTypeExpression expression) {
+			return null;
+		}
+
+		@Override
+		public Object visitUnaryOperationExpression(UnaryOperationExpression expression) {
+			children.add( expression.getOperand() );
+			return null;
+		}
+
+		@Override
+		public Object visitAttributeReferenceExpression(AttributeReferenceExpression expression) {
+			return null;
+		}
+
+		@Override
+		public Object visitFunctionExpression(FunctionExpression expression) {
+			for ( Expression argument : expression.getArguments() ) {
+				children.add( argument );
+			}
+			return null;
+		}
+
+		@Override
+		public Object visitAvgFunction(AvgFunction expression) {
+			children.add( expression.getArgument() );
+			return null;
+		}
+
+		@Override
+		public Object visitCountStarFunction(CountStarFunction expression) {
+			return null;
+		}
+
+		@Override
+		public Object visitCountFunction(CountFunction expression) {
+			children.add( expression.getArgument() );
+			return null;
+		}
+
+		@Override
+		public Object visitMaxFunction(MaxFunction expression) {
+			children.add( expression.getArgument() );
+			return null;
+		}
+
+		@Override
+		public Object visitMinFunction(MinFunction expression) {
+			children.add( expression.getArgument() );
+			return null;
+		}
+
+		@Override
+		public Object visitSumFunction(SumFunction expression) {
+			children.add( expression.getArgument() );
+			return null;
+		}
+
+		@Override
+		public Object visitCollectionSizeFunction(CollectionSizeFunction function) {
+			return null;
+		}
+
+		@Override
+		public Object visitCollectionValueFunction(CollectionValuePathExpression function) {
+			return null;
+		}
+
+		@Override
+		public Object visitCollectionIndexFunction(CollectionIndexFunction function) {
+			return null;
+		}
+
+		@Override
+		public Object visitMapKeyFunction(MapKeyPathExpression function) {
+			return null;
+		}
+
+		@Override
+		public Object visitMapEntryFunction(MapEntryFunction function) {
+			return null;
+		}
+
+		@Override
+		public Object visitMaxElementFunction(MaxElementFunction function) {
+			return null;
+		}
+
+		@Override
+		public Object visitMinElementFunction(MinElementFunction function) {
+			return null;
+		}
+
+		@Override
+		public Object visitMaxIndexFunction(MaxIndexFunction function) {
+			return null;
+		}
+
+		@Override
+		public Object visitMinIndexFunction(MinIndexFunction function) {
+			return null;
+		}
+
+		@Override
+		public Object visitLiteralStringExpression(LiteralStringExpression expression) {
+			return null;
+		}
+
+		@Override
+		public Object visitLiteralCharacterExpression(LiteralCharacterExpression expression) {
+			return null;
+		}
+
+		@Override
+		public Object visitLiteralDoubleExpression(LiteralDoubleExpression expression) {
+			return null;
+		}
+
+		@Override
+		public Object visitLiteralIntegerExpression(LiteralIntegerExpression expression) {
+			return null;
+		}
+
+		@Override
+		public Object visitLiteralBigIntegerExpression(LiteralBigIntegerExpression expression) {
+			return null;
+		}
+
+		@Override
+		public Object visitLiteralBigDecimalExpression(LiteralBigDecimalExpression expression) {
+			return null;
+		}
+
+		@Override
+		public Object visitLiteralFloatExpression(LiteralFloatExpression expression) {
+			return null;
+		}
+
+		@Override
+		public Object visitLiteralLongExpression(LiteralLongExpression expression) {
+			return null;
+		}
+
+		@Override
+		public Object visitLiteralTrueExpression(LiteralTrueExpression expression) {
+			return null;
+		}
+
+		@Override
+		public Object visitLiteralFalseExpression(LiteralFalseExpression expression) {
+			return null;
+		}
+
+		@Override
+		public Object visitLiteralNullExpression(LiteralNullExpression expression) {
+			return null;
+		}
+
+		@Override
+		public Object visitConcatExpression(ConcatExpression expression) {
+			children.add( expression.getLeftHandOperand() );
+			children.add( expression.getRightHandOperand() );
+			return null;
+		}
+
+		@Override
+		public Object visitConcatListExpression(ConcatListExpression expression) {
+			children.addAll( expression.getOperands() );
+			return null;
+		}
+
+		@Override
+		public Object visitConstantEnumExpression(ConstantEnumExpression expression) {
+			return null;
+		}
+
+		@Override
+		public Object visitConstantFieldExpression(ConstantFieldExpression expression) {
+			return null;
+		}
+
+		@Override
+		public Object visitBinaryArithmeticExpression(BinaryArithmeticExpression expression) {
+			children.add( expression.getLeftHandOperand() );
+			children.add( expression.getRightHandOperand() );
+			return null;
+		}
+
+		@Override
+		public Object visitSubQueryExpression(SubQueryExpression expression) {
+			children.add( expression.getQuerySpec() );
+			return null;
+		}
+
+		@Override
+		public Object visitSimpleCaseExpression(CaseSimpleExpression expression) {
+			children.add( expression.getFixture() );
+			for ( CaseSimpleExpression.WhenFragment whenFragment : expression.getWhenFragments() ) {
+				children.add( whenFragment.getCheckValue() );
+				children.add( whenFragment.getResult() );
+			}
+			if ( expression.getOtherwise() != null ) {
+				children.add( expression.getOtherwise() );
+			}
+			return null;
+		}
+
+		@Override
+		public Object visitSearchedCaseExpression(CaseSearchedExpression expression) {
+			for ( CaseSearchedExpression.WhenFragment whenFragment : expression.getWhenFragments() ) {
+				children.add( whenFragment.getPredicate() );
+				children.add( whenFragment.getResult() );
+			}
+			if ( expression.getOtherwise() != null ) {
+				children.add( expression.getOtherwise() );
+			}
+			return null;
+		}
+
+		@Override
+		public Object visitCoalesceExpression(CoalesceExpression expression) {
+			for ( Expression value : expression.getValues() ) {
+				children.add( value );
+			}
+			return null;
+		}
+
+		@Override
+		public Object visitNullifExpression(NullifExpression expression) {
+			children.add( expression.getFirstArgument() );
+			children.add( expression.getSecondArgument() );
+			return null;
+		}
+	}
+}
@@ -22,6 +22,7 @@ import org.hibernate.sqm.query.expression.CollectionIndexFunction;
 import org.hibernate.sqm.query.expression.CollectionSizeFunction;
 import org.hibernate.sqm.query.expression.CollectionValuePathExpression;
 import org.hibernate.sqm.query.expression.ConcatExpression;
+import org.hibernate.sqm.query.expression.ConcatListExpression;
 import org.hibernate.sqm.query.expression.ConstantEnumExpression;
 import org.hibernate.sqm.query.expression.ConstantFieldExpression;
 import org.hibernate.sqm.query.expression.CountFunction;
@@ -52,6 +53,7 @@ import org.hibernate.sqm.query.expression.NullifExpression;
 import org.hibernate.sqm.query.expression.PositionalParameterExpression;
 import org.hibernate.sqm.query.expression.SubQueryExpression;
 import org.hibernate.sqm.query.expression.SumFunction;
+import org.hibernate.sqm.query.expression.SyntheticParameterExpression;
 import org.hibernate.sqm.query.expression.UnaryOperationExpression;
 import org.hibernate.sqm.query.from.CrossJoinedFromElement;
 import org.hibernate.sqm.query.from.FromClause;
@@ -67,7 +69,9 @@ import org.hibernate.sqm.query.predicate.EmptinessPredicate;
 import org.hibernate.sqm.query.predicate.GroupedPredicate;
 import org.hibernate.sqm.query.predicate.InSubQueryPredicate;
 import org.hibernate.sqm.query.predicate.InListPredicate;
+import org.hibernate.sqm.query.predicate.JunctionPredicate;
 import org.hibernate.sqm.query.predicate.LikePredicate;
+import org.hibernate.sqm.query.predicate.LiteralInListPredicate;
 import org.hibernate.sqm.query.predicate.MemberOfPredicate;
 import org.hibernate.sqm.query.predicate.NegatedPredicate;
 import org.hibernate.sqm.query.predicate.NullnessPredicate;
@@ -126,6 +130,8 @@ public interface SemanticQueryWalker<T> {
 
 	T visitOrPredicate(OrPredicate predicate);
 
+	T visitJunctionPredicate(JunctionPredicate predicate);
+
 	T visitRelationalPredicate(RelationalPredicate predicate);
 
 	T visitIsEmptyPredicate(EmptinessPredicate predicate);
@@ -142,6 +148,8 @@ public interface SemanticQueryWalker<T> {
 
 	T visitInListPredicate(InListPredicate predicate);
 
+	T visitLiteralInListPredicate(LiteralInListPredicate predicate);
+
 	T visitInSubQueryPredicate(InSubQueryPredicate predicate);
 
 	T visitOrderByClause(OrderByClause orderByClause);
@@ -152,6 +160,8 @@ public interface SemanticQueryWalker<T> {
 
 	T visitNamedParameterExpression(NamedParameterExpression expression);
 
+	T visitSyntheticParameterExpression(SyntheticParameterExpression expression);
+
 	T visitEntityTypeExpression(EntityTypeExpression expression);
 
 	T visitUnaryOperationExpression(UnaryOperationExpression expression);
@@ -214,6 +224,8 @@ public interface SemanticQueryWalker<T> {
 
 	T visitConcatExpression(ConcatExpression expression);
 
+	T visitConcatListExpression(ConcatListExpression expression);
+
 	T visitConstantEnumExpression(ConstantEnumExpression expression);
 
 	T visitConstantFieldExpression(ConstantFieldExpression expression);
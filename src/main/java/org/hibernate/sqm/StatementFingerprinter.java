@@ -0,0 +1,1042 @@
+/*
+ * Hibernate, Relational Persistence for Idiomatic Java
+ *
+ * License: Apache License, Version 2.0
+ * See the LICENSE file in the root directory or visit http://www.apache.org/licenses/LICENSE-2.0
+ */
+package org.hibernate.sqm;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.hibernate.sqm.domain.Type;
+import org.hibernate.sqm.parser.internal.ImplicitAliasGenerator;
+import org.hibernate.sqm.path.AttributeBindingSource;
+import org.hibernate.sqm.query.DeleteStatement;
+import org.hibernate.sqm.query.InsertSelectStatement;
+import org.hibernate.sqm.query.QuerySpec;
+import org.hibernate.sqm.query.SelectStatement;
+import org.hibernate.sqm.query.Statement;
+import org.hibernate.sqm.query.StatementFingerprint;
+import org.hibernate.sqm.query.UpdateStatement;
+import org.hibernate.sqm.query.expression.AttributeReferenceExpression;
+import org.hibernate.sqm.query.expression.AvgFunction;
+import org.hibernate.sqm.query.expression.BinaryArithmeticExpression;
+import org.hibernate.sqm.query.expression.CaseSearchedExpression;
+import org.hibernate.sqm.query.expression.CaseSimpleExpression;
+import org.hibernate.sqm.query.expression.CoalesceExpression;
+import org.hibernate.sqm.query.expression.CollectionIndexFunction;
+import org.hibernate.sqm.query.expression.CollectionSizeFunction;
+import org.hibernate.sqm.query.expression.CollectionValuePathExpression;
+import org.hibernate.sqm.query.expression.ConcatExpression;
+import org.hibernate.sqm.query.expression.ConcatListExpression;
+import org.hibernate.sqm.query.expression.ConstantEnumExpression;
+import org.hibernate.sqm.query.expression.ConstantFieldExpression;
+import org.hibernate.sqm.query.expression.CountFunction;
+import org.hibernate.sqm.query.expression.CountStarFunction;
+import org.hibernate.sqm.query.expression.EntityTypeExpression;
+import org.hibernate.sqm.query.expression.Expression;
+import org.hibernate.sqm.query.expression.FunctionExpression;
+import org.hibernate.sqm.query.expression.LiteralBigDecimalExpression;
+import org.hibernate.sqm.query.expression.LiteralBigIntegerExpression;
+import org.hibernate.sqm.query.expression.LiteralCharacterExpression;
+import org.hibernate.sqm.query.expression.LiteralDoubleExpression;
+import org.hibernate.sqm.query.expression.LiteralFalseExpression;
+import org.hibernate.sqm.query.expression.LiteralFloatExpression;
+import org.hibernate.sqm.query.expression.LiteralIntegerExpression;
+import org.hibernate.sqm.query.expression.LiteralLongExpression;
+import org.hibernate.sqm.query.expression.LiteralNullExpression;
+import org.hibernate.sqm.query.expression.LiteralStringExpression;
+import org.hibernate.sqm.query.expression.LiteralTrueExpression;
+import org.hibernate.sqm.query.expression.MapEntryFunction;
+import org.hibernate.sqm.query.expression.MapKeyPathExpression;
+import org.hibernate.sqm.query.expression.MaxElementFunction;
+import org.hibernate.sqm.query.expression.MaxFunction;
+import org.hibernate.sqm.query.expression.MaxIndexFunction;
+import org.hibernate.sqm.query.expression.MinElementFunction;
+import org.hibernate.sqm.query.expression.MinFunction;
+import org.hibernate.sqm.query.expression.MinIndexFunction;
+import org.hibernate.sqm.query.expression.NamedParameterExpression;
+import org.hibernate.sqm.query.expression.NullifExpression;
+import org.hibernate.sqm.query.expression.PositionalParameterExpression;
+import org.hibernate.sqm.query.expression.SubQueryExpression;
+import org.hibernate.sqm.query.expression.SumFunction;
+import org.hibernate.sqm.query.expression.SyntheticParameterExpression;
+import org.hibernate.sqm.query.expression.UnaryOperationExpression;
+import org.hibernate.sqm.query.from.CrossJoinedFromElement;
+import org.hibernate.sqm.query.from.Downcast;
+import org.hibernate.sqm.query.from.FromClause;
+import org.hibernate.sqm.query.from.FromElement;
+import org.hibernate.sqm.query.from.FromElementSpace;
+import org.hibernate.sqm.query.from.QualifiedAttributeJoinFromElement;
+import org.hibernate.sqm.query.from.QualifiedEntityJoinFromElement;
+import org.hibernate.sqm.query.from.RootEntityFromElement;
+import org.hibernate.sqm.query.order.OrderByClause;
+import org.hibernate.sqm.query.order.SortSpecification;
+import org.hibernate.sqm.query.predicate.AndPredicate;
+import org.hibernate.sqm.query.predicate.BetweenPredicate;
+import org.hibernate.sqm.query.predicate.EmptinessPredicate;
+import org.hibernate.sqm.query.predicate.GroupedPredicate;
+import org.hibernate.sqm.query.predicate.InListPredicate;
+import org.hibernate.sqm.query.predicate.InSubQueryPredicate;
+import org.hibernate.sqm.query.predicate.JunctionPredicate;
+import org.hibernate.sqm.query.predicate.LikePredicate;
+import org.hibernate.sqm.query.predicate.LiteralInListPredicate;
+import org.hibernate.sqm.query.predicate.MemberOfPredicate;
+import org.hibernate.sqm.query.predicate.NegatedPredicate;
+import org.hibernate.sqm.query.predicate.NullnessPredicate;
+import org.hibernate.sqm.query.predicate.OrPredicate;
+import org.hibernate.sqm.query.predicate.RelationalPredicate;
+import org.hibernate.sqm.query.predicate.WhereClause;
+import org.hibernate.sqm.query.select.DynamicInstantiation;
+import org.hibernate.sqm.query.select.DynamicInstantiationArgument;
+import org.hibernate.sqm.query.select.SelectClause;
+import org.hibernate.sqm.query.select.Selection;
+import org.hibernate.sqm.query.set.Assignment;
+import org.hibernate.sqm.query.set.SetClause;
+
+/**
+ * Calculates the {@link StatementFingerprint} of a Statement: a 128-bit (MurmurHash3) hash of the
+ * kind of each node in the tree along with entity and attribute names, operators, literal values
+ * and parameter names/positions.
+ * <p/>
+ * Implicit (generated) aliases and the unique identifiers of FromElements are never hashed; a
+ * reference to a FromElement is hashed as the ordinal of that FromElement in the order FromElements
+ * are encountered.  Explicit aliases are not hashed either, except for select-clause result aliases.
+ * The fingerprint therefore only depends on the structure of the statement, not on how or where it
+ * was interpreted.
+ * <p/>
+ * A fingerprinter instance is stateful and should be used to fingerprint a single statement.
+ *
+ * @author agent
+ */
+public class StatementFingerprinter extends BaseSemanticQueryWalker<Object> {
+	private static final Map<Class,Long> NODE_KIND_HASHES = new ConcurrentHashMap<Class, Long>();
+
+	// markers distinguishing the different kinds of hashed values
+	private static final long NULL_MARKER = 0x6e756c6cL;
+	private static final long REFERENCE_MARKER = 0x72656665L;
+	private static final long ALIAS_MARKER = 0x616c6961L;
+	private static final long PLACEHOLDER_MARKER = 0x3f3f3f3fL;
+
+	/**
+	 * Calculate the fingerprint of the given statement.
+	 *
+	 * @param statement The statement
+	 *
+	 * @return The fingerprint
+	 */
+	public static StatementFingerprint fingerprint(Statement statement) {
+		return fingerprint( statement, false );
+	}
+
+	/**
+	 * Calculate the fingerprint of the given statement, optionally hashing literals by their type only
+	 * so that statements differing only in literal values share a fingerprint.
+	 *
+	 * @param statement The statement
+	 * @param literalsAsPlaceholders Whether to hash literals as placeholders rather than by value
+	 *
+	 * @return The fingerprint
+	 */
+	public static StatementFingerprint fingerprint(Statement statement, boolean literalsAsPlaceholders) {
+		final StatementFingerprinter fingerprinter = new StatementFingerprinter( literalsAsPlaceholders );
+		statement.accept( fingerprinter );
+		return fingerprinter.hasher.finish();
+	}
+
+	private final boolean literalsAsPlaceholders;
+	private final Murmur3Hasher hasher = new Murmur3Hasher();
+
+	// indexed by FromElement unique id : the ordinal of the FromElement plus 1 (0 meaning not yet encountered)
+	private int[] fromElementOrdinals = new int[8];
+	private int fromElementCount;
+	private final Map<String,Integer> aliasOrdinals = new HashMap<String, Integer>();
+	// implicit aliases are only rendered if referenced by a collection function
+	private final List<FromElement> implicitlyAliasedFromElements = new ArrayList<FromElement>();
+
+	protected StatementFingerprinter(boolean literalsAsPlaceholders) {
+		this.literalsAsPlaceholders = literalsAsPlaceholders;
+	}
+
+
+	// ~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+	// hashing
+
+	private void mixKind(Object node) {
+		final Class nodeClass = node.getClass();
+		Long kindHash = NODE_KIND_HASHES.get( nodeClass );
+		if ( kindHash == null ) {
+			kindHash = hashString( nodeClass.getName() );
+			NODE_KIND_HASHES.put( nodeClass, kindHash );
+		}
+		hasher.mix( kindHash );
+	}
+
+	private static long hashString(String value) {
+		final Murmur3Hasher stringHasher = new Murmur3Hasher();
+		stringHasher.mix( value );
+		return stringHasher.finish().getHigh();
+	}
+
+	private void mix(boolean value) {
+		hasher.mix( value ? 1L : 0L );
+	}
+
+	private void mix(long value) {
+		hasher.mix( value );
+	}
+
+	private void mix(String value) {
+		if ( value == null ) {
+			hasher.mix( NULL_MARKER );
+		}
+		else {
+			hasher.mix( value );
+		}
+	}
+
+	private void mix(Enum value) {
+		mix( value == null ? null : value.name() );
+	}
+
+	private void mix(Type type) {
+		mix( type == null ? null : type.getTypeName() );
+	}
+
+	private void mixValue(Object value) {
+		if ( value == null ) {
+			hasher.mix( NULL_MARKER );
+			return;
+		}
+
+		mix( value.getClass().getName() );
+		if ( value instanceof String ) {
+			hasher.mix( (String) value );
+		}
+		else if ( value instanceof Character ) {
+			hasher.mix( (Character) value );
+		}
+		else if ( value instanceof Integer || value instanceof Long || value instanceof Short || value instanceof Byte ) {
+			hasher.mix( ( (Number) value ).longValue() );
+		}
+		else if ( value instanceof Float ) {
+			hasher.mix( Float.floatToIntBits( (Float) value ) );
+		}
+		else if ( value instanceof Double ) {
+			hasher.mix( Double.doubleToLongBits( (Double) value ) );
+		}
+		else if ( value instanceof Boolean ) {
+			mix( ( (Boolean) value ).booleanValue() );
+		}
+		else if ( value instanceof Enum ) {
+			hasher.mix( ( (Enum) value ).name() );
+		}
+		else {
+			// BigInteger, BigDecimal, ...
+			hasher.mix( value.toString() );
+		}
+	}
+
+	private void mixLiteral(Expression literal, Object value) {
+		mixKind( literal );
+		if ( literalsAsPlaceholders ) {
+			hasher.mix( PLACEHOLDER_MARKER );
+		}
+		else {
+			mixValue( value );
+		}
+	}
+
+	private void mixAlias(String alias) {
+		if ( ImplicitAliasGenerator.isImplicitAlias( alias ) ) {
+			hasher.mix( NULL_MARKER );
+		}
+		else {
+			hasher.mix( ALIAS_MARKER );
+			hasher.mix( alias );
+		}
+	}
+
+	/**
+	 * Registers the FromElement, returning {@code false}, if it has not been encountered yet;
+	 * otherwise hashes a reference to it and returns {@code true}.
+	 */
+	private boolean mixReferenceIfKnown(FromElement fromElement) {
+		final int uid = fromElement.getUniqueId();
+		if ( uid >= fromElementOrdinals.length ) {
+			fromElementOrdinals = Arrays.copyOf( fromElementOrdinals, Math.max( uid + 1, fromElementOrdinals.length * 2 ) );
+		}
+		final int ordinal = fromElementOrdinals[uid] - 1;
+		if ( ordinal >= 0 ) {
+			hasher.mix( REFERENCE_MARKER );
+			hasher.mix( ordinal );
+			return true;
+		}
+
+		final int newOrdinal = fromElementCount++;
+		fromElementOrdinals[uid] = newOrdinal + 1;
+		if ( fromElement.isImplicitlyAliased() ) {
+			implicitlyAliasedFromElements.add( fromElement );
+		}
+		else {
+			aliasOrdinals.put( fromElement.getIdentificationVariable(), newOrdinal );
+		}
+		return false;
+	}
+
+	private void mixFromElementReference(FromElement fromElement) {
+		if ( !mixReferenceIfKnown( fromElement ) ) {
+			// not (yet) declared; hash it as a reference anyway
+			hasher.mix( REFERENCE_MARKER );
+			hasher.mix( fromElementOrdinals[fromElement.getUniqueId()] - 1 );
+		}
+	}
+
+	private void mixCollectionAlias(String collectionAlias) {
+		final Integer ordinal = aliasOrdinals.get( collectionAlias );
+		if ( ordinal != null ) {
+			hasher.mix( REFERENCE_MARKER );
+			hasher.mix( ordinal );
+			return;
+		}
+
+		if ( ImplicitAliasGenerator.isImplicitAlias( collectionAlias ) ) {
+			for ( FromElement fromElement : implicitlyAliasedFromElements ) {
+				if ( fromElement.getIdentificationVariable().equals( collectionAlias ) ) {
+					hasher.mix( REFERENCE_MARKER );
+					hasher.mix( fromElementOrdinals[fromElement.getUniqueId()] - 1 );
+					return;
+				}
+			}
+		}
+
+		mixAlias( collectionAlias );
+	}
+
+	private void mixAttributeBindingSource(AttributeBindingSource attributeBindingSource) {
+		if ( attributeBindingSource instanceof FromElement ) {
+			mixFromElementReference( (FromElement) attributeBindingSource );
+		}
+		else if ( attributeBindingSource instanceof Expression ) {
+			( (Expression) attributeBindingSource ).accept( this );
+		}
+		else {
+			hasher.mix( NULL_MARKER );
+		}
+	}
+
+	private void mixDowncasts(FromElement fromElement) {
+		mix( fromElement.getDowncasts().size() );
+		for ( Downcast downcast : fromElement.getDowncasts() ) {
+			mix( downcast.getTargetType() );
+		}
+	}
+
+
+	// ~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+	// statements
+
+	@Override
+	public Object visitSelectStatement(SelectStatement statement) {
+		mixKind( statement );
+		mix( statement.getOrderByClause() != null );
+		return super.visitSelectStatement( statement );
+	}
+
+	@Override
+	public Object visitUpdateStatement(UpdateStatement statement) {
+		mixKind( statement );
+		return super.visitUpdateStatement( statement );
+	}
+
+	@Override
+	public Object visitSetClause(SetClause setClause) {
+		mixKind( setClause );
+		mix( setClause.getAssignments().size() );
+		return super.visitSetClause( setClause );
+	}
+
+	@Override
+	public Object visitAssignment(Assignment assignment) {
+		mixKind( assignment );
+		return super.visitAssignment( assignment );
+	}
+
+	@Override
+	public Object visitInsertSelectStatement(InsertSelectStatement statement) {
+		mixKind( statement );
+		mix( statement.getStateFields().size() );
+		mix( statement.getSelectQuery() != null );
+		return super.visitInsertSelectStatement( statement );
+	}
+
+	@Override
+	public Object visitDeleteStatement(DeleteStatement statement) {
+		mixKind( statement );
+		return super.visitDeleteStatement( statement );
+	}
+
+	@Override
+	public Object visitQuerySpec(QuerySpec querySpec) {
+		mixKind( querySpec );
+		mix( querySpec.getWhereClause() != null );
+		return super.visitQuerySpec( querySpec );
+	}
+
+
+	// ~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+	// from-clause
+
+	@Override
+	public Object visitFromClause(FromClause fromClause) {
+		mixKind( fromClause );
+		mix( fromClause.getFromElementSpaces().size() );
+		return super.visitFromClause( fromClause );
+	}
+
+	@Override
+	public Object visitFromElementSpace(FromElementSpace fromElementSpace) {
+		mixKind( fromElementSpace );
+		mix( fromElementSpace.getJoins().size() );
+		return super.visitFromElementSpace( fromElementSpace );
+	}
+
+	@Override
+	public Object visitRootEntityFromElement(RootEntityFromElement rootEntityFromElement) {
+		if ( mixReferenceIfKnown( rootEntityFromElement ) ) {
+			return rootEntityFromElement;
+		}
+		mixKind( rootEntityFromElement );
+		mix( rootEntityFromElement.getBoundModelType() );
+		mixDowncasts( rootEntityFromElement );
+		return rootEntityFromElement;
+	}
+
+	@Override
+	public Object visitCrossJoinedFromElement(CrossJoinedFromElement joinedFromElement) {
+		if ( mixReferenceIfKnown( joinedFromElement ) ) {
+			return joinedFromElement;
+		}
+		mixKind( joinedFromElement );
+		mix( joinedFromElement.getBoundModelType() );
+		mixDowncasts( joinedFromElement );
+		return joinedFromElement;
+	}
+
+	@Override
+	public Object visitQualifiedEntityJoinFromElement(QualifiedEntityJoinFromElement joinedFromElement) {
+		if ( mixReferenceIfKnown( joinedFromElement ) ) {
+			return joinedFromElement;
+		}
+		mixKind( joinedFromElement );
+		mix( joinedFromElement.getBoundModelType() );
+		mix( joinedFromElement.getJoinType() );
+		mix( joinedFromElement.getOnClausePredicate() != null );
+		mixDowncasts( joinedFromElement );
+		return joinedFromElement;
+	}
+
+	@Override
+	public Object visitQualifiedAttributeJoinFromElement(QualifiedAttributeJoinFromElement joinedFromElement) {
+		if ( mixReferenceIfKnown( joinedFromElement ) ) {
+			return joinedFromElement;
+		}
+		mixKind( joinedFromElement );
+		mixAttributeBindingSource( joinedFromElement.getAttributeBindingSource() );
+		mix( joinedFromElement.getJoinedAttributeDescriptor().getName() );
+		mix( joinedFromElement.getIntrinsicSubclassIndicator() );
+		mix( joinedFromElement.getJoinType() );
+		mix( joinedFromElement.isFetched() );
+		mix( joinedFromElement.getOnClausePredicate() != null );
+		mixDowncasts( joinedFromElement );
+		return joinedFromElement;
+	}
+
+
+	// ~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+	// select-clause
+
+	@Override
+	public Object visitSelectClause(SelectClause selectClause) {
+		mixKind( selectClause );
+		mix( selectClause.isDistinct() );
+		mix( selectClause.getSelections().size() );
+		return super.visitSelectClause( selectClause );
+	}
+
+	@Override
+	public Object visitSelection(Selection selection) {
+		mixKind( selection );
+		mixAlias( selection.getAlias() );
+		return super.visitSelection( selection );
+	}
+
+	@Override
+	public Object visitDynamicInstantiation(DynamicInstantiation dynamicInstantiation) {
+		mixKind( dynamicInstantiation );
+		mix( dynamicInstantiation.getInstantiationTarget().getNature() );
+		mix( dynamicInstantiation.getInstantiationTarget().getTargetType() );
+		if ( dynamicInstantiation.getArguments() == null ) {
+			hasher.mix( NULL_MARKER );
+		}
+		else {
+			mix( dynamicInstantiation.getArguments().size() );
+			for ( DynamicInstantiationArgument argument : dynamicInstantiation.getArguments() ) {
+				mixAlias( argument.getAlias() );
+				argument.getExpression().accept( this );
+			}
+		}
+		return dynamicInstantiation;
+	}
+
+
+	// ~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+	// predicates
+
+	@Override
+	public Object visitWhereClause(WhereClause whereClause) {
+		mixKind( whereClause );
+		mix( whereClause.getPredicate() != null );
+		return super.visitWhereClause( whereClause );
+	}
+
+	@Override
+	public Object visitGroupedPredicate(GroupedPredicate predicate) {
+		mixKind( predicate );
+		return super.visitGroupedPredicate( predicate );
+	}
+
+	@Override
+	public Object visitAndPredicate(AndPredicate predicate) {
+		mixKind( predicate );
+		return super.visitAndPredicate( predicate );
+	}
+
+	@Override
+	public Object visitOrPredicate(OrPredicate predicate) {
+		mixKind( predicate );
+		return super.visitOrPredicate( predicate );
+	}
+
+	@Override
+	public Object visitJunctionPredicate(JunctionPredicate predicate) {
+		mixKind( predicate );
+		mix( predicate.getNature() );
+		mix( predicate.getPredicates().size() );
+		return super.visitJunctionPredicate( predicate );
+	}
+
+	@Override
+	public Object visitRelationalPredicate(RelationalPredicate predicate) {
+		mixKind( predicate );
+		mix( predicate.getType() );
+		return super.visitRelationalPredicate( predicate );
+	}
+
+	@Override
+	public Object visitIsEmptyPredicate(EmptinessPredicate predicate) {
+		mixKind( predicate );
+		mix( predicate.isNegated() );
+		return super.visitIsEmptyPredicate( predicate );
+	}
+
+	@Override
+	public Object visitIsNullPredicate(NullnessPredicate predicate) {
+		mixKind( predicate );
+		mix( predicate.isNegated() );
+		return super.visitIsNullPredicate( predicate );
+	}
+
+	@Override
+	public Object visitBetweenPredicate(BetweenPredicate predicate) {
+		mixKind( predicate );
+		mix( predicate.isNegated() );
+		return super.visitBetweenPredicate( predicate );
+	}
+
+	@Override
+	public Object visitLikePredicate(LikePredicate predicate) {
+		mixKind( predicate );
+		mix( predicate.isNegated() );
+		mix( predicate.getEscapeCharacter() != null );
+		return super.visitLikePredicate( predicate );
+	}
+
+	@Override
+	public Object visitMemberOfPredicate(MemberOfPredicate predicate) {
+		mixKind( predicate );
+		mix( predicate.isNegated() );
+		return super.visitMemberOfPredicate( predicate );
+	}
+
+	@Override
+	public Object visitNegatedPredicate(NegatedPredicate predicate) {
+		mixKind( predicate );
+		return super.visitNegatedPredicate( predicate );
+	}
+
+	@Override
+	public Object visitInListPredicate(InListPredicate predicate) {
+		mixKind( predicate );
+		mix( predicate.isNegated() );
+		mix( predicate.getListExpressions().size() );
+		return super.visitInListPredicate( predicate );
+	}
+
+	@Override
+	public Object visitLiteralInListPredicate(LiteralInListPredicate predicate) {
+		mixKind( predicate );
+		mix( predicate.isNegated() );
+		mix( predicate.getSize() );
+		mix( predicate.getValueKind() );
+		mix( predicate.getValueType() );
+		if ( literalsAsPlaceholders ) {
+			hasher.mix( PLACEHOLDER_MARKER );
+		}
+		else if ( predicate.getValueKind() == LiteralInListPredicate.ValueKind.STRING ) {
+			for ( int i = 0; i < predicate.getSize(); i++ ) {
+				mix( predicate.getStringValue( i ) );
+			}
+		}
+		else {
+			for ( int i = 0; i < predicate.getSize(); i++ ) {
+				mix( predicate.getLongValue( i ) );
+			}
+		}
+		return super.visitLiteralInListPredicate( predicate );
+	}
+
+	@Override
+	public Object visitInSubQueryPredicate(InSubQueryPredicate predicate) {
+		mixKind( predicate );
+		mix( predicate.isNegated() );
+		return super.visitInSubQueryPredicate( predicate );
+	}
+
+
+	// ~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+	// order-by
+
+	@Override
+	public Object visitOrderByClause(OrderByClause orderByClause) {
+		mixKind( orderByClause );
+		mix( orderByClause.getSortSpecifications().size() );
+		return super.visitOrderByClause( orderByClause );
+	}
+
+	@Override
+	public Object visitSortSpecification(SortSpecification sortSpecification) {
+		mixKind( sortSpecification );
+		mix( sortSpecification.getCollation() );
+		mix( sortSpecification.getSortOrder() );
+		return super.visitSortSpecification( sortSpecification );
+	}
+
+
+	// ~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+	// expressions
+
+	@Override
+	public Object visitPositionalParameterExpression(PositionalParameterExpression expression) {
+		mixKind( expression );
+		mix( expression.getPosition() );
+		return expression;
+	}
+
+	@Override
+	public Object visitNamedParameterExpression(NamedParameterExpression expression) {
+		mixKind( expression );
+		mix( expression.getName() );
+		return expression;
+	}
+
+	@Override
+	public Object visitSyntheticParameterExpression(SyntheticParameterExpression expression) {
+		mixKind( expression );
+		hasher.mix( PLACEHOLDER_MARKER );
+		mix( expression.getSyntheticPosition() );
+		return expression;
+	}
+
+	@Override
+	public Object visitEntityTypeExpression(EntityTypeExpression expression) {
+		mixKind( expression );
+		mix( expression.getExpressionType() );
+		return expression;
+	}
+
+	@Override
+	public Object visitUnaryOperationExpression(UnaryOperationExpression expression) {
+		mixKind( expression );
+		mix( expression.getOperation() );
+		return super.visitUnaryOperationExpression( expression );
+	}
+
+	@Override
+	public Object visitAttributeReferenceExpression(AttributeReferenceExpression expression) {
+		mixKind( expression );
+		mixAttributeBindingSource( expression.getAttributeBindingSource() );
+		mix( expression.getBoundAttribute().getName() );
+		return expression;
+	}
+
+	@Override
+	public Object visitFunctionExpression(FunctionExpression expression) {
+		mixKind( expression );
+		mix( expression.getFunctionName() );
+		mix( expression.getExpressionType() );
+		mix( expression.getArguments().size() );
+		return super.visitFunctionExpression( expression );
+	}
+
+	@Override
+	public Object visitAvgFunction(AvgFunction expression) {
+		mixKind( expression );
+		mix( expression.isDistinct() );
+		return super.visitAvgFunction( expression );
+	}
+
+	@Override
+	public Object visitCountStarFunction(CountStarFunction expression) {
+		mixKind( expression );
+		mix( expression.isDistinct() );
+		return expression;
+	}
+
+	@Override
+	public Object visitCountFunction(CountFunction expression) {
+		mixKind( expression );
+		mix( expression.isDistinct() );
+		return super.visitCountFunction( expression );
+	}
+
+	@Override
+	public Object visitMaxFunction(MaxFunction expression) {
+		mixKind( expression );
+		mix( expression.isDistinct() );
+		return super.visitMaxFunction( expression );
+	}
+
+	@Override
+	public Object visitMinFunction(MinFunction expression) {
+		mixKind( expression );
+		mix( expression.isDistinct() );
+		return super.visitMinFunction( expression );
+	}
+
+	@Override
+	public Object visitSumFunction(SumFunction expression) {
+		mixKind( expression );
+		mix( expression.isDistinct() );
+		return super.visitSumFunction( expression );
+	}
+
+	@Override
+	public Object visitCollectionSizeFunction(CollectionSizeFunction function) {
+		mixKind( function );
+		if ( function.getPluralAttributeBinding() instanceof FromElement ) {
+			mixFromElementReference( (FromElement) function.getPluralAttributeBinding() );
+		}
+		else if ( function.getPluralAttributeBinding() instanceof Expression ) {
+			( (Expression) function.getPluralAttributeBinding() ).accept( this );
+		}
+		else {
+			hasher.mix( NULL_MARKER );
+		}
+		return function;
+	}
+
+	@Override
+	public Object visitCollectionValueFunction(CollectionValuePathExpression function) {
+		mixKind( function );
+		mixFromElementReference( function.getPluralAttributeBinding() );
+		return function;
+	}
+
+	@Override
+	public Object visitCollectionIndexFunction(CollectionIndexFunction function) {
+		mixKind( function );
+		mixCollectionAlias( function.getCollectionAlias() );
+		return function;
+	}
+
+	@Override
+	public Object visitMapKeyFunction(MapKeyPathExpression function) {
+		mixKind( function );
+		mixFromElementReference( function.getFromElement() );
+		return function;
+	}
+
+	@Override
+	public Object visitMapEntryFunction(MapEntryFunction function) {
+		mixKind( function );
+		mixCollectionAlias( function.getCollectionAlias() );
+		return function;
+	}
+
+	@Override
+	public Object visitMaxElementFunction(MaxElementFunction function) {
+		mixKind( function );
+		mixCollectionAlias( function.getCollectionAlias() );
+		return function;
+	}
+
+	@Override
+	public Object visitMinElementFunction(MinElementFunction function) {
+		mixKind( function );
+		mixCollectionAlias( function.getCollectionAlias() );
+		return function;
+	}
+
+	@Override
+	public Object visitMaxIndexFunction(MaxIndexFunction function) {
+		mixKind( function );
+		mixCollectionAlias( function.getCollectionAlias() );
+		return function;
+	}
+
+	@Override
+	public Object visitMinIndexFunction(MinIndexFunction function) {
+		mixKind( function );
+		mixCollectionAlias( function.getCollectionAlias() );
+		return function;
+	}
+
+	@Override
+	public Object visitLiteralStringExpression(LiteralStringExpression expression) {
+		mixLiteral( expression, expression.getLiteralValue() );
+		return expression;
+	}
+
+	@Override
+	public Object visitLiteralCharacterExpression(LiteralCharacterExpression expression) {
+		mixLiteral( expression, expression.getLiteralValue() );
+		return expression;
+	}
+
+	@Override
+	public Object visitLiteralDoubleExpression(LiteralDoubleExpression expression) {
+		mixLiteral( expression, expression.getLiteralValue() );
+		return expression;
+	}
+
+	@Override
+	public Object visitLiteralIntegerExpression(LiteralIntegerExpression expression) {
+		mixLiteral( expression, expression.getLiteralValue() );
+		return expression;
+	}
+
+	@Override
+	public Object visitLiteralBigIntegerExpression(LiteralBigIntegerExpression expression) {
+		mixLiteral( expression, expression.getLiteralValue() );
+		return expression;
+	}
+
+	@Override
+	public Object visitLiteralBigDecimalExpression(LiteralBigDecimalExpression expression) {
+		mixLiteral( expression, expression.getLiteralValue() );
+		return expression;
+	}
+
+	@Override
+	public Object visitLiteralFloatExpression(LiteralFloatExpression expression) {
+		mixLiteral( expression, expression.getLiteralValue() );
+		return expression;
+	}
+
+	@Override
+	public Object visitLiteralLongExpression(LiteralLongExpression expression) {
+		mixLiteral( expression, expression.getLiteralValue() );
+		return expression;
+	}
+
+	// NOTE : true, false and null are semantically significant and so are always hashed "by value"
+
+	@Override
+	public Object visitLiteralTrueExpression(LiteralTrueExpression expression) {
+		mixKind( expression );
+		return expression;
+	}
+
+	@Override
+	public Object visitLiteralFalseExpression(LiteralFalseExpression expression) {
+		mixKind( expression );
+		return expression;
+	}
+
+	@Override
+	public Object visitLiteralNullExpression(LiteralNullExpression expression) {
+		mixKind( expression );
+		return expression;
+	}
+
+	@Override
+	public Object visitConcatExpression(ConcatExpression expression) {
+		mixKind( expression );
+		return super.visitConcatExpression( expression );
+	}
+
+	@Override
+	public Object visitConcatListExpression(ConcatListExpression expression) {
+		mixKind( expression );
+		mix( expression.getOperands().size() );
+		return super.visitConcatListExpression( expression );
+	}
+
+	@Override
+	public Object visitConstantEnumExpression(ConstantEnumExpression expression) {
+		mixKind( expression );
+		mixValue( expression.getValue() );
+		return expression;
+	}
+
+	@Override
+	public Object visitConstantFieldExpression(ConstantFieldExpression expression) {
+		mixKind( expression );
+		mixValue( expression.getValue() );
+		return expression;
+	}
+
+	@Override
+	public Object visitBinaryArithmeticExpression(BinaryArithmeticExpression expression) {
+		mixKind( expression );
+		mix( expression.getOperation() );
+		return super.visitBinaryArithmeticExpression( expression );
+	}
+
+	@Override
+	public Object visitSubQueryExpression(SubQueryExpression expression) {
+		mixKind( expression );
+		return super.visitSubQueryExpression( expression );
+	}
+
+	@Override
+	public Object visitSimpleCaseExpression(CaseSimpleExpression expression) {
+		mixKind( expression );
+		mix( expression.getWhenFragments().size() );
+		mix( expression.getOtherwise() != null );
+		return super.visitSimpleCaseExpression( expression );
+	}
+
+	@Override
+	public Object visitSearchedCaseExpression(CaseSearchedExpression expression) {
+		mixKind( expression );
+		mix( expression.getWhenFragments().size() );
+		mix( expression.getOtherwise() != null );
+		return super.visitSearchedCaseExpression( expression );
+	}
+
+	@Override
+	public Object visitCoalesceExpression(CoalesceExpression expression) {
+		mixKind( expression );
+		mix( expression.getValues().size() );
+		return super.visitCoalesceExpression( expression );
+	}
+
+	@Override
+	public Object visitNullifExpression(NullifExpression expression) {
+		mixKind( expression );
+		return super.visitNullifExpression( expression );
+	}
+
+
+	/**
+	 * Streaming implementation of the x64, 128-bit variant of MurmurHash3 operating on whole longs
+	 * (chars are packed 4 to a long).
+	 */
+	private static class Murmur3Hasher {
+		private static final long C1 = 0x87c37b91114253d5L;
+		private static final long C2 = 0x4cf5ad432745937fL;
+
+		private long h1;
+		private long h2;
+
+		private long pending;
+		private boolean hasPending;
+		private long length;
+
+		private void mix(long value) {
+			length += 8;
+			if ( !hasPending ) {
+				pending = value;
+				hasPending = true;
+				return;
+			}
+
+			hasPending = false;
+			h1 ^= mixK1( pending );
+			h1 = Long.rotateLeft( h1, 27 );
+			h1 += h2;
+			h1 = h1 * 5 + 0x52dce729;
+
+			h2 ^= mixK2( value );
+			h2 = Long.rotateLeft( h2, 31 );
+			h2 += h1;
+			h2 = h2 * 5 + 0x38495ab5;
+		}
+
+		private void mix(String value) {
+			final int length = value.length();
+			mix( length );
+			long word = 0;
+			for ( int i = 0; i < length; i++ ) {
+				word = ( word << 16 ) | value.charAt( i );
+				if ( ( i & 3 ) == 3 ) {
+					mix( word );
+					word = 0;
+				}
+			}
+			if ( ( length & 3 ) != 0 ) {
+				mix( word );
+			}
+		}
+
+		private StatementFingerprint finish() {
+			if ( hasPending ) {
+				h1 ^= mixK1( pending );
+			}
+
+			h1 ^= length;
+			h2 ^= length;
+
+			h1 += h2;
+			h2 += h1;
+
+			h1 = fmix64( h1 );
+			h2 = fmix64( h2 );
+
+			h1 += h2;
+			h2 += h1;
+
+			return new StatementFingerprint( h1, h2 );
+		}
+
+		private static long mixK1(long k1) {
+			k1 *= C1;
+			k1 = Long.rotateLeft( k1, 31 );
+			k1 *= C2;
+			return k1;
+		}
+
+		private static long mixK2(long k2) {
+			k2 *= C2;
+			k2 = Long.rotateLeft( k2, 33 );
+			k2 *= C1;
+			return k2;
+		}
+
+		private static long fmix64(long k) {
+			k ^= k >>> 33;
+			k *= 0xff51afd7ed558ccdL;
+			k ^= k >>> 33;
+			k *= 0xc4ceb9fe1a85ec53L;
+			k ^= k >>> 33;
+			return k;
+		}
+	}
+}
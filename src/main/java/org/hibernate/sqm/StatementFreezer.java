@@ -0,0 +1,129 @@
+/*
+ * Hibernate, Relational Persistence for Idiomatic Java
+ *
+ * License: Apache License, Version 2.0
+ * See the LICENSE file in the root directory or visit http://www.apache.org/licenses/LICENSE-2.0
+ */
+package org.hibernate.sqm;
+
+import org.hibernate.sqm.query.expression.AbstractLiteralExpressionImpl;
+import org.hibernate.sqm.query.expression.CaseSearchedExpression;
+import org.hibernate.sqm.query.expression.CaseSimpleExpression;
+import org.hibernate.sqm.query.expression.CoalesceExpression;
+import org.hibernate.sqm.query.expression.ConcatListExpression;
+import org.hibernate.sqm.query.expression.ConstantEnumExpression;
+import org.hibernate.sqm.query.expression.ConstantFieldExpression;
+import org.hibernate.sqm.query.expression.FunctionExpression;
+import org.hibernate.sqm.query.expression.NamedParameterExpression;
+import org.hibernate.sqm.query.expression.PositionalParameterExpression;
+import org.hibernate.sqm.query.expression.SyntheticParameterExpression;
+import org.hibernate.sqm.query.expression.UnaryOperationExpression;
+import org.hibernate.sqm.query.from.AbstractFromElement;
+import org.hibernate.sqm.query.from.FromClause;
+import org.hibernate.sqm.query.from.FromElement;
+import org.hibernate.sqm.query.from.FromElementSpace;
+import org.hibernate.sqm.query.from.FromElementTable;
+import org.hibernate.sqm.query.order.OrderByClause;
+import org.hibernate.sqm.query.predicate.InListPredicate;
+import org.hibernate.sqm.query.predicate.JunctionPredicate;
+import org.hibernate.sqm.query.predicate.WhereClause;
+import org.hibernate.sqm.query.select.DynamicInstantiation;
+import org.hibernate.sqm.query.select.SelectClause;
+import org.hibernate.sqm.query.set.SetClause;
+
+/**
+ * Walks a statement tree freezing each of its mutable nodes, children before their parent.  The walk
+ * is {@link SemanticQueryTraversal non-recursive}, so that statements of any depth can be frozen.
+ * The FromElements are collected along the way, into the statement's table of FromElements.
+ *
+ * @author agent
+ *
+ * @see org.hibernate.sqm.query.Statement#freeze()
+ */
+public class StatementFreezer implements SemanticQueryTraversal.Callback {
+	private final FromElementTable fromElementTable = new FromElementTable();
+
+	/**
+	 * @return The FromElements of the frozen statement, indexed by their unique id
+	 */
+	public FromElement[] getFromElements() {
+		return fromElementTable.toArray();
+	}
+
+	@Override
+	public boolean enter(Object node) {
+		return true;
+	}
+
+	@Override
+	public void leave(Object node) {
+		// NOTE : the Statement itself is not frozen here; this is called from Statement#freeze()
+		if ( node instanceof AbstractFromElement ) {
+			( (AbstractFromElement) node ).freeze();
+			fromElementTable.put( (FromElement) node );
+		}
+		else if ( node instanceof FunctionExpression ) {
+			( (FunctionExpression) node ).freeze();
+		}
+		else if ( node instanceof InListPredicate ) {
+			( (InListPredicate) node ).freeze();
+		}
+		else if ( node instanceof JunctionPredicate ) {
+			( (JunctionPredicate) node ).freeze();
+		}
+		else if ( node instanceof ConcatListExpression ) {
+			( (ConcatListExpression) node ).freeze();
+		}
+		else if ( node instanceof WhereClause ) {
+			( (WhereClause) node ).freeze();
+		}
+		else if ( node instanceof FromElementSpace ) {
+			( (FromElementSpace) node ).freeze();
+		}
+		else if ( node instanceof FromClause ) {
+			( (FromClause) node ).freeze();
+		}
+		else if ( node instanceof SelectClause ) {
+			( (SelectClause) node ).freeze();
+		}
+		else if ( node instanceof OrderByClause ) {
+			( (OrderByClause) node ).freeze();
+		}
+		else if ( node instanceof SetClause ) {
+			( (SetClause) node ).freeze();
+		}
+		else if ( node instanceof DynamicInstantiation ) {
+			( (DynamicInstantiation) node ).freeze();
+		}
+		else if ( node instanceof CaseSimpleExpression ) {
+			( (CaseSimpleExpression) node ).freeze();
+		}
+		else if ( node instanceof CaseSearchedExpression ) {
+			( (CaseSearchedExpression) node ).freeze();
+		}
+		else if ( node instanceof CoalesceExpression ) {
+			( (CoalesceExpression) node ).freeze();
+		}
+		else if ( node instanceof AbstractLiteralExpressionImpl ) {
+			( (AbstractLiteralExpressionImpl) node ).freeze();
+		}
+		else if ( node instanceof UnaryOperationExpression ) {
+			( (UnaryOperationExpression) node ).freeze();
+		}
+		else if ( node instanceof NamedParameterExpression ) {
+			( (NamedParameterExpression) node ).freeze();
+		}
+		else if ( node instanceof PositionalParameterExpression ) {
+			( (PositionalParameterExpression) node ).freeze();
+		}
+		else if ( node instanceof SyntheticParameterExpression ) {
+			( (SyntheticParameterExpression) node ).freeze();
+		}
+		else if ( node instanceof ConstantEnumExpression ) {
+			( (ConstantEnumExpression) node ).freeze();
+		}
+		else if ( node instanceof ConstantFieldExpression ) {
+			( (ConstantFieldExpression) node ).freeze();
+		}
+	}
+}
@@ -0,0 +1,227 @@
+/*
+ * Hibernate, Relational Persistence for Idiomatic Java
+ *
+ * License: Apache License, Version 2.0
+ * See the LICENSE file in the root directory or visit http://www.apache.org/licenses/LICENSE-2.0
+ */
+package org.hibernate.sqm.cache;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.hibernate.sqm.StatementFingerprinter;
+import org.hibernate.sqm.cache.internal.BoundedConcurrentCache;
+import org.hibernate.sqm.parser.LiteralParameterizer;
+import org.hibernate.sqm.parser.ParameterizedStatement;
+import org.hibernate.sqm.query.Statement;
+import org.hibernate.sqm.query.StatementFingerprint;
+
+/**
+ * Opt-in, size-bounded cache of HQL/JPQL interpretations (the SQM {@link Statement}) for use with
+ * {@link org.hibernate.sqm.SemanticQueryInterpreter#interpret(String, org.hibernate.sqm.ConsumerContext, InterpretationCache)}.
+ * <p/>
+ * Lookups are lock-free and safe for concurrent use.  When the cache is full, the least recently
+ * used entries (approximated using CLOCK) are evicted.  Hit, miss and eviction counts are kept for
+ * monitoring.
+ * <p/>
+ * Note that cached Statements are shared between all callers asking for the same query, so callers
+ * should not mutate them.
+ * <p/>
+ * Optionally entries evicted from the cache are moved to an {@link OffHeapStatementTier}, which
+ * is consulted on a miss; entries found there are promoted back into the cache.
+ * <p/>
+ * Separately, the cache keeps {@link LiteralParameterizer parameterized} interpretations for use with
+ * {@link org.hibernate.sqm.SemanticQueryInterpreter#interpretParameterized}.  Queries differing only in
+ * (parameterizable) literal values share one parameterized Statement, each with its own values.  These
+ * entries are bounded the same way but are not moved to the off-heap tier.
+ *
+ * @author agent
+ */
+public class InterpretationCache {
+	public static final int DEFAULT_MAX_ENTRIES = 2048;
+
+	private final BoundedConcurrentCache<InterpretationCacheKey,Statement> statements;
+	private final OffHeapStatementTier offHeapTier;
+
+	private final BoundedConcurrentCache<InterpretationCacheKey,ParameterizedStatement> parameterizedStatements;
+	// the parameterized Statements shared by queries differing only in literal values
+	private final BoundedConcurrentCache<StatementFingerprint,ParameterizedStatement> parameterizedShapes;
+
+	private final AtomicLong hitCount = new AtomicLong();
+	private final AtomicLong missCount = new AtomicLong();
+	private final AtomicLong evictionCount = new AtomicLong();
+
+	public InterpretationCache() {
+		this( DEFAULT_MAX_ENTRIES );
+	}
+
+	public InterpretationCache(int maxEntries) {
+		this( maxEntries, null );
+	}
+
+	/**
+	 * Creates a cache backed by an off-heap tier.
+	 *
+	 * @param maxEntries The maximum number of entries kept on-heap
+	 * @param offHeapTier The tier receiving entries evicted from the cache; may be {@code null}
+	 */
+	public InterpretationCache(int maxEntries, final OffHeapStatementTier offHeapTier) {
+		this.offHeapTier = offHeapTier;
+		this.statements = new BoundedConcurrentCache<InterpretationCacheKey, Statement>(
+				maxEntries,
+				new BoundedConcurrentCache.EvictionListener<InterpretationCacheKey, Statement>() {
+					@Override
+					public void evicted(InterpretationCacheKey key, Statement value) {
+						evictionCount.incrementAndGet();
+						if ( offHeapTier != null ) {
+							offHeapTier.put( key, value );
+						}
+					}
+				}
+		);
+		this.parameterizedStatements = new BoundedConcurrentCache<InterpretationCacheKey, ParameterizedStatement>(
+				maxEntries
+		);
+		this.parameterizedShapes = new BoundedConcurrentCache<StatementFingerprint, ParameterizedStatement>(
+				maxEntries
+		);
+	}
+
+	/**
+	 * Locate a cached interpretation, recording the hit or miss.
+	 *
+	 * @param key The key for the interpretation
+	 *
+	 * @return The cached Statement, or {@code null}
+	 */
+	public Statement get(InterpretationCacheKey key) {
+		final Statement statement = statements.get( key );
+		if ( statement != null ) {
+			hitCount.incrementAndGet();
+			return statement;
+		}
+
+		if ( offHeapTier != null ) {
+			final Statement demoted = offHeapTier.get( key );
+			if ( demoted != null ) {
+				hitCount.incrementAndGet();
+				return statements.putIfAbsent( key, demoted );
+			}
+		}
+
+		missCount.incrementAndGet();
+		return null;
+	}
+
+	/**
+	 * Cache an interpretation.  If another thread raced us and already cached an
+	 * interpretation for the same key, that one is kept and returned.
+	 *
+	 * @param key The key for the interpretation
+	 * @param statement The interpretation
+	 *
+	 * @return The Statement to use.
+	 */
+	public Statement put(InterpretationCacheKey key, Statement statement) {
+		return statements.putIfAbsent( key, statement );
+	}
+
+	/**
+	 * Locate a cached parameterized interpretation, recording the hit or miss.
+	 *
+	 * @param key The key for the interpretation
+	 *
+	 * @return The cached parameterized Statement (along with the values of the query it was cached for),
+	 * or {@code null}
+	 */
+	public ParameterizedStatement getParameterized(InterpretationCacheKey key) {
+		final ParameterizedStatement parameterized = parameterizedStatements.get( key );
+		if ( parameterized != null ) {
+			hitCount.incrementAndGet();
+		}
+		else {
+			missCount.incrementAndGet();
+		}
+		return parameterized;
+	}
+
+	/**
+	 * Parameterize an interpretation and cache the result.  If a query differing only in literal values
+	 * was parameterized before, its parameterized Statement is used, with the values of this one.
+	 *
+	 * @param key The key for the interpretation
+	 * @param statement The (unparameterized) interpretation
+	 *
+	 * @return The parameterized Statement to use, along with the values extracted from {@code statement}
+	 */
+	public ParameterizedStatement putParameterized(InterpretationCacheKey key, Statement statement) {
+		ParameterizedStatement parameterized = LiteralParameterizer.parameterize( statement );
+
+		// the literals left inline are hashed by value : they carry meaning beyond it
+		final StatementFingerprint shapeKey = StatementFingerprinter.fingerprint( parameterized.getStatement() );
+		final ParameterizedStatement shape = parameterizedShapes.putIfAbsent( shapeKey, parameterized );
+		if ( shape != parameterized ) {
+			parameterized = new ParameterizedStatement(
+					shape.getStatement(),
+					shape.getSyntheticParameters(),
+					parameterized.getParameterValues()
+			);
+		}
+
+		return parameterizedStatements.putIfAbsent( key, parameterized );
+	}
+
+	/**
+	 * Clears the cache, including its off-heap tier.
+	 */
+	public void clear() {
+		statements.clear();
+		parameterizedStatements.clear();
+		parameterizedShapes.clear();
+		if ( offHeapTier != null ) {
+			offHeapTier.clear();
+		}
+	}
+
+	public int size() {
+		return statements.size();
+	}
+
+	/**
+	 * The number of distinct parameterized Statements cached
+	 */
+	public int getParameterizedShapeCount() {
+		return parameterizedShapes.size();
+	}
+
+	public int getMaxEntries() {
+		return statements.getMaxEntries();
+	}
+
+	public long getHitCount() {
+		return hitCount.get();
+	}
+
+	public long getMissCount() {
+		return missCount.get();
+	}
+
+	public long getEvictionCount() {
+		return evictionCount.get();
+	}
+
+	/**
+	 * The off-heap tier, if any
+	 */
+	public OffHeapStatementTier getOffHeapTier() {
+		return offHeapTier;
+	}
+
+	@Override
+	public String toString() {
+		return "InterpretationCache(size=" + size() + ", max=" + getMaxEntries()
+				+ ", hits=" + getHitCount() + ", misses=" + getMissCount()
+				+ ", evictions=" + getEvictionCount()
+				+ ( offHeapTier == null ? "" : ", offHeap=" + offHeapTier )
+				+ ")";
+	}
+}
@@ -0,0 +1,121 @@
+/*
+ * Hibernate, Relational Persistence for Idiomatic Java
+ *
+ * License: Apache License, Version 2.0
+ * See the LICENSE file in the root directory or visit http://www.apache.org/licenses/LICENSE-2.0
+ */
+package org.hibernate.sqm.cache;
+
+import org.hibernate.sqm.ConsumerContext;
+import org.hibernate.sqm.domain.DomainMetamodel;
+import org.hibernate.sqm.parser.HqlParseProfile;
+import org.hibernate.sqm.parser.QueryLimits;
+
+/**
+ * Identifies a cached interpretation.  Beyond the query text, the interpretation depends
+ * on whether strict JPQL compliance was in effect, on the parse profile (only
+ * {@link HqlParseProfile#FAIL_FAST} rejects some malformed queries outright), on the
+ * {@link QueryLimits} it had to stay within and on the metamodel the query was resolved
+ * against; the metamodel is compared by identity.
+ *
+ * @author agent
+ */
+public final class InterpretationCacheKey {
+	private final String query;
+	private final boolean strictJpaCompliance;
+	private final HqlParseProfile parseProfile;
+	private final QueryLimits queryLimits;
+	private final DomainMetamodel domainMetamodel;
+	private final int hashCode;
+
+	public InterpretationCacheKey(String query, boolean strictJpaCompliance, DomainMetamodel domainMetamodel) {
+		this( query, strictJpaCompliance, HqlParseProfile.STANDARD, QueryLimits.NONE, domainMetamodel );
+	}
+
+	public InterpretationCacheKey(
+			String query,
+			boolean strictJpaCompliance,
+			HqlParseProfile parseProfile,
+			QueryLimits queryLimits,
+			DomainMetamodel domainMetamodel) {
+		if ( query == null ) {
+			throw new IllegalArgumentException( "query cannot be null" );
+		}
+		if ( parseProfile == null ) {
+			throw new IllegalArgumentException( "parseProfile cannot be null" );
+		}
+		if ( queryLimits == null ) {
+			throw new IllegalArgumentException( "queryLimits cannot be null" );
+		}
+		this.query = query;
+		this.strictJpaCompliance = strictJpaCompliance;
+		this.parseProfile = parseProfile;
+		this.queryLimits = queryLimits;
+		this.domainMetamodel = domainMetamodel;
+
+		int result = query.hashCode();
+		result = 31 * result + ( strictJpaCompliance ? 1 : 0 );
+		result = 31 * result + parseProfile.ordinal();
+		result = 31 * result + queryLimits.hashCode();
+		result = 31 * result + System.identityHashCode( domainMetamodel );
+		this.hashCode = result;
+	}
+
+	public static InterpretationCacheKey from(String query, ConsumerContext consumerContext) {
+		return new InterpretationCacheKey(
+				query,
+				consumerContext.useStrictJpaCompliance(),
+				consumerContext.getHqlParseProfile(),
+				consumerContext.getQueryLimits(),
+				consumerContext.getDomainMetamodel()
+		);
+	}
+
+	public String getQuery() {
+		return query;
+	}
+
+	public boolean isStrictJpaCompliance() {
+		return strictJpaCompliance;
+	}
+
+	public HqlParseProfile getParseProfile() {
+		return parseProfile;
+	}
+
+	public QueryLimits getQueryLimits() {
+		return queryLimits;
+	}
+
+	public DomainMetamodel getDomainMetamodel() {
+		return domainMetamodel;
+	}
+
+	@Override
+	public boolean equals(Object o) {
+		if ( this == o ) {
+			return true;
+		}
+		if ( !( o instanceof InterpretationCacheKey ) ) {
+			return false;
+		}
+
+		final InterpretationCacheKey that = (InterpretationCacheKey) o;
+		return hashCode == that.hashCode
+				&& strictJpaCompliance == that.strictJpaCompliance
+				&& parseProfile == that.parseProfile
+				&& queryLimits.equals( that.queryLimits )
+				&& domainMetamodel == that.domainMetamodel
+				&& query.equals( that.query );
+	}
+
+	@Override
+	public int hashCode() {
+		return hashCode;
+	}
+
+	@Override
+	public String toString() {
+		return "InterpretationCacheKey(" + query + ", strict=" + strictJpaCompliance + ", " + parseProfile + ")";
+	}
+}
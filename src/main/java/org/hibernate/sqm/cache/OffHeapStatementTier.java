@@ -0,0 +1,211 @@
+/*
+ * Hibernate, Relational Persistence for Idiomatic Java
+ *
+ * License: Apache License, Version 2.0
+ * See the LICENSE file in the root directory or visit http://www.apache.org/licenses/LICENSE-2.0
+ */
+package org.hibernate.sqm.cache;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.Charset;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.hibernate.sqm.cache.internal.SlabStore;
+import org.hibernate.sqm.codec.StatementCodec;
+import org.hibernate.sqm.codec.StatementCodecException;
+import org.hibernate.sqm.parser.QueryLimits;
+import org.hibernate.sqm.query.Statement;
+
+import org.jboss.logging.Logger;
+
+/**
+ * Second, off-heap, tier for an {@link InterpretationCache}.  Statements evicted from the (on-heap)
+ * cache are {@link StatementCodec encoded} and kept, together with their query, in direct ByteBuffer
+ * slabs; when looked up again they are decoded and promoted back into the on-heap cache.
+ * <p/>
+ * The tier is bounded both in bytes and in entries; when full, the oldest entries are dropped
+ * (a slab at a time).  The heap used per entry is a slot in the index: 12 bytes, with the index kept
+ * at most 3/4 full, so 16 to 32 bytes per entry depending on {@code maxEntries}.
+ * <p/>
+ * Only interpretations against the codec's DomainMetamodel are kept; statements which cannot be
+ * encoded are simply not kept.
+ *
+ * @author agent
+ */
+public class OffHeapStatementTier {
+	private static final Logger log = Logger.getLogger( OffHeapStatementTier.class );
+
+	public static final int DEFAULT_SLAB_SIZE = 1024 * 1024;
+
+	private static final Charset KEY_CHARSET = Charset.forName( "UTF-8" );
+	private static final int LIMITS_SIZE = 5 * 4 + 8;
+
+	private final StatementCodec codec;
+	private final SlabStore store;
+
+	private final AtomicLong hitCount = new AtomicLong();
+	private final AtomicLong missCount = new AtomicLong();
+
+	/**
+	 * Creates a tier using slabs of {@link #DEFAULT_SLAB_SIZE}.
+	 *
+	 * @param codec The codec for encoding the statements
+	 * @param maxBytes The maximum number of (direct) bytes to use
+	 * @param maxEntries The maximum number of entries
+	 */
+	public OffHeapStatementTier(StatementCodec codec, long maxBytes, int maxEntries) {
+		this( codec, maxBytes, maxEntries, DEFAULT_SLAB_SIZE );
+	}
+
+	/**
+	 * Creates a tier.  Eviction drops a slab worth of entries at a time, and entries larger than a slab
+	 * are not kept.
+	 *
+	 * @param codec The codec for encoding the statements
+	 * @param maxBytes The maximum number of (direct) bytes to use; rounded down to a multiple of {@code slabSize}
+	 * @param maxEntries The maximum number of entries
+	 * @param slabSize The size of the individual direct buffers
+	 */
+	public OffHeapStatementTier(StatementCodec codec, long maxBytes, int maxEntries, int slabSize) {
+		this.codec = codec;
+		this.store = new SlabStore( maxBytes, slabSize, maxEntries );
+	}
+
+	/**
+	 * Locate and decode an entry, recording the hit or miss.
+	 *
+	 * @param key The key for the interpretation
+	 *
+	 * @return The (decoded) Statement, or {@code null}
+	 */
+	public Statement get(InterpretationCacheKey key) {
+		if ( !isApplicable( key ) ) {
+			return null;
+		}
+
+		final byte[] encoded = store.get( hash( key ), keyBytes( key ) );
+		if ( encoded == null ) {
+			missCount.incrementAndGet();
+			return null;
+		}
+		hitCount.incrementAndGet();
+		return codec.decode( encoded );
+	}
+
+	/**
+	 * Keep an interpretation, unless it is already kept.
+	 *
+	 * @param key The key for the interpretation
+	 * @param statement The interpretation
+	 *
+	 * @return {@code true} if the interpretation is kept now; {@code false} if it cannot be
+	 */
+	public boolean put(InterpretationCacheKey key, Statement statement) {
+		if ( !isApplicable( key ) ) {
+			return false;
+		}
+
+		final int hash = hash( key );
+		final byte[] keyBytes = keyBytes( key );
+		if ( store.contains( hash, keyBytes ) ) {
+			// e.g. an entry which was promoted and is now evicted from the on-heap cache again
+			return true;
+		}
+
+		final byte[] encoded;
+		try {
+			encoded = codec.encode( statement );
+		}
+		catch (StatementCodecException e) {
+			log.debugf( "Statement for query [%s] cannot be kept off-heap : %s", key.getQuery(), e.getMessage() );
+			return false;
+		}
+		return store.putIfAbsent( hash, keyBytes, encoded );
+	}
+
+	public void clear() {
+		store.clear();
+	}
+
+	public int size() {
+		return store.size();
+	}
+
+	public int getMaxEntries() {
+		return store.getMaxEntries();
+	}
+
+	public long getMaxBytes() {
+		return store.getMaxBytes();
+	}
+
+	/**
+	 * The number of bytes taken by the entries
+	 */
+	public long getUsedBytes() {
+		return store.getUsedBytes();
+	}
+
+	/**
+	 * The number of direct bytes allocated so far
+	 */
+	public long getAllocatedBytes() {
+		return store.getAllocatedBytes();
+	}
+
+	public long getHitCount() {
+		return hitCount.get();
+	}
+
+	public long getMissCount() {
+		return missCount.get();
+	}
+
+	public long getEvictionCount() {
+		return store.getEvictionCount();
+	}
+
+	private boolean isApplicable(InterpretationCacheKey key) {
+		return key.getDomainMetamodel() == codec.getDomainMetamodel();
+	}
+
+	private static int hash(InterpretationCacheKey key) {
+		int result = key.getQuery().hashCode();
+		result = 31 * result + flags( key );
+		result = 31 * result + key.getQueryLimits().hashCode();
+		return result;
+	}
+
+	private static byte[] keyBytes(InterpretationCacheKey key) {
+		final byte[] query = key.getQuery().getBytes( KEY_CHARSET );
+		final int flags = flags( key );
+		final QueryLimits limits = key.getQueryLimits();
+		// the limits are only written out if there are any
+		final ByteBuffer bytes = ByteBuffer.allocate( 1 + ( limits.isLimited() ? LIMITS_SIZE : 0 ) + query.length );
+		bytes.put( (byte) flags );
+		if ( limits.isLimited() ) {
+			bytes.putInt( limits.getMaxInputLength() );
+			bytes.putInt( limits.getMaxTokenCount() );
+			bytes.putInt( limits.getMaxNestingDepth() );
+			bytes.putInt( limits.getMaxJoinCount() );
+			bytes.putInt( limits.getMaxSubQueryCount() );
+			bytes.putLong( limits.getTimeout() );
+		}
+		bytes.put( query );
+		return bytes.array();
+	}
+
+	private static int flags(InterpretationCacheKey key) {
+		return ( key.isStrictJpaCompliance() ? 1 : 0 )
+				| ( key.getQueryLimits().isLimited() ? 2 : 0 )
+				| ( key.getParseProfile().ordinal() << 2 );
+	}
+
+	@Override
+	public String toString() {
+		return "OffHeapStatementTier(size=" + size() + ", max=" + getMaxEntries()
+				+ ", bytes=" + getUsedBytes() + ", maxBytes=" + getMaxBytes()
+				+ ", hits=" + getHitCount() + ", misses=" + getMissCount()
+				+ ", evictions=" + getEvictionCount() + ")";
+	}
+}
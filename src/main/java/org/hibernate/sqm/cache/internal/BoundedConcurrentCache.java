@@ -0,0 +1,168 @@
+/*
+ * Hibernate, Relational Persistence for Idiomatic Java
+ *
+ * License: Apache License, Version 2.0
+ * See the LICENSE file in the root directory or visit http://www.apache.org/licenses/LICENSE-2.0
+ */
+package org.hibernate.sqm.cache.internal;
+
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * A size-bounded concurrent map using CLOCK ("second chance") eviction, which
+ * approximates LRU without having to re-order anything on read.
+ * <p/>
+ * Reads never lock: a hit is a {@link ConcurrentHashMap} lookup plus (at most) a
+ * volatile write flagging the entry as recently referenced.  Only writes which push
+ * the cache over its bound take the eviction lock, and then only long enough to sweep
+ * the clock hand past entries that were not referenced since its last pass.
+ *
+ * @author agent
+ */
+public class BoundedConcurrentCache<K,V> {
+	/**
+	 * Callback for entries dropped from the cache due to its size bound
+	 */
+	public interface EvictionListener<K,V> {
+		void evicted(K key, V value);
+	}
+
+	private final int maxEntries;
+	private final EvictionListener<K,V> evictionListener;
+
+	private final ConcurrentMap<K,Entry<K,V>> entries;
+	private final Queue<Entry<K,V>> clock = new ConcurrentLinkedQueue<Entry<K,V>>();
+	private final AtomicInteger size = new AtomicInteger();
+	private final ReentrantLock evictionLock = new ReentrantLock();
+
+	public BoundedConcurrentCache(int maxEntries) {
+		this( maxEntries, null );
+	}
+
+	public BoundedConcurrentCache(int maxEntries, EvictionListener<K,V> evictionListener) {
+		if ( maxEntries < 1 ) {
+			throw new IllegalArgumentException( "maxEntries must be positive : " + maxEntries );
+		}
+		this.maxEntries = maxEntries;
+		this.evictionListener = evictionListener;
+		this.entries = new ConcurrentHashMap<K,Entry<K,V>>( Math.min( maxEntries, 1024 ), 0.75f, 16 );
+	}
+
+	public int getMaxEntries() {
+		return maxEntries;
+	}
+
+	public int size() {
+		return size.get();
+	}
+
+	public V get(K key) {
+		final Entry<K,V> entry = entries.get( key );
+		if ( entry == null ) {
+			return null;
+		}
+		if ( !entry.referenced ) {
+			// avoid the volatile write (and cache line invalidation) for already referenced entries
+			entry.referenced = true;
+		}
+		return entry.value;
+	}
+
+	/**
+	 * Adds the value to the cache unless an entry for the key already exists.
+	 *
+	 * @return The value now cached under key, which is the existing value if there was one
+	 */
+	public V putIfAbsent(K key, V value) {
+		final Entry<K,V> entry = new Entry<K,V>( key, value );
+		final Entry<K,V> existing = entries.putIfAbsent( key, entry );
+		if ( existing != null ) {
+			return existing.value;
+		}
+
+		clock.offer( entry );
+		if ( size.incrementAndGet() > maxEntries ) {
+			evict();
+		}
+		return value;
+	}
+
+	public V remove(K key) {
+		final Entry<K,V> entry = entries.remove( key );
+		if ( entry == null ) {
+			return null;
+		}
+		// the entry stays in the clock queue and is skipped when the hand reaches it
+		entry.removed = true;
+		size.decrementAndGet();
+		return entry.value;
+	}
+
+	public void clear() {
+		evictionLock.lock();
+		try {
+			// drain the clock rather than iterating and clearing it: an entry offered by a concurrent
+			// putIfAbsent is then either removed here along with the rest or stays in the clock
+			Entry<K,V> entry;
+			while ( ( entry = clock.poll() ) != null ) {
+				if ( entries.remove( entry.key, entry ) ) {
+					entry.removed = true;
+					size.decrementAndGet();
+				}
+			}
+		}
+		finally {
+			evictionLock.unlock();
+		}
+	}
+
+	private void evict() {
+		if ( !evictionLock.tryLock() ) {
+			// another thread is already sweeping; the bound is allowed to be exceeded briefly
+			return;
+		}
+		try {
+			while ( size.get() > maxEntries ) {
+				final Entry<K,V> candidate = clock.poll();
+				if ( candidate == null ) {
+					break;
+				}
+				if ( candidate.removed ) {
+					continue;
+				}
+				if ( candidate.referenced ) {
+					candidate.referenced = false;
+					clock.offer( candidate );
+					continue;
+				}
+				if ( entries.remove( candidate.key, candidate ) ) {
+					candidate.removed = true;
+					size.decrementAndGet();
+					if ( evictionListener != null ) {
+						evictionListener.evicted( candidate.key, candidate.value );
+					}
+				}
+			}
+		}
+		finally {
+			evictionLock.unlock();
+		}
+	}
+
+	private static final class Entry<K,V> {
+		private final K key;
+		private final V value;
+		private volatile boolean referenced;
+		private volatile boolean removed;
+
+		private Entry(K key, V value) {
+			this.key = key;
+			this.value = value;
+		}
+	}
+}
@@ -0,0 +1,356 @@
+/*
+ * Hibernate, Relational Persistence for Idiomatic Java
+ *
+ * License: Apache License, Version 2.0
+ * See the LICENSE file in the root directory or visit http://www.apache.org/licenses/LICENSE-2.0
+ */
+package org.hibernate.sqm.cache.internal;
+
+import java.nio.ByteBuffer;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * A bounded byte[] key/value store keeping both keys and values in direct (off-heap) ByteBuffer
+ * slabs.
+ * <p/>
+ * The slabs are written log-style: records are appended to the current slab and once it is full
+ * writing moves on to the next one, wrapping around.  Eviction is FIFO at slab granularity; a slab is
+ * emptied (dropping all of its records) right before it is written again, or when the entry bound is
+ * reached.  Slabs are allocated on first use.
+ * <p/>
+ * The only per-entry heap state is the index: an open-addressing (linear probing) table of the
+ * key hash and the record location - 12 bytes per slot, the table being kept at most 3/4 full.
+ * Records repeat their key hash, so that evicting a slab only touches the index slots of its own
+ * records (removed using backward-shift deletion) rather than rebuilding the table.
+ * <p/>
+ * Lookups share a read lock; writes take the write lock.
+ *
+ * @author agent
+ */
+public class SlabStore {
+	// key length, value length and (spread) key hash
+	private static final int RECORD_HEADER_SIZE = 12;
+	private static final int EMPTY = 0;
+
+	private final int slabSize;
+	private final int maxEntries;
+	private final ByteBuffer[] slabs;
+	private final int[] slabEntryCounts;
+
+	private final int[] hashes;
+	private final long[] locations;
+	private final int mask;
+
+	private int size;
+	private int currentSlab;
+	private int writeOffset;
+	private long usedBytes;
+	private long evictionCount;
+
+	private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+	public SlabStore(long maxBytes, int slabSize, int maxEntries) {
+		if ( slabSize <= RECORD_HEADER_SIZE ) {
+			throw new IllegalArgumentException( "slabSize is too small : " + slabSize );
+		}
+		if ( maxBytes < slabSize ) {
+			throw new IllegalArgumentException( "maxBytes must be at least slabSize : " + maxBytes );
+		}
+		if ( maxEntries < 1 ) {
+			throw new IllegalArgumentException( "maxEntries must be positive : " + maxEntries );
+		}
+		final long slabCount = maxBytes / slabSize;
+		if ( slabCount > Short.MAX_VALUE ) {
+			throw new IllegalArgumentException( "Too many slabs (" + slabCount + "); use a larger slabSize" );
+		}
+
+		this.slabSize = slabSize;
+		this.maxEntries = maxEntries;
+		this.slabs = new ByteBuffer[(int) slabCount];
+		this.slabEntryCounts = new int[slabs.length];
+
+		// keep the table at most 3/4 full; at least one slot must always stay empty
+		final int minimumCapacity = maxEntries + maxEntries / 3 + 1;
+		int capacity = Integer.highestOneBit( minimumCapacity );
+		if ( capacity < minimumCapacity ) {
+			capacity <<= 1;
+		}
+		this.hashes = new int[capacity];
+		this.locations = new long[capacity];
+		this.mask = capacity - 1;
+	}
+
+	/**
+	 * Locate the value stored for the key.
+	 *
+	 * @param hash The hash of the key
+	 * @param key The key
+	 *
+	 * @return A copy of the stored value, or {@code null}
+	 */
+	public byte[] get(int hash, byte[] key) {
+		lock.readLock().lock();
+		try {
+			final int slot = findSlot( spread( hash ), key );
+			if ( slot < 0 ) {
+				return null;
+			}
+			final ByteBuffer record = record( locations[slot] );
+			final int keyLength = record.getInt();
+			final byte[] value = new byte[record.getInt()];
+			record.position( record.position() + 4 + keyLength );
+			record.get( value );
+			return value;
+		}
+		finally {
+			lock.readLock().unlock();
+		}
+	}
+
+	public boolean contains(int hash, byte[] key) {
+		lock.readLock().lock();
+		try {
+			return findSlot( spread( hash ), key ) >= 0;
+		}
+		finally {
+			lock.readLock().unlock();
+		}
+	}
+
+	/**
+	 * Store the value for the key, unless a value is already stored for it.
+	 *
+	 * @param hash The hash of the key
+	 * @param key The key
+	 * @param value The value
+	 *
+	 * @return {@code false} if the record is too large for a slab, {@code true} otherwise
+	 */
+	public boolean putIfAbsent(int hash, byte[] key, byte[] value) {
+		final int recordSize = RECORD_HEADER_SIZE + key.length + value.length;
+		if ( recordSize > slabSize ) {
+			return false;
+		}
+
+		final int spreadHash = spread( hash );
+		lock.writeLock().lock();
+		try {
+			if ( findSlot( spreadHash, key ) >= 0 ) {
+				return true;
+			}
+
+			if ( size >= maxEntries ) {
+				evictOldestSlab();
+			}
+			if ( writeOffset + recordSize > slabSize ) {
+				currentSlab = ( currentSlab + 1 ) % slabs.length;
+				writeOffset = 0;
+				if ( slabEntryCounts[currentSlab] > 0 ) {
+					evictSlab( currentSlab );
+				}
+			}
+
+			ByteBuffer slab = slabs[currentSlab];
+			if ( slab == null ) {
+				slab = ByteBuffer.allocateDirect( slabSize );
+				slabs[currentSlab] = slab;
+			}
+			final ByteBuffer record = slab.duplicate();
+			record.position( writeOffset );
+			record.putInt( key.length );
+			record.putInt( value.length );
+			record.putInt( spreadHash );
+			record.put( key );
+			record.put( value );
+
+			insert( spreadHash, ( (long) currentSlab << 32 ) | writeOffset );
+			writeOffset += recordSize;
+			usedBytes += recordSize;
+			slabEntryCounts[currentSlab]++;
+			size++;
+			return true;
+		}
+		finally {
+			lock.writeLock().unlock();
+		}
+	}
+
+	public void clear() {
+		lock.writeLock().lock();
+		try {
+			for ( int i = 0; i < hashes.length; i++ ) {
+				hashes[i] = EMPTY;
+			}
+			for ( int i = 0; i < slabEntryCounts.length; i++ ) {
+				slabEntryCounts[i] = 0;
+			}
+			size = 0;
+			currentSlab = 0;
+			writeOffset = 0;
+			usedBytes = 0;
+		}
+		finally {
+			lock.writeLock().unlock();
+		}
+	}
+
+	public int size() {
+		lock.readLock().lock();
+		try {
+			return size;
+		}
+		finally {
+			lock.readLock().unlock();
+		}
+	}
+
+	/**
+	 * The number of bytes taken by the stored records
+	 */
+	public long getUsedBytes() {
+		lock.readLock().lock();
+		try {
+			return usedBytes;
+		}
+		finally {
+			lock.readLock().unlock();
+		}
+	}
+
+	/**
+	 * The number of bytes in direct buffers allocated so far
+	 */
+	public long getAllocatedBytes() {
+		lock.readLock().lock();
+		try {
+			long allocated = 0;
+			for ( ByteBuffer slab : slabs ) {
+				if ( slab != null ) {
+					allocated += slab.capacity();
+				}
+			}
+			return allocated;
+		}
+		finally {
+			lock.readLock().unlock();
+		}
+	}
+
+	public long getEvictionCount() {
+		lock.readLock().lock();
+		try {
+			return evictionCount;
+		}
+		finally {
+			lock.readLock().unlock();
+		}
+	}
+
+	public int getMaxEntries() {
+		return maxEntries;
+	}
+
+	public long getMaxBytes() {
+		return (long) slabs.length * slabSize;
+	}
+
+	private static int spread(int hash) {
+		final int spread = hash ^ ( hash >>> 16 );
+		return spread == EMPTY ? 1 : spread;
+	}
+
+	private int findSlot(int spreadHash, byte[] key) {
+		int slot = spreadHash & mask;
+		while ( hashes[slot] != EMPTY ) {
+			if ( hashes[slot] == spreadHash && keyMatches( locations[slot], key ) ) {
+				return slot;
+			}
+			slot = ( slot + 1 ) & mask;
+		}
+		return -1;
+	}
+
+	private boolean keyMatches(long location, byte[] key) {
+		final ByteBuffer slab = slabs[(int) ( location >>> 32 )];
+		final int offset = (int) location;
+		if ( slab.getInt( offset ) != key.length ) {
+			return false;
+		}
+		final int keyOffset = offset + RECORD_HEADER_SIZE;
+		for ( int i = 0; i < key.length; i++ ) {
+			if ( slab.get( keyOffset + i ) != key[i] ) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	private ByteBuffer record(long location) {
+		final ByteBuffer record = slabs[(int) ( location >>> 32 )].duplicate();
+		record.position( (int) location );
+		return record;
+	}
+
+	private void insert(int spreadHash, long location) {
+		int slot = spreadHash & mask;
+		while ( hashes[slot] != EMPTY ) {
+			slot = ( slot + 1 ) & mask;
+		}
+		hashes[slot] = spreadHash;
+		locations[slot] = location;
+	}
+
+	private void evictOldestSlab() {
+		for ( int i = 1; i <= slabs.length; i++ ) {
+			final int candidate = ( currentSlab + i ) % slabs.length;
+			if ( slabEntryCounts[candidate] > 0 ) {
+				evictSlab( candidate );
+				if ( candidate == currentSlab ) {
+					writeOffset = 0;
+				}
+				return;
+			}
+		}
+	}
+
+	private void evictSlab(int slab) {
+		// the slab's live records are the ones written since it was last emptied, back to back
+		// from its start; drop each of them from the index
+		final ByteBuffer buffer = slabs[slab];
+		int offset = 0;
+		for ( int i = 0; i < slabEntryCounts[slab]; i++ ) {
+			final int recordSize = RECORD_HEADER_SIZE + buffer.getInt( offset ) + buffer.getInt( offset + 4 );
+			removeSlot( slotOf( buffer.getInt( offset + 8 ), ( (long) slab << 32 ) | offset ) );
+			usedBytes -= recordSize;
+			size--;
+			evictionCount++;
+			offset += recordSize;
+		}
+		slabEntryCounts[slab] = 0;
+	}
+
+	private int slotOf(int spreadHash, long location) {
+		int slot = spreadHash & mask;
+		while ( locations[slot] != location || hashes[slot] == EMPTY ) {
+			slot = ( slot + 1 ) & mask;
+		}
+		return slot;
+	}
+
+	private void removeSlot(int slot) {
+		// backward-shift deletion : move later entries of the probe sequence into the hole unless
+		// that would put them before their home slot, so that no probe sequence is left broken
+		int hole = slot;
+		int next = ( hole + 1 ) & mask;
+		while ( hashes[next] != EMPTY ) {
+			final int home = hashes[next] & mask;
+			if ( ( ( next - home ) & mask ) >= ( ( next - hole ) & mask ) ) {
+				hashes[hole] = hashes[next];
+				locations[hole] = locations[next];
+				hole = next;
+			}
+			next = ( next + 1 ) & mask;
+		}
+		hashes[hole] = EMPTY;
+	}
+}
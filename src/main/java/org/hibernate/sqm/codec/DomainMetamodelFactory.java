@@ -0,0 +1,25 @@
+/*
+ * Hibernate, Relational Persistence for Idiomatic Java
+ *
+ * License: Apache License, Version 2.0
+ * See the LICENSE file in the root directory or visit http://www.apache.org/licenses/LICENSE-2.0
+ */
+package org.hibernate.sqm.codec;
+
+import org.hibernate.sqm.domain.DomainMetamodel;
+
+/**
+ * Supplies the DomainMetamodel that {@link QueryArchiveBuilder} interprets queries against
+ * at build time.  Implementations need a public no-arg constructor.
+ *
+ * @author agent
+ */
+public interface DomainMetamodelFactory {
+	/**
+	 * Build the metamodel.  It must describe the same domain model as the metamodel the
+	 * archive will be decoded against at runtime.
+	 *
+	 * @return The metamodel
+	 */
+	DomainMetamodel buildDomainMetamodel();
+}
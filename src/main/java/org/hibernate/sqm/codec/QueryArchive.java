@@ -0,0 +1,271 @@
+/*
+ * Hibernate, Relational Persistence for Idiomatic Java
+ *
+ * License: Apache License, Version 2.0
+ * See the LICENSE file in the root directory or visit http://www.apache.org/licenses/LICENSE-2.0
+ */
+package org.hibernate.sqm.codec;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+import org.hibernate.sqm.query.Statement;
+import org.hibernate.sqm.query.StatementFingerprint;
+
+/**
+ * Read access to an archive of pre-interpreted statements, as written by {@link QueryArchiveWriter}
+ * (generally through {@link QueryArchiveBuilder} at build time).
+ * <p/>
+ * Only the index is read when the archive is opened; the archive file itself is memory-mapped and
+ * each statement is decoded on its first lookup (and kept from then on).  Looking up a
+ * pre-interpreted statement therefore never involves the HQL parser.
+ * <p/>
+ * Thread-safe.  Concurrent first lookups of the same statement may each decode it, but all
+ * callers then see the same Statement instance.  That includes names (and fingerprints) sharing one
+ * encoded statement in the archive.
+ *
+ * @author agent
+ */
+public class QueryArchive {
+	/**
+	 * The leading bytes of every archive
+	 */
+	public static final byte[] MAGIC = new byte[] { 'S', 'Q', 'M', 'A' };
+
+	/**
+	 * The version of the archive layout (not of the encoded statements, see
+	 * {@link StatementCodec#FORMAT_VERSION})
+	 */
+	public static final int ARCHIVE_VERSION = 1;
+
+	static final Charset NAME_CHARSET = Charset.forName( "UTF-8" );
+
+	private final StatementCodec codec;
+	private final ByteBuffer data;
+
+	private final List<String> names;
+	private final StatementFingerprint[] fingerprints;
+	private final int[] offsets;
+	private final int[] lengths;
+	// for each position the first position with the same encoded statement; decoded statements are kept there
+	private final int[] payloadPositions;
+
+	private final Map<String,Integer> positionsByName;
+	private final Map<StatementFingerprint,Integer> positionsByFingerprint;
+
+	private final AtomicReferenceArray<Statement> statements;
+
+	/**
+	 * Open (memory-map) the given archive file.  The file must not be modified while the
+	 * archive is in use.
+	 *
+	 * @param file The archive file
+	 * @param codec The codec to decode statements with; its DomainMetamodel must describe the same
+	 * domain model the archive was built against
+	 *
+	 * @return The archive
+	 *
+	 * @throws IOException Indicates a problem reading the file
+	 * @throws StatementCodecException If the file is not an archive, or one of a different version
+	 */
+	public static QueryArchive open(File file, StatementCodec codec) throws IOException {
+		final RandomAccessFile randomAccessFile = new RandomAccessFile( file, "r" );
+		try {
+			final FileChannel channel = randomAccessFile.getChannel();
+			// the mapping stays valid after the channel is closed
+			return new QueryArchive( channel.map( FileChannel.MapMode.READ_ONLY, 0, channel.size() ), codec );
+		}
+		finally {
+			randomAccessFile.close();
+		}
+	}
+
+	/**
+	 * Read an archive from the given buffer, starting at its current position and extending to its limit.
+	 *
+	 * @param buffer The archive content
+	 * @param codec The codec to decode statements with
+	 *
+	 * @return The archive
+	 *
+	 * @throws StatementCodecException If the buffer does not contain an archive, or one of a different version
+	 */
+	public static QueryArchive from(ByteBuffer buffer, StatementCodec codec) {
+		return new QueryArchive( buffer, codec );
+	}
+
+	private QueryArchive(ByteBuffer buffer, StatementCodec codec) {
+		this.codec = codec;
+
+		final ByteBuffer index = buffer.duplicate();
+		index.order( ByteOrder.BIG_ENDIAN );
+		try {
+			for ( byte expected : MAGIC ) {
+				if ( index.get() != expected ) {
+					throw new StatementCodecException( "Not a query archive" );
+				}
+			}
+			final int archiveVersion = index.getInt();
+			if ( archiveVersion != ARCHIVE_VERSION ) {
+				throw new StatementCodecException(
+						"Unsupported query archive version [" + archiveVersion + "]; expecting " + ARCHIVE_VERSION
+				);
+			}
+			final int formatVersion = index.getInt();
+			if ( formatVersion != StatementCodec.FORMAT_VERSION ) {
+				throw new StatementCodecException(
+						"Query archive contains statements in format version [" + formatVersion
+								+ "]; expecting " + StatementCodec.FORMAT_VERSION
+				);
+			}
+
+			final int count = index.getInt();
+			final String[] names = new String[count];
+			this.fingerprints = new StatementFingerprint[count];
+			this.offsets = new int[count];
+			this.lengths = new int[count];
+			this.payloadPositions = new int[count];
+			this.positionsByName = new HashMap<String, Integer>( count * 4 / 3 + 1 );
+			this.positionsByFingerprint = new HashMap<StatementFingerprint, Integer>( count * 4 / 3 + 1 );
+			final Map<Integer,Integer> positionsByOffset = new HashMap<Integer, Integer>( count * 4 / 3 + 1 );
+
+			for ( int i = 0; i < count; i++ ) {
+				final byte[] name = new byte[index.getInt()];
+				index.get( name );
+				names[i] = new String( name, NAME_CHARSET );
+				fingerprints[i] = new StatementFingerprint( index.getLong(), index.getLong() );
+				offsets[i] = index.getInt();
+				lengths[i] = index.getInt();
+
+				final Integer payloadPosition = positionsByOffset.get( offsets[i] );
+				if ( payloadPosition == null ) {
+					positionsByOffset.put( offsets[i], i );
+					payloadPositions[i] = i;
+				}
+				else {
+					payloadPositions[i] = payloadPosition;
+				}
+
+				positionsByName.put( names[i], i );
+				if ( !positionsByFingerprint.containsKey( fingerprints[i] ) ) {
+					positionsByFingerprint.put( fingerprints[i], i );
+				}
+			}
+			this.names = Collections.unmodifiableList( Arrays.asList( names ) );
+
+			this.data = index.slice();
+			for ( int i = 0; i < count; i++ ) {
+				if ( offsets[i] < 0 || lengths[i] < 0 || offsets[i] > data.limit() - lengths[i] ) {
+					throw new StatementCodecException( "Query archive is truncated" );
+				}
+			}
+		}
+		catch (BufferUnderflowException e) {
+			throw new StatementCodecException( "Query archive is truncated", e );
+		}
+
+		this.statements = new AtomicReferenceArray<Statement>( fingerprints.length );
+	}
+
+	/**
+	 * The number of (named) statements in the archive
+	 */
+	public int size() {
+		return fingerprints.length;
+	}
+
+	/**
+	 * The names of the statements in the archive, in their natural order
+	 */
+	public List<String> getNames() {
+		return names;
+	}
+
+	public boolean contains(String name) {
+		return positionsByName.containsKey( name );
+	}
+
+	/**
+	 * The fingerprint of the named statement, without decoding it.
+	 *
+	 * @param name The statement name
+	 *
+	 * @return The fingerprint, or {@code null} if the archive has no statement by that name
+	 */
+	public StatementFingerprint getFingerprint(String name) {
+		final Integer position = positionsByName.get( name );
+		return position == null ? null : fingerprints[position];
+	}
+
+	/**
+	 * Locate a statement by name, decoding it on first access.
+	 *
+	 * @param name The statement name
+	 *
+	 * @return The (frozen) statement, or {@code null} if the archive has no statement by that name
+	 *
+	 * @throws StatementCodecException If the statement cannot be decoded
+	 */
+	public Statement getStatement(String name) {
+		final Integer position = positionsByName.get( name );
+		return position == null ? null : statementAt( position );
+	}
+
+	/**
+	 * Locate a statement by fingerprint, decoding it on first access.
+	 *
+	 * @param fingerprint The statement fingerprint
+	 *
+	 * @return The (frozen) statement, or {@code null} if the archive has no statement with that fingerprint
+	 *
+	 * @throws StatementCodecException If the statement cannot be decoded
+	 */
+	public Statement getStatement(StatementFingerprint fingerprint) {
+		final Integer position = positionsByFingerprint.get( fingerprint );
+		return position == null ? null : statementAt( position );
+	}
+
+	private Statement statementAt(int namePosition) {
+		final int position = payloadPositions[namePosition];
+		final Statement existing = statements.get( position );
+		if ( existing != null ) {
+			return existing;
+		}
+
+		// each decode works on its own view of the shared buffer
+		final ByteBuffer encoded = data.duplicate();
+		encoded.limit( offsets[position] + lengths[position] );
+		encoded.position( offsets[position] );
+		final Statement decoded = codec.decode( encoded );
+
+		if ( statements.compareAndSet( position, null, decoded ) ) {
+			return decoded;
+		}
+		return statements.get( position );
+	}
+
+	/**
+	 * The number of (distinct encoded) statements decoded so far
+	 */
+	public int getDecodedCount() {
+		int count = 0;
+		for ( int i = 0; i < statements.length(); i++ ) {
+			if ( statements.get( i ) != null ) {
+				count++;
+			}
+		}
+		return count;
+	}
+}
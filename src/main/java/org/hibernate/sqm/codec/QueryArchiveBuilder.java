@@ -0,0 +1,162 @@
+/*
+ * Hibernate, Relational Persistence for Idiomatic Java
+ *
+ * License: Apache License, Version 2.0
+ * See the LICENSE file in the root directory or visit http://www.apache.org/licenses/LICENSE-2.0
+ */
+package org.hibernate.sqm.codec;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.util.Map;
+import java.util.Properties;
+import java.util.TreeMap;
+
+import org.hibernate.sqm.ConsumerContext;
+import org.hibernate.sqm.SemanticQueryInterpreter;
+import org.hibernate.sqm.domain.DomainMetamodel;
+import org.hibernate.sqm.parser.BatchInterpretationResult;
+import org.hibernate.sqm.parser.HqlInterpretationMode;
+import org.hibernate.sqm.parser.HqlParseProfile;
+import org.hibernate.sqm.parser.HqlPredictionMode;
+import org.hibernate.sqm.parser.QueryLimits;
+import org.hibernate.sqm.query.Statement;
+
+/**
+ * Build-time tool interpreting a set of named HQL/JPQL queries and writing them into a
+ * {@link QueryArchive}, so that at runtime they can be looked up without parsing.  Used by the
+ * {@code queryArchive} Gradle task; run as<pre>
+ *     QueryArchiveBuilder &lt;DomainMetamodelFactory class&gt; &lt;queries file&gt; &lt;archive file&gt;
+ * </pre>
+ * The queries file is a (UTF-8) properties file mapping query names to queries.
+ * <p/>
+ * All queries are interpreted (in parallel) before anything is written; if any of them
+ * cannot be interpreted no archive is written and all failures are reported.
+ *
+ * @author agent
+ */
+public class QueryArchiveBuilder {
+	public static void main(String[] args) throws Exception {
+		if ( args.length != 3 ) {
+			throw new IllegalArgumentException(
+					"Usage: QueryArchiveBuilder <DomainMetamodelFactory class> <queries file> <archive file>"
+			);
+		}
+
+		final ClassLoader classLoader = Thread.currentThread().getContextClassLoader();
+		final DomainMetamodelFactory factory = (DomainMetamodelFactory) classLoader.loadClass( args[0] ).newInstance();
+		final File archiveFile = new File( args[2] );
+
+		final int count = build( factory.buildDomainMetamodel(), loadQueries( new File( args[1] ) ), archiveFile );
+		System.out.println( "Wrote " + count + " queries to query archive " + archiveFile );
+	}
+
+	/**
+	 * Interpret the given queries and write them into an archive.
+	 *
+	 * @param domainMetamodel The metamodel to interpret the queries against
+	 * @param queries The queries, keyed by name
+	 * @param archiveFile The archive file to write
+	 *
+	 * @return The number of queries written
+	 *
+	 * @throws IOException Indicates a problem writing the archive
+	 * @throws StatementCodecException If any of the queries could not be interpreted or encoded
+	 */
+	public static int build(DomainMetamodel domainMetamodel, Map<String,String> queries, File archiveFile)
+			throws IOException {
+		final ClassLoader classLoader = Thread.currentThread().getContextClassLoader();
+		final BatchInterpretationResult result = SemanticQueryInterpreter.interpretAll(
+				queries,
+				new ArchiveConsumerContext( domainMetamodel, classLoader )
+		);
+		if ( result.hasFailures() ) {
+			final StringBuilder message = new StringBuilder( "Could not interpret queries for the query archive :" );
+			for ( BatchInterpretationResult.Failure failure : result.getFailures() ) {
+				message.append( "\n    " ).append( failure.getName() ).append( " : " ).append( failure.getCause() );
+			}
+			throw new StatementCodecException( message.toString(), result.getFailures().get( 0 ).getCause() );
+		}
+
+		final QueryArchiveWriter writer = new QueryArchiveWriter( new StatementCodec( domainMetamodel, classLoader ) );
+		for ( Map.Entry<String,Statement> entry : result.getStatements().entrySet() ) {
+			writer.add( entry.getKey(), entry.getValue() );
+		}
+		writer.write( archiveFile );
+		return writer.size();
+	}
+
+	/**
+	 * Read the named queries from a (UTF-8) properties file.
+	 *
+	 * @param queriesFile The properties file
+	 *
+	 * @return The queries, keyed by name
+	 *
+	 * @throws IOException Indicates a problem reading the file
+	 */
+	public static Map<String,String> loadQueries(File queriesFile) throws IOException {
+		final Properties properties = new Properties();
+		final Reader reader = new InputStreamReader( new FileInputStream( queriesFile ), QueryArchive.NAME_CHARSET );
+		try {
+			properties.load( reader );
+		}
+		finally {
+			reader.close();
+		}
+
+		final Map<String,String> queries = new TreeMap<String, String>();
+		for ( String name : properties.stringPropertyNames() ) {
+			queries.put( name, properties.getProperty( name ) );
+		}
+		return queries;
+	}
+
+	private static class ArchiveConsumerContext implements ConsumerContext {
+		private final DomainMetamodel domainMetamodel;
+		private final ClassLoader classLoader;
+
+		private ArchiveConsumerContext(DomainMetamodel domainMetamodel, ClassLoader classLoader) {
+			this.domainMetamodel = domainMetamodel;
+			this.classLoader = classLoader;
+		}
+
+		@Override
+		public DomainMetamodel getDomainMetamodel() {
+			return domainMetamodel;
+		}
+
+		@Override
+		public Class classByName(String name) throws ClassNotFoundException {
+			return Class.forName( name, false, classLoader );
+		}
+
+		@Override
+		public boolean useStrictJpaCompliance() {
+			return false;
+		}
+
+		@Override
+		public HqlPredictionMode getHqlPredictionMode() {
+			return HqlPredictionMode.SLL_WITH_LL_FALLBACK;
+		}
+
+		@Override
+		public HqlParseProfile getHqlParseProfile() {
+			return HqlParseProfile.FAIL_FAST;
+		}
+
+		@Override
+		public HqlInterpretationMode getHqlInterpretationMode() {
+			return HqlInterpretationMode.SINGLE_PASS;
+		}
+
+		@Override
+		public QueryLimits getQueryLimits() {
+			return QueryLimits.NONE;
+		}
+	}
+}
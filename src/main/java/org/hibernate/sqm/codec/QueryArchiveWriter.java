@@ -0,0 +1,147 @@
+/*
+ * Hibernate, Relational Persistence for Idiomatic Java
+ *
+ * License: Apache License, Version 2.0
+ * See the LICENSE file in the root directory or visit http://www.apache.org/licenses/LICENSE-2.0
+ */
+package org.hibernate.sqm.codec;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.TreeMap;
+
+import org.hibernate.sqm.query.Statement;
+import org.hibernate.sqm.query.StatementFingerprint;
+
+/**
+ * Writes named statements into a {@link QueryArchive}.  The statements are encoded as they
+ * are added; statements with the same {@link Statement#getFingerprint() fingerprint} share
+ * their encoded form.
+ * <p/>
+ * The layout is:<ol>
+ *     <li>{@link QueryArchive#MAGIC}, the archive version, the codec's format version and the number of entries</li>
+ *     <li>the index, sorted by name: for each entry its name, fingerprint and the offset and length of its encoded statement</li>
+ *     <li>the encoded statements</li>
+ * </ol>
+ * All numbers are big-endian; offsets are relative to the start of the encoded statements.
+ *
+ * @author agent
+ */
+public class QueryArchiveWriter {
+	private final StatementCodec codec;
+
+	private final TreeMap<String,Entry> entries = new TreeMap<String, Entry>();
+	private final Map<StatementFingerprint,Entry> entriesByFingerprint = new HashMap<StatementFingerprint, Entry>();
+
+	public QueryArchiveWriter(StatementCodec codec) {
+		this.codec = codec;
+	}
+
+	/**
+	 * Add a statement.
+	 *
+	 * @param name The name to look the statement up by
+	 * @param statement The statement
+	 *
+	 * @return {@code this}, for method chaining
+	 *
+	 * @throws IllegalArgumentException If a statement was already added under that name
+	 * @throws StatementCodecException If the statement cannot be encoded
+	 */
+	public QueryArchiveWriter add(String name, Statement statement) {
+		if ( entries.containsKey( name ) ) {
+			throw new IllegalArgumentException( "A statement named [" + name + "] was already added" );
+		}
+
+		final StatementFingerprint fingerprint = statement.getFingerprint();
+		Entry entry = entriesByFingerprint.get( fingerprint );
+		if ( entry == null ) {
+			entry = new Entry( fingerprint, codec.encode( statement ) );
+			entriesByFingerprint.put( fingerprint, entry );
+		}
+		entries.put( name, entry );
+		return this;
+	}
+
+	public int size() {
+		return entries.size();
+	}
+
+	/**
+	 * Write the archive to the given file, replacing it if it exists.
+	 *
+	 * @param file The file to write
+	 *
+	 * @throws IOException Indicates a problem writing the file
+	 */
+	public void write(File file) throws IOException {
+		final File directory = file.getAbsoluteFile().getParentFile();
+		if ( directory != null && !directory.exists() && !directory.mkdirs() ) {
+			throw new IOException( "Could not create directory " + directory );
+		}
+
+		final OutputStream stream = new BufferedOutputStream( new FileOutputStream( file ) );
+		try {
+			write( stream );
+		}
+		finally {
+			stream.close();
+		}
+	}
+
+	/**
+	 * Write the archive to the given stream, which is flushed but not closed.
+	 *
+	 * @param stream The stream to write to
+	 *
+	 * @throws IOException Indicates a problem writing to the stream
+	 */
+	public void write(OutputStream stream) throws IOException {
+		// lay out the encoded statements, each shared one only once
+		final ByteArrayOutputStream data = new ByteArrayOutputStream();
+		final Map<Entry,Integer> offsets = new HashMap<Entry, Integer>();
+		for ( Entry entry : entries.values() ) {
+			if ( !offsets.containsKey( entry ) ) {
+				offsets.put( entry, data.size() );
+				data.write( entry.encoded );
+			}
+		}
+
+		final DataOutputStream out = new DataOutputStream( stream );
+		out.write( QueryArchive.MAGIC );
+		out.writeInt( QueryArchive.ARCHIVE_VERSION );
+		out.writeInt( StatementCodec.FORMAT_VERSION );
+		out.writeInt( entries.size() );
+
+		for ( Map.Entry<String,Entry> indexEntry : entries.entrySet() ) {
+			final Entry entry = indexEntry.getValue();
+			final byte[] name = indexEntry.getKey().getBytes( QueryArchive.NAME_CHARSET );
+			out.writeInt( name.length );
+			out.write( name );
+			out.writeLong( entry.fingerprint.getHigh() );
+			out.writeLong( entry.fingerprint.getLow() );
+			out.writeInt( offsets.get( entry ) );
+			out.writeInt( entry.encoded.length );
+		}
+
+		data.writeTo( out );
+		out.flush();
+	}
+
+	private static class Entry {
+		private final StatementFingerprint fingerprint;
+		private final byte[] encoded;
+
+		private Entry(StatementFingerprint fingerprint, byte[] encoded) {
+			this.fingerprint = fingerprint;
+			this.encoded = encoded;
+		}
+	}
+}
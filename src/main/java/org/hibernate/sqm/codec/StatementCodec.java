@@ -0,0 +1,107 @@
+/*
+ * Hibernate, Relational Persistence for Idiomatic Java
+ *
+ * License: Apache License, Version 2.0
+ * See the LICENSE file in the root directory or visit http://www.apache.org/licenses/LICENSE-2.0
+ */
+package org.hibernate.sqm.codec;
+
+import java.nio.ByteBuffer;
+
+import org.hibernate.sqm.codec.internal.DomainModelNameResolver;
+import org.hibernate.sqm.codec.internal.StatementDecoder;
+import org.hibernate.sqm.codec.internal.StatementEncoder;
+import org.hibernate.sqm.domain.DomainMetamodel;
+import org.hibernate.sqm.query.Statement;
+
+/**
+ * Encodes statements into, and decodes them from, a compact versioned binary format.
+ * Intended for persisting interpreted queries (across restarts e.g.) or shipping them
+ * between nodes without having to re-interpret the HQL.
+ * <p/>
+ * The encoded form refers to entities, attributes and basic types by name; decoding
+ * resolves these names against the codec's DomainMetamodel, which therefore needs to
+ * describe the same domain model as the one the statement was interpreted against.
+ * Decoded statements are {@link Statement#freeze() frozen}.
+ * <p/>
+ * A codec is thread-safe (as long as its DomainMetamodel is) and caches name resolutions,
+ * so it should be shared.
+ *
+ * @author agent
+ */
+public class StatementCodec {
+	/**
+	 * The leading bytes of every encoded statement
+	 */
+	public static final byte[] MAGIC = new byte[] { 'S', 'Q', 'M' };
+
+	/**
+	 * The version of the format written by {@link #encode}.  Decoding a statement written
+	 * with a different version fails.
+	 */
+	public static final int FORMAT_VERSION = 3;
+
+	private final DomainModelNameResolver nameResolver;
+
+	public StatementCodec(DomainMetamodel domainMetamodel) {
+		this( domainMetamodel, StatementCodec.class.getClassLoader() );
+	}
+
+	/**
+	 * Creates a codec resolving Java types (dynamic-instantiation targets, basic types, enum
+	 * constants) through the given ClassLoader.
+	 *
+	 * @param domainMetamodel The metamodel to resolve names against
+	 * @param classLoader The ClassLoader to use for Java types
+	 */
+	public StatementCodec(DomainMetamodel domainMetamodel, ClassLoader classLoader) {
+		this.nameResolver = new DomainModelNameResolver( domainMetamodel, classLoader );
+	}
+
+	public DomainMetamodel getDomainMetamodel() {
+		return nameResolver.getDomainMetamodel();
+	}
+
+	/**
+	 * Encode the given statement.
+	 *
+	 * @param statement The statement to encode
+	 *
+	 * @return The encoded form
+	 *
+	 * @throws StatementCodecException If the statement contains something which cannot be
+	 * encoded (types which cannot be resolved by name, e.g.)
+	 */
+	public byte[] encode(Statement statement) {
+		return new StatementEncoder().encode( statement );
+	}
+
+	/**
+	 * Decode a statement.
+	 *
+	 * @param encoded The encoded form, as returned from {@link #encode}
+	 *
+	 * @return The (frozen) statement
+	 *
+	 * @throws StatementCodecException If the encoded form is malformed, was written with a
+	 * different format version or refers to names unknown to the DomainMetamodel
+	 */
+	public Statement decode(byte[] encoded) {
+		return decode( ByteBuffer.wrap( encoded ) );
+	}
+
+	/**
+	 * Decode a statement starting at the current position of the given buffer.  On return the
+	 * buffer is positioned immediately after the encoded statement.
+	 *
+	 * @param buffer The buffer to read from
+	 *
+	 * @return The (frozen) statement
+	 *
+	 * @throws StatementCodecException If the encoded form is malformed, was written with a
+	 * different format version or refers to names unknown to the DomainMetamodel
+	 */
+	public Statement decode(ByteBuffer buffer) {
+		return new StatementDecoder( nameResolver, buffer ).decode();
+	}
+}
@@ -0,0 +1,23 @@
+/*
+ * Hibernate, Relational Persistence for Idiomatic Java
+ *
+ * License: Apache License, Version 2.0
+ * See the LICENSE file in the root directory or visit http://www.apache.org/licenses/LICENSE-2.0
+ */
+package org.hibernate.sqm.codec;
+
+/**
+ * Indicates a problem encoding a statement to, or decoding a statement from, the binary
+ * format defined by {@link StatementCodec}.
+ *
+ * @author agent
+ */
+public class StatementCodecException extends RuntimeException {
+	public StatementCodecException(String message) {
+		super( message );
+	}
+
+	public StatementCodecException(String message, Throwable cause) {
+		super( message, cause );
+	}
+}
@@ -0,0 +1,98 @@
+/*
+ * Hibernate, Relational Persistence for Idiomatic Java
+ *
+ * License: Apache License, Version 2.0
+ * See the LICENSE file in the root directory or visit http://www.apache.org/licenses/LICENSE-2.0
+ */
+package org.hibernate.sqm.codec.internal;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.hibernate.sqm.codec.StatementCodecException;
+import org.hibernate.sqm.domain.BasicType;
+import org.hibernate.sqm.domain.DomainMetamodel;
+import org.hibernate.sqm.domain.EntityType;
+
+/**
+ * Resolves the entity and basic type names written by {@link StatementEncoder} against a
+ * DomainMetamodel, caching the resolutions so that decoding does not repeatedly hit the
+ * metamodel or the ClassLoader for the same names.
+ * <p/>
+ * Thread-safe, as long as the DomainMetamodel is.
+ *
+ * @author agent
+ */
+public class DomainModelNameResolver {
+	private static final Map<String,Class> PRIMITIVES = new HashMap<String, Class>();
+	static {
+		PRIMITIVES.put( "boolean", boolean.class );
+		PRIMITIVES.put( "byte", byte.class );
+		PRIMITIVES.put( "char", char.class );
+		PRIMITIVES.put( "short", short.class );
+		PRIMITIVES.put( "int", int.class );
+		PRIMITIVES.put( "long", long.class );
+		PRIMITIVES.put( "float", float.class );
+		PRIMITIVES.put( "double", double.class );
+	}
+
+	private final DomainMetamodel domainMetamodel;
+	private final ClassLoader classLoader;
+
+	private final ConcurrentHashMap<String,EntityType> entityTypes = new ConcurrentHashMap<String, EntityType>();
+	private final ConcurrentHashMap<String,BasicType> basicTypes = new ConcurrentHashMap<String, BasicType>();
+
+	public DomainModelNameResolver(DomainMetamodel domainMetamodel, ClassLoader classLoader) {
+		this.domainMetamodel = domainMetamodel;
+		this.classLoader = classLoader;
+	}
+
+	public DomainMetamodel getDomainMetamodel() {
+		return domainMetamodel;
+	}
+
+	public EntityType resolveEntityType(String name) {
+		EntityType entityType = entityTypes.get( name );
+		if ( entityType == null ) {
+			try {
+				entityType = domainMetamodel.resolveEntityType( name );
+			}
+			catch (IllegalArgumentException e) {
+				// as defined by JPA's Metamodel#entity
+				throw new StatementCodecException( "Could not resolve entity [" + name + "] against the DomainMetamodel", e );
+			}
+			if ( entityType == null ) {
+				throw new StatementCodecException( "Could not resolve entity [" + name + "] against the DomainMetamodel" );
+			}
+			entityTypes.put( name, entityType );
+		}
+		return entityType;
+	}
+
+	@SuppressWarnings("unchecked")
+	public BasicType resolveBasicType(String javaTypeName) {
+		BasicType basicType = basicTypes.get( javaTypeName );
+		if ( basicType == null ) {
+			basicType = domainMetamodel.getBasicType( classForName( javaTypeName ) );
+			if ( basicType == null ) {
+				throw new StatementCodecException( "Could not resolve basic type for [" + javaTypeName + "] against the DomainMetamodel" );
+			}
+			basicTypes.put( javaTypeName, basicType );
+		}
+		return basicType;
+	}
+
+	public Class classForName(String name) {
+		final Class primitive = PRIMITIVES.get( name );
+		if ( primitive != null ) {
+			return primitive;
+		}
+		try {
+			return Class.forName( name, false, classLoader );
+		}
+		catch (ClassNotFoundException e) {
+			throw new StatementCodecException( "Could not load class [" + name + "]", e );
+		}
+	}
+}
@@ -0,0 +1,131 @@
+/*
+ * Hibernate, Relational Persistence for Idiomatic Java
+ *
+ * License: Apache License, Version 2.0
+ * See the LICENSE file in the root directory or visit http://www.apache.org/licenses/LICENSE-2.0
+ */
+package org.hibernate.sqm.codec.internal;
+
+/**
+ * The tags identifying each kind of node in the binary statement format.
+ * <p/>
+ * The values are part of the format; changing or re-using one (or changing the order of
+ * constants of any enum written by ordinal) requires bumping
+ * {@link org.hibernate.sqm.codec.StatementCodec#FORMAT_VERSION}.
+ *
+ * @author agent
+ */
+public final class NodeTags {
+	private NodeTags() {
+	}
+
+	// ~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+	// general
+
+	public static final byte NULL = 0;
+
+	// ~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+	// statements
+
+	public static final byte SELECT_STATEMENT = 1;
+	public static final byte UPDATE_STATEMENT = 2;
+	public static final byte DELETE_STATEMENT = 3;
+	public static final byte INSERT_SELECT_STATEMENT = 4;
+
+	// ~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+	// from-clause
+
+	public static final byte ROOT_ENTITY = 10;
+	public static final byte CROSS_JOIN = 11;
+	public static final byte ENTITY_JOIN = 12;
+	public static final byte ATTRIBUTE_JOIN = 13;
+	public static final byte FROM_ELEMENT_REFERENCE = 14;
+	public static final byte TREATED_FROM_ELEMENT = 15;
+
+	// ~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+	// predicates
+
+	public static final byte GROUPED = 20;
+	public static final byte AND = 21;
+	public static final byte OR = 22;
+	public static final byte RELATIONAL = 23;
+	public static final byte EMPTINESS = 24;
+	public static final byte NULLNESS = 25;
+	public static final byte BETWEEN = 26;
+	public static final byte LIKE = 27;
+	public static final byte MEMBER_OF = 28;
+	public static final byte NEGATED = 29;
+	public static final byte IN_LIST = 30;
+	public static final byte IN_SUB_QUERY = 31;
+	public static final byte JUNCTION = 32;
+	public static final byte LITERAL_IN_LIST = 33;
+
+	// ~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+	// expressions
+
+	public static final byte POSITIONAL_PARAMETER = 40;
+	public static final byte NAMED_PARAMETER = 41;
+	public static final byte SYNTHETIC_PARAMETER = 42;
+	public static final byte ENTITY_TYPE = 43;
+	public static final byte UNARY_OPERATION = 44;
+	public static final byte ATTRIBUTE_REFERENCE = 45;
+	public static final byte FUNCTION = 46;
+	public static final byte AVG = 47;
+	public static final byte COUNT_STAR = 48;
+	public static final byte COUNT = 49;
+	public static final byte MAX = 50;
+	public static final byte MIN = 51;
+	public static final byte SUM = 52;
+	public static final byte COLLECTION_SIZE = 53;
+	public static final byte COLLECTION_VALUE = 54;
+	public static final byte COLLECTION_INDEX = 55;
+	public static final byte MAP_KEY = 56;
+	public static final byte MAP_ENTRY = 57;
+	public static final byte MAX_ELEMENT = 58;
+	public static final byte MIN_ELEMENT = 59;
+	public static final byte MAX_INDEX = 60;
+	public static final byte MIN_INDEX = 61;
+	public static final byte LITERAL_STRING = 62;
+	public static final byte LITERAL_CHARACTER = 63;
+	public static final byte LITERAL_DOUBLE = 64;
+	public static final byte LITERAL_INTEGER = 65;
+	public static final byte LITERAL_BIG_INTEGER = 66;
+	public static final byte LITERAL_BIG_DECIMAL = 67;
+	public static final byte LITERAL_FLOAT = 68;
+	public static final byte LITERAL_LONG = 69;
+	public static final byte LITERAL_TRUE = 70;
+	public static final byte LITERAL_FALSE = 71;
+	public static final byte LITERAL_NULL = 72;
+	public static final byte CONCAT = 73;
+	public static final byte CONSTANT_ENUM = 74;
+	public static final byte CONSTANT_FIELD = 75;
+	public static final byte BINARY_ARITHMETIC = 76;
+	public static final byte SUB_QUERY = 77;
+	public static final byte CASE_SIMPLE = 78;
+	public static final byte CASE_SEARCHED = 79;
+	public static final byte COALESCE = 80;
+	public static final byte NULLIF = 81;
+	public static final byte DYNAMIC_INSTANTIATION = 82;
+	public static final byte CONCAT_LIST = 83;
+
+	// ~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+	// types
+
+	public static final byte BASIC_TYPE = 90;
+	public static final byte ENTITY_TYPE_REFERENCE = 91;
+
+	// ~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+	// constant values
+
+	public static final byte VALUE_STRING = 100;
+	public static final byte VALUE_INTEGER = 101;
+	public static final byte VALUE_LONG = 102;
+	public static final byte VALUE_SHORT = 103;
+	public static final byte VALUE_BYTE = 104;
+	public static final byte VALUE_BOOLEAN = 105;
+	public static final byte VALUE_CHARACTER = 106;
+	public static final byte VALUE_FLOAT = 107;
+	public static final byte VALUE_DOUBLE = 108;
+	public static final byte VALUE_BIG_INTEGER = 109;
+	public static final byte VALUE_BIG_DECIMAL = 110;
+}
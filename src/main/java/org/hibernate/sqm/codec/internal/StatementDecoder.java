@@ -0,0 +1,1058 @@
+/*
+ * Hibernate, Relational Persistence for Idiomatic Java
+ *
+ * License: Apache License, Version 2.0
+ * See the LICENSE file in the root directory or visit http://www.apache.org/licenses/LICENSE-2.0
+ */
+package org.hibernate.sqm.codec.internal;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.hibernate.sqm.codec.StatementCodec;
+import org.hibernate.sqm.codec.StatementCodecException;
+import org.hibernate.sqm.domain.Attribute;
+import org.hibernate.sqm.domain.BasicType;
+import org.hibernate.sqm.domain.Bindable;
+import org.hibernate.sqm.domain.EntityType;
+import org.hibernate.sqm.domain.IdentifierDescriptor;
+import org.hibernate.sqm.domain.IdentifierDescriptorSingleAttribute;
+import org.hibernate.sqm.domain.ManagedType;
+import org.hibernate.sqm.domain.PluralAttribute;
+import org.hibernate.sqm.domain.SingularAttribute;
+import org.hibernate.sqm.domain.Type;
+import org.hibernate.sqm.parser.internal.hql.path.PseudoIdAttributeImpl;
+import org.hibernate.sqm.parser.internal.hql.path.TreatedFromElementBinding;
+import org.hibernate.sqm.path.AttributeBinding;
+import org.hibernate.sqm.path.AttributeBindingSource;
+import org.hibernate.sqm.query.DeleteStatement;
+import org.hibernate.sqm.query.InsertSelectStatement;
+import org.hibernate.sqm.query.JoinType;
+import org.hibernate.sqm.query.QuerySpec;
+import org.hibernate.sqm.query.SelectStatement;
+import org.hibernate.sqm.query.Statement;
+import org.hibernate.sqm.query.UpdateStatement;
+import org.hibernate.sqm.query.expression.AttributeReferenceExpression;
+import org.hibernate.sqm.query.expression.AvgFunction;
+import org.hibernate.sqm.query.expression.BinaryArithmeticExpression;
+import org.hibernate.sqm.query.expression.CaseSearchedExpression;
+import org.hibernate.sqm.query.expression.CaseSimpleExpression;
+import org.hibernate.sqm.query.expression.CoalesceExpression;
+import org.hibernate.sqm.query.expression.CollectionIndexFunction;
+import org.hibernate.sqm.query.expression.CollectionSizeFunction;
+import org.hibernate.sqm.query.expression.CollectionValuePathExpression;
+import org.hibernate.sqm.query.expression.ConcatExpression;
+import org.hibernate.sqm.query.expression.ConcatListExpression;
+import org.hibernate.sqm.query.expression.ConstantEnumExpression;
+import org.hibernate.sqm.query.expression.ConstantFieldExpression;
+import org.hibernate.sqm.query.expression.CountFunction;
+import org.hibernate.sqm.query.expression.CountStarFunction;
+import org.hibernate.sqm.query.expression.EntityTypeExpression;
+import org.hibernate.sqm.query.expression.Expression;
+import org.hibernate.sqm.query.expression.FunctionExpression;
+import org.hibernate.sqm.query.expression.LiteralBigDecimalExpression;
+import org.hibernate.sqm.query.expression.LiteralBigIntegerExpression;
+import org.hibernate.sqm.query.expression.LiteralCharacterExpression;
+import org.hibernate.sqm.query.expression.LiteralDoubleExpression;
+import org.hibernate.sqm.query.expression.LiteralFalseExpression;
+import org.hibernate.sqm.query.expression.LiteralFloatExpression;
+import org.hibernate.sqm.query.expression.LiteralIntegerExpression;
+import org.hibernate.sqm.query.expression.LiteralLongExpression;
+import org.hibernate.sqm.query.expression.LiteralNullExpression;
+import org.hibernate.sqm.query.expression.LiteralStringExpression;
+import org.hibernate.sqm.query.expression.LiteralTrueExpression;
+import org.hibernate.sqm.query.expression.MapEntryFunction;
+import org.hibernate.sqm.query.expression.MapKeyPathExpression;
+import org.hibernate.sqm.query.expression.MaxElementFunction;
+import org.hibernate.sqm.query.expression.MaxFunction;
+import org.hibernate.sqm.query.expression.MaxIndexFunction;
+import org.hibernate.sqm.query.expression.MinElementFunction;
+import org.hibernate.sqm.query.expression.MinFunction;
+import org.hibernate.sqm.query.expression.MinIndexFunction;
+import org.hibernate.sqm.query.expression.NamedParameterExpression;
+import org.hibernate.sqm.query.expression.NullifExpression;
+import org.hibernate.sqm.query.expression.PositionalParameterExpression;
+import org.hibernate.sqm.query.expression.SubQueryExpression;
+import org.hibernate.sqm.query.expression.SumFunction;
+import org.hibernate.sqm.query.expression.SyntheticParameterExpression;
+import org.hibernate.sqm.query.expression.UnaryOperationExpression;
+import org.hibernate.sqm.query.from.AbstractFromElement;
+import org.hibernate.sqm.query.from.CrossJoinedFromElement;
+import org.hibernate.sqm.query.from.Downcast;
+import org.hibernate.sqm.query.from.FromClause;
+import org.hibernate.sqm.query.from.FromElement;
+import org.hibernate.sqm.query.from.FromElementSpace;
+import org.hibernate.sqm.query.from.FromElementTable;
+import org.hibernate.sqm.query.from.JoinedFromElement;
+import org.hibernate.sqm.query.from.QualifiedAttributeJoinFromElement;
+import org.hibernate.sqm.query.from.QualifiedEntityJoinFromElement;
+import org.hibernate.sqm.query.from.RootEntityFromElement;
+import org.hibernate.sqm.query.order.OrderByClause;
+import org.hibernate.sqm.query.order.SortOrder;
+import org.hibernate.sqm.query.order.SortSpecification;
+import org.hibernate.sqm.query.predicate.AndPredicate;
+import org.hibernate.sqm.query.predicate.BetweenPredicate;
+import org.hibernate.sqm.query.predicate.EmptinessPredicate;
+import org.hibernate.sqm.query.predicate.GroupedPredicate;
+import org.hibernate.sqm.query.predicate.InListPredicate;
+import org.hibernate.sqm.query.predicate.InSubQueryPredicate;
+import org.hibernate.sqm.query.predicate.JunctionPredicate;
+import org.hibernate.sqm.query.predicate.LikePredicate;
+import org.hibernate.sqm.query.predicate.LiteralInListPredicate;
+import org.hibernate.sqm.query.predicate.MemberOfPredicate;
+import org.hibernate.sqm.query.predicate.NegatedPredicate;
+import org.hibernate.sqm.query.predicate.NullnessPredicate;
+import org.hibernate.sqm.query.predicate.OrPredicate;
+import org.hibernate.sqm.query.predicate.Predicate;
+import org.hibernate.sqm.query.predicate.RelationalPredicate;
+import org.hibernate.sqm.query.predicate.WhereClause;
+import org.hibernate.sqm.query.select.DynamicInstantiation;
+import org.hibernate.sqm.query.select.DynamicInstantiationArgument;
+import org.hibernate.sqm.query.select.DynamicInstantiationTarget;
+import org.hibernate.sqm.query.select.SelectClause;
+import org.hibernate.sqm.query.select.Selection;
+import org.hibernate.sqm.query.set.Assignment;
+
+/**
+ * Reads a statement tree written by {@link StatementEncoder}.  Entity, attribute and type
+ * references are resolved by name through the given {@link DomainModelNameResolver}.
+ * <p/>
+ * A decoder instance is stateful and should be used to decode a single statement.
+ *
+ * @author agent
+ */
+@SuppressWarnings("unchecked")
+public class StatementDecoder {
+	private static final JoinType[] JOIN_TYPES = JoinType.values();
+	private static final RelationalPredicate.Type[] RELATIONAL_TYPES = RelationalPredicate.Type.values();
+	private static final JunctionPredicate.Nature[] JUNCTION_NATURES = JunctionPredicate.Nature.values();
+	private static final UnaryOperationExpression.Operation[] UNARY_OPERATIONS = UnaryOperationExpression.Operation.values();
+	private static final BinaryArithmeticExpression.Operation[] BINARY_OPERATIONS = BinaryArithmeticExpression.Operation.values();
+	private static final SortOrder[] SORT_ORDERS = SortOrder.values();
+	private static final DynamicInstantiationTarget.Nature[] INSTANTIATION_NATURES = DynamicInstantiationTarget.Nature.values();
+
+	private final DomainModelNameResolver nameResolver;
+	private final ByteBuffer buffer;
+
+	private final List<String> strings = new ArrayList<String>();
+	private final FromElementTable fromElements = new FromElementTable();
+
+	/**
+	 * Creates a decoder reading from the current position of the given buffer.
+	 *
+	 * @param nameResolver Resolver for the entity and type names
+	 * @param buffer The buffer to read
+	 */
+	public StatementDecoder(DomainModelNameResolver nameResolver, ByteBuffer buffer) {
+		this.nameResolver = nameResolver;
+		this.buffer = buffer;
+	}
+
+	/**
+	 * Decode the statement.  The returned statement is frozen.
+	 *
+	 * @return The decoded statement
+	 */
+	public Statement decode() {
+		try {
+			for ( byte b : StatementCodec.MAGIC ) {
+				if ( buffer.get() != b ) {
+					throw new StatementCodecException( "Not an encoded statement (bad magic number)" );
+				}
+			}
+			final int version = readVarInt();
+			if ( version != StatementCodec.FORMAT_VERSION ) {
+				throw new StatementCodecException(
+						"Unsupported statement format version [" + version + "]; expecting ["
+								+ StatementCodec.FORMAT_VERSION + "]"
+				);
+			}
+
+			final Statement statement = readStatement();
+			statement.freeze();
+			return statement;
+		}
+		catch (BufferUnderflowException e) {
+			throw new StatementCodecException( "Unexpected end of encoded statement", e );
+		}
+	}
+
+
+	// ~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+	// statements
+
+	private Statement readStatement() {
+		final byte tag = buffer.get();
+		switch ( tag ) {
+			case NodeTags.SELECT_STATEMENT: {
+				final SelectStatement statement = new SelectStatement();
+				statement.applyQuerySpec( readQuerySpec() );
+				statement.applyOrderByClause( readOrderByClause() );
+				return statement;
+			}
+			case NodeTags.UPDATE_STATEMENT: {
+				final UpdateStatement statement = new UpdateStatement( readRootEntityDeclaration( null ) );
+				final int assignmentCount = readVarInt();
+				for ( int i = 0; i < assignmentCount; i++ ) {
+					final AttributeReferenceExpression stateField = readAttributeReference();
+					statement.getSetClause().addAssignment( new Assignment( stateField, readExpression() ) );
+				}
+				readWhereClausePredicate( statement.getWhereClause() );
+				return statement;
+			}
+			case NodeTags.DELETE_STATEMENT: {
+				final DeleteStatement statement = new DeleteStatement( readRootEntityDeclaration( null ) );
+				readWhereClausePredicate( statement.getWhereClause() );
+				return statement;
+			}
+			case NodeTags.INSERT_SELECT_STATEMENT: {
+				final InsertSelectStatement statement = new InsertSelectStatement( readRootEntityDeclaration( null ) );
+				final int stateFieldCount = readVarInt();
+				for ( int i = 0; i < stateFieldCount; i++ ) {
+					statement.addInsertTargetStateField( readAttributeReference() );
+				}
+				if ( buffer.get() != NodeTags.NULL ) {
+					statement.setSelectQuery( readQuerySpec() );
+				}
+				return statement;
+			}
+			default: {
+				throw unexpectedTag( "statement", tag );
+			}
+		}
+	}
+
+	private void readWhereClausePredicate(WhereClause whereClause) {
+		// DML statements always have a WhereClause
+		if ( readBoolean() ) {
+			final Predicate predicate = readPredicate();
+			if ( predicate != null ) {
+				whereClause.setPredicate( predicate );
+			}
+		}
+	}
+
+	private QuerySpec readQuerySpec() {
+		final FromClause fromClause = readFromClause();
+		final SelectClause selectClause = readSelectClause();
+		final WhereClause whereClause;
+		if ( readBoolean() ) {
+			final Predicate predicate = readPredicate();
+			whereClause = predicate == null ? new WhereClause() : new WhereClause( predicate );
+		}
+		else {
+			whereClause = null;
+		}
+		return new QuerySpec( fromClause, selectClause, whereClause );
+	}
+
+
+	// ~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+	// from-clause
+
+	private FromClause readFromClause() {
+		final FromClause fromClause = new FromClause();
+		final int spaceCount = readVarInt();
+		for ( int i = 0; i < spaceCount; i++ ) {
+			final FromElementSpace space = fromClause.makeFromElementSpace();
+			space.setRoot( readRootEntityDeclaration( space ) );
+			final int joinCount = readVarInt();
+			for ( int j = 0; j < joinCount; j++ ) {
+				space.addJoin( readJoinDeclaration( space ) );
+			}
+		}
+		return fromClause;
+	}
+
+	private RootEntityFromElement readRootEntityDeclaration(FromElementSpace space) {
+		final byte tag = buffer.get();
+		if ( tag != NodeTags.ROOT_ENTITY ) {
+			throw unexpectedTag( "root entity", tag );
+		}
+		final int uid = readVarInt();
+		final String alias = readString();
+		final RootEntityFromElement root = new RootEntityFromElement(
+				space,
+				uid,
+				alias,
+				nameResolver.resolveEntityType( readString() )
+		);
+		registerFromElement( root );
+		readDowncasts( root );
+		return root;
+	}
+
+	private JoinedFromElement readJoinDeclaration(FromElementSpace space) {
+		final byte tag = buffer.get();
+		switch ( tag ) {
+			case NodeTags.CROSS_JOIN: {
+				final int uid = readVarInt();
+				final String alias = readString();
+				final CrossJoinedFromElement join = new CrossJoinedFromElement(
+						space,
+						uid,
+						alias,
+						nameResolver.resolveEntityType( readString() )
+				);
+				registerFromElement( join );
+				readDowncasts( join );
+				return join;
+			}
+			case NodeTags.ENTITY_JOIN: {
+				final int uid = readVarInt();
+				final String alias = readString();
+				final EntityType entityType = nameResolver.resolveEntityType( readString() );
+				final QualifiedEntityJoinFromElement join = new QualifiedEntityJoinFromElement(
+						space,
+						uid,
+						alias,
+						entityType,
+						JOIN_TYPES[readVarInt()]
+				);
+				registerFromElement( join );
+				readDowncasts( join );
+				final Predicate onClausePredicate = readPredicate();
+				if ( onClausePredicate != null ) {
+					join.setOnClausePredicate( onClausePredicate );
+				}
+				return join;
+			}
+			case NodeTags.ATTRIBUTE_JOIN: {
+				final AttributeBindingSource lhs = readAttributeBindingSource();
+				final int uid = readVarInt();
+				final String alias = readString();
+				final Attribute attribute = resolveAttribute( lhs, readString() );
+				final String subclassIndicatorName = readString();
+				final QualifiedAttributeJoinFromElement join = new QualifiedAttributeJoinFromElement(
+						space,
+						uid,
+						alias,
+						attribute,
+						subclassIndicatorName == null ? null : nameResolver.resolveEntityType( subclassIndicatorName ),
+						readString(),
+						JOIN_TYPES[readVarInt()],
+						lhs,
+						readBoolean()
+				);
+				registerFromElement( join );
+				readDowncasts( join );
+				final Predicate onClausePredicate = readPredicate();
+				if ( onClausePredicate != null ) {
+					join.setOnClausePredicate( onClausePredicate );
+				}
+				return join;
+			}
+			default: {
+				throw unexpectedTag( "join", tag );
+			}
+		}
+	}
+
+	private void registerFromElement(FromElement fromElement) {
+		if ( fromElements.put( fromElement ) != null ) {
+			throw new StatementCodecException( "FromElement [" + fromElement.getUniqueId() + "] declared twice" );
+		}
+	}
+
+	private void readDowncasts(AbstractFromElement fromElement) {
+		final int downcastCount = readVarInt();
+		for ( int i = 0; i < downcastCount; i++ ) {
+			fromElement.addDowncast( new Downcast( nameResolver.resolveEntityType( readString() ) ) );
+		}
+	}
+
+	private FromElement readFromElementIndex() {
+		final int uid = readVarInt();
+		final FromElement fromElement = fromElements.get( uid );
+		if ( fromElement == null ) {
+			throw new StatementCodecException( "Reference to undeclared FromElement [" + uid + "]" );
+		}
+		return fromElement;
+	}
+
+	private AttributeBindingSource readAttributeBindingSource() {
+		final byte tag = buffer.get();
+		switch ( tag ) {
+			case NodeTags.FROM_ELEMENT_REFERENCE: {
+				return readFromElementIndex();
+			}
+			case NodeTags.TREATED_FROM_ELEMENT: {
+				final FromElement fromElement = readFromElementIndex();
+				return new TreatedFromElementBinding( fromElement, nameResolver.resolveEntityType( readString() ) );
+			}
+			case NodeTags.MAP_KEY: {
+				final FromElement fromElement = readFromElementIndex();
+				return new MapKeyPathExpression( fromElement, resolvePluralAttribute( fromElement ).getIndexType() );
+			}
+			case NodeTags.COLLECTION_VALUE: {
+				return readCollectionValue();
+			}
+			default: {
+				throw unexpectedTag( "attribute binding source", tag );
+			}
+		}
+	}
+
+	/**
+	 * Mirrors the resolution done by the path resolvers when interpreting the query.
+	 */
+	private Attribute resolveAttribute(AttributeBindingSource lhs, String attributeName) {
+		final ManagedType managedType = resolveManagedType( lhs.getBoundModelType() );
+		Attribute attribute = managedType == null ? null : managedType.findAttribute( attributeName );
+		if ( attribute == null && lhs.getAttributeContributingType() != null ) {
+			attribute = lhs.getAttributeContributingType().findAttribute( attributeName );
+		}
+		if ( attribute != null ) {
+			return attribute;
+		}
+
+		if ( managedType instanceof EntityType ) {
+			final EntityType entityType = (EntityType) managedType;
+			final IdentifierDescriptor entityIdDescriptor = entityType.getIdentifierDescriptor();
+			final String referableIdAttributeName = entityIdDescriptor.getReferableAttributeName();
+
+			if ( "id".equals( attributeName )
+					|| ( referableIdAttributeName != null && referableIdAttributeName.equals( attributeName ) ) ) {
+				if ( entityIdDescriptor instanceof IdentifierDescriptorSingleAttribute ) {
+					return ( (IdentifierDescriptorSingleAttribute) entityIdDescriptor ).getIdAttribute();
+				}
+				else {
+					return new PseudoIdAttributeImpl( entityType );
+				}
+			}
+		}
+
+		throw new StatementCodecException(
+				"Could not resolve attribute [" + attributeName + "] against [" + lhs.asLoggableText() + "]"
+		);
+	}
+
+	private ManagedType resolveManagedType(Bindable bindable) {
+		if ( bindable instanceof ManagedType ) {
+			return (ManagedType) bindable;
+		}
+		else if ( bindable instanceof SingularAttribute ) {
+			final Type boundType = ( (SingularAttribute) bindable ).getBoundType();
+			return boundType instanceof ManagedType ? (ManagedType) boundType : null;
+		}
+		else if ( bindable instanceof PluralAttribute ) {
+			final Type boundType = ( (PluralAttribute) bindable ).getBoundType();
+			return boundType instanceof ManagedType ? (ManagedType) boundType : null;
+		}
+		return null;
+	}
+
+	private PluralAttribute resolvePluralAttribute(FromElement collectionReference) {
+		final Bindable bindable = collectionReference.getBoundModelType();
+		if ( !( bindable instanceof PluralAttribute ) ) {
+			throw new StatementCodecException(
+					"Collection function refers to non-collection FromElement [" + collectionReference.asLoggableText() + "]"
+			);
+		}
+		return (PluralAttribute) bindable;
+	}
+
+
+	// ~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+	// select-clause
+
+	private SelectClause readSelectClause() {
+		final SelectClause selectClause = new SelectClause( readBoolean() );
+		final int selectionCount = readVarInt();
+		for ( int i = 0; i < selectionCount; i++ ) {
+			final Expression expression = readExpression();
+			selectClause.addSelection( new Selection( expression, readString() ) );
+		}
+		return selectClause;
+	}
+
+	private DynamicInstantiation readDynamicInstantiation() {
+		final DynamicInstantiationTarget.Nature nature = INSTANTIATION_NATURES[readVarInt()];
+		final Type targetType = readType();
+		final DynamicInstantiation dynamicInstantiation;
+		switch ( nature ) {
+			case MAP: {
+				dynamicInstantiation = DynamicInstantiation.forMapInstantiation( (BasicType) targetType );
+				break;
+			}
+			case LIST: {
+				dynamicInstantiation = DynamicInstantiation.forListInstantiation( (BasicType) targetType );
+				break;
+			}
+			default: {
+				dynamicInstantiation = DynamicInstantiation.forClassInstantiation( targetType );
+			}
+		}
+
+		if ( readBoolean() ) {
+			final int argumentCount = readVarInt();
+			for ( int i = 0; i < argumentCount; i++ ) {
+				final Expression expression = readExpression();
+				dynamicInstantiation.addArgument( new DynamicInstantiationArgument( expression, readString() ) );
+			}
+		}
+		return dynamicInstantiation;
+	}
+
+
+	// ~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+	// predicates
+
+	private Predicate readPredicate() {
+		final byte tag = buffer.get();
+		switch ( tag ) {
+			case NodeTags.NULL: {
+				return null;
+			}
+			case NodeTags.GROUPED: {
+				return new GroupedPredicate( readPredicate() );
+			}
+			case NodeTags.AND: {
+				final Predicate lhs = readPredicate();
+				return new AndPredicate( lhs, readPredicate() );
+			}
+			case NodeTags.OR: {
+				final Predicate lhs = readPredicate();
+				return new OrPredicate( lhs, readPredicate() );
+			}
+			case NodeTags.JUNCTION: {
+				final JunctionPredicate.Nature nature = JUNCTION_NATURES[readVarInt()];
+				final int count = readVarInt();
+				final List<Predicate> predicates = new ArrayList<Predicate>( count );
+				for ( int i = 0; i < count; i++ ) {
+					predicates.add( readPredicate() );
+				}
+				return new JunctionPredicate( nature, predicates );
+			}
+			case NodeTags.RELATIONAL: {
+				final RelationalPredicate.Type type = RELATIONAL_TYPES[readVarInt()];
+				final Expression lhs = readExpression();
+				return new RelationalPredicate( type, lhs, readExpression() );
+			}
+			case NodeTags.EMPTINESS: {
+				final Expression expression = readExpression();
+				return new EmptinessPredicate( expression, readBoolean() );
+			}
+			case NodeTags.NULLNESS: {
+				final Expression expression = readExpression();
+				return new NullnessPredicate( expression, readBoolean() );
+			}
+			case NodeTags.BETWEEN: {
+				final Expression expression = readExpression();
+				final Expression lowerBound = readExpression();
+				final Expression upperBound = readExpression();
+				return new BetweenPredicate( expression, lowerBound, upperBound, readBoolean() );
+			}
+			case NodeTags.LIKE: {
+				final Expression matchExpression = readExpression();
+				final Expression pattern = readExpression();
+				final Expression escapeCharacter = readExpression();
+				return new LikePredicate( matchExpression, pattern, escapeCharacter, readBoolean() );
+			}
+			case NodeTags.MEMBER_OF: {
+				final AttributeReferenceExpression attributeReference = readAttributeReference();
+				return new MemberOfPredicate( attributeReference, readBoolean() );
+			}
+			case NodeTags.NEGATED: {
+				return new NegatedPredicate( readPredicate() );
+			}
+			case NodeTags.IN_LIST: {
+				final Expression testExpression = readExpression();
+				final List<Expression> listExpressions = readExpressions();
+				return new InListPredicate( testExpression, listExpressions, readBoolean() );
+			}
+			case NodeTags.LITERAL_IN_LIST: {
+				return readLiteralInList();
+			}
+			case NodeTags.IN_SUB_QUERY: {
+				final Expression testExpression = readExpression();
+				final byte subQueryTag = buffer.get();
+				if ( subQueryTag != NodeTags.SUB_QUERY ) {
+					throw unexpectedTag( "sub-query", subQueryTag );
+				}
+				final SubQueryExpression subQuery = readSubQuery();
+				return new InSubQueryPredicate( testExpression, subQuery, readBoolean() );
+			}
+			default: {
+				throw unexpectedTag( "predicate", tag );
+			}
+		}
+	}
+
+	@SuppressWarnings("unchecked")
+	private LiteralInListPredicate readLiteralInList() {
+		final Expression testExpression = readExpression();
+		final int kindOrdinal = readVarInt();
+		if ( kindOrdinal >= LiteralInListPredicate.ValueKind.values().length ) {
+			throw new StatementCodecException( "Unknown IN list value kind [" + kindOrdinal + "]" );
+		}
+		final LiteralInListPredicate.ValueKind valueKind = LiteralInListPredicate.ValueKind.values()[kindOrdinal];
+		final BasicType valueType = (BasicType) readType();
+		final int size = readVarInt();
+		if ( size < 0 || size > buffer.remaining() ) {
+			// every value takes at least one byte
+			throw new StatementCodecException( "Malformed IN list size [" + size + "]" );
+		}
+		switch ( valueKind ) {
+			case INTEGER: {
+				final int[] values = new int[size];
+				for ( int i = 0; i < size; i++ ) {
+					values[i] = (int) readSignedVarLong();
+				}
+				return new LiteralInListPredicate( testExpression, valueType, values, readBoolean() );
+			}
+			case LONG: {
+				final long[] values = new long[size];
+				for ( int i = 0; i < size; i++ ) {
+					values[i] = readSignedVarLong();
+				}
+				return new LiteralInListPredicate( testExpression, valueType, values, readBoolean() );
+			}
+			default: {
+				final String[] values = new String[size];
+				for ( int i = 0; i < size; i++ ) {
+					values[i] = readString();
+				}
+				return new LiteralInListPredicate( testExpression, valueType, values, readBoolean() );
+			}
+		}
+	}
+
+
+	// ~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+	// order-by
+
+	private OrderByClause readOrderByClause() {
+		if ( !readBoolean() ) {
+			return null;
+		}
+
+		final OrderByClause orderByClause = new OrderByClause();
+		final int sortSpecificationCount = readVarInt();
+		for ( int i = 0; i < sortSpecificationCount; i++ ) {
+			final Expression sortExpression = readExpression();
+			final String collation = readString();
+			final int sortOrderOrdinal = readVarInt();
+			orderByClause.addSortSpecification(
+					new SortSpecification(
+							sortExpression,
+							collation,
+							sortOrderOrdinal == 0 ? null : SORT_ORDERS[sortOrderOrdinal - 1]
+					)
+			);
+		}
+		return orderByClause;
+	}
+
+
+	// ~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+	// expressions
+
+	private List<Expression> readExpressions() {
+		final int count = readVarInt();
+		final List<Expression> expressions = new ArrayList<Expression>( count );
+		for ( int i = 0; i < count; i++ ) {
+			expressions.add( readExpression() );
+		}
+		return expressions;
+	}
+
+	private AttributeReferenceExpression readAttributeReference() {
+		final byte tag = buffer.get();
+		if ( tag != NodeTags.ATTRIBUTE_REFERENCE ) {
+			throw unexpectedTag( "attribute reference", tag );
+		}
+		return readAttributeReferenceState();
+	}
+
+	private AttributeReferenceExpression readAttributeReferenceState() {
+		final AttributeBindingSource source = readAttributeBindingSource();
+		return new AttributeReferenceExpression( source, resolveAttribute( source, readString() ) );
+	}
+
+	private CollectionValuePathExpression readCollectionValue() {
+		final FromElement fromElement = readFromElementIndex();
+		if ( !( fromElement instanceof QualifiedAttributeJoinFromElement ) ) {
+			throw new StatementCodecException(
+					"value() function refers to non-collection FromElement [" + fromElement.asLoggableText() + "]"
+			);
+		}
+		return new CollectionValuePathExpression(
+				(QualifiedAttributeJoinFromElement) fromElement,
+				resolvePluralAttribute( fromElement ).getElementType()
+		);
+	}
+
+	private SubQueryExpression readSubQuery() {
+		final QuerySpec querySpec = readQuerySpec();
+		return new SubQueryExpression( querySpec, readType() );
+	}
+
+	private Expression readExpression() {
+		final byte tag = buffer.get();
+		switch ( tag ) {
+			case NodeTags.NULL: {
+				return null;
+			}
+			case NodeTags.FROM_ELEMENT_REFERENCE: {
+				return readFromElementIndex();
+			}
+			case NodeTags.TREATED_FROM_ELEMENT: {
+				final FromElement fromElement = readFromElementIndex();
+				return new TreatedFromElementBinding( fromElement, nameResolver.resolveEntityType( readString() ) );
+			}
+			case NodeTags.POSITIONAL_PARAMETER: {
+				final int position = readVarInt();
+				return new PositionalParameterExpression( position, readType() );
+			}
+			case NodeTags.NAMED_PARAMETER: {
+				final String name = readString();
+				return new NamedParameterExpression( name, readType() );
+			}
+			case NodeTags.SYNTHETIC_PARAMETER: {
+				final int position = readVarInt();
+				return new SyntheticParameterExpression( position, readType() );
+			}
+			case NodeTags.ENTITY_TYPE: {
+				return new EntityTypeExpression( nameResolver.resolveEntityType( readString() ) );
+			}
+			case NodeTags.UNARY_OPERATION: {
+				final UnaryOperationExpression.Operation operation = UNARY_OPERATIONS[readVarInt()];
+				final Expression operand = readExpression();
+				return new UnaryOperationExpression( operation, operand, readType() );
+			}
+			case NodeTags.ATTRIBUTE_REFERENCE: {
+				return readAttributeReferenceState();
+			}
+			case NodeTags.FUNCTION: {
+				final String name = readString();
+				final BasicType type = (BasicType) readType();
+				return new FunctionExpression( name, type, readExpressions() );
+			}
+			case NodeTags.AVG: {
+				final Expression argument = readExpression();
+				final boolean distinct = readBoolean();
+				return new AvgFunction( argument, distinct, (BasicType) readType() );
+			}
+			case NodeTags.COUNT_STAR: {
+				final boolean distinct = readBoolean();
+				return new CountStarFunction( distinct, (BasicType) readType() );
+			}
+			case NodeTags.COUNT: {
+				final Expression argument = readExpression();
+				final boolean distinct = readBoolean();
+				return new CountFunction( argument, distinct, (BasicType) readType() );
+			}
+			case NodeTags.MAX: {
+				final Expression argument = readExpression();
+				final boolean distinct = readBoolean();
+				return new MaxFunction( argument, distinct, (BasicType) readType() );
+			}
+			case NodeTags.MIN: {
+				final Expression argument = readExpression();
+				final boolean distinct = readBoolean();
+				return new MinFunction( argument, distinct, (BasicType) readType() );
+			}
+			case NodeTags.SUM: {
+				final Expression argument = readExpression();
+				final boolean distinct = readBoolean();
+				return new SumFunction( argument, distinct, (BasicType) readType() );
+			}
+			case NodeTags.COLLECTION_SIZE: {
+				final AttributeBinding pluralAttributeBinding = (AttributeBinding) readExpression();
+				return new CollectionSizeFunction( pluralAttributeBinding, (BasicType) readType() );
+			}
+			case NodeTags.COLLECTION_VALUE: {
+				return readCollectionValue();
+			}
+			case NodeTags.COLLECTION_INDEX: {
+				final FromElement fromElement = readFromElementIndex();
+				return new CollectionIndexFunction( fromElement, resolvePluralAttribute( fromElement ).getIndexType() );
+			}
+			case NodeTags.MAP_KEY: {
+				final FromElement fromElement = readFromElementIndex();
+				return new MapKeyPathExpression( fromElement, resolvePluralAttribute( fromElement ).getIndexType() );
+			}
+			case NodeTags.MAP_ENTRY: {
+				final FromElement fromElement = readFromElementIndex();
+				final PluralAttribute pluralAttribute = resolvePluralAttribute( fromElement );
+				return new MapEntryFunction( fromElement, pluralAttribute.getIndexType(), pluralAttribute.getElementType() );
+			}
+			case NodeTags.MAX_ELEMENT: {
+				final FromElement fromElement = readFromElementIndex();
+				return new MaxElementFunction( fromElement, resolvePluralAttribute( fromElement ).getElementType() );
+			}
+			case NodeTags.MIN_ELEMENT: {
+				final FromElement fromElement = readFromElementIndex();
+				return new MinElementFunction( fromElement, resolvePluralAttribute( fromElement ).getElementType() );
+			}
+			case NodeTags.MAX_INDEX: {
+				final FromElement fromElement = readFromElementIndex();
+				return new MaxIndexFunction( fromElement, resolvePluralAttribute( fromElement ).getIndexType() );
+			}
+			case NodeTags.MIN_INDEX: {
+				final FromElement fromElement = readFromElementIndex();
+				return new MinIndexFunction( fromElement, resolvePluralAttribute( fromElement ).getIndexType() );
+			}
+			case NodeTags.LITERAL_STRING: {
+				final String value = readString();
+				return new LiteralStringExpression( value, (BasicType) readType() );
+			}
+			case NodeTags.LITERAL_CHARACTER: {
+				final char value = (char) readVarInt();
+				return new LiteralCharacterExpression( value, (BasicType) readType() );
+			}
+			case NodeTags.LITERAL_DOUBLE: {
+				final double value = Double.longBitsToDouble( readFixedLong() );
+				return new LiteralDoubleExpression( value, (BasicType) readType() );
+			}
+			case NodeTags.LITERAL_INTEGER: {
+				final int value = (int) readSignedVarLong();
+				return new LiteralIntegerExpression( value, (BasicType) readType() );
+			}
+			case NodeTags.LITERAL_BIG_INTEGER: {
+				final BigInteger value = new BigInteger( readString() );
+				return new LiteralBigIntegerExpression( value, (BasicType) readType() );
+			}
+			case NodeTags.LITERAL_BIG_DECIMAL: {
+				final BigDecimal value = new BigDecimal( readString() );
+				return new LiteralBigDecimalExpression( value, (BasicType) readType() );
+			}
+			case NodeTags.LITERAL_FLOAT: {
+				final float value = Float.intBitsToFloat( readFixedInt() );
+				return new LiteralFloatExpression( value, (BasicType) readType() );
+			}
+			case NodeTags.LITERAL_LONG: {
+				final long value = readSignedVarLong();
+				return new LiteralLongExpression( value, (BasicType) readType() );
+			}
+			case NodeTags.LITERAL_TRUE: {
+				return new LiteralTrueExpression( (BasicType) readType() );
+			}
+			case NodeTags.LITERAL_FALSE: {
+				return new LiteralFalseExpression( (BasicType) readType() );
+			}
+			case NodeTags.LITERAL_NULL: {
+				return new LiteralNullExpression();
+			}
+			case NodeTags.CONCAT: {
+				final Expression lhs = readExpression();
+				final Expression rhs = readExpression();
+				return new ConcatExpression( lhs, rhs, (BasicType) readType() );
+			}
+			case NodeTags.CONCAT_LIST: {
+				final List<Expression> operands = readExpressions();
+				return new ConcatListExpression( operands, (BasicType) readType() );
+			}
+			case NodeTags.CONSTANT_ENUM: {
+				final Class enumClass = nameResolver.classForName( readString() );
+				final Enum value = Enum.valueOf( enumClass, readString() );
+				return new ConstantEnumExpression( value, (BasicType) readType() );
+			}
+			case NodeTags.CONSTANT_FIELD: {
+				final Object value = readConstantValue();
+				return new ConstantFieldExpression( value, (BasicType) readType() );
+			}
+			case NodeTags.BINARY_ARITHMETIC: {
+				final BinaryArithmeticExpression.Operation operation = BINARY_OPERATIONS[readVarInt()];
+				final Expression lhs = readExpression();
+				final Expression rhs = readExpression();
+				return new BinaryArithmeticExpression( operation, lhs, rhs, (BasicType) readType() );
+			}
+			case NodeTags.SUB_QUERY: {
+				return readSubQuery();
+			}
+			case NodeTags.CASE_SIMPLE: {
+				final CaseSimpleExpression expression = new CaseSimpleExpression( readExpression() );
+				final int whenCount = readVarInt();
+				for ( int i = 0; i < whenCount; i++ ) {
+					final Expression checkValue = readExpression();
+					expression.when( checkValue, readExpression() );
+				}
+				final Expression otherwise = readExpression();
+				if ( otherwise != null ) {
+					expression.otherwise( otherwise );
+				}
+				return expression;
+			}
+			case NodeTags.CASE_SEARCHED: {
+				final CaseSearchedExpression expression = new CaseSearchedExpression();
+				final int whenCount = readVarInt();
+				for ( int i = 0; i < whenCount; i++ ) {
+					final Predicate predicate = readPredicate();
+					expression.when( predicate, readExpression() );
+				}
+				final Expression otherwise = readExpression();
+				if ( otherwise != null ) {
+					expression.otherwise( otherwise );
+				}
+				return expression;
+			}
+			case NodeTags.COALESCE: {
+				final CoalesceExpression expression = new CoalesceExpression();
+				final int valueCount = readVarInt();
+				for ( int i = 0; i < valueCount; i++ ) {
+					expression.value( readExpression() );
+				}
+				return expression;
+			}
+			case NodeTags.NULLIF: {
+				final Expression first = readExpression();
+				return new NullifExpression( first, readExpression() );
+			}
+			case NodeTags.DYNAMIC_INSTANTIATION: {
+				return readDynamicInstantiation();
+			}
+			default: {
+				throw unexpectedTag( "expression", tag );
+			}
+		}
+	}
+
+
+	// ~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+	// types and values
+
+	private Type readType() {
+		final byte tag = buffer.get();
+		switch ( tag ) {
+			case NodeTags.NULL: {
+				return null;
+			}
+			case NodeTags.ENTITY_TYPE_REFERENCE: {
+				return nameResolver.resolveEntityType( readString() );
+			}
+			case NodeTags.BASIC_TYPE: {
+				return nameResolver.resolveBasicType( readString() );
+			}
+			default: {
+				throw unexpectedTag( "type", tag );
+			}
+		}
+	}
+
+	private Object readConstantValue() {
+		final byte tag = buffer.get();
+		switch ( tag ) {
+			case NodeTags.VALUE_STRING: {
+				return readString();
+			}
+			case NodeTags.VALUE_INTEGER: {
+				return (int) readSignedVarLong();
+			}
+			case NodeTags.VALUE_LONG: {
+				return readSignedVarLong();
+			}
+			case NodeTags.VALUE_SHORT: {
+				return (short) readSignedVarLong();
+			}
+			case NodeTags.VALUE_BYTE: {
+				return buffer.get();
+			}
+			case NodeTags.VALUE_BOOLEAN: {
+				return readBoolean();
+			}
+			case NodeTags.VALUE_CHARACTER: {
+				return (char) readVarInt();
+			}
+			case NodeTags.VALUE_FLOAT: {
+				return Float.intBitsToFloat( readFixedInt() );
+			}
+			case NodeTags.VALUE_DOUBLE: {
+				return Double.longBitsToDouble( readFixedLong() );
+			}
+			case NodeTags.VALUE_BIG_INTEGER: {
+				return new BigInteger( readString() );
+			}
+			case NodeTags.VALUE_BIG_DECIMAL: {
+				return new BigDecimal( readString() );
+			}
+			default: {
+				throw unexpectedTag( "constant value", tag );
+			}
+		}
+	}
+
+	private StatementCodecException unexpectedTag(String expected, byte tag) {
+		return new StatementCodecException(
+				"Unexpected tag [" + tag + "] reading " + expected + " at position " + ( buffer.position() - 1 )
+		);
+	}
+
+
+	// ~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+	// primitives
+
+	private boolean readBoolean() {
+		return buffer.get() != 0;
+	}
+
+	private int readFixedInt() {
+		// read byte-wise rather than relying on the byte order of the (caller supplied) buffer
+		return ( ( buffer.get() & 0xFF ) << 24 )
+				| ( ( buffer.get() & 0xFF ) << 16 )
+				| ( ( buffer.get() & 0xFF ) << 8 )
+				| ( buffer.get() & 0xFF );
+	}
+
+	private long readFixedLong() {
+		return ( (long) readFixedInt() << 32 ) | ( readFixedInt() & 0xFFFFFFFFL );
+	}
+
+	private int readVarInt() {
+		int result = 0;
+		int shift = 0;
+		byte b;
+		do {
+			if ( shift > 28 ) {
+				throw new StatementCodecException( "Malformed variable-length integer" );
+			}
+			b = buffer.get();
+			result |= ( b & 0x7F ) << shift;
+			shift += 7;
+		} while ( ( b & 0x80 ) != 0 );
+		return result;
+	}
+
+	private long readSignedVarLong() {
+		long zigZag = 0;
+		int shift = 0;
+		byte b;
+		do {
+			if ( shift > 63 ) {
+				throw new StatementCodecException( "Malformed variable-length long" );
+			}
+			b = buffer.get();
+			zigZag |= (long) ( b & 0x7F ) << shift;
+			shift += 7;
+		} while ( ( b & 0x80 ) != 0 );
+		return ( zigZag >>> 1 ) ^ -( zigZag & 1 );
+	}
+
+	private String readString() {
+		final int marker = readVarInt();
+		if ( marker == 0 ) {
+			return null;
+		}
+		if ( marker > 1 ) {
+			final int index = marker - 2;
+			if ( index >= strings.size() ) {
+				throw new StatementCodecException( "Reference to undefined string [" + index + "]" );
+			}
+			return strings.get( index );
+		}
+
+		final int length = readVarInt();
+		final char[] chars = new char[length];
+		for ( int i = 0; i < length; i++ ) {
+			chars[i] = (char) readVarInt();
+		}
+		final String value = new String( chars );
+		strings.add( value );
+		return value;
+	}
+}
@@ -0,0 +1,1161 @@
+/*
+ * Hibernate, Relational Persistence for Idiomatic Java
+ *
+ * License: Apache License, Version 2.0
+ * See the LICENSE file in the root directory or visit http://www.apache.org/licenses/LICENSE-2.0
+ */
+package org.hibernate.sqm.codec.internal;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.hibernate.sqm.BaseSemanticQueryWalker;
+import org.hibernate.sqm.codec.StatementCodec;
+import org.hibernate.sqm.codec.StatementCodecException;
+import org.hibernate.sqm.domain.BasicType;
+import org.hibernate.sqm.domain.EntityType;
+import org.hibernate.sqm.domain.Type;
+import org.hibernate.sqm.parser.internal.hql.path.TreatedFromElementBinding;
+import org.hibernate.sqm.path.AttributeBinding;
+import org.hibernate.sqm.path.AttributeBindingSource;
+import org.hibernate.sqm.query.DeleteStatement;
+import org.hibernate.sqm.query.InsertSelectStatement;
+import org.hibernate.sqm.query.QuerySpec;
+import org.hibernate.sqm.query.SelectStatement;
+import org.hibernate.sqm.query.Statement;
+import org.hibernate.sqm.query.UpdateStatement;
+import org.hibernate.sqm.query.expression.AbstractAggregateFunction;
+import org.hibernate.sqm.query.expression.AttributeReferenceExpression;
+import org.hibernate.sqm.query.expression.AvgFunction;
+import org.hibernate.sqm.query.expression.BinaryArithmeticExpression;
+import org.hibernate.sqm.query.expression.CaseSearchedExpression;
+import org.hibernate.sqm.query.expression.CaseSimpleExpression;
+import org.hibernate.sqm.query.expression.CoalesceExpression;
+import org.hibernate.sqm.query.expression.CollectionIndexFunction;
+import org.hibernate.sqm.query.expression.CollectionSizeFunction;
+import org.hibernate.sqm.query.expression.CollectionValuePathExpression;
+import org.hibernate.sqm.query.expression.ConcatExpression;
+import org.hibernate.sqm.query.expression.ConcatListExpression;
+import org.hibernate.sqm.query.expression.ConstantEnumExpression;
+import org.hibernate.sqm.query.expression.ConstantFieldExpression;
+import org.hibernate.sqm.query.expression.CountFunction;
+import org.hibernate.sqm.query.expression.CountStarFunction;
+import org.hibernate.sqm.query.expression.EntityTypeExpression;
+import org.hibernate.sqm.query.expression.Expression;
+import org.hibernate.sqm.query.expression.FunctionExpression;
+import org.hibernate.sqm.query.expression.LiteralBigDecimalExpression;
+import org.hibernate.sqm.query.expression.LiteralBigIntegerExpression;
+import org.hibernate.sqm.query.expression.LiteralCharacterExpression;
+import org.hibernate.sqm.query.expression.LiteralDoubleExpression;
+import org.hibernate.sqm.query.expression.LiteralFalseExpression;
+import org.hibernate.sqm.query.expression.LiteralFloatExpression;
+import org.hibernate.sqm.query.expression.LiteralIntegerExpression;
+import org.hibernate.sqm.query.expression.LiteralLongExpression;
+import org.hibernate.sqm.query.expression.LiteralNullExpression;
+import org.hibernate.sqm.query.expression.LiteralStringExpression;
+import org.hibernate.sqm.query.expression.LiteralTrueExpression;
+import org.hibernate.sqm.query.expression.MapEntryFunction;
+import org.hibernate.sqm.query.expression.MapKeyPathExpression;
+import org.hibernate.sqm.query.expression.MaxElementFunction;
+import org.hibernate.sqm.query.expression.MaxFunction;
+import org.hibernate.sqm.query.expression.MaxIndexFunction;
+import org.hibernate.sqm.query.expression.MinElementFunction;
+import org.hibernate.sqm.query.expression.MinFunction;
+import org.hibernate.sqm.query.expression.MinIndexFunction;
+import org.hibernate.sqm.query.expression.NamedParameterExpression;
+import org.hibernate.sqm.query.expression.NullifExpression;
+import org.hibernate.sqm.query.expression.PositionalParameterExpression;
+import org.hibernate.sqm.query.expression.SubQueryExpression;
+import org.hibernate.sqm.query.expression.SumFunction;
+import org.hibernate.sqm.query.expression.SyntheticParameterExpression;
+import org.hibernate.sqm.query.expression.UnaryOperationExpression;
+import org.hibernate.sqm.query.from.CrossJoinedFromElement;
+import org.hibernate.sqm.query.from.Downcast;
+import org.hibernate.sqm.query.from.FromClause;
+import org.hibernate.sqm.query.from.FromElement;
+import org.hibernate.sqm.query.from.FromElementSpace;
+import org.hibernate.sqm.query.from.FromElementTable;
+import org.hibernate.sqm.query.from.JoinedFromElement;
+import org.hibernate.sqm.query.from.QualifiedAttributeJoinFromElement;
+import org.hibernate.sqm.query.from.QualifiedEntityJoinFromElement;
+import org.hibernate.sqm.query.from.RootEntityFromElement;
+import org.hibernate.sqm.query.order.OrderByClause;
+import org.hibernate.sqm.query.order.SortSpecification;
+import org.hibernate.sqm.query.predicate.AndPredicate;
+import org.hibernate.sqm.query.predicate.BetweenPredicate;
+import org.hibernate.sqm.query.predicate.EmptinessPredicate;
+import org.hibernate.sqm.query.predicate.GroupedPredicate;
+import org.hibernate.sqm.query.predicate.InListPredicate;
+import org.hibernate.sqm.query.predicate.InSubQueryPredicate;
+import org.hibernate.sqm.query.predicate.JunctionPredicate;
+import org.hibernate.sqm.query.predicate.LikePredicate;
+import org.hibernate.sqm.query.predicate.LiteralInListPredicate;
+import org.hibernate.sqm.query.predicate.MemberOfPredicate;
+import org.hibernate.sqm.query.predicate.NegatedPredicate;
+import org.hibernate.sqm.query.predicate.NullnessPredicate;
+import org.hibernate.sqm.query.predicate.OrPredicate;
+import org.hibernate.sqm.query.predicate.Predicate;
+import org.hibernate.sqm.query.predicate.RelationalPredicate;
+import org.hibernate.sqm.query.predicate.WhereClause;
+import org.hibernate.sqm.query.select.DynamicInstantiation;
+import org.hibernate.sqm.query.select.DynamicInstantiationArgument;
+import org.hibernate.sqm.query.select.SelectClause;
+import org.hibernate.sqm.query.select.Selection;
+import org.hibernate.sqm.query.set.Assignment;
+import org.hibernate.sqm.query.set.SetClause;
+
+/**
+ * Writes a statement tree in the binary format read by {@link StatementDecoder}.
+ * <p/>
+ * The format is a pre-order serialization of the tree: each node is written as its
+ * {@link NodeTags tag} followed by its state and its children.  Integers are written as
+ * variable-length quantities and strings are written once per statement and referenced by
+ * index afterwards.  FromElements are written in full where they are declared and by index
+ * everywhere they are referenced; entities, attributes and basic types are written by name
+ * and resolved against the DomainMetamodel on decode.  Types which can be derived from the
+ * domain model on decode (collection index/element types e.g.) are not written at all.
+ * <p/>
+ * An encoder instance is stateful and should be used to encode a single statement.
+ *
+ * @author agent
+ */
+public class StatementEncoder extends BaseSemanticQueryWalker<Void> {
+	private byte[] buffer = new byte[256];
+	private int position;
+
+	private final Map<String,Integer> stringIndexes = new HashMap<String, Integer>();
+	private final FromElementTable declaredFromElements = new FromElementTable();
+	private final Map<String,FromElement> fromElementsByAlias = new HashMap<String, FromElement>();
+
+	/**
+	 * Encode the given statement.
+	 *
+	 * @param statement The statement to encode
+	 *
+	 * @return The encoded form
+	 */
+	public byte[] encode(Statement statement) {
+		for ( byte b : StatementCodec.MAGIC ) {
+			writeByte( b );
+		}
+		writeVarInt( StatementCodec.FORMAT_VERSION );
+		statement.accept( this );
+		return Arrays.copyOf( buffer, position );
+	}
+
+
+	// ~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+	// statements
+
+	@Override
+	public Void visitSelectStatement(SelectStatement statement) {
+		writeByte( NodeTags.SELECT_STATEMENT );
+		visitQuerySpec( statement.getQuerySpec() );
+		visitOrderByClause( statement.getOrderByClause() );
+		return null;
+	}
+
+	@Override
+	public Void visitUpdateStatement(UpdateStatement statement) {
+		writeByte( NodeTags.UPDATE_STATEMENT );
+		writeRootEntityDeclaration( statement.getEntityFromElement() );
+		visitSetClause( statement.getSetClause() );
+		visitWhereClause( statement.getWhereClause() );
+		return null;
+	}
+
+	@Override
+	public Void visitSetClause(SetClause setClause) {
+		final List<Assignment> assignments = setClause.getAssignments();
+		writeVarInt( assignments.size() );
+		for ( Assignment assignment : assignments ) {
+			visitAssignment( assignment );
+		}
+		return null;
+	}
+
+	@Override
+	public Void visitAssignment(Assignment assignment) {
+		visitAttributeReferenceExpression( assignment.getStateField() );
+		writeExpression( assignment.getValue() );
+		return null;
+	}
+
+	@Override
+	public Void visitInsertSelectStatement(InsertSelectStatement statement) {
+		writeByte( NodeTags.INSERT_SELECT_STATEMENT );
+		writeRootEntityDeclaration( statement.getInsertTarget() );
+		final List<AttributeReferenceExpression> stateFields = statement.getStateFields();
+		writeVarInt( stateFields.size() );
+		for ( AttributeReferenceExpression stateField : stateFields ) {
+			visitAttributeReferenceExpression( stateField );
+		}
+		if ( statement.getSelectQuery() == null ) {
+			writeByte( NodeTags.NULL );
+		}
+		else {
+			writeByte( NodeTags.SELECT_STATEMENT );
+			visitQuerySpec( statement.getSelectQuery() );
+		}
+		return null;
+	}
+
+	@Override
+	public Void visitDeleteStatement(DeleteStatement statement) {
+		writeByte( NodeTags.DELETE_STATEMENT );
+		writeRootEntityDeclaration( statement.getEntityFromElement() );
+		visitWhereClause( statement.getWhereClause() );
+		return null;
+	}
+
+	@Override
+	public Void visitQuerySpec(QuerySpec querySpec) {
+		// the from-clause has to come first so that the FromElements are declared before
+		// being referenced
+		visitFromClause( querySpec.getFromClause() );
+		visitSelectClause( querySpec.getSelectClause() );
+		visitWhereClause( querySpec.getWhereClause() );
+		return null;
+	}
+
+
+	// ~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+	// from-clause
+
+	@Override
+	public Void visitFromClause(FromClause fromClause) {
+		final List<FromElementSpace> spaces = fromClause.getFromElementSpaces();
+		writeVarInt( spaces.size() );
+		for ( FromElementSpace space : spaces ) {
+			visitFromElementSpace( space );
+		}
+		return null;
+	}
+
+	@Override
+	public Void visitFromElementSpace(FromElementSpace fromElementSpace) {
+		writeRootEntityDeclaration( fromElementSpace.getRoot() );
+		final List<JoinedFromElement> joins = fromElementSpace.getJoins();
+		writeVarInt( joins.size() );
+		for ( JoinedFromElement join : joins ) {
+			writeJoinDeclaration( join );
+		}
+		return null;
+	}
+
+	private void writeRootEntityDeclaration(RootEntityFromElement root) {
+		writeByte( NodeTags.ROOT_ENTITY );
+		writeFromElementDeclaration( root );
+		writeString( root.getBoundModelType().getName() );
+		writeDowncasts( root );
+	}
+
+	private void writeJoinDeclaration(JoinedFromElement join) {
+		if ( join instanceof CrossJoinedFromElement ) {
+			final CrossJoinedFromElement crossJoin = (CrossJoinedFromElement) join;
+			writeByte( NodeTags.CROSS_JOIN );
+			writeFromElementDeclaration( crossJoin );
+			writeString( crossJoin.getBoundModelType().getName() );
+			writeDowncasts( crossJoin );
+		}
+		else if ( join instanceof QualifiedEntityJoinFromElement ) {
+			final QualifiedEntityJoinFromElement entityJoin = (QualifiedEntityJoinFromElement) join;
+			writeByte( NodeTags.ENTITY_JOIN );
+			writeFromElementDeclaration( entityJoin );
+			writeString( entityJoin.getBoundModelType().getName() );
+			writeVarInt( entityJoin.getJoinType().ordinal() );
+			writeDowncasts( entityJoin );
+			writePredicate( entityJoin.getOnClausePredicate() );
+		}
+		else if ( join instanceof QualifiedAttributeJoinFromElement ) {
+			final QualifiedAttributeJoinFromElement attributeJoin = (QualifiedAttributeJoinFromElement) join;
+			writeByte( NodeTags.ATTRIBUTE_JOIN );
+			// the lhs has to be declared before the join itself
+			writeAttributeBindingSource( attributeJoin.getAttributeBindingSource() );
+			writeFromElementDeclaration( attributeJoin );
+			writeString( attributeJoin.getJoinedAttributeDescriptor().getName() );
+			writeEntityName( attributeJoin.getIntrinsicSubclassIndicator() );
+			writeString( attributeJoin.asLoggableText() );
+			writeVarInt( attributeJoin.getJoinType().ordinal() );
+			writeBoolean( attributeJoin.isFetched() );
+			writeDowncasts( attributeJoin );
+			writePredicate( attributeJoin.getOnClausePredicate() );
+		}
+		else {
+			throw new StatementCodecException( "Unexpected JoinedFromElement type : " + join );
+		}
+	}
+
+	private void writeFromElementDeclaration(FromElement fromElement) {
+		if ( declaredFromElements.put( fromElement ) != null ) {
+			throw new StatementCodecException( "FromElement [" + fromElement.asLoggableText() + "] declared twice" );
+		}
+		writeVarInt( fromElement.getUniqueId() );
+		if ( fromElement.isImplicitlyAliased() ) {
+			// implicit aliases are re-rendered from the unique id
+			writeString( null );
+		}
+		else {
+			fromElementsByAlias.put( fromElement.getIdentificationVariable(), fromElement );
+			writeString( fromElement.getIdentificationVariable() );
+		}
+	}
+
+	private void writeDowncasts(FromElement fromElement) {
+		final Collection<Downcast> downcasts = fromElement.getDowncasts();
+		writeVarInt( downcasts.size() );
+		for ( Downcast downcast : downcasts ) {
+			writeString( downcast.getTargetType().getName() );
+		}
+	}
+
+	private void writeFromElementReference(FromElement fromElement) {
+		writeByte( NodeTags.FROM_ELEMENT_REFERENCE );
+		writeFromElementIndex( fromElement );
+	}
+
+	private void writeFromElementIndex(FromElement fromElement) {
+		// FromElements are referenced by their (dense) unique id
+		if ( declaredFromElements.get( fromElement.getUniqueId() ) != fromElement ) {
+			throw new StatementCodecException(
+					"FromElement [" + fromElement.asLoggableText() + "] referenced before being declared"
+			);
+		}
+		writeVarInt( fromElement.getUniqueId() );
+	}
+
+	private void writeAliasedFromElementIndex(String alias) {
+		FromElement fromElement = fromElementsByAlias.get( alias );
+		if ( fromElement == null ) {
+			fromElement = findImplicitlyAliasedFromElement( alias );
+		}
+		if ( fromElement == null ) {
+			throw new StatementCodecException( "Could not resolve collection alias [" + alias + "]" );
+		}
+		writeFromElementIndex( fromElement );
+	}
+
+	private FromElement findImplicitlyAliasedFromElement(String alias) {
+		// implicit aliases are not rendered unless asked for, so only look for them when referenced
+		for ( FromElement fromElement : declaredFromElements.toArray() ) {
+			if ( fromElement != null
+					&& fromElement.isImplicitlyAliased()
+					&& fromElement.getIdentificationVariable().equals( alias ) ) {
+				return fromElement;
+			}
+		}
+		return null;
+	}
+
+	private void writeAttributeBindingSource(AttributeBindingSource source) {
+		if ( source instanceof FromElement ) {
+			writeFromElementReference( (FromElement) source );
+		}
+		else if ( source instanceof TreatedFromElementBinding ) {
+			writeByte( NodeTags.TREATED_FROM_ELEMENT );
+			writeFromElementIndex( source.getFromElement() );
+			writeString( ( (TreatedFromElementBinding) source ).getSubclassIndicator().getName() );
+		}
+		else if ( source instanceof MapKeyPathExpression || source instanceof CollectionValuePathExpression ) {
+			( (Expression) source ).accept( this );
+		}
+		else {
+			throw new StatementCodecException( "Unsupported AttributeBindingSource type : " + source );
+		}
+	}
+
+	@Override
+	public Void visitRootEntityFromElement(RootEntityFromElement rootEntityFromElement) {
+		// only reached for references, declarations are handled explicitly
+		writeFromElementReference( rootEntityFromElement );
+		return null;
+	}
+
+	@Override
+	public Void visitCrossJoinedFromElement(CrossJoinedFromElement joinedFromElement) {
+		writeFromElementReference( joinedFromElement );
+		return null;
+	}
+
+	@Override
+	public Void visitQualifiedEntityJoinFromElement(QualifiedEntityJoinFromElement joinedFromElement) {
+		writeFromElementReference( joinedFromElement );
+		return null;
+	}
+
+	@Override
+	public Void visitQualifiedAttributeJoinFromElement(QualifiedAttributeJoinFromElement joinedFromElement) {
+		writeFromElementReference( joinedFromElement );
+		return null;
+	}
+
+
+	// ~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+	// select-clause
+
+	@Override
+	public Void visitSelectClause(SelectClause selectClause) {
+		writeBoolean( selectClause.isDistinct() );
+		final List<Selection> selections = selectClause.getSelections();
+		writeVarInt( selections.size() );
+		for ( Selection selection : selections ) {
+			visitSelection( selection );
+		}
+		return null;
+	}
+
+	@Override
+	public Void visitSelection(Selection selection) {
+		writeExpression( selection.getExpression() );
+		writeString( selection.getAlias() );
+		return null;
+	}
+
+	@Override
+	public Void visitDynamicInstantiation(DynamicInstantiation dynamicInstantiation) {
+		writeByte( NodeTags.DYNAMIC_INSTANTIATION );
+		writeVarInt( dynamicInstantiation.getInstantiationTarget().getNature().ordinal() );
+		writeType( dynamicInstantiation.getInstantiationTarget().getTargetType() );
+		final List<DynamicInstantiationArgument> arguments = dynamicInstantiation.getArguments();
+		if ( arguments == null ) {
+			writeBoolean( false );
+		}
+		else {
+			writeBoolean( true );
+			writeVarInt( arguments.size() );
+			for ( DynamicInstantiationArgument argument : arguments ) {
+				writeExpression( argument.getExpression() );
+				writeString( argument.getAlias() );
+			}
+		}
+		return null;
+	}
+
+
+	// ~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+	// predicates
+
+	@Override
+	public Void visitWhereClause(WhereClause whereClause) {
+		if ( whereClause == null ) {
+			writeBoolean( false );
+		}
+		else {
+			writeBoolean( true );
+			writePredicate( whereClause.getPredicate() );
+		}
+		return null;
+	}
+
+	private void writePredicate(Predicate predicate) {
+		if ( predicate == null ) {
+			writeByte( NodeTags.NULL );
+		}
+		else {
+			predicate.accept( this );
+		}
+	}
+
+	@Override
+	public Void visitGroupedPredicate(GroupedPredicate predicate) {
+		writeByte( NodeTags.GROUPED );
+		writePredicate( predicate.getSubPredicate() );
+		return null;
+	}
+
+	@Override
+	public Void visitAndPredicate(AndPredicate predicate) {
+		writeByte( NodeTags.AND );
+		writePredicate( predicate.getLeftHandPredicate() );
+		writePredicate( predicate.getRightHandPredicate() );
+		return null;
+	}
+
+	@Override
+	public Void visitOrPredicate(OrPredicate predicate) {
+		writeByte( NodeTags.OR );
+		writePredicate( predicate.getLeftHandPredicate() );
+		writePredicate( predicate.getRightHandPredicate() );
+		return null;
+	}
+
+	@Override
+	public Void visitJunctionPredicate(JunctionPredicate predicate) {
+		writeByte( NodeTags.JUNCTION );
+		writeVarInt( predicate.getNature().ordinal() );
+		final List<Predicate> predicates = predicate.getPredicates();
+		writeVarInt( predicates.size() );
+		for ( Predicate subPredicate : predicates ) {
+			writePredicate( subPredicate );
+		}
+		return null;
+	}
+
+	@Override
+	public Void visitRelationalPredicate(RelationalPredicate predicate) {
+		writeByte( NodeTags.RELATIONAL );
+		writeVarInt( predicate.getType().ordinal() );
+		writeExpression( predicate.getLeftHandExpression() );
+		writeExpression( predicate.getRightHandExpression() );
+		return null;
+	}
+
+	@Override
+	public Void visitIsEmptyPredicate(EmptinessPredicate predicate) {
+		writeByte( NodeTags.EMPTINESS );
+		writeExpression( predicate.getExpression() );
+		writeBoolean( predicate.isNegated() );
+		return null;
+	}
+
+	@Override
+	public Void visitIsNullPredicate(NullnessPredicate predicate) {
+		writeByte( NodeTags.NULLNESS );
+		writeExpression( predicate.getExpression() );
+		writeBoolean( predicate.isNegated() );
+		return null;
+	}
+
+	@Override
+	public Void visitBetweenPredicate(BetweenPredicate predicate) {
+		writeByte( NodeTags.BETWEEN );
+		writeExpression( predicate.getExpression() );
+		writeExpression( predicate.getLowerBound() );
+		writeExpression( predicate.getUpperBound() );
+		writeBoolean( predicate.isNegated() );
+		return null;
+	}
+
+	@Override
+	public Void visitLikePredicate(LikePredicate predicate) {
+		writeByte( NodeTags.LIKE );
+		writeExpression( predicate.getMatchExpression() );
+		writeExpression( predicate.getPattern() );
+		writeExpression( predicate.getEscapeCharacter() );
+		writeBoolean( predicate.isNegated() );
+		return null;
+	}
+
+	@Override
+	public Void visitMemberOfPredicate(MemberOfPredicate predicate) {
+		writeByte( NodeTags.MEMBER_OF );
+		visitAttributeReferenceExpression( predicate.getAttributeReferenceExpression() );
+		writeBoolean( predicate.isNegated() );
+		return null;
+	}
+
+	@Override
+	public Void visitNegatedPredicate(NegatedPredicate predicate) {
+		writeByte( NodeTags.NEGATED );
+		writePredicate( predicate.getWrappedPredicate() );
+		return null;
+	}
+
+	@Override
+	public Void visitInListPredicate(InListPredicate predicate) {
+		writeByte( NodeTags.IN_LIST );
+		writeExpression( predicate.getTestExpression() );
+		writeExpressions( predicate.getListExpressions() );
+		writeBoolean( predicate.isNegated() );
+		return null;
+	}
+
+	@Override
+	public Void visitLiteralInListPredicate(LiteralInListPredicate predicate) {
+		writeByte( NodeTags.LITERAL_IN_LIST );
+		writeExpression( predicate.getTestExpression() );
+		writeVarInt( predicate.getValueKind().ordinal() );
+		writeType( predicate.getValueType() );
+		writeVarInt( predicate.getSize() );
+		if ( predicate.getValueKind() == LiteralInListPredicate.ValueKind.STRING ) {
+			for ( int i = 0; i < predicate.getSize(); i++ ) {
+				writeString( predicate.getStringValue( i ) );
+			}
+		}
+		else {
+			for ( int i = 0; i < predicate.getSize(); i++ ) {
+				writeSignedVarLong( predicate.getLongValue( i ) );
+			}
+		}
+		writeBoolean( predicate.isNegated() );
+		return null;
+	}
+
+	@Override
+	public Void visitInSubQueryPredicate(InSubQueryPredicate predicate) {
+		writeByte( NodeTags.IN_SUB_QUERY );
+		writeExpression( predicate.getTestExpression() );
+		visitSubQueryExpression( predicate.getSubQueryExpression() );
+		writeBoolean( predicate.isNegated() );
+		return null;
+	}
+
+
+	// ~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+	// order-by
+
+	@Override
+	public Void visitOrderByClause(OrderByClause orderByClause) {
+		if ( orderByClause == null ) {
+			writeBoolean( false );
+			return null;
+		}
+
+		writeBoolean( true );
+		final List<SortSpecification> sortSpecifications = orderByClause.getSortSpecifications();
+		writeVarInt( sortSpecifications.size() );
+		for ( SortSpecification sortSpecification : sortSpecifications ) {
+			visitSortSpecification( sortSpecification );
+		}
+		return null;
+	}
+
+	@Override
+	public Void visitSortSpecification(SortSpecification sortSpecification) {
+		writeExpression( sortSpecification.getSortExpression() );
+		writeString( sortSpecification.getCollation() );
+		writeOptionalOrdinal( sortSpecification.getSortOrder() );
+		return null;
+	}
+
+
+	// ~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+	// expressions
+
+	private void writeExpression(Expression expression) {
+		if ( expression == null ) {
+			writeByte( NodeTags.NULL );
+		}
+		else if ( expression instanceof TreatedFromElementBinding ) {
+			writeAttributeBindingSource( (TreatedFromElementBinding) expression );
+		}
+		else {
+			expression.accept( this );
+		}
+	}
+
+	private void writeExpressions(List<? extends Expression> expressions) {
+		writeVarInt( expressions.size() );
+		for ( Expression expression : expressions ) {
+			writeExpression( expression );
+		}
+	}
+
+	@Override
+	public Void visitPositionalParameterExpression(PositionalParameterExpression expression) {
+		writeByte( NodeTags.POSITIONAL_PARAMETER );
+		writeVarInt( expression.getPosition() );
+		writeType( expression.getExpressionType() );
+		return null;
+	}
+
+	@Override
+	public Void visitNamedParameterExpression(NamedParameterExpression expression) {
+		writeByte( NodeTags.NAMED_PARAMETER );
+		writeString( expression.getName() );
+		writeType( expression.getExpressionType() );
+		return null;
+	}
+
+	@Override
+	public Void visitSyntheticParameterExpression(SyntheticParameterExpression expression) {
+		writeByte( NodeTags.SYNTHETIC_PARAMETER );
+		writeVarInt( expression.getSyntheticPosition() );
+		writeType( expression.getExpressionType() );
+		return null;
+	}
+
+	@Override
+	public Void visitEntityTypeExpression(EntityTypeExpression expression) {
+		writeByte( NodeTags.ENTITY_TYPE );
+		writeEntityName( expression.getExpressionType() );
+		return null;
+	}
+
+	@Override
+	public Void visitUnaryOperationExpression(UnaryOperationExpression expression) {
+		writeByte( NodeTags.UNARY_OPERATION );
+		writeVarInt( expression.getOperation().ordinal() );
+		writeExpression( expression.getOperand() );
+		writeType( expression.getExpressionType() );
+		return null;
+	}
+
+	@Override
+	public Void visitAttributeReferenceExpression(AttributeReferenceExpression expression) {
+		writeByte( NodeTags.ATTRIBUTE_REFERENCE );
+		writeAttributeBindingSource( expression.getAttributeBindingSource() );
+		writeString( expression.getBoundAttribute().getName() );
+		return null;
+	}
+
+	@Override
+	public Void visitFunctionExpression(FunctionExpression expression) {
+		writeByte( NodeTags.FUNCTION );
+		writeString( expression.getFunctionName() );
+		writeType( expression.getExpressionType() );
+		writeExpressions( expression.getArguments() );
+		return null;
+	}
+
+	private void writeAggregate(byte tag, AbstractAggregateFunction expression) {
+		writeByte( tag );
+		writeExpression( expression.getArgument() );
+		writeBoolean( expression.isDistinct() );
+		writeType( expression.getExpressionType() );
+	}
+
+	@Override
+	public Void visitAvgFunction(AvgFunction expression) {
+		writeAggregate( NodeTags.AVG, expression );
+		return null;
+	}
+
+	@Override
+	public Void visitCountStarFunction(CountStarFunction expression) {
+		writeByte( NodeTags.COUNT_STAR );
+		writeBoolean( expression.isDistinct() );
+		writeType( expression.getExpressionType() );
+		return null;
+	}
+
+	@Override
+	public Void visitCountFunction(CountFunction expression) {
+		writeAggregate( NodeTags.COUNT, expression );
+		return null;
+	}
+
+	@Override
+	public Void visitMaxFunction(MaxFunction expression) {
+		writeAggregate( NodeTags.MAX, expression );
+		return null;
+	}
+
+	@Override
+	public Void visitMinFunction(MinFunction expression) {
+		writeAggregate( NodeTags.MIN, expression );
+		return null;
+	}
+
+	@Override
+	public Void visitSumFunction(SumFunction expression) {
+		writeAggregate( NodeTags.SUM, expression );
+		return null;
+	}
+
+	@Override
+	public Void visitCollectionSizeFunction(CollectionSizeFunction function) {
+		writeByte( NodeTags.COLLECTION_SIZE );
+		final AttributeBinding pluralAttributeBinding = function.getPluralAttributeBinding();
+		if ( pluralAttributeBinding instanceof FromElement ) {
+			writeFromElementReference( (FromElement) pluralAttributeBinding );
+		}
+		else if ( pluralAttributeBinding instanceof AttributeReferenceExpression ) {
+			visitAttributeReferenceExpression( (AttributeReferenceExpression) pluralAttributeBinding );
+		}
+		else {
+			throw new StatementCodecException( "Unsupported plural AttributeBinding type : " + pluralAttributeBinding );
+		}
+		writeType( function.getExpressionType() );
+		return null;
+	}
+
+	// NOTE : the index/element types of the collection functions are derived from the
+	// 		collection's PluralAttribute on decode
+
+	@Override
+	public Void visitCollectionValueFunction(CollectionValuePathExpression function) {
+		writeByte( NodeTags.COLLECTION_VALUE );
+		writeFromElementIndex( function.getPluralAttributeBinding() );
+		return null;
+	}
+
+	@Override
+	public Void visitCollectionIndexFunction(CollectionIndexFunction function) {
+		writeByte( NodeTags.COLLECTION_INDEX );
+		writeAliasedFromElementIndex( function.getCollectionAlias() );
+		return null;
+	}
+
+	@Override
+	public Void visitMapKeyFunction(MapKeyPathExpression function) {
+		writeByte( NodeTags.MAP_KEY );
+		writeFromElementIndex( function.getFromElement() );
+		return null;
+	}
+
+	@Override
+	public Void visitMapEntryFunction(MapEntryFunction function) {
+		writeByte( NodeTags.MAP_ENTRY );
+		writeAliasedFromElementIndex( function.getCollectionAlias() );
+		return null;
+	}
+
+	@Override
+	public Void visitMaxElementFunction(MaxElementFunction function) {
+		writeByte( NodeTags.MAX_ELEMENT );
+		writeAliasedFromElementIndex( function.getCollectionAlias() );
+		return null;
+	}
+
+	@Override
+	public Void visitMinElementFunction(MinElementFunction function) {
+		writeByte( NodeTags.MIN_ELEMENT );
+		writeAliasedFromElementIndex( function.getCollectionAlias() );
+		return null;
+	}
+
+	@Override
+	public Void visitMaxIndexFunction(MaxIndexFunction function) {
+		writeByte( NodeTags.MAX_INDEX );
+		writeAliasedFromElementIndex( function.getCollectionAlias() );
+		return null;
+	}
+
+	@Override
+	public Void visitMinIndexFunction(MinIndexFunction function) {
+		writeByte( NodeTags.MIN_INDEX );
+		writeAliasedFromElementIndex( function.getCollectionAlias() );
+		return null;
+	}
+
+	@Override
+	public Void visitLiteralStringExpression(LiteralStringExpression expression) {
+		writeByte( NodeTags.LITERAL_STRING );
+		writeString( expression.getLiteralValue() );
+		writeType( expression.getExpressionType() );
+		return null;
+	}
+
+	@Override
+	public Void visitLiteralCharacterExpression(LiteralCharacterExpression expression) {
+		writeByte( NodeTags.LITERAL_CHARACTER );
+		writeVarInt( expression.getLiteralValue() );
+		writeType( expression.getExpressionType() );
+		return null;
+	}
+
+	@Override
+	public Void visitLiteralDoubleExpression(LiteralDoubleExpression expression) {
+		writeByte( NodeTags.LITERAL_DOUBLE );
+		writeFixedLong( Double.doubleToLongBits( expression.getLiteralValue() ) );
+		writeType( expression.getExpressionType() );
+		return null;
+	}
+
+	@Override
+	public Void visitLiteralIntegerExpression(LiteralIntegerExpression expression) {
+		writeByte( NodeTags.LITERAL_INTEGER );
+		writeSignedVarLong( expression.getLiteralValue() );
+		writeType( expression.getExpressionType() );
+		return null;
+	}
+
+	@Override
+	public Void visitLiteralBigIntegerExpression(LiteralBigIntegerExpression expression) {
+		writeByte( NodeTags.LITERAL_BIG_INTEGER );
+		writeString( expression.getLiteralValue().toString() );
+		writeType( expression.getExpressionType() );
+		return null;
+	}
+
+	@Override
+	public Void visitLiteralBigDecimalExpression(LiteralBigDecimalExpression expression) {
+		writeByte( NodeTags.LITERAL_BIG_DECIMAL );
+		writeString( expression.getLiteralValue().toString() );
+		writeType( expression.getExpressionType() );
+		return null;
+	}
+
+	@Override
+	public Void visitLiteralFloatExpression(LiteralFloatExpression expression) {
+		writeByte( NodeTags.LITERAL_FLOAT );
+		writeFixedInt( Float.floatToIntBits( expression.getLiteralValue() ) );
+		writeType( expression.getExpressionType() );
+		return null;
+	}
+
+	@Override
+	public Void visitLiteralLongExpression(LiteralLongExpression expression) {
+		writeByte( NodeTags.LITERAL_LONG );
+		writeSignedVarLong( expression.getLiteralValue() );
+		writeType( expression.getExpressionType() );
+		return null;
+	}
+
+	@Override
+	public Void visitLiteralTrueExpression(LiteralTrueExpression expression) {
+		writeByte( NodeTags.LITERAL_TRUE );
+		writeType( expression.getExpressionType() );
+		return null;
+	}
+
+	@Override
+	public Void visitLiteralFalseExpression(LiteralFalseExpression expression) {
+		writeByte( NodeTags.LITERAL_FALSE );
+		writeType( expression.getExpressionType() );
+		return null;
+	}
+
+	@Override
+	public Void visitLiteralNullExpression(LiteralNullExpression expression) {
+		writeByte( NodeTags.LITERAL_NULL );
+		return null;
+	}
+
+	@Override
+	public Void visitConcatExpression(ConcatExpression expression) {
+		writeExpression( expression.getRightHandOperand() );
+		writeType( expression.getExpressionType() );
+		return null;
+	}
+
+	@Override
+	public Void visitConcatListExpression(ConcatListExpression expression) {
+		writeByte( NodeTags.CONCAT_LIST );
+		writeExpressions( expression.getOperands() );
+		writeType( expression.getExpressionType() );
+		return null;
+	}
+
+	@Override
+	public Void visitConstantEnumExpression(ConstantEnumExpression expression) {
+		writeByte( NodeTags.CONSTANT_ENUM );
+		final Enum value = expression.getValue();
+		writeString( value.getDeclaringClass().getName() );
+		writeString( value.name() );
+		writeType( expression.getExpressionType() );
+		return null;
+	}
+
+	@Override
+	public Void visitConstantFieldExpression(ConstantFieldExpression expression) {
+		writeByte( NodeTags.CONSTANT_FIELD );
+		writeConstantValue( expression.getValue() );
+		writeType( expression.getExpressionType() );
+		return null;
+	}
+
+	@Override
+	public Void visitBinaryArithmeticExpression(BinaryArithmeticExpression expression) {
+		writeByte( NodeTags.BINARY_ARITHMETIC );
+		writeVarInt( expression.getOperation().ordinal() );
+		writeExpression( expression.getLeftHandOperand() );
+		writeExpression( expression.getRightHandOperand() );
+		writeType( expression.getExpressionType() );
+		return null;
+	}
+
+	@Override
+	public Void visitSubQueryExpression(SubQueryExpression expression) {
+		writeByte( NodeTags.SUB_QUERY );
+		visitQuerySpec( expression.getQuerySpec() );
+		writeType( expression.getExpressionType() );
+		return null;
+	}
+
+	@Override
+	public Void visitSimpleCaseExpression(CaseSimpleExpression expression) {
+		writeByte( NodeTags.CASE_SIMPLE );
+		writeExpression( expression.getFixture() );
+		final List<CaseSimpleExpression.WhenFragment> whenFragments = expression.getWhenFragments();
+		writeVarInt( whenFragments.size() );
+		for ( CaseSimpleExpression.WhenFragment whenFragment : whenFragments ) {
+			writeExpression( whenFragment.getCheckValue() );
+			writeExpression( whenFragment.getResult() );
+		}
+		writeExpression( expression.getOtherwise() );
+		return null;
+	}
+
+	@Override
+	public Void visitSearchedCaseExpression(CaseSearchedExpression expression) {
+		writeByte( NodeTags.CASE_SEARCHED );
+		final List<CaseSearchedExpression.WhenFragment> whenFragments = expression.getWhenFragments();
+		writeVarInt( whenFragments.size() );
+		for ( CaseSearchedExpression.WhenFragment whenFragment : whenFragments ) {
+			writePredicate( whenFragment.getPredicate() );
+			writeExpression( whenFragment.getResult() );
+		}
+		writeExpression( expression.getOtherwise() );
+		return null;
+	}
+
+	@Override
+	public Void visitCoalesceExpression(CoalesceExpression expression) {
+		writeByte( NodeTags.COALESCE );
+		writeExpressions( expression.getValues() );
+		return null;
+	}
+
+	@Override
+	public Void visitNullifExpression(NullifExpression expression) {
+		writeByte( NodeTags.NULLIF );
+		writeExpression( expression.getFirstArgument() );
+		writeExpression( expression.getSecondArgument() );
+		return null;
+	}
+
+
+	// ~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+	// types and values
+
+	private void writeType(Type type) {
+		if ( type == null ) {
+			writeByte( NodeTags.NULL );
+		}
+		else if ( type instanceof EntityType ) {
+			writeByte( NodeTags.ENTITY_TYPE_REFERENCE );
+			writeString( ( (EntityType) type ).getName() );
+		}
+		else if ( type instanceof BasicType ) {
+			writeByte( NodeTags.BASIC_TYPE );
+			writeString( ( (BasicType) type ).getJavaType().getName() );
+		}
+		else {
+			throw new StatementCodecException(
+					"Unable to encode type [" + type.getTypeName() + "]; only basic and entity types can be encoded by name"
+			);
+		}
+	}
+
+	private void writeEntityName(EntityType entityType) {
+		writeString( entityType == null ? null : entityType.getName() );
+	}
+
+	private void writeOptionalOrdinal(Enum value) {
+		writeVarInt( value == null ? 0 : value.ordinal() + 1 );
+	}
+
+	private void writeConstantValue(Object value) {
+		if ( value instanceof String ) {
+			writeByte( NodeTags.VALUE_STRING );
+			writeString( (String) value );
+		}
+		else if ( value instanceof Integer ) {
+			writeByte( NodeTags.VALUE_INTEGER );
+			writeSignedVarLong( (Integer) value );
+		}
+		else if ( value instanceof Long ) {
+			writeByte( NodeTags.VALUE_LONG );
+			writeSignedVarLong( (Long) value );
+		}
+		else if ( value instanceof Short ) {
+			writeByte( NodeTags.VALUE_SHORT );
+			writeSignedVarLong( (Short) value );
+		}
+		else if ( value instanceof Byte ) {
+			writeByte( NodeTags.VALUE_BYTE );
+			writeByte( (Byte) value );
+		}
+		else if ( value instanceof Boolean ) {
+			writeByte( NodeTags.VALUE_BOOLEAN );
+			writeBoolean( (Boolean) value );
+		}
+		else if ( value instanceof Character ) {
+			writeByte( NodeTags.VALUE_CHARACTER );
+			writeVarInt( (Character) value );
+		}
+		else if ( value instanceof Float ) {
+			writeByte( NodeTags.VALUE_FLOAT );
+			writeFixedInt( Float.floatToIntBits( (Float) value ) );
+		}
+		else if ( value instanceof Double ) {
+			writeByte( NodeTags.VALUE_DOUBLE );
+			writeFixedLong( Double.doubleToLongBits( (Double) value ) );
+		}
+		else if ( value instanceof BigInteger ) {
+			writeByte( NodeTags.VALUE_BIG_INTEGER );
+			writeString( value.toString() );
+		}
+		else if ( value instanceof BigDecimal ) {
+			writeByte( NodeTags.VALUE_BIG_DECIMAL );
+			writeString( value.toString() );
+		}
+		else {
+			throw new StatementCodecException( "Unable to encode constant value [" + value + "]" );
+		}
+	}
+
+
+	// ~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+	// primitives
+
+	private void ensureCapacity(int additional) {
+		if ( position + additional > buffer.length ) {
+			buffer = Arrays.copyOf( buffer, Math.max( buffer.length << 1, position + additional ) );
+		}
+	}
+
+	private void writeByte(int value) {
+		ensureCapacity( 1 );
+		buffer[position++] = (byte) value;
+	}
+
+	private void writeBoolean(boolean value) {
+		writeByte( value ? 1 : 0 );
+	}
+
+	private void writeVarInt(int value) {
+		ensureCapacity( 5 );
+		while ( ( value & ~0x7F ) != 0 ) {
+			buffer[position++] = (byte) ( ( value & 0x7F ) | 0x80 );
+			value >>>= 7;
+		}
+		buffer[position++] = (byte) value;
+	}
+
+	private void writeSignedVarLong(long value) {
+		// zig-zag encoding so that small negative values stay small
+		long zigZag = ( value << 1 ) ^ ( value >> 63 );
+		ensureCapacity( 10 );
+		while ( ( zigZag & ~0x7FL ) != 0 ) {
+			buffer[position++] = (byte) ( ( zigZag & 0x7F ) | 0x80 );
+			zigZag >>>= 7;
+		}
+		buffer[position++] = (byte) zigZag;
+	}
+
+	private void writeFixedInt(int value) {
+		ensureCapacity( 4 );
+		buffer[position++] = (byte) ( value >>> 24 );
+		buffer[position++] = (byte) ( value >>> 16 );
+		buffer[position++] = (byte) ( value >>> 8 );
+		buffer[position++] = (byte) value;
+	}
+
+	private void writeFixedLong(long value) {
+		writeFixedInt( (int) ( value >>> 32 ) );
+		writeFixedInt( (int) value );
+	}
+
+	/**
+	 * Strings are written as {@code 0} for null, as {@code 1} followed by the length and the
+	 * characters for the first occurrence, and as {@code index + 2} for each later occurrence.
+	 */
+	private void writeString(String value) {
+		if ( value == null ) {
+			writeVarInt( 0 );
+			return;
+		}
+
+		final Integer index = stringIndexes.get( value );
+		if ( index != null ) {
+			writeVarInt( index + 2 );
+			return;
+		}
+
+		stringIndexes.put( value, stringIndexes.size() );
+		writeVarInt( 1 );
+		final int length = value.length();
+		writeVarInt( length );
+		for ( int i = 0; i < length; i++ ) {
+			writeVarInt( value.charAt( i ) );
+		}
+	}
+}
@@ -0,0 +1,84 @@
+/*
+ * Hibernate, Relational Persistence for Idiomatic Java
+ *
+ * License: Apache License, Version 2.0
+ * See the LICENSE file in the root directory or visit http://www.apache.org/licenses/LICENSE-2.0
+ */
+package org.hibernate.sqm.parser;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+import org.hibernate.sqm.query.Statement;
+
+/**
+ * The outcome of interpreting a batch of named queries.  Rather than stopping at the first
+ * problem, all queries are interpreted and the problems are collected.
+ *
+ * @author agent
+ *
+ * @see org.hibernate.sqm.SemanticQueryInterpreter#interpretAll
+ */
+public class BatchInterpretationResult {
+	private final Map<String,Statement> statements;
+	private final List<Failure> failures;
+
+	public BatchInterpretationResult(Map<String, Statement> statements, List<Failure> failures) {
+		this.statements = Collections.unmodifiableMap( statements );
+		this.failures = Collections.unmodifiableList( failures );
+	}
+
+	/**
+	 * The successfully interpreted queries, keyed by name, in the iteration order of the batch.
+	 */
+	public Map<String, Statement> getStatements() {
+		return statements;
+	}
+
+	/**
+	 * The queries which could not be interpreted, in the iteration order of the batch.
+	 */
+	public List<Failure> getFailures() {
+		return failures;
+	}
+
+	public boolean hasFailures() {
+		return !failures.isEmpty();
+	}
+
+	/**
+	 * Describes a query from the batch which could not be interpreted
+	 */
+	public static class Failure {
+		private final String name;
+		private final String query;
+		private final Throwable cause;
+
+		public Failure(String name, String query, Throwable cause) {
+			this.name = name;
+			this.query = query;
+			this.cause = cause;
+		}
+
+		public String getName() {
+			return name;
+		}
+
+		public String getQuery() {
+			return query;
+		}
+
+		/**
+		 * The problem; generally a {@link QueryException}
+		 */
+		public Throwable getCause() {
+			return cause;
+		}
+
+		@Override
+		public String toString() {
+			return "Failure(" + name + " : " + cause + ")";
+		}
+	}
+}
@@ -0,0 +1,78 @@
+/*
+ * Hibernate, Relational Persistence for Idiomatic Java
+ *
+ * License: Apache License, Version 2.0
+ * See the LICENSE file in the root directory or visit http://www.apache.org/licenses/LICENSE-2.0
+ */
+package org.hibernate.sqm.parser;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import org.hibernate.sqm.query.Statement;
+import org.hibernate.sqm.query.expression.SyntheticParameterExpression;
+
+/**
+ * The result of {@link ParameterListExpander#expand expanding} the parameter lists of a Statement : the
+ * expanded Statement along with the (padded) values of the synthetic parameters standing for the
+ * parameter lists.
+ *
+ * @author agent
+ */
+public class ExpandedStatement {
+	private final Statement statement;
+	private final List<SyntheticParameterExpression> syntheticParameters;
+	private final int firstSyntheticPosition;
+	private final Object[] parameterValues;
+
+	public ExpandedStatement(
+			Statement statement,
+			List<SyntheticParameterExpression> syntheticParameters,
+			int firstSyntheticPosition,
+			Object[] parameterValues) {
+		this.statement = statement;
+		this.syntheticParameters = syntheticParameters;
+		this.firstSyntheticPosition = firstSyntheticPosition;
+		this.parameterValues = parameterValues;
+	}
+
+	/**
+	 * The expanded Statement; frozen, and shared by all expansions to the same sizes.
+	 *
+	 * @return The expanded Statement
+	 */
+	public Statement getStatement() {
+		return statement;
+	}
+
+	/**
+	 * The synthetic parameters introduced in place of the parameter lists, in order of their synthetic
+	 * position.
+	 *
+	 * @return The synthetic parameters
+	 */
+	public List<SyntheticParameterExpression> getSyntheticParameters() {
+		return syntheticParameters;
+	}
+
+	/**
+	 * The values bound to the synthetic parameters, in the same order.
+	 *
+	 * @return The values
+	 */
+	public List<Object> getParameterValues() {
+		return Collections.unmodifiableList( Arrays.asList( parameterValues ) );
+	}
+
+	/**
+	 * The value bound to the given synthetic parameter.
+	 *
+	 * @param parameter The synthetic parameter
+	 *
+	 * @return The value
+	 */
+	public Object getParameterValue(SyntheticParameterExpression parameter) {
+		return parameterValues[parameter.getSyntheticPosition() - firstSyntheticPosition];
+	}
+}
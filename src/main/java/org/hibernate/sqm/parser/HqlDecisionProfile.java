@@ -0,0 +1,343 @@
+/*
+ * Hibernate, Relational Persistence for Idiomatic Java
+ *
+ * License: Apache License, Version 2.0
+ * See the LICENSE file in the root directory or visit http://www.apache.org/licenses/LICENSE-2.0
+ */
+package org.hibernate.sqm.parser;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Describes how the HQL parser's decisions performed over a corpus of queries, as collected by ANTLR's
+ * decision profiling.  Useful for tuning the grammar and for spotting regressions after grammar changes :
+ * decisions needing full-context (LL) prediction, long lookahead, many DFA misses or reporting
+ * ambiguities are the expensive ones.
+ *
+ * @author agent
+ *
+ * @see org.hibernate.sqm.SemanticQueryInterpreter#profileHqlDecisions
+ */
+public class HqlDecisionProfile {
+	private final int queryCount;
+	private final int failureCount;
+	private final List<Decision> decisions;
+
+	public HqlDecisionProfile(int queryCount, int failureCount, List<Decision> decisions) {
+		this.queryCount = queryCount;
+		this.failureCount = failureCount;
+
+		final List<Decision> ranked = new ArrayList<Decision>( decisions );
+		Collections.sort( ranked, RANKING );
+		this.decisions = Collections.unmodifiableList( ranked );
+	}
+
+	/**
+	 * The number of queries parsed.
+	 */
+	public int getQueryCount() {
+		return queryCount;
+	}
+
+	/**
+	 * The number of queries which contained syntax errors.  These are profiled as well, including the
+	 * parser's attempts to recover.
+	 */
+	public int getFailureCount() {
+		return failureCount;
+	}
+
+	/**
+	 * The decisions made at least once, the most expensive (by time spent in prediction) first.
+	 */
+	public List<Decision> getDecisions() {
+		return decisions;
+	}
+
+	/**
+	 * The profile of the given decision.
+	 *
+	 * @param decisionNumber The decision number
+	 *
+	 * @return The decision profile, or {@code null} if the decision was not made
+	 */
+	public Decision getDecision(int decisionNumber) {
+		for ( Decision decision : decisions ) {
+			if ( decision.getDecisionNumber() == decisionNumber ) {
+				return decision;
+			}
+		}
+		return null;
+	}
+
+	/**
+	 * The total time spent in prediction, in nanoseconds.
+	 */
+	public long getPredictionNanos() {
+		long total = 0;
+		for ( Decision decision : decisions ) {
+			total += decision.getPredictionNanos();
+		}
+		return total;
+	}
+
+	/**
+	 * Write the ranked report : one line per decision, the most expensive first.
+	 *
+	 * @param appendable Where to write the report
+	 * @param maxDecisions The maximum number of decisions to report
+	 *
+	 * @throws IOException Indicates a problem writing to the appendable
+	 */
+	public void writeReport(Appendable appendable, int maxDecisions) throws IOException {
+		appendable.append(
+				String.format(
+						Locale.ROOT,
+						"HQL parser decision profile : %d queries (%d with syntax errors), %d decisions made, %.3f ms in prediction%n",
+						queryCount,
+						failureCount,
+						decisions.size(),
+						getPredictionNanos() / 1e6
+				)
+		);
+		appendable.append(
+				String.format(
+						Locale.ROOT,
+						"%4s %8s  %-32s %11s %11s %8s %11s %8s %10s %9s %9s %10s %10s%n",
+						"rank",
+						"decision",
+						"rule",
+						"invocations",
+						"SLL look",
+						"SLL max",
+						"LL fallback",
+						"LL look",
+						"DFA misses",
+						"ambiguous",
+						"ctx sens.",
+						"predicates",
+						"time (ms)"
+				)
+		);
+
+		final int count = Math.min( maxDecisions, decisions.size() );
+		for ( int i = 0; i < count; i++ ) {
+			final Decision decision = decisions.get( i );
+			appendable.append(
+					String.format(
+							Locale.ROOT,
+							"%4d %8d  %-32s %11d %11d %8d %11d %8d %10d %9d %9d %10d %10.3f%n",
+							i + 1,
+							decision.getDecisionNumber(),
+							decision.getRuleName(),
+							decision.getInvocations(),
+							decision.getSllTotalLookahead(),
+							decision.getSllMaxLookahead(),
+							decision.getLlFallbackCount(),
+							decision.getLlTotalLookahead(),
+							decision.getDfaMissCount(),
+							decision.getAmbiguityCount(),
+							decision.getContextSensitivityCount(),
+							decision.getPredicateEvaluationCount(),
+							decision.getPredictionNanos() / 1e6
+					)
+			);
+		}
+	}
+
+	/**
+	 * The ranked report for all decisions made
+	 *
+	 * @return The report
+	 *
+	 * @see #writeReport
+	 */
+	public String toReport() {
+		final StringBuilder buffer = new StringBuilder();
+		try {
+			writeReport( buffer, Integer.MAX_VALUE );
+		}
+		catch (IOException e) {
+			// not for a StringBuilder
+			throw new IllegalStateException( e );
+		}
+		return buffer.toString();
+	}
+
+	@Override
+	public String toString() {
+		return "HqlDecisionProfile(queries=" + queryCount + ", failures=" + failureCount
+				+ ", decisions=" + decisions.size() + ", prediction=" + ( getPredictionNanos() / 1000000L ) + "ms)";
+	}
+
+	private static final Comparator<Decision> RANKING = new Comparator<Decision>() {
+		@Override
+		public int compare(Decision first, Decision second) {
+			if ( first.predictionNanos != second.predictionNanos ) {
+				return first.predictionNanos > second.predictionNanos ? -1 : 1;
+			}
+			return first.decisionNumber - second.decisionNumber;
+		}
+	};
+
+	/**
+	 * The profile of a single parser decision, accumulated over all queries parsed
+	 */
+	public static class Decision {
+		private final int decisionNumber;
+		private final String ruleName;
+		private final long invocations;
+		private final long predictionNanos;
+		private final long sllTotalLookahead;
+		private final long sllMaxLookahead;
+		private final long llFallbackCount;
+		private final long llTotalLookahead;
+		private final long llMaxLookahead;
+		private final long dfaMissCount;
+		private final int ambiguityCount;
+		private final int contextSensitivityCount;
+		private final int predicateEvaluationCount;
+		private final int errorCount;
+
+		public Decision(
+				int decisionNumber,
+				String ruleName,
+				long invocations,
+				long predictionNanos,
+				long sllTotalLookahead,
+				long sllMaxLookahead,
+				long llFallbackCount,
+				long llTotalLookahead,
+				long llMaxLookahead,
+				long dfaMissCount,
+				int ambiguityCount,
+				int contextSensitivityCount,
+				int predicateEvaluationCount,
+				int errorCount) {
+			this.decisionNumber = decisionNumber;
+			this.ruleName = ruleName;
+			this.invocations = invocations;
+			this.predictionNanos = predictionNanos;
+			this.sllTotalLookahead = sllTotalLookahead;
+			this.sllMaxLookahead = sllMaxLookahead;
+			this.llFallbackCount = llFallbackCount;
+			this.llTotalLookahead = llTotalLookahead;
+			this.llMaxLookahead = llMaxLookahead;
+			this.dfaMissCount = dfaMissCount;
+			this.ambiguityCount = ambiguityCount;
+			this.contextSensitivityCount = contextSensitivityCount;
+			this.predicateEvaluationCount = predicateEvaluationCount;
+			this.errorCount = errorCount;
+		}
+
+		/**
+		 * The (ANTLR) decision number, see {@link org.antlr.v4.runtime.atn.ATN#getDecisionState}
+		 */
+		public int getDecisionNumber() {
+			return decisionNumber;
+		}
+
+		/**
+		 * The name of the grammar rule containing the decision
+		 */
+		public String getRuleName() {
+			return ruleName;
+		}
+
+		/**
+		 * The number of times the decision was made
+		 */
+		public long getInvocations() {
+			return invocations;
+		}
+
+		/**
+		 * The time spent predicting the decision, in nanoseconds
+		 */
+		public long getPredictionNanos() {
+			return predictionNanos;
+		}
+
+		/**
+		 * The total number of tokens looked at by SLL prediction
+		 */
+		public long getSllTotalLookahead() {
+			return sllTotalLookahead;
+		}
+
+		/**
+		 * The most tokens SLL prediction looked at for a single invocation
+		 */
+		public long getSllMaxLookahead() {
+			return sllMaxLookahead;
+		}
+
+		/**
+		 * The number of times SLL prediction was not sufficient, so that full-context (LL) prediction
+		 * was needed
+		 */
+		public long getLlFallbackCount() {
+			return llFallbackCount;
+		}
+
+		/**
+		 * The total number of tokens looked at by full-context prediction
+		 */
+		public long getLlTotalLookahead() {
+			return llTotalLookahead;
+		}
+
+		/**
+		 * The most tokens full-context prediction looked at for a single invocation
+		 */
+		public long getLlMaxLookahead() {
+			return llMaxLookahead;
+		}
+
+		/**
+		 * The number of times prediction had to simulate the ATN because the DFA did not (yet) contain
+		 * the transition; these only decrease as the DFA cache warms up
+		 */
+		public long getDfaMissCount() {
+			return dfaMissCount;
+		}
+
+		/**
+		 * The number of ambiguities reported; the parser resolves these by choosing the first alternative
+		 */
+		public int getAmbiguityCount() {
+			return ambiguityCount;
+		}
+
+		/**
+		 * The number of times full-context prediction chose a different alternative than SLL would have
+		 */
+		public int getContextSensitivityCount() {
+			return contextSensitivityCount;
+		}
+
+		/**
+		 * The number of semantic predicate evaluations
+		 */
+		public int getPredicateEvaluationCount() {
+			return predicateEvaluationCount;
+		}
+
+		/**
+		 * The number of syntax errors detected by this decision
+		 */
+		public int getErrorCount() {
+			return errorCount;
+		}
+
+		@Override
+		public String toString() {
+			return "Decision(" + decisionNumber + " : " + ruleName + ")";
+		}
+	}
+}
@@ -0,0 +1,31 @@
+/*
+ * Hibernate, Relational Persistence for Idiomatic Java
+ *
+ * License: Apache License, Version 2.0
+ * See the LICENSE file in the root directory or visit http://www.apache.org/licenses/LICENSE-2.0
+ */
+package org.hibernate.sqm.parser;
+
+/**
+ * How HQL/JPQL queries are turned into their semantic representation.
+ *
+ * @author agent
+ */
+public enum HqlInterpretationMode {
+	/**
+	 * First have Antlr build the complete parse tree, then walk that tree to build the semantic
+	 * representation.
+	 */
+	TWO_PASS,
+
+	/**
+	 * Build the semantic representation while parsing, from the parser's events.  The complete
+	 * parse tree is never built : only small parts of it (paths, literals, function calls, the
+	 * select and from clauses...) are, each of them discarded as soon as it has been interpreted.
+	 * Reduces peak memory and latency for large queries (long IN lists, many predicates).
+	 * <p/>
+	 * Syntax errors are handled by falling back to {@link #TWO_PASS}, so they are reported the same
+	 * way under either mode.
+	 */
+	SINGLE_PASS
+}
@@ -0,0 +1,28 @@
+/*
+ * Hibernate, Relational Persistence for Idiomatic Java
+ *
+ * License: Apache License, Version 2.0
+ * See the LICENSE file in the root directory or visit http://www.apache.org/licenses/LICENSE-2.0
+ */
+package org.hibernate.sqm.parser;
+
+/**
+ * How the HQL/JPQL parser deals with syntax errors.
+ *
+ * @author agent
+ */
+public enum HqlParseProfile {
+	/**
+	 * Antlr's default handling : syntax errors are reported to the console and the parser tries to
+	 * recover from them and continue.  Helpful during development, as all errors in a query are
+	 * reported; the query is generally still rejected afterwards during semantic analysis.
+	 */
+	STANDARD,
+
+	/**
+	 * Intended for production : nothing is written to the console and parsing stops at the first
+	 * syntax error, which is reported as a {@link SyntaxException} carrying its position and the
+	 * offending token.  Malformed queries are rejected without spending time on error recovery.
+	 */
+	FAIL_FAST
+}
@@ -0,0 +1,67 @@
+/*
+ * Hibernate, Relational Persistence for Idiomatic Java
+ *
+ * License: Apache License, Version 2.0
+ * See the LICENSE file in the root directory or visit http://www.apache.org/licenses/LICENSE-2.0
+ */
+package org.hibernate.sqm.parser;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Statistics about the HQL/JPQL parses performed, mainly useful in judging how well the
+ * {@link HqlPredictionMode#SLL_WITH_LL_FALLBACK two-stage parsing} works for an application's
+ * queries.
+ *
+ * @author agent
+ */
+public class HqlParseStatistics {
+	private final AtomicLong sllParseCount = new AtomicLong();
+	private final AtomicLong llParseCount = new AtomicLong();
+	private final AtomicLong llFallbackCount = new AtomicLong();
+
+	/**
+	 * The number of parses attempted using SLL prediction.
+	 */
+	public long getSllParseCount() {
+		return sllParseCount.get();
+	}
+
+	/**
+	 * The number of parses performed using full LL prediction, including fallbacks.
+	 */
+	public long getLlParseCount() {
+		return llParseCount.get();
+	}
+
+	/**
+	 * The number of SLL parse attempts that failed and had to be re-done using full LL prediction.
+	 */
+	public long getLlFallbackCount() {
+		return llFallbackCount.get();
+	}
+
+	public void sllParse() {
+		sllParseCount.incrementAndGet();
+	}
+
+	public void llParse() {
+		llParseCount.incrementAndGet();
+	}
+
+	public void llFallback() {
+		llFallbackCount.incrementAndGet();
+	}
+
+	public void clear() {
+		sllParseCount.set( 0 );
+		llParseCount.set( 0 );
+		llFallbackCount.set( 0 );
+	}
+
+	@Override
+	public String toString() {
+		return "HqlParseStatistics(sll=" + getSllParseCount() + ", ll=" + getLlParseCount()
+				+ ", llFallbacks=" + getLlFallbackCount() + ")";
+	}
+}
@@ -0,0 +1,28 @@
+/*
+ * Hibernate, Relational Persistence for Idiomatic Java
+ *
+ * License: Apache License, Version 2.0
+ * See the LICENSE file in the root directory or visit http://www.apache.org/licenses/LICENSE-2.0
+ */
+package org.hibernate.sqm.parser;
+
+/**
+ * The prediction strategy Antlr should use when parsing HQL/JPQL.
+ *
+ * @author agent
+ */
+public enum HqlPredictionMode {
+	/**
+	 * Always use full-context (LL) prediction.  This is the slowest option, but always
+	 * yields the same result as the second stage of {@link #SLL_WITH_LL_FALLBACK}.
+	 */
+	LL,
+
+	/**
+	 * First parse using the (much faster) SLL prediction mode, bailing out on the first
+	 * syntax error.  Only if that fails is the query parsed again using full LL prediction
+	 * (with the normal error reporting and recovery).  Since SLL handles the vast majority
+	 * of queries, this is generally the better choice.
+	 */
+	SLL_WITH_LL_FALLBACK
+}
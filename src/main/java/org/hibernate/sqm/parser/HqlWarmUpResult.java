@@ -0,0 +1,78 @@
+/*
+ * Hibernate, Relational Persistence for Idiomatic Java
+ *
+ * License: Apache License, Version 2.0
+ * See the LICENSE file in the root directory or visit http://www.apache.org/licenses/LICENSE-2.0
+ */
+package org.hibernate.sqm.parser;
+
+/**
+ * Describes the outcome of warming up the HQL parser.
+ *
+ * @author agent
+ *
+ * @see org.hibernate.sqm.SemanticQueryInterpreter#warmUp
+ */
+public class HqlWarmUpResult {
+	private final int queryCount;
+	private final int failureCount;
+	private final long elapsedNanos;
+	private final int dfaStateCount;
+	private final int predictionContextCacheSize;
+
+	public HqlWarmUpResult(
+			int queryCount,
+			int failureCount,
+			long elapsedNanos,
+			int dfaStateCount,
+			int predictionContextCacheSize) {
+		this.queryCount = queryCount;
+		this.failureCount = failureCount;
+		this.elapsedNanos = elapsedNanos;
+		this.dfaStateCount = dfaStateCount;
+		this.predictionContextCacheSize = predictionContextCacheSize;
+	}
+
+	/**
+	 * The number of queries parsed, including the built-in ones.
+	 */
+	public int getQueryCount() {
+		return queryCount;
+	}
+
+	/**
+	 * The number of queries which failed to parse.  These still contribute to warming up
+	 * the parser, but usually indicate a problem with the supplied corpus.
+	 */
+	public int getFailureCount() {
+		return failureCount;
+	}
+
+	/**
+	 * The time spent parsing, in nanoseconds.
+	 */
+	public long getElapsedNanos() {
+		return elapsedNanos;
+	}
+
+	/**
+	 * The number of DFA states cached by the lexer and parser after warm-up.
+	 */
+	public int getDfaStateCount() {
+		return dfaStateCount;
+	}
+
+	/**
+	 * The number of prediction contexts cached by the lexer and parser after warm-up.
+	 */
+	public int getPredictionContextCacheSize() {
+		return predictionContextCacheSize;
+	}
+
+	@Override
+	public String toString() {
+		return "HqlWarmUpResult(queries=" + queryCount + ", failures=" + failureCount
+				+ ", elapsed=" + ( elapsedNanos / 1000000L ) + "ms, dfaStates=" + dfaStateCount
+				+ ", predictionContexts=" + predictionContextCacheSize + ")";
+	}
+}
@@ -0,0 +1,20 @@
+/*
+ * Hibernate, Relational Persistence for Idiomatic Java
+ *
+ * License: Apache License, Version 2.0
+ * See the LICENSE file in the root directory or visit http://www.apache.org/licenses/LICENSE-2.0
+ */
+package org.hibernate.sqm.parser;
+
+/**
+ * Indicates that the interpretation of the query took longer than allowed.
+ *
+ * @author agent
+ *
+ * @see QueryLimits#getTimeout
+ */
+public class InterpretationTimeoutException extends QueryLimitExceededException {
+	public InterpretationTimeoutException(long timeoutMillis) {
+		super( "Query interpretation exceeded the timeout (" + timeoutMillis + " ms)", timeoutMillis );
+	}
+}
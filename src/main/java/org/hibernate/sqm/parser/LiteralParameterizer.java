@@ -0,0 +1,208 @@
+/*
+ * Hibernate, Relational Persistence for Idiomatic Java
+ *
+ * License: Apache License, Version 2.0
+ * See the LICENSE file in the root directory or visit http://www.apache.org/licenses/LICENSE-2.0
+ */
+package org.hibernate.sqm.parser;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.hibernate.sqm.SemanticQueryCopier;
+import org.hibernate.sqm.domain.Type;
+import org.hibernate.sqm.query.Statement;
+import org.hibernate.sqm.query.expression.Expression;
+import org.hibernate.sqm.query.expression.FunctionExpression;
+import org.hibernate.sqm.query.expression.LiteralBigDecimalExpression;
+import org.hibernate.sqm.query.expression.LiteralBigIntegerExpression;
+import org.hibernate.sqm.query.expression.LiteralCharacterExpression;
+import org.hibernate.sqm.query.expression.LiteralDoubleExpression;
+import org.hibernate.sqm.query.expression.LiteralExpression;
+import org.hibernate.sqm.query.expression.LiteralFloatExpression;
+import org.hibernate.sqm.query.expression.LiteralIntegerExpression;
+import org.hibernate.sqm.query.expression.LiteralLongExpression;
+import org.hibernate.sqm.query.expression.LiteralStringExpression;
+import org.hibernate.sqm.query.expression.SyntheticParameterExpression;
+import org.hibernate.sqm.query.order.OrderByClause;
+import org.hibernate.sqm.query.predicate.InListPredicate;
+import org.hibernate.sqm.query.predicate.InPredicate;
+import org.hibernate.sqm.query.predicate.LiteralInListPredicate;
+import org.hibernate.sqm.query.select.SelectClause;
+
+import org.jboss.logging.Logger;
+
+/**
+ * Optional pass over an interpreted Statement which replaces (string, character and numeric) literals
+ * with {@link SyntheticParameterExpression synthetic parameters}, keeping the literal values aside.  Queries
+ * differing only in such literal values (generally the result of building HQL by concatenation) then share
+ * the same structure, and so the same SQL.
+ * <p/>
+ * Literals which carry meaning beyond their value are left inline:<ul>
+ *     <li>literals in the select-clause (which determine the result shape)</li>
+ *     <li>literals in the order-by clause (which may be interpreted as select-clause positions)</li>
+ *     <li>arguments to functions (which may require constant arguments)</li>
+ *     <li>the escape character of LIKE predicates</li>
+ *     <li>boolean and null literals, as well as enum and field constants</li>
+ * </ul>
+ * The original Statement is not changed; a parameterized copy is returned.
+ * <p/>
+ * {@link org.hibernate.sqm.SemanticQueryInterpreter#interpretParameterized} applies this to interpreted
+ * queries, caching the result such that structurally identical queries share one parameterized copy.
+ *
+ * @author agent
+ */
+public class LiteralParameterizer extends SemanticQueryCopier {
+	private static final Logger log = Logger.getLogger( LiteralParameterizer.class );
+
+	/**
+	 * Parameterize the literals in the given Statement.
+	 *
+	 * @param statement The Statement to parameterize
+	 *
+	 * @return The (frozen) parameterized copy, along with the extracted literal values
+	 */
+	public static ParameterizedStatement parameterize(Statement statement) {
+		final LiteralParameterizer parameterizer = new LiteralParameterizer();
+		final Statement copy = parameterizer.copy( statement );
+		copy.freeze();
+		log.debugf( "Replaced %s literal(s) with synthetic parameters", parameterizer.syntheticParameters.size() );
+		return new ParameterizedStatement( copy, parameterizer.syntheticParameters, parameterizer.parameterValues );
+	}
+
+	private final List<SyntheticParameterExpression> syntheticParameters = new ArrayList<SyntheticParameterExpression>();
+	private final List<Object> parameterValues = new ArrayList<Object>();
+
+	// > 0 while walking a part of the tree where literals are left inline
+	private int inlineLiteralDepth;
+
+	private LiteralParameterizer() {
+	}
+
+	private Expression parameterize(LiteralExpression literal) {
+		return parameterize( literal.getExpressionType(), literal.getLiteralValue() );
+	}
+
+	private Expression parameterize(Type type, Object value) {
+		final SyntheticParameterExpression parameter = new SyntheticParameterExpression(
+				syntheticParameters.size(),
+				type
+		);
+		syntheticParameters.add( parameter );
+		parameterValues.add( value );
+		return parameter;
+	}
+
+	@Override
+	public SelectClause visitSelectClause(SelectClause selectClause) {
+		inlineLiteralDepth++;
+		try {
+			return super.visitSelectClause( selectClause );
+		}
+		finally {
+			inlineLiteralDepth--;
+		}
+	}
+
+	@Override
+	public OrderByClause visitOrderByClause(OrderByClause orderByClause) {
+		inlineLiteralDepth++;
+		try {
+			return super.visitOrderByClause( orderByClause );
+		}
+		finally {
+			inlineLiteralDepth--;
+		}
+	}
+
+	@Override
+	public FunctionExpression visitFunctionExpression(FunctionExpression expression) {
+		inlineLiteralDepth++;
+		try {
+			return super.visitFunctionExpression( expression );
+		}
+		finally {
+			inlineLiteralDepth--;
+		}
+	}
+
+	@Override
+	protected Expression copyLikeEscape(Expression escapeCharacter) {
+		inlineLiteralDepth++;
+		try {
+			return super.copyLikeEscape( escapeCharacter );
+		}
+		finally {
+			inlineLiteralDepth--;
+		}
+	}
+
+	@Override
+	public InPredicate visitLiteralInListPredicate(LiteralInListPredicate predicate) {
+		if ( inlineLiteralDepth > 0 ) {
+			return super.visitLiteralInListPredicate( predicate );
+		}
+
+		// a synthetic parameter per value, just as for the equivalent InListPredicate
+		final Expression testExpression = copyExpression( predicate.getTestExpression() );
+		final List<Expression> parameters = new ArrayList<Expression>( predicate.getSize() );
+		for ( int i = 0; i < predicate.getSize(); i++ ) {
+			final Object value;
+			switch ( predicate.getValueKind() ) {
+				case INTEGER: {
+					value = predicate.getIntValue( i );
+					break;
+				}
+				case LONG: {
+					value = predicate.getLongValue( i );
+					break;
+				}
+				default: {
+					value = predicate.getStringValue( i );
+				}
+			}
+			parameters.add( parameterize( predicate.getValueType(), value ) );
+		}
+		return new InListPredicate( testExpression, parameters, predicate.isNegated() );
+	}
+
+	@Override
+	public Expression visitLiteralStringExpression(LiteralStringExpression expression) {
+		return inlineLiteralDepth > 0 ? super.visitLiteralStringExpression( expression ) : parameterize( expression );
+	}
+
+	@Override
+	public Expression visitLiteralCharacterExpression(LiteralCharacterExpression expression) {
+		return inlineLiteralDepth > 0 ? super.visitLiteralCharacterExpression( expression ) : parameterize( expression );
+	}
+
+	@Override
+	public Expression visitLiteralDoubleExpression(LiteralDoubleExpression expression) {
+		return inlineLiteralDepth > 0 ? super.visitLiteralDoubleExpression( expression ) : parameterize( expression );
+	}
+
+	@Override
+	public Expression visitLiteralIntegerExpression(LiteralIntegerExpression expression) {
+		return inlineLiteralDepth > 0 ? super.visitLiteralIntegerExpression( expression ) : parameterize( expression );
+	}
+
+	@Override
+	public Expression visitLiteralBigIntegerExpression(LiteralBigIntegerExpression expression) {
+		return inlineLiteralDepth > 0 ? super.visitLiteralBigIntegerExpression( expression ) : parameterize( expression );
+	}
+
+	@Override
+	public Expression visitLiteralBigDecimalExpression(LiteralBigDecimalExpression expression) {
+		return inlineLiteralDepth > 0 ? super.visitLiteralBigDecimalExpression( expression ) : parameterize( expression );
+	}
+
+	@Override
+	public Expression visitLiteralFloatExpression(LiteralFloatExpression expression) {
+		return inlineLiteralDepth > 0 ? super.visitLiteralFloatExpression( expression ) : parameterize( expression );
+	}
+
+	@Override
+	public Expression visitLiteralLongExpression(LiteralLongExpression expression) {
+		return inlineLiteralDepth > 0 ? super.visitLiteralLongExpression( expression ) : parameterize( expression );
+	}
+}
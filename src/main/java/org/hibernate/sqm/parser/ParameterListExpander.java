@@ -0,0 +1,295 @@
+/*
+ * Hibernate, Relational Persistence for Idiomatic Java
+ *
+ * License: Apache License, Version 2.0
+ * See the LICENSE file in the root directory or visit http://www.apache.org/licenses/LICENSE-2.0
+ */
+package org.hibernate.sqm.parser;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+import org.hibernate.sqm.BaseSemanticQueryWalker;
+import org.hibernate.sqm.SemanticQueryCopier;
+import org.hibernate.sqm.cache.internal.BoundedConcurrentCache;
+import org.hibernate.sqm.domain.Type;
+import org.hibernate.sqm.query.Statement;
+import org.hibernate.sqm.query.expression.Expression;
+import org.hibernate.sqm.query.expression.ParameterExpression;
+import org.hibernate.sqm.query.expression.SyntheticParameterExpression;
+import org.hibernate.sqm.query.predicate.InListPredicate;
+
+import org.jboss.logging.Logger;
+
+/**
+ * Expands the parameter lists of a Statement : named or positional parameters making up the whole
+ * list of an IN predicate ({@code where e.id in (:ids)} or {@code where e.id in :ids}), bound to a
+ * collection of values.  Each such parameter is replaced by as many
+ * {@link SyntheticParameterExpression synthetic parameters} as the collection has values.
+ * <p/>
+ * Without more, every collection size would give a different Statement, and so different SQL.  The
+ * sizes are therefore rounded up according to a {@link ParameterListPadding}, the extra slots being
+ * bound to the last value again.  One expanded Statement is cached per combination of rounded up sizes,
+ * so after warm-up expansion amounts to a cache lookup plus laying out the values.
+ * <p/>
+ * Safe for concurrent use.  The original Statement is not changed; the expanded Statements are frozen
+ * copies, shared between all callers.
+ *
+ * @author agent
+ */
+public class ParameterListExpander {
+	private static final Logger log = Logger.getLogger( ParameterListExpander.class );
+
+	public static final int DEFAULT_MAX_EXPANSIONS = 64;
+
+	private final Statement statement;
+	private final ParameterListPadding padding;
+	private final List<ParameterExpression> parameterLists;
+	private final int firstSyntheticPosition;
+	private final BoundedConcurrentCache<BucketKey,Expansion> expansions;
+
+	public ParameterListExpander(Statement statement, ParameterListPadding padding) {
+		this( statement, padding, DEFAULT_MAX_EXPANSIONS );
+	}
+
+	/**
+	 * Creates the expander for the given Statement.
+	 *
+	 * @param statement The Statement to expand
+	 * @param padding How to round up the sizes of the parameter lists
+	 * @param maxExpansions The maximum number of expanded Statements kept
+	 */
+	public ParameterListExpander(Statement statement, ParameterListPadding padding, int maxExpansions) {
+		this.statement = statement;
+		this.padding = padding;
+
+		final ParameterListCollector collector = new ParameterListCollector();
+		statement.accept( collector );
+		this.parameterLists = Collections.unmodifiableList( collector.parameterLists );
+		// synthetic parameters already in the Statement (see LiteralParameterizer) keep their positions
+		this.firstSyntheticPosition = collector.maxSyntheticPosition + 1;
+
+		this.expansions = new BoundedConcurrentCache<BucketKey, Expansion>( maxExpansions );
+	}
+
+	/**
+	 * The parameters which can be expanded, one per name or position, in order of appearance.
+	 *
+	 * @return The parameter lists
+	 */
+	public List<ParameterExpression> getParameterLists() {
+		return parameterLists;
+	}
+
+	public ParameterListPadding getPadding() {
+		return padding;
+	}
+
+	/**
+	 * Expand the parameter lists bound to a collection.  Parameter lists without such a binding are
+	 * left as they are.
+	 *
+	 * @param bindings The collections bound to the parameter lists, keyed by parameter name (named
+	 * parameters) or position (positional parameters)
+	 *
+	 * @return The expanded Statement along with the values of its synthetic parameters
+	 */
+	public ExpandedStatement expand(Map<?, ? extends Collection<?>> bindings) {
+		final int[] bucketSizes = new int[parameterLists.size()];
+		final Collection[] boundValues = new Collection[parameterLists.size()];
+		for ( int i = 0; i < bucketSizes.length; i++ ) {
+			final Collection<?> values = bindings.get( parameterKey( parameterLists.get( i ) ) );
+			if ( values == null ) {
+				continue;
+			}
+			if ( values.isEmpty() ) {
+				throw new IllegalArgumentException(
+						"Parameter list [" + parameterKey( parameterLists.get( i ) ) + "] bound to an empty collection"
+				);
+			}
+			bucketSizes[i] = padding.getBucketSize( values.size() );
+			boundValues[i] = values;
+		}
+
+		final BucketKey key = new BucketKey( bucketSizes );
+		Expansion expansion = expansions.get( key );
+		if ( expansion == null ) {
+			expansion = expansions.putIfAbsent( key, buildExpansion( bucketSizes ) );
+		}
+
+		final Object[] slotValues = new Object[expansion.slotCount];
+		for ( int i = 0; i < bucketSizes.length; i++ ) {
+			if ( bucketSizes[i] == 0 ) {
+				continue;
+			}
+			int slot = expansion.firstSlots[i];
+			Object last = null;
+			for ( Object value : boundValues[i] ) {
+				slotValues[slot++] = value;
+				last = value;
+			}
+			// padding
+			final int end = expansion.firstSlots[i] + bucketSizes[i];
+			while ( slot < end ) {
+				slotValues[slot++] = last;
+			}
+		}
+
+		return new ExpandedStatement(
+				expansion.statement,
+				expansion.syntheticParameters,
+				firstSyntheticPosition,
+				slotValues
+		);
+	}
+
+	private Expansion buildExpansion(int[] bucketSizes) {
+		final ExpandingCopier copier = new ExpandingCopier( bucketSizes );
+		final Statement copy = copier.copy( statement );
+		copy.freeze();
+		log.debugf( "Expanded parameter lists %s to %s slot(s)", parameterLists, copier.syntheticParameters.size() );
+		return new Expansion( copy, copier.syntheticParameters, copier.firstSlots );
+	}
+
+	private int indexOf(ParameterExpression parameter) {
+		final Object key = parameterKey( parameter );
+		if ( key == null ) {
+			return -1;
+		}
+		for ( int i = 0; i < parameterLists.size(); i++ ) {
+			if ( key.equals( parameterKey( parameterLists.get( i ) ) ) ) {
+				return i;
+			}
+		}
+		return -1;
+	}
+
+	private static Object parameterKey(ParameterExpression parameter) {
+		return parameter.getName() != null ? parameter.getName() : parameter.getPosition();
+	}
+
+	private static ParameterExpression asParameterList(InListPredicate predicate) {
+		if ( predicate.getListExpressions().size() != 1 ) {
+			return null;
+		}
+		final Expression expression = predicate.getListExpressions().get( 0 );
+		if ( !( expression instanceof ParameterExpression ) || expression instanceof SyntheticParameterExpression ) {
+			return null;
+		}
+		return (ParameterExpression) expression;
+	}
+
+	private static class ParameterListCollector extends BaseSemanticQueryWalker<Object> {
+		private final List<ParameterExpression> parameterLists = new ArrayList<ParameterExpression>();
+		private int maxSyntheticPosition = -1;
+
+		@Override
+		public Object visitInListPredicate(InListPredicate predicate) {
+			final ParameterExpression parameter = asParameterList( predicate );
+			if ( parameter != null && !contains( parameter ) ) {
+				parameterLists.add( parameter );
+			}
+			return super.visitInListPredicate( predicate );
+		}
+
+		private boolean contains(ParameterExpression parameter) {
+			for ( ParameterExpression parameterList : parameterLists ) {
+				if ( parameterKey( parameterList ).equals( parameterKey( parameter ) ) ) {
+					return true;
+				}
+			}
+			return false;
+		}
+
+		@Override
+		public Object visitSyntheticParameterExpression(SyntheticParameterExpression expression) {
+			maxSyntheticPosition = Math.max( maxSyntheticPosition, expression.getSyntheticPosition() );
+			return super.visitSyntheticParameterExpression( expression );
+		}
+	}
+
+	private class ExpandingCopier extends SemanticQueryCopier {
+		private final int[] bucketSizes;
+		private final int[] firstSlots;
+		private final List<SyntheticParameterExpression> syntheticParameters = new ArrayList<SyntheticParameterExpression>();
+
+		private ExpandingCopier(int[] bucketSizes) {
+			this.bucketSizes = bucketSizes;
+			this.firstSlots = new int[bucketSizes.length];
+			Arrays.fill( firstSlots, -1 );
+		}
+
+		@Override
+		public InListPredicate visitInListPredicate(InListPredicate predicate) {
+			final ParameterExpression parameter = asParameterList( predicate );
+			final int index = parameter == null ? -1 : indexOf( parameter );
+			if ( index < 0 || bucketSizes[index] == 0 ) {
+				return super.visitInListPredicate( predicate );
+			}
+
+			// a parameter list used more than once gets the same slots (positions) every time
+			final boolean firstUse = firstSlots[index] < 0;
+			if ( firstUse ) {
+				firstSlots[index] = syntheticParameters.size();
+			}
+			// the parameter type is not inferred from the IN predicate; fall back to the type tested
+			final Type slotType = parameter.getExpressionType() != null
+					? parameter.getExpressionType()
+					: predicate.getTestExpression().getExpressionType();
+			final List<Expression> slots = new ArrayList<Expression>( bucketSizes[index] );
+			for ( int i = 0; i < bucketSizes[index]; i++ ) {
+				final SyntheticParameterExpression slot = new SyntheticParameterExpression(
+						firstSyntheticPosition + firstSlots[index] + i,
+						slotType
+				);
+				if ( firstUse ) {
+					syntheticParameters.add( slot );
+				}
+				slots.add( slot );
+			}
+			return new InListPredicate(
+					copyExpression( predicate.getTestExpression() ),
+					slots,
+					predicate.isNegated()
+			);
+		}
+	}
+
+	private static class Expansion {
+		private final Statement statement;
+		private final List<SyntheticParameterExpression> syntheticParameters;
+		private final int[] firstSlots;
+		private final int slotCount;
+
+		private Expansion(Statement statement, List<SyntheticParameterExpression> syntheticParameters, int[] firstSlots) {
+			this.statement = statement;
+			this.syntheticParameters = Collections.unmodifiableList( syntheticParameters );
+			this.firstSlots = firstSlots;
+			this.slotCount = syntheticParameters.size();
+		}
+	}
+
+	private static class BucketKey {
+		private final int[] bucketSizes;
+		private final int hashCode;
+
+		private BucketKey(int[] bucketSizes) {
+			this.bucketSizes = bucketSizes;
+			this.hashCode = Arrays.hashCode( bucketSizes );
+		}
+
+		@Override
+		public boolean equals(Object o) {
+			return this == o || ( o instanceof BucketKey && Arrays.equals( bucketSizes, ( (BucketKey) o ).bucketSizes ) );
+		}
+
+		@Override
+		public int hashCode() {
+			return hashCode;
+		}
+	}
+}
@@ -0,0 +1,108 @@
+/*
+ * Hibernate, Relational Persistence for Idiomatic Java
+ *
+ * License: Apache License, Version 2.0
+ * See the LICENSE file in the root directory or visit http://www.apache.org/licenses/LICENSE-2.0
+ */
+package org.hibernate.sqm.parser;
+
+import java.util.Arrays;
+
+/**
+ * How {@link ParameterListExpander} rounds up the size of the collections bound to parameter lists :
+ * all sizes rounding up to the same bucket share the same expanded Statement (and so the same SQL),
+ * the extra slots being padded with repeats of the last value.
+ * <p/>
+ * Instances are immutable.
+ *
+ * @author agent
+ */
+public class ParameterListPadding {
+	/**
+	 * No padding : every size is its own bucket
+	 */
+	public static final ParameterListPadding NONE = new ParameterListPadding( false, null );
+
+	/**
+	 * Sizes are rounded up to the next power of 2 : 1, 2, 4, 8, 16...
+	 */
+	public static final ParameterListPadding POWERS_OF_TWO = new ParameterListPadding( true, null );
+
+	/**
+	 * Sizes are rounded up to the next of the given bucket sizes.  Sizes beyond the largest bucket are
+	 * rounded up to a multiple of it.
+	 *
+	 * @param bucketSizes The bucket sizes, in increasing order
+	 *
+	 * @return The padding
+	 */
+	public static ParameterListPadding ladder(int... bucketSizes) {
+		if ( bucketSizes.length == 0 ) {
+			throw new IllegalArgumentException( "At least one bucket size is required" );
+		}
+		for ( int i = 0; i < bucketSizes.length; i++ ) {
+			if ( bucketSizes[i] < 1 || ( i > 0 && bucketSizes[i] <= bucketSizes[i - 1] ) ) {
+				throw new IllegalArgumentException(
+						"Bucket sizes must be positive and increasing : " + Arrays.toString( bucketSizes )
+				);
+			}
+		}
+		return new ParameterListPadding( false, bucketSizes.clone() );
+	}
+
+	private final boolean powersOfTwo;
+	private final int[] bucketSizes;
+
+	private ParameterListPadding(boolean powersOfTwo, int[] bucketSizes) {
+		this.powersOfTwo = powersOfTwo;
+		this.bucketSizes = bucketSizes;
+	}
+
+	/**
+	 * The number of slots a collection of the given size is expanded to
+	 *
+	 * @param size The size of the collection (at least 1)
+	 *
+	 * @return The size of its bucket
+	 */
+	public int getBucketSize(int size) {
+		if ( size < 1 ) {
+			throw new IllegalArgumentException( "Parameter list size must be positive : " + size );
+		}
+
+		if ( powersOfTwo ) {
+			final int bucketSize = Integer.highestOneBit( size );
+			if ( bucketSize == size || bucketSize == 1 << 30 ) {
+				return size;
+			}
+			return bucketSize << 1;
+		}
+		else if ( bucketSizes != null ) {
+			final int index = Arrays.binarySearch( bucketSizes, size );
+			if ( index >= 0 ) {
+				return size;
+			}
+			final int insertionPoint = -index - 1;
+			if ( insertionPoint < bucketSizes.length ) {
+				return bucketSizes[insertionPoint];
+			}
+			final int largest = bucketSizes[bucketSizes.length - 1];
+			final long bucketSize = ( ( (long) size + largest - 1 ) / largest ) * largest;
+			return bucketSize > Integer.MAX_VALUE ? size : (int) bucketSize;
+		}
+		else {
+			return size;
+		}
+	}
+
+	@Override
+	public String toString() {
+		if ( powersOfTwo ) {
+			return "ParameterListPadding(powers of two)";
+		}
+		else if ( bucketSizes != null ) {
+			return "ParameterListPadding" + Arrays.toString( bucketSizes );
+		}
+		return "ParameterListPadding(none)";
+	}
+}
@@ -0,0 +1,72 @@
+/*
+ * Hibernate, Relational Persistence for Idiomatic Java
+ *
+ * License: Apache License, Version 2.0
+ * See the LICENSE file in the root directory or visit http://www.apache.org/licenses/LICENSE-2.0
+ */
+package org.hibernate.sqm.parser;
+
+import java.util.Collections;
+import java.util.List;
+
+import org.hibernate.sqm.query.Statement;
+import org.hibernate.sqm.query.expression.SyntheticParameterExpression;
+
+/**
+ * The result of {@link LiteralParameterizer#parameterize auto-parameterizing} a Statement : the
+ * parameterized Statement along with the literal values which were extracted from the original.
+ *
+ * @author agent
+ */
+public class ParameterizedStatement {
+	private final Statement statement;
+	private final List<SyntheticParameterExpression> syntheticParameters;
+	private final List<Object> parameterValues;
+
+	public ParameterizedStatement(
+			Statement statement,
+			List<SyntheticParameterExpression> syntheticParameters,
+			List<Object> parameterValues) {
+		this.statement = statement;
+		this.syntheticParameters = Collections.unmodifiableList( syntheticParameters );
+		this.parameterValues = Collections.unmodifiableList( parameterValues );
+	}
+
+	/**
+	 * The parameterized Statement.
+	 *
+	 * @return The parameterized Statement
+	 */
+	public Statement getStatement() {
+		return statement;
+	}
+
+	/**
+	 * The synthetic parameters introduced in place of literals, in order of their synthetic position.
+	 *
+	 * @return The synthetic parameters
+	 */
+	public List<SyntheticParameterExpression> getSyntheticParameters() {
+		return syntheticParameters;
+	}
+
+	/**
+	 * The literal values extracted from the original Statement, indexed by synthetic position.
+	 *
+	 * @return The extracted values
+	 */
+	public List<Object> getParameterValues() {
+		return parameterValues;
+	}
+
+	/**
+	 * The literal value extracted for the given synthetic parameter.
+	 *
+	 * @param parameter The synthetic parameter
+	 *
+	 * @return The extracted value
+	 */
+	public Object getParameterValue(SyntheticParameterExpression parameter) {
+		return parameterValues.get( parameter.getSyntheticPosition() );
+	}
+}
@@ -0,0 +1,29 @@
+/*
+ * Hibernate, Relational Persistence for Idiomatic Java
+ *
+ * License: Apache License, Version 2.0
+ * See the LICENSE file in the root directory or visit http://www.apache.org/licenses/LICENSE-2.0
+ */
+package org.hibernate.sqm.parser;
+
+/**
+ * Indicates that the interpretation of a query was stopped because the query exceeded one of the
+ * configured {@link QueryLimits}.  The subtypes identify the limit.
+ *
+ * @author agent
+ */
+public abstract class QueryLimitExceededException extends QueryException {
+	private final long limit;
+
+	protected QueryLimitExceededException(String message, long limit) {
+		super( message );
+		this.limit = limit;
+	}
+
+	/**
+	 * The limit which was exceeded
+	 */
+	public long getLimit() {
+		return limit;
+	}
+}
@@ -0,0 +1,243 @@
+/*
+ * Hibernate, Relational Persistence for Idiomatic Java
+ *
+ * License: Apache License, Version 2.0
+ * See the LICENSE file in the root directory or visit http://www.apache.org/licenses/LICENSE-2.0
+ */
+package org.hibernate.sqm.parser;
+
+/**
+ * Hard limits applied to the interpretation of a query, protecting against hostile or pathological
+ * queries (e.g. ones generated from user input) : the input length, the number of tokens, the nesting
+ * depth, the number of joins and subqueries, and the time spent.  Exceeding a limit fails the
+ * interpretation with the corresponding {@link QueryLimitExceededException}.
+ * <p/>
+ * Instances are immutable; start from {@link #NONE} and apply the limits wanted :
+ * <pre>
+ *     QueryLimits.NONE.withMaxInputLength( 10000 ).withMaxNestingDepth( 200 ).withTimeout( 500 );
+ * </pre>
+ *
+ * @author agent
+ *
+ * @see org.hibernate.sqm.ConsumerContext#getQueryLimits()
+ */
+public class QueryLimits {
+	/**
+	 * Value indicating the absence of a limit
+	 */
+	public static final int UNLIMITED = -1;
+
+	/**
+	 * No limits at all
+	 */
+	public static final QueryLimits NONE = new QueryLimits( UNLIMITED, UNLIMITED, UNLIMITED, UNLIMITED, UNLIMITED, UNLIMITED );
+
+	private final int maxInputLength;
+	private final int maxTokenCount;
+	private final int maxNestingDepth;
+	private final int maxJoinCount;
+	private final int maxSubQueryCount;
+	private final long timeoutMillis;
+
+	private QueryLimits(
+			int maxInputLength,
+			int maxTokenCount,
+			int maxNestingDepth,
+			int maxJoinCount,
+			int maxSubQueryCount,
+			long timeoutMillis) {
+		this.maxInputLength = maxInputLength;
+		this.maxTokenCount = maxTokenCount;
+		this.maxNestingDepth = maxNestingDepth;
+		this.maxJoinCount = maxJoinCount;
+		this.maxSubQueryCount = maxSubQueryCount;
+		this.timeoutMillis = timeoutMillis;
+	}
+
+	/**
+	 * The maximum length (in characters) of the query String.
+	 *
+	 * @see QueryTooLongException
+	 */
+	public int getMaxInputLength() {
+		return maxInputLength;
+	}
+
+	/**
+	 * The maximum number of tokens in the query.
+	 *
+	 * @see TooManyTokensException
+	 */
+	public int getMaxTokenCount() {
+		return maxTokenCount;
+	}
+
+	/**
+	 * The maximum depth of the query's parse tree.  Nested parentheses, function calls and subqueries
+	 * add to this, as does each operator in a chain of binary operators (e.g. {@code a = 1 or a = 2 or ...})
+	 * since those nest as well.
+	 *
+	 * @see NestingTooDeepException
+	 */
+	public int getMaxNestingDepth() {
+		return maxNestingDepth;
+	}
+
+	/**
+	 * The maximum number of joins, explicit and implicit, over the query and its subqueries.
+	 *
+	 * @see TooManyJoinsException
+	 */
+	public int getMaxJoinCount() {
+		return maxJoinCount;
+	}
+
+	/**
+	 * The maximum number of subqueries.
+	 *
+	 * @see TooManySubQueriesException
+	 */
+	public int getMaxSubQueryCount() {
+		return maxSubQueryCount;
+	}
+
+	/**
+	 * The maximum time, in milliseconds, the interpretation (parsing and semantic analysis) may take.
+	 * This is checked cooperatively as the interpretation progresses, so it may be exceeded by a little.
+	 *
+	 * @see InterpretationTimeoutException
+	 */
+	public long getTimeout() {
+		return timeoutMillis;
+	}
+
+	/**
+	 * Does this apply any limit?
+	 */
+	public boolean isLimited() {
+		return maxInputLength != UNLIMITED
+				|| maxTokenCount != UNLIMITED
+				|| maxNestingDepth != UNLIMITED
+				|| maxJoinCount != UNLIMITED
+				|| maxSubQueryCount != UNLIMITED
+				|| timeoutMillis != UNLIMITED;
+	}
+
+	public QueryLimits withMaxInputLength(int maxInputLength) {
+		return new QueryLimits(
+				validate( "maxInputLength", maxInputLength ),
+				maxTokenCount,
+				maxNestingDepth,
+				maxJoinCount,
+				maxSubQueryCount,
+				timeoutMillis
+		);
+	}
+
+	public QueryLimits withMaxTokenCount(int maxTokenCount) {
+		return new QueryLimits(
+				maxInputLength,
+				validate( "maxTokenCount", maxTokenCount ),
+				maxNestingDepth,
+				maxJoinCount,
+				maxSubQueryCount,
+				timeoutMillis
+		);
+	}
+
+	public QueryLimits withMaxNestingDepth(int maxNestingDepth) {
+		return new QueryLimits(
+				maxInputLength,
+				maxTokenCount,
+				validate( "maxNestingDepth", maxNestingDepth ),
+				maxJoinCount,
+				maxSubQueryCount,
+				timeoutMillis
+		);
+	}
+
+	public QueryLimits withMaxJoinCount(int maxJoinCount) {
+		return new QueryLimits(
+				maxInputLength,
+				maxTokenCount,
+				maxNestingDepth,
+				validate( "maxJoinCount", maxJoinCount ),
+				maxSubQueryCount,
+				timeoutMillis
+		);
+	}
+
+	public QueryLimits withMaxSubQueryCount(int maxSubQueryCount) {
+		return new QueryLimits(
+				maxInputLength,
+				maxTokenCount,
+				maxNestingDepth,
+				maxJoinCount,
+				validate( "maxSubQueryCount", maxSubQueryCount ),
+				timeoutMillis
+		);
+	}
+
+	/**
+	 * @param timeoutMillis The timeout in milliseconds, or {@link #UNLIMITED}
+	 */
+	public QueryLimits withTimeout(long timeoutMillis) {
+		if ( timeoutMillis < 0 && timeoutMillis != UNLIMITED ) {
+			throw new IllegalArgumentException( "timeout cannot be negative : " + timeoutMillis );
+		}
+		return new QueryLimits(
+				maxInputLength,
+				maxTokenCount,
+				maxNestingDepth,
+				maxJoinCount,
+				maxSubQueryCount,
+				timeoutMillis
+		);
+	}
+
+	private static int validate(String name, int limit) {
+		if ( limit < 0 && limit != UNLIMITED ) {
+			throw new IllegalArgumentException( name + " cannot be negative : " + limit );
+		}
+		return limit;
+	}
+
+	@Override
+	public boolean equals(Object o) {
+		if ( this == o ) {
+			return true;
+		}
+		if ( !( o instanceof QueryLimits ) ) {
+			return false;
+		}
+
+		final QueryLimits that = (QueryLimits) o;
+		return maxInputLength == that.maxInputLength
+				&& maxTokenCount == that.maxTokenCount
+				&& maxNestingDepth == that.maxNestingDepth
+				&& maxJoinCount == that.maxJoinCount
+				&& maxSubQueryCount == that.maxSubQueryCount
+				&& timeoutMillis == that.timeoutMillis;
+	}
+
+	@Override
+	public int hashCode() {
+		int result = maxInputLength;
+		result = 31 * result + maxTokenCount;
+		result = 31 * result + maxNestingDepth;
+		result = 31 * result + maxJoinCount;
+		result = 31 * result + maxSubQueryCount;
+		result = 31 * result + (int) ( timeoutMillis ^ ( timeoutMillis >>> 32 ) );
+		return result;
+	}
+
+	@Override
+	public String toString() {
+		return "QueryLimits(maxInputLength=" + maxInputLength
+				+ ", maxTokenCount=" + maxTokenCount
+				+ ", maxNestingDepth=" + maxNestingDepth
+				+ ", maxJoinCount=" + maxJoinCount
+				+ ", maxSubQueryCount=" + maxSubQueryCount
+				+ ", timeout=" + timeoutMillis + ")";
+	}
+}
@@ -0,0 +1,60 @@
+/*
+ * Hibernate, Relational Persistence for Idiomatic Java
+ *
+ * License: Apache License, Version 2.0
+ * See the LICENSE file in the root directory or visit http://www.apache.org/licenses/LICENSE-2.0
+ */
+package org.hibernate.sqm.parser;
+
+/**
+ * Indicates a syntax error in the query, as reported by the {@link HqlParseProfile#FAIL_FAST fail-fast}
+ * parse profile.
+ *
+ * @author agent
+ */
+public class SyntaxException extends QueryException {
+	private final String query;
+	private final int line;
+	private final int column;
+	private final String offendingToken;
+
+	public SyntaxException(String query, int line, int column, String offendingToken, Throwable cause) {
+		super(
+				"Syntax error at line " + line + ", column " + column
+						+ ( offendingToken == null ? "" : ", near [" + offendingToken + "]" )
+						+ " in query [" + query + "]",
+				cause
+		);
+		this.query = query;
+		this.line = line;
+		this.column = column;
+		this.offendingToken = offendingToken;
+	}
+
+	public String getQuery() {
+		return query;
+	}
+
+	/**
+	 * The line of the error (1-based)
+	 */
+	public int getLine() {
+		return line;
+	}
+
+	/**
+	 * The position of the error within its line (0-based), as in Antlr's own messages
+	 */
+	public int getColumn() {
+		return column;
+	}
+
+	/**
+	 * The text of the token at which the error was detected ({@code <EOF>} for the end of the
+	 * query), or the unrecognizable character if no token could be recognized there at all.
+	 * May be {@code null} if not known.
+	 */
+	public String getOffendingToken() {
+		return offendingToken;
+	}
+}
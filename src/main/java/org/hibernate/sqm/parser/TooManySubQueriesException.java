@@ -0,0 +1,20 @@
+/*
+ * Hibernate, Relational Persistence for Idiomatic Java
+ *
+ * License: Apache License, Version 2.0
+ * See the LICENSE file in the root directory or visit http://www.apache.org/licenses/LICENSE-2.0
+ */
+package org.hibernate.sqm.parser;
+
+/**
+ * Indicates that the query contains more subqueries than allowed.
+ *
+ * @author agent
+ *
+ * @see QueryLimits#getMaxSubQueryCount
+ */
+public class TooManySubQueriesException extends QueryLimitExceededException {
+	public TooManySubQueriesException(int limit) {
+		super( "Query exceeds the maximum number of subqueries (limit " + limit + ")", limit );
+	}
+}
@@ -43,6 +43,11 @@ public class AliasRegistry {
 	}
 
 	public void registerAlias(FromElement fromElement) {
+		if ( fromElement.isImplicitlyAliased() ) {
+			// implicit aliases cannot be referenced from the query
+			return;
+		}
+
 		final FromElement old = fromElementsByAlias.put( fromElement.getIdentificationVariable(), fromElement );
 		if ( old != null ) {
 			throw new AliasCollisionException(
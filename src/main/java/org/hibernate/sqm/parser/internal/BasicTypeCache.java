@@ -0,0 +1,102 @@
+/*
+ * Hibernate, Relational Persistence for Idiomatic Java
+ *
+ * License: Apache License, Version 2.0
+ * See the LICENSE file in the root directory or visit http://www.apache.org/licenses/LICENSE-2.0
+ */
+package org.hibernate.sqm.parser.internal;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+
+import org.hibernate.sqm.domain.BasicType;
+import org.hibernate.sqm.domain.DomainMetamodel;
+
+/**
+ * The BasicType descriptors needed by the interpretation itself (for literals, count(), etc.),
+ * each looked up from the {@link DomainMetamodel} at most once per interpretation.
+ * <p/>
+ * Not thread-safe : each interpretation has its own (see {@link ParsingContext}).
+ *
+ * @author agent
+ */
+public class BasicTypeCache {
+	private final DomainMetamodel domainMetamodel;
+
+	private BasicType<Boolean> booleanType;
+	private BasicType<Character> characterType;
+	private BasicType<String> stringType;
+	private BasicType<Integer> integerType;
+	private BasicType<Long> longType;
+	private BasicType<BigInteger> bigIntegerType;
+	private BasicType<Float> floatType;
+	private BasicType<Double> doubleType;
+	private BasicType<BigDecimal> bigDecimalType;
+
+	public BasicTypeCache(DomainMetamodel domainMetamodel) {
+		this.domainMetamodel = domainMetamodel;
+	}
+
+	public BasicType<Boolean> getBooleanType() {
+		if ( booleanType == null ) {
+			booleanType = domainMetamodel.getBasicType( Boolean.class );
+		}
+		return booleanType;
+	}
+
+	public BasicType<Character> getCharacterType() {
+		if ( characterType == null ) {
+			characterType = domainMetamodel.getBasicType( Character.class );
+		}
+		return characterType;
+	}
+
+	public BasicType<String> getStringType() {
+		if ( stringType == null ) {
+			stringType = domainMetamodel.getBasicType( String.class );
+		}
+		return stringType;
+	}
+
+	public BasicType<Integer> getIntegerType() {
+		if ( integerType == null ) {
+			integerType = domainMetamodel.getBasicType( Integer.class );
+		}
+		return integerType;
+	}
+
+	public BasicType<Long> getLongType() {
+		if ( longType == null ) {
+			longType = domainMetamodel.getBasicType( Long.class );
+		}
+		return longType;
+	}
+
+	public BasicType<BigInteger> getBigIntegerType() {
+		if ( bigIntegerType == null ) {
+			bigIntegerType = domainMetamodel.getBasicType( BigInteger.class );
+		}
+		return bigIntegerType;
+	}
+
+	public BasicType<Float> getFloatType() {
+		if ( floatType == null ) {
+			floatType = domainMetamodel.getBasicType( Float.class );
+		}
+		return floatType;
+	}
+
+	public BasicType<Double> getDoubleType() {
+		if ( doubleType == null ) {
+			doubleType = domainMetamodel.getBasicType( Double.class );
+		}
+		return doubleType;
+	}
+
+	public BasicType<BigDecimal> getBigDecimalType() {
+		if ( bigDecimalType == null ) {
+			bigDecimalType = domainMetamodel.getBasicType( BigDecimal.class );
+		}
+		return bigDecimalType;
+	}
+}
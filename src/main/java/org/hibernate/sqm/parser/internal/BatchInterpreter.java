@@ -0,0 +1,121 @@
+/*
+ * Hibernate, Relational Persistence for Idiomatic Java
+ *
+ * License: Apache License, Version 2.0
+ * See the LICENSE file in the root directory or visit http://www.apache.org/licenses/LICENSE-2.0
+ */
+package org.hibernate.sqm.parser.internal;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.hibernate.sqm.ConsumerContext;
+import org.hibernate.sqm.SemanticQueryInterpreter;
+import org.hibernate.sqm.parser.BatchInterpretationResult;
+import org.hibernate.sqm.query.Statement;
+
+/**
+ * Interprets a batch of named HQL/JPQL queries in parallel.
+ * <p/>
+ * Each interpretation uses its own {@link ParsingContext} (and therefore its own alias generator and
+ * from-element registry); the state shared between interpretations - the parser's DFA caches and
+ * statistics - is safe for concurrent use.  The {@link ConsumerContext} and its
+ * {@link org.hibernate.sqm.domain.DomainMetamodel} are used concurrently and must be thread-safe too.
+ *
+ * @author agent
+ */
+public class BatchInterpreter {
+	private final ConsumerContext consumerContext;
+
+	public BatchInterpreter(ConsumerContext consumerContext) {
+		this.consumerContext = consumerContext;
+	}
+
+	/**
+	 * Interpret the queries using a pool of daemon threads sized to the number of available processors.
+	 */
+	public BatchInterpretationResult interpretAll(Map<String,String> queries) {
+		final int threads = Math.max( 1, Math.min( queries.size(), Runtime.getRuntime().availableProcessors() ) );
+		final ExecutorService executor = Executors.newFixedThreadPool( threads, new DaemonThreadFactory() );
+		try {
+			return interpretAll( queries, executor );
+		}
+		finally {
+			executor.shutdownNow();
+		}
+	}
+
+	/**
+	 * Interpret the queries using the given executor, which is left running.
+	 */
+	public BatchInterpretationResult interpretAll(Map<String,String> queries, ExecutorService executor) {
+		final List<Future<Statement>> futures = new ArrayList<Future<Statement>>( queries.size() );
+		for ( final String query : queries.values() ) {
+			futures.add(
+					executor.submit(
+							new Callable<Statement>() {
+								@Override
+								public Statement call() throws Exception {
+									return SemanticQueryInterpreter.interpret( query, consumerContext );
+								}
+							}
+					)
+			);
+		}
+
+		final Map<String,Statement> statements = new LinkedHashMap<String, Statement>();
+		final List<BatchInterpretationResult.Failure> failures = new ArrayList<BatchInterpretationResult.Failure>();
+
+		InterruptedException interruption = null;
+		int position = 0;
+		for ( Map.Entry<String,String> entry : queries.entrySet() ) {
+			final Future<Statement> future = futures.get( position++ );
+			if ( interruption != null ) {
+				// we stopped waiting; report all remaining queries as failed
+				failures.add( new BatchInterpretationResult.Failure( entry.getKey(), entry.getValue(), interruption ) );
+				continue;
+			}
+
+			try {
+				statements.put( entry.getKey(), future.get() );
+			}
+			catch (ExecutionException e) {
+				failures.add( new BatchInterpretationResult.Failure( entry.getKey(), entry.getValue(), e.getCause() ) );
+			}
+			catch (CancellationException e) {
+				failures.add( new BatchInterpretationResult.Failure( entry.getKey(), entry.getValue(), e ) );
+			}
+			catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				for ( Future<Statement> remaining : futures ) {
+					remaining.cancel( true );
+				}
+				interruption = e;
+				failures.add( new BatchInterpretationResult.Failure( entry.getKey(), entry.getValue(), e ) );
+			}
+		}
+
+		return new BatchInterpretationResult( statements, failures );
+	}
+
+	private static class DaemonThreadFactory implements ThreadFactory {
+		private final AtomicInteger threadNumber = new AtomicInteger();
+
+		@Override
+		public Thread newThread(Runnable runnable) {
+			final Thread thread = new Thread( runnable, "sqm-batch-interpreter-" + threadNumber.incrementAndGet() );
+			thread.setDaemon( true );
+			return thread;
+		}
+	}
+}
@@ -44,17 +44,9 @@ public class FromElementBuilder {
 			FromElementSpace fromElementSpace,
 			EntityType entityType,
 			String alias) {
-		if ( alias == null ) {
-			alias = parsingContext.getImplicitAliasGenerator().buildUniqueImplicitAlias();
-			log.debugf(
-					"Generated implicit alias [%s] for root entity reference [%s]",
-					alias,
-					entityType.getName()
-			);
-		}
 		final RootEntityFromElement root = new RootEntityFromElement(
 				fromElementSpace,
-				parsingContext.makeUniqueIdentifier(),
+				parsingContext.makeUniqueId(),
 				alias,
 				entityType
 		);
@@ -70,24 +62,16 @@ public class FromElementBuilder {
 	 */
 	public CrossJoinedFromElement makeCrossJoinedFromElement(
 			FromElementSpace fromElementSpace,
-			String uid,
+			int uid,
 			EntityType entityType,
 			String alias) {
-		if ( alias == null ) {
-			alias = parsingContext.getImplicitAliasGenerator().buildUniqueImplicitAlias();
-			log.debugf(
-					"Generated implicit alias [%s] for cross joined entity reference [%s]",
-					alias,
-					entityType.getName()
-			);
-		}
-
 		final CrossJoinedFromElement join = new CrossJoinedFromElement(
 				fromElementSpace,
 				uid,
 				alias,
 				entityType
 		);
+		parsingContext.getQueryLimitGuard().joinCreated();
 		fromElementSpace.addJoin( join );
 		parsingContext.registerFromElementByUniqueId( join );
 		registerAlias( join );
@@ -99,22 +83,14 @@ public class FromElementBuilder {
 			String alias,
 			EntityType entityType,
 			JoinType joinType) {
-		if ( alias == null ) {
-			alias = parsingContext.getImplicitAliasGenerator().buildUniqueImplicitAlias();
-			log.debugf(
-					"Generated implicit alias [%s] for entity join [%s]",
-					alias,
-					entityType.getName()
-			);
-		}
-
 		final QualifiedEntityJoinFromElement join = new QualifiedEntityJoinFromElement(
 				fromElementSpace,
-				parsingContext.makeUniqueIdentifier(),
+				parsingContext.makeUniqueId(),
 				alias,
 				entityType,
 				joinType
 		);
+		parsingContext.getQueryLimitGuard().joinCreated();
 		fromElementSpace.addJoin( join );
 		parsingContext.registerFromElementByUniqueId( join );
 		registerAlias( join );
@@ -137,19 +113,9 @@ public class FromElementBuilder {
 			);
 		}
 
-		if ( alias == null ) {
-			alias = parsingContext.getImplicitAliasGenerator().buildUniqueImplicitAlias();
-			log.debugf(
-					"Generated implicit alias [%s] for attribute join [%s.%s]",
-					alias,
-					lhs.getIdentificationVariable(),
-					attributeDescriptor.getName()
-			);
-		}
-
 		final QualifiedAttributeJoinFromElement join = new QualifiedAttributeJoinFromElement(
 				fromElementSpace,
-				parsingContext.makeUniqueIdentifier(),
+				parsingContext.makeUniqueId(),
 				alias,
 				attributeDescriptor,
 				subclassIndicator,
@@ -158,6 +124,7 @@ public class FromElementBuilder {
 				lhs,
 				fetched
 		);
+		parsingContext.getQueryLimitGuard().joinCreated();
 		fromElementSpace.addJoin( join );
 		parsingContext.registerFromElementByUniqueId( join );
 		registerAlias( join );
@@ -166,14 +133,9 @@ public class FromElementBuilder {
 	}
 
 	private void registerAlias(FromElement fromElement) {
-		final String alias = fromElement.getIdentificationVariable();
-
-		if ( alias == null ) {
-			throw new ParsingException( "FromElement alias was null" );
-		}
-
-		if ( ImplicitAliasGenerator.isImplicitAlias( alias ) ) {
-			log.debug( "Alias registration for implicit FromElement alias : " + alias );
+		if ( fromElement.isImplicitlyAliased() ) {
+			log.debugf( "Skipping alias registration for implicitly aliased FromElement : %s", fromElement.getUniqueIdentifier() );
+			return;
 		}
 
 		aliasRegistry.registerAlias( fromElement );
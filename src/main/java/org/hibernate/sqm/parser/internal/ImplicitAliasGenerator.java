@@ -7,11 +7,21 @@
 package org.hibernate.sqm.parser.internal;
 
 /**
- * Handles generating implicit (or synthetic) aliases.
+ * Handles generating implicit (or synthetic) aliases.  Each interpretation uses its own
+ * generator (see {@link ParsingContext}), so generated aliases are unique within a query
+ * and no locking is needed.
+ * <p/>
+ * FromElements do not use this : they are simply left without an alias, and render their
+ * implicit alias from their unique id on demand (see
+ * {@link org.hibernate.sqm.query.from.FromElement#isImplicitlyAliased()}).  Those use a
+ * distinct prefix ({@code <uid-gen:n>}), since the ids count from 0 just like this does.
  *
  * @author Steve Ebersole
  */
 public class ImplicitAliasGenerator {
+	private static final String PREFIX = "<gen:";
+	private static final String FROM_ELEMENT_PREFIX = "<uid-gen:";
+
 	private int unaliasedCount = 0;
 
 	/**
@@ -19,8 +29,8 @@ public class ImplicitAliasGenerator {
 	 *
 	 * @return The generated alias.
 	 */
-	public synchronized String buildUniqueImplicitAlias() {
-		return "<gen:" + unaliasedCount++ + ">";
+	public String buildUniqueImplicitAlias() {
+		return PREFIX + unaliasedCount++ + ">";
 	}
 
 	/**
@@ -30,6 +40,7 @@ public class ImplicitAliasGenerator {
 	 * @return True/false.
 	 */
 	public static boolean isImplicitAlias(String alias) {
-		return alias == null || ( alias.startsWith( "<gen:" ) && alias.endsWith( ">" ) );
+		return alias == null
+				|| ( ( alias.startsWith( PREFIX ) || alias.startsWith( FROM_ELEMENT_PREFIX ) ) && alias.endsWith( ">" ) );
 	}
 }
@@ -0,0 +1,151 @@
+/*
+ * Hibernate, Relational Persistence for Idiomatic Java
+ *
+ * License: Apache License, Version 2.0
+ * See the LICENSE file in the root directory or visit http://www.apache.org/licenses/LICENSE-2.0
+ */
+package org.hibernate.sqm.parser.internal;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import org.hibernate.sqm.query.expression.Expression;
+import org.hibernate.sqm.query.expression.LiteralExpression;
+import org.hibernate.sqm.query.expression.LiteralFalseExpression;
+import org.hibernate.sqm.query.expression.LiteralIntegerExpression;
+import org.hibernate.sqm.query.expression.LiteralNullExpression;
+import org.hibernate.sqm.query.expression.LiteralStringExpression;
+import org.hibernate.sqm.query.expression.LiteralTrueExpression;
+import org.hibernate.sqm.query.expression.UnaryOperationExpression;
+
+/**
+ * Shares the literal nodes of an interpretation : the boolean literals, the null literal, small
+ * integers and repeated strings are each created once, no matter how often they occur in the query.
+ * <p/>
+ * Literals are {@link org.hibernate.sqm.query.expression.ImpliedTypeExpression}s though, and a shared
+ * literal must not take on the type implied by one particular occurrence.  Shared literals are therefore
+ * handed out already frozen, rejecting any implied type; anything implying a type for an expression
+ * must first {@link #unshare} it.
+ * <p/>
+ * Not thread-safe : each interpretation has its own (see {@link ParsingContext}).
+ *
+ * @author agent
+ */
+public class LiteralInterner {
+	// integer literals in [0, SMALL_INTEGER_LIMIT) are shared; negative ones are unary minus expressions
+	private static final int SMALL_INTEGER_LIMIT = 1024;
+
+	private final BasicTypeCache basicTypes;
+
+	private LiteralTrueExpression trueLiteral;
+	private LiteralFalseExpression falseLiteral;
+	private LiteralNullExpression nullLiteral;
+	private LiteralIntegerExpression[] smallIntegerLiterals;
+	private Map<String,LiteralStringExpression> stringLiterals;
+
+	public LiteralInterner(BasicTypeCache basicTypes) {
+		this.basicTypes = basicTypes;
+	}
+
+	public LiteralExpression<Boolean> booleanLiteral(boolean value) {
+		if ( value ) {
+			if ( trueLiteral == null ) {
+				trueLiteral = new LiteralTrueExpression( basicTypes.getBooleanType() );
+				trueLiteral.freeze();
+			}
+			return trueLiteral;
+		}
+		else {
+			if ( falseLiteral == null ) {
+				falseLiteral = new LiteralFalseExpression( basicTypes.getBooleanType() );
+				falseLiteral.freeze();
+			}
+			return falseLiteral;
+		}
+	}
+
+	public LiteralNullExpression nullLiteral() {
+		if ( nullLiteral == null ) {
+			nullLiteral = new LiteralNullExpression();
+		}
+		return nullLiteral;
+	}
+
+	public LiteralIntegerExpression integerLiteral(int value) {
+		if ( value < 0 || value >= SMALL_INTEGER_LIMIT ) {
+			return new LiteralIntegerExpression( value, basicTypes.getIntegerType() );
+		}
+
+		if ( smallIntegerLiterals == null ) {
+			smallIntegerLiterals = new LiteralIntegerExpression[SMALL_INTEGER_LIMIT];
+		}
+		LiteralIntegerExpression literal = smallIntegerLiterals[value];
+		if ( literal == null ) {
+			literal = new LiteralIntegerExpression( value, basicTypes.getIntegerType() );
+			literal.freeze();
+			smallIntegerLiterals[value] = literal;
+		}
+		return literal;
+	}
+
+	public LiteralStringExpression stringLiteral(String value) {
+		if ( stringLiterals == null ) {
+			stringLiterals = new HashMap<String, LiteralStringExpression>();
+		}
+		LiteralStringExpression literal = stringLiterals.get( value );
+		if ( literal == null ) {
+			literal = new LiteralStringExpression( value, basicTypes.getStringType() );
+			literal.freeze();
+			stringLiterals.put( value, literal );
+		}
+		return literal;
+	}
+
+	/**
+	 * Get a version of the expression whose type may be implied without affecting any other part
+	 * of the query : shared literals (possibly as the operand of a unary operation) are replaced by
+	 * a private copy.
+	 *
+	 * @param expression The expression
+	 *
+	 * @return The expression itself if it shares no literal, otherwise an unshared equivalent
+	 */
+	public Expression unshare(Expression expression) {
+		if ( expression instanceof UnaryOperationExpression ) {
+			final UnaryOperationExpression unaryOperation = (UnaryOperationExpression) expression;
+			final Expression operand = unshare( unaryOperation.getOperand() );
+			if ( operand == unaryOperation.getOperand() ) {
+				return unaryOperation;
+			}
+			return new UnaryOperationExpression(
+					unaryOperation.getOperation(),
+					operand,
+					unaryOperation.getExpressionType()
+			);
+		}
+
+		if ( expression == trueLiteral ) {
+			return new LiteralTrueExpression( trueLiteral.getExpressionType() );
+		}
+		else if ( expression == falseLiteral ) {
+			return new LiteralFalseExpression( falseLiteral.getExpressionType() );
+		}
+		else if ( expression instanceof LiteralIntegerExpression ) {
+			final LiteralIntegerExpression literal = (LiteralIntegerExpression) expression;
+			final int value = literal.getLiteralValue();
+			if ( value >= 0 && value < SMALL_INTEGER_LIMIT
+					&& smallIntegerLiterals != null && smallIntegerLiterals[value] == literal ) {
+				return new LiteralIntegerExpression( value, literal.getExpressionType() );
+			}
+		}
+		else if ( expression instanceof LiteralStringExpression ) {
+			final LiteralStringExpression literal = (LiteralStringExpression) expression;
+			if ( stringLiterals != null && stringLiterals.get( literal.getLiteralValue() ) == literal ) {
+				return new LiteralStringExpression( literal.getLiteralValue(), literal.getExpressionType() );
+			}
+		}
+
+		// the null literal ignores implied types, so it can stay shared
+		return expression;
+	}
+}
@@ -6,11 +6,9 @@
  */
 package org.hibernate.sqm.parser.internal;
 
-import java.util.HashMap;
-import java.util.Map;
-
 import org.hibernate.sqm.ConsumerContext;
 import org.hibernate.sqm.query.from.FromElement;
+import org.hibernate.sqm.query.from.FromElementTable;
 
 /**
  * Represents contextual information for each parse
@@ -19,33 +17,58 @@ import org.hibernate.sqm.query.from.FromElement;
  */
 public class ParsingContext {
 	private final ConsumerContext consumerContext;
+	private final QueryLimitGuard queryLimitGuard;
 	private final ImplicitAliasGenerator aliasGenerator = new ImplicitAliasGenerator();
-	private final Map<String,FromElement> globalFromElementMap = new HashMap<String, FromElement>();
+	private final FromElementTable globalFromElementTable = new FromElementTable();
+	private final BasicTypeCache basicTypeCache;
+	private final LiteralInterner literalInterner;
 
 	public ParsingContext(ConsumerContext consumerContext) {
+		this( consumerContext, new QueryLimitGuard( consumerContext.getQueryLimits() ) );
+	}
+
+	public ParsingContext(ConsumerContext consumerContext, QueryLimitGuard queryLimitGuard) {
 		this.consumerContext = consumerContext;
+		this.queryLimitGuard = queryLimitGuard;
+		this.basicTypeCache = new BasicTypeCache( consumerContext.getDomainMetamodel() );
+		this.literalInterner = new LiteralInterner( basicTypeCache );
 	}
 
 	public ConsumerContext getConsumerContext() {
 		return consumerContext;
 	}
 
+	public QueryLimitGuard getQueryLimitGuard() {
+		return queryLimitGuard;
+	}
+
 	public ImplicitAliasGenerator getImplicitAliasGenerator() {
 		return aliasGenerator;
 	}
 
-	private long uidSequence = 0;
+	public BasicTypeCache getBasicTypeCache() {
+		return basicTypeCache;
+	}
+
+	public LiteralInterner getLiteralInterner() {
+		return literalInterner;
+	}
+
+	private int uidSequence = 0;
 
-	public String makeUniqueIdentifier() {
-		return "<uid:" + ++uidSequence + ">";
+	/**
+	 * Make the unique id for a new FromElement : the ids of a statement are dense, starting at 0.
+	 */
+	public int makeUniqueId() {
+		return uidSequence++;
 	}
 
 	public void registerFromElementByUniqueId(FromElement fromElement) {
-		final FromElement old = globalFromElementMap.put( fromElement.getUniqueIdentifier(), fromElement );
+		final FromElement old = globalFromElementTable.put( fromElement );
 		assert old == null;
 	}
 
-	public void findElementByUniqueId(String uid) {
-		globalFromElementMap.get( uid );
+	public FromElement findElementByUniqueId(int uid) {
+		return globalFromElementTable.get( uid );
 	}
 }
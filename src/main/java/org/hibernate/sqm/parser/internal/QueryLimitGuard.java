@@ -0,0 +1,156 @@
+/*
+ * Hibernate, Relational Persistence for Idiomatic Java
+ *
+ * License: Apache License, Version 2.0
+ * See the LICENSE file in the root directory or visit http://www.apache.org/licenses/LICENSE-2.0
+ */
+package org.hibernate.sqm.parser.internal;
+
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+import org.hibernate.sqm.parser.InterpretationTimeoutException;
+import org.hibernate.sqm.parser.NestingTooDeepException;
+import org.hibernate.sqm.parser.QueryLimits;
+import org.hibernate.sqm.parser.QueryTooLongException;
+import org.hibernate.sqm.parser.TooManyJoinsException;
+import org.hibernate.sqm.parser.TooManySubQueriesException;
+import org.hibernate.sqm.parser.TooManyTokensException;
+
+/**
+ * Enforces the {@link QueryLimits} for a single interpretation.  The lexer, parser and semantic analysis
+ * report their progress here, and the deadline is checked every so often as they do; no other thread
+ * is involved.
+ * <p/>
+ * Not thread-safe : each interpretation has its own (see {@link ParsingContext}).
+ *
+ * @author agent
+ */
+public class QueryLimitGuard {
+	// the deadline is checked every DEADLINE_CHECK_INTERVAL progress reports (must be a power of 2)
+	private static final int DEADLINE_CHECK_INTERVAL = 64;
+
+	private final QueryLimits limits;
+	private final boolean enforcing;
+	private final boolean timed;
+	private final long deadlineNanos;
+
+	private int progress;
+	private int tokenCount;
+	private int nestingDepth;
+	private int[] recursionDepths = new int[16];
+	private int recursionLevel;
+	private int joinCount;
+	private int subQueryCount;
+
+	/**
+	 * Create the guard, starting the clock for the timeout
+	 *
+	 * @param limits The limits to enforce
+	 */
+	public QueryLimitGuard(QueryLimits limits) {
+		this.limits = limits;
+		this.enforcing = limits.isLimited();
+		this.timed = limits.getTimeout() != QueryLimits.UNLIMITED;
+		this.deadlineNanos = timed ? System.nanoTime() + TimeUnit.MILLISECONDS.toNanos( limits.getTimeout() ) : 0;
+	}
+
+	public QueryLimits getLimits() {
+		return limits;
+	}
+
+	/**
+	 * Are any limits enforced?  If not, reporting progress can be skipped altogether.
+	 */
+	public boolean isEnforcing() {
+		return enforcing;
+	}
+
+	public void checkInputLength(int length) {
+		if ( limits.getMaxInputLength() != QueryLimits.UNLIMITED && length > limits.getMaxInputLength() ) {
+			throw new QueryTooLongException( limits.getMaxInputLength() );
+		}
+	}
+
+	/**
+	 * Called before (re-)parsing the query : everything but the time is counted per parse, which
+	 * matters when a single-pass interpretation is abandoned in favor of a two-pass one.
+	 */
+	public void startParse() {
+		tokenCount = 0;
+		nestingDepth = 0;
+		recursionLevel = 0;
+		joinCount = 0;
+		subQueryCount = 0;
+	}
+
+	public void tokenRead() {
+		tokenCount++;
+		if ( limits.getMaxTokenCount() != QueryLimits.UNLIMITED && tokenCount > limits.getMaxTokenCount() ) {
+			throw new TooManyTokensException( limits.getMaxTokenCount() );
+		}
+		progress();
+	}
+
+	/**
+	 * Called as the parser enters a rule, or nests another level of a left-recursive rule
+	 */
+	public void nestingEntered() {
+		nestingDepth++;
+		if ( limits.getMaxNestingDepth() != QueryLimits.UNLIMITED && nestingDepth > limits.getMaxNestingDepth() ) {
+			throw new NestingTooDeepException( limits.getMaxNestingDepth() );
+		}
+		progress();
+	}
+
+	public void nestingExited() {
+		nestingDepth--;
+	}
+
+	/**
+	 * Called as the parser enters a left-recursive rule.  The levels nested by the rule are all exited
+	 * at once, by {@link #recursionExited()}.
+	 */
+	public void recursionEntered() {
+		if ( recursionLevel == recursionDepths.length ) {
+			recursionDepths = Arrays.copyOf( recursionDepths, recursionLevel * 2 );
+		}
+		recursionDepths[recursionLevel++] = nestingDepth;
+		nestingEntered();
+	}
+
+	public void recursionExited() {
+		nestingDepth = recursionDepths[--recursionLevel];
+	}
+
+	public void joinCreated() {
+		joinCount++;
+		if ( limits.getMaxJoinCount() != QueryLimits.UNLIMITED && joinCount > limits.getMaxJoinCount() ) {
+			throw new TooManyJoinsException( limits.getMaxJoinCount() );
+		}
+		checkDeadline();
+	}
+
+	public void subQueryStarted() {
+		subQueryCount++;
+		if ( limits.getMaxSubQueryCount() != QueryLimits.UNLIMITED && subQueryCount > limits.getMaxSubQueryCount() ) {
+			throw new TooManySubQueriesException( limits.getMaxSubQueryCount() );
+		}
+		checkDeadline();
+	}
+
+	/**
+	 * Report some unit of progress; the deadline is checked every so often
+	 */
+	public void progress() {
+		if ( ( ++progress & ( DEADLINE_CHECK_INTERVAL - 1 ) ) == 0 ) {
+			checkDeadline();
+		}
+	}
+
+	public void checkDeadline() {
+		if ( timed && System.nanoTime() - deadlineNanos > 0 ) {
+			throw new InterpretationTimeoutException( limits.getTimeout() );
+		}
+	}
+}
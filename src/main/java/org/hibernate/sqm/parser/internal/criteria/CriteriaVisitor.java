@@ -31,16 +31,15 @@ import org.hibernate.sqm.query.expression.ParameterExpression;
 import org.hibernate.sqm.query.expression.SubQueryExpression;
 import org.hibernate.sqm.query.expression.SumFunction;
 import org.hibernate.sqm.query.expression.UnaryOperationExpression;
-import org.hibernate.sqm.query.predicate.AndPredicate;
 import org.hibernate.sqm.query.predicate.BetweenPredicate;
 import org.hibernate.sqm.query.predicate.EmptinessPredicate;
 import org.hibernate.sqm.query.predicate.InSubQueryPredicate;
-import org.hibernate.sqm.query.predicate.InListPredicate;
+import org.hibernate.sqm.query.predicate.InPredicate;
+import org.hibernate.sqm.query.predicate.JunctionPredicate;
 import org.hibernate.sqm.query.predicate.LikePredicate;
 import org.hibernate.sqm.query.predicate.MemberOfPredicate;
 import org.hibernate.sqm.query.predicate.NegatedPredicate;
 import org.hibernate.sqm.query.predicate.NullnessPredicate;
-import org.hibernate.sqm.query.predicate.OrPredicate;
 import org.hibernate.sqm.query.predicate.RelationalPredicate;
 import org.hibernate.sqm.query.select.SelectClause;
 
@@ -123,8 +122,8 @@ public interface CriteriaVisitor {
 
 	SubQueryExpression visitSubQuery(Subquery subquery);
 
-	AndPredicate visitAndPredicate(List<javax.persistence.criteria.Expression<Boolean>> predicates);
-	OrPredicate visitOrPredicate(List<javax.persistence.criteria.Expression<Boolean>> predicates);
+	JunctionPredicate visitAndPredicate(List<javax.persistence.criteria.Expression<Boolean>> predicates);
+	JunctionPredicate visitOrPredicate(List<javax.persistence.criteria.Expression<Boolean>> predicates);
 
 	NegatedPredicate visitPredicateNegation(javax.persistence.criteria.Expression<Boolean> expression);
 
@@ -155,7 +154,7 @@ public interface CriteriaVisitor {
 			Subquery subquery,
 			boolean negated);
 
-	InListPredicate visitInTupleListPredicate(
+	InPredicate visitInTupleListPredicate(
 			javax.persistence.criteria.Expression testExpression,
 			List<javax.persistence.criteria.Expression> listExpressions,
 			boolean negated);
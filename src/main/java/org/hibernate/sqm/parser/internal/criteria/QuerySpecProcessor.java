@@ -73,16 +73,17 @@ import org.hibernate.sqm.query.from.FromElement;
 import org.hibernate.sqm.query.from.FromElementSpace;
 import org.hibernate.sqm.query.from.QualifiedAttributeJoinFromElement;
 import org.hibernate.sqm.query.from.RootEntityFromElement;
-import org.hibernate.sqm.query.predicate.AndPredicate;
 import org.hibernate.sqm.query.predicate.BetweenPredicate;
 import org.hibernate.sqm.query.predicate.EmptinessPredicate;
+import org.hibernate.sqm.query.predicate.InPredicate;
 import org.hibernate.sqm.query.predicate.InSubQueryPredicate;
 import org.hibernate.sqm.query.predicate.InListPredicate;
+import org.hibernate.sqm.query.predicate.JunctionPredicate;
 import org.hibernate.sqm.query.predicate.LikePredicate;
+import org.hibernate.sqm.query.predicate.LiteralInListPredicate;
 import org.hibernate.sqm.query.predicate.MemberOfPredicate;
 import org.hibernate.sqm.query.predicate.NegatedPredicate;
 import org.hibernate.sqm.query.predicate.NullnessPredicate;
-import org.hibernate.sqm.query.predicate.OrPredicate;
 import org.hibernate.sqm.query.predicate.Predicate;
 import org.hibernate.sqm.query.predicate.RelationalPredicate;
 import org.hibernate.sqm.query.predicate.WhereClause;
@@ -159,16 +160,14 @@ public class QuerySpecProcessor implements CriteriaVisitor {
 
 	private void bindFetches(FetchParent<?, ?> lhs, FromElement sqmLhs, FromElementSpace space) {
 		for ( Fetch<?, ?> fetch : lhs.getFetches() ) {
-			final String alias = parsingContext.getImplicitAliasGenerator().buildUniqueImplicitAlias();
+			// fetches are always implicitly aliased
 			// todo : we could theoretically reconstruct the "fetch path" via parent refs if we deem it useful..
-			@SuppressWarnings("UnnecessaryLocalVariable") final String path  = alias;
-
 			final QualifiedAttributeJoinFromElement sqmFetch = fromElementBuilder.buildAttributeJoin(
 					space,
-					alias,
+					null,
 					sqmLhs.resolveAttribute( fetch.getAttribute().getName() ),
 					parsingContext.getConsumerContext().getDomainMetamodel().resolveEntityType( fetch.getAttribute().getJavaType() ),
-					path,
+					null,
 					convert( fetch.getJoinType() ),
 					sqmLhs,
 					true
@@ -527,7 +526,7 @@ public class QuerySpecProcessor implements CriteriaVisitor {
 	public CountStarFunction visitCountStarFunction(boolean distinct) {
 		return new CountStarFunction(
 				distinct,
-				parsingContext.getConsumerContext().getDomainMetamodel().getBasicType( Long.class )
+				parsingContext.getBasicTypeCache().getLongType()
 		);
 	}
 
@@ -612,6 +611,7 @@ public class QuerySpecProcessor implements CriteriaVisitor {
 
 	@Override
 	public SubQueryExpression visitSubQuery(Subquery subquery) {
+		parsingContext.getQueryLimitGuard().subQueryStarted();
 		// todo : need to work out the "proper" Type here...
 		return new SubQueryExpression( visitQuerySpec( subquery ), null );
 	}
@@ -631,57 +631,33 @@ public class QuerySpecProcessor implements CriteriaVisitor {
 	}
 
 	@Override
-	public AndPredicate visitAndPredicate(List<javax.persistence.criteria.Expression<Boolean>> predicates) {
-		final int predicateCount = predicates.size();
-
-		if ( predicateCount < 2 ) {
-			throw new QueryException(
-					"Expecting 2 or more predicate expressions to form conjunction (AND), but found [" + predicateCount + "]"
-			);
-		}
-
-		AndPredicate result = new AndPredicate(
-				visitPredicate( predicates.get( 0 ) ),
-				visitPredicate( predicates.get( 1 ) )
-		);
-
-		if ( predicateCount > 2 ) {
-			for ( int i = 2; i < predicateCount; i++ ) {
-				result = new AndPredicate(
-						result,
-						visitPredicate( predicates.get( i ) )
-				);
-			}
-		}
-
-		return result;
+	public JunctionPredicate visitAndPredicate(List<javax.persistence.criteria.Expression<Boolean>> predicates) {
+		return visitJunction( JunctionPredicate.Nature.CONJUNCTION, predicates );
 	}
 
 	@Override
-	public OrPredicate visitOrPredicate(List<javax.persistence.criteria.Expression<Boolean>> predicates) {
+	public JunctionPredicate visitOrPredicate(List<javax.persistence.criteria.Expression<Boolean>> predicates) {
+		return visitJunction( JunctionPredicate.Nature.DISJUNCTION, predicates );
+	}
+
+	private JunctionPredicate visitJunction(
+			JunctionPredicate.Nature nature,
+			List<javax.persistence.criteria.Expression<Boolean>> predicates) {
 		final int predicateCount = predicates.size();
 
 		if ( predicateCount < 2 ) {
 			throw new QueryException(
-					"Expecting 2 or more predicate expressions to form disjunction (OR), but found [" + predicateCount + "]"
+					"Expecting 2 or more predicate expressions to form "
+							+ ( nature == JunctionPredicate.Nature.CONJUNCTION ? "conjunction (AND)" : "disjunction (OR)" )
+							+ ", but found [" + predicateCount + "]"
 			);
 		}
 
-		OrPredicate result = new OrPredicate(
-				visitPredicate( predicates.get( 0 ) ),
-				visitPredicate( predicates.get( 1 ) )
-		);
-
-		if ( predicateCount > 2 ) {
-			for ( int i = 2; i < predicateCount; i++ ) {
-				result = new OrPredicate(
-						result,
-						visitPredicate( predicates.get( i ) )
-				);
-			}
+		final List<Predicate> result = new ArrayList<Predicate>( predicateCount );
+		for ( int i = 0; i < predicateCount; i++ ) {
+			result.add( visitPredicate( predicates.get( i ) ) );
 		}
-
-		return result;
+		return new JunctionPredicate( nature, result );
 	}
 
 	@Override
@@ -758,19 +734,20 @@ public class QuerySpecProcessor implements CriteriaVisitor {
 	}
 
 	@Override
-	public InListPredicate visitInTupleListPredicate(
+	public InPredicate visitInTupleListPredicate(
 			javax.persistence.criteria.Expression testExpression,
 			List<javax.persistence.criteria.Expression> expressionsList,
 			boolean negated) {
-		final List<Expression> expressions = new ArrayList<Expression>();
+		final List<Expression> expressions = new ArrayList<Expression>( expressionsList.size() );
 		for ( javax.persistence.criteria.Expression expression : expressionsList ) {
 			expressions.add( visitExpression( expression ) );
 		}
 
-		return new InListPredicate(
-				visitExpression( testExpression ),
-				expressions,
-				negated
-		);
+		final Expression test = visitExpression( testExpression );
+		final LiteralInListPredicate literalInList = LiteralInListPredicate.from( test, expressions, negated );
+		if ( literalInList != null ) {
+			return literalInList;
+		}
+		return new InListPredicate( test, expressions, negated );
 	}
 }
@@ -0,0 +1,105 @@
+/*
+ * Hibernate, Relational Persistence for Idiomatic Java
+ *
+ * License: Apache License, Version 2.0
+ * See the LICENSE file in the root directory or visit http://www.apache.org/licenses/LICENSE-2.0
+ */
+package org.hibernate.sqm.parser.internal.hql;
+
+import org.antlr.v4.runtime.CharStream;
+import org.antlr.v4.runtime.IntStream;
+import org.antlr.v4.runtime.misc.Interval;
+
+/**
+ * A CharStream reading a CharSequence (typically the query String) in place.  Unlike
+ * {@link org.antlr.v4.runtime.ANTLRInputStream}, which copies the entire input into a {@code char[]}
+ * up front, nothing is copied other than the text of the tokens asked for.
+ *
+ * @author agent
+ */
+public class CharSequenceCharStream implements CharStream {
+	private final CharSequence input;
+	private final int length;
+	private int position;
+
+	public CharSequenceCharStream(CharSequence input) {
+		this.input = input;
+		this.length = input.length();
+	}
+
+	@Override
+	public void consume() {
+		if ( position >= length ) {
+			assert LA( 1 ) == IntStream.EOF;
+			throw new IllegalStateException( "cannot consume EOF" );
+		}
+		position++;
+	}
+
+	@Override
+	public int LA(int i) {
+		if ( i == 0 ) {
+			// undefined
+			return 0;
+		}
+		if ( i < 0 ) {
+			// e.g., translate LA(-1) to use offset i=0; then input[p+0-1]
+			i++;
+			if ( position + i - 1 < 0 ) {
+				// invalid; no char before first char
+				return IntStream.EOF;
+			}
+		}
+
+		final int index = position + i - 1;
+		if ( index >= length ) {
+			return IntStream.EOF;
+		}
+		return input.charAt( index );
+	}
+
+	@Override
+	public int mark() {
+		// everything is always available
+		return -1;
+	}
+
+	@Override
+	public void release(int marker) {
+	}
+
+	@Override
+	public int index() {
+		return position;
+	}
+
+	@Override
+	public void seek(int index) {
+		position = Math.min( index, length );
+	}
+
+	@Override
+	public int size() {
+		return length;
+	}
+
+	@Override
+	public String getSourceName() {
+		return UNKNOWN_SOURCE_NAME;
+	}
+
+	@Override
+	public String getText(Interval interval) {
+		final int start = interval.a;
+		if ( start >= length ) {
+			return "";
+		}
+		final int stop = Math.min( interval.b, length - 1 );
+		return input.subSequence( start, stop + 1 ).toString();
+	}
+
+	@Override
+	public String toString() {
+		return input.toString();
+	}
+}
@@ -0,0 +1,78 @@
+/*
+ * Hibernate, Relational Persistence for Idiomatic Java
+ *
+ * License: Apache License, Version 2.0
+ * See the LICENSE file in the root directory or visit http://www.apache.org/licenses/LICENSE-2.0
+ */
+package org.hibernate.sqm.parser.internal.hql;
+
+import java.io.BufferedReader;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.hibernate.sqm.parser.HqlDecisionProfile;
+import org.hibernate.sqm.parser.HqlPredictionMode;
+
+/**
+ * Command line tool printing the {@link HqlDecisionProfile decision profile} of the HQL parser for a
+ * corpus of queries :
+ * <pre>
+ *     java org.hibernate.sqm.parser.internal.hql.HqlDecisionProfiler [--ll] [--top N] [file...]
+ * </pre>
+ * The files contain one query per line; blank lines and lines starting with {@code #} are skipped.
+ * Without files the {@link HqlWarmUp#SYNTHETIC_CORPUS built-in corpus} is profiled.  {@code --ll} uses
+ * full-context prediction throughout rather than SLL with LL fallback; {@code --top} limits the report
+ * to the N most expensive decisions.
+ *
+ * @author agent
+ */
+public class HqlDecisionProfiler {
+	private HqlDecisionProfiler() {
+	}
+
+	public static void main(String[] args) throws IOException {
+		HqlPredictionMode predictionMode = HqlPredictionMode.SLL_WITH_LL_FALLBACK;
+		int maxDecisions = Integer.MAX_VALUE;
+		final List<String> queries = new ArrayList<String>();
+
+		for ( int i = 0; i < args.length; i++ ) {
+			if ( "--ll".equals( args[i] ) ) {
+				predictionMode = HqlPredictionMode.LL;
+			}
+			else if ( "--top".equals( args[i] ) && i + 1 < args.length ) {
+				maxDecisions = Integer.parseInt( args[++i] );
+			}
+			else {
+				readQueries( args[i], queries );
+			}
+		}
+		if ( queries.isEmpty() ) {
+			queries.addAll( HqlWarmUp.SYNTHETIC_CORPUS );
+		}
+
+		final HqlDecisionProfile profile = HqlParseTreeBuilder.INSTANCE.profileDecisions( queries, predictionMode );
+		profile.writeReport( System.out, maxDecisions );
+		System.out.flush();
+	}
+
+	private static void readQueries(String fileName, List<String> queries) throws IOException {
+		final BufferedReader reader = new BufferedReader(
+				new InputStreamReader( new FileInputStream( fileName ), "UTF-8" )
+		);
+		try {
+			String line;
+			while ( ( line = reader.readLine() ) != null ) {
+				line = line.trim();
+				if ( line.length() > 0 && !line.startsWith( "#" ) ) {
+					queries.add( line );
+				}
+			}
+		}
+		finally {
+			reader.close();
+		}
+	}
+}
@@ -6,17 +6,65 @@
  */
 package org.hibernate.sqm.parser.internal.hql;
 
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.hibernate.sqm.parser.HqlDecisionProfile;
+import org.hibernate.sqm.parser.HqlParseProfile;
+import org.hibernate.sqm.parser.HqlParseStatistics;
+import org.hibernate.sqm.parser.HqlPredictionMode;
+import org.hibernate.sqm.parser.QueryLimitExceededException;
+import org.hibernate.sqm.parser.SyntaxException;
+import org.hibernate.sqm.parser.internal.QueryLimitGuard;
 import org.hibernate.sqm.parser.internal.hql.antlr.HqlLexer;
 import org.hibernate.sqm.parser.internal.hql.antlr.HqlParser;
 
 import org.jboss.logging.Logger;
 
-import org.antlr.v4.runtime.ANTLRInputStream;
+import org.antlr.v4.runtime.ANTLRErrorListener;
+import org.antlr.v4.runtime.BailErrorStrategy;
+import org.antlr.v4.runtime.BaseErrorListener;
+import org.antlr.v4.runtime.CharStream;
+import org.antlr.v4.runtime.CommonToken;
 import org.antlr.v4.runtime.CommonTokenStream;
+import org.antlr.v4.runtime.ConsoleErrorListener;
+import org.antlr.v4.runtime.DefaultErrorStrategy;
+import org.antlr.v4.runtime.Lexer;
+import org.antlr.v4.runtime.LexerNoViableAltException;
+import org.antlr.v4.runtime.Parser;
+import org.antlr.v4.runtime.ParserRuleContext;
+import org.antlr.v4.runtime.RecognitionException;
+import org.antlr.v4.runtime.Recognizer;
 import org.antlr.v4.runtime.Token;
-import org.antlr.v4.runtime.tree.ParseTreeWalker;
+import org.antlr.v4.runtime.TokenStream;
+import org.antlr.v4.runtime.UnbufferedTokenStream;
+import org.antlr.v4.runtime.atn.ATN;
+import org.antlr.v4.runtime.atn.DecisionInfo;
+import org.antlr.v4.runtime.atn.LexerATNSimulator;
+import org.antlr.v4.runtime.atn.ParserATNSimulator;
+import org.antlr.v4.runtime.atn.PredictionContextCache;
+import org.antlr.v4.runtime.atn.PredictionMode;
+import org.antlr.v4.runtime.dfa.DFA;
+import org.antlr.v4.runtime.misc.ParseCancellationException;
+import org.antlr.v4.runtime.tree.ParseTreeListener;
 
 /**
+ * Builds HQL/JPQL parse trees.
+ * <p/>
+ * {@link #parseStatement} reuses lexer and parser instances (along with their ATN simulators) across
+ * parses, keeping idle ones in a small bounded pool.  The pool is not tied to threads (no ThreadLocal),
+ * so it works equally for platform and virtual threads and holds nothing that outlives an application
+ * redeploy.  Idle instances keep neither the query nor its tokens: each parse gets its own input and
+ * token stream, which are detached again (from the parser's ATN simulator as well) once the parse is done.
+ * <p/>
+ * The lexer reads the query String in place (see {@link CharSequenceCharStream}) rather than from a copy.
+ * {@link #parseStatementSinglePass} additionally does not buffer the tokens : only those needed for
+ * lookahead, or kept by the listener, are retained, so that memory use during such a parse does not
+ * grow with the length of the query.
+ *
  * @author Steve Ebersole
  */
 public class HqlParseTreeBuilder {
@@ -27,20 +75,878 @@ public class HqlParseTreeBuilder {
 	 */
 	public static final HqlParseTreeBuilder INSTANCE = new HqlParseTreeBuilder();
 
+	private final HqlParseStatistics statistics = new HqlParseStatistics();
+
+	// NOTE : we manage the DFA caches ourselves rather than relying on the static ones in the generated
+	// 		lexer and parser; that allows us to report on their size and to release them
+	private volatile DfaCaches dfaCaches = new DfaCaches();
+
+	/**
+	 * The default maximum number of idle lexer/parser pairs kept for reuse
+	 */
+	public static final int DEFAULT_MAX_POOLED_PARSERS = Runtime.getRuntime().availableProcessors();
+
+	private final Queue<PooledParser> parserPool = new ConcurrentLinkedQueue<PooledParser>();
+	private final AtomicInteger pooledParserCount = new AtomicInteger();
+	private volatile int maxPooledParsers = DEFAULT_MAX_POOLED_PARSERS;
+
+	public HqlParseStatistics getStatistics() {
+		return statistics;
+	}
+
+	/**
+	 * The number of DFA states currently cached by the HQL lexer and parser.  The DFA caches
+	 * are shared by all parses and only ever grow, so this is a good measure of their memory use.
+	 *
+	 * @return The number of cached DFA states
+	 */
+	public int getDfaStateCount() {
+		return dfaCaches.countStates();
+	}
+
+	/**
+	 * The number of prediction contexts currently cached by the HQL lexer and parser.
+	 *
+	 * @return The number of cached prediction contexts
+	 */
+	public int getPredictionContextCacheSize() {
+		return dfaCaches.lexerContextCache.size() + dfaCaches.parserContextCache.size();
+	}
+
+	/**
+	 * Release the DFA and prediction context caches.  Parses in progress continue to use the old
+	 * caches; subsequent parses start over with empty ones.
+	 */
+	public void clearDfaCaches() {
+		dfaCaches = new DfaCaches();
+		// pooled parsers refer to the old caches
+		clearParserPool();
+	}
+
+	/**
+	 * The maximum number of idle lexer/parser pairs kept for reuse by {@link #parseStatement}.
+	 *
+	 * @return The maximum; {@code 0} indicates that reuse is disabled
+	 */
+	public int getMaxPooledParsers() {
+		return maxPooledParsers;
+	}
+
+	/**
+	 * Set the maximum number of idle lexer/parser pairs kept for reuse by {@link #parseStatement}.
+	 * This bounds idle instances only; concurrent parses beyond it simply create new ones.
+	 *
+	 * @param maxPooledParsers The maximum; {@code 0} disables reuse
+	 */
+	public void setMaxPooledParsers(int maxPooledParsers) {
+		if ( maxPooledParsers < 0 ) {
+			throw new IllegalArgumentException( "maxPooledParsers cannot be negative : " + maxPooledParsers );
+		}
+		this.maxPooledParsers = maxPooledParsers;
+		while ( pooledParserCount.get() > maxPooledParsers && parserPool.poll() != null ) {
+			pooledParserCount.decrementAndGet();
+		}
+	}
+
+	/**
+	 * The number of idle lexer/parser pairs currently kept for reuse
+	 */
+	public int getPooledParserCount() {
+		return pooledParserCount.get();
+	}
+
+	/**
+	 * Drop all idle lexer/parser pairs.
+	 */
+	public void clearParserPool() {
+		while ( parserPool.poll() != null ) {
+			pooledParserCount.decrementAndGet();
+		}
+	}
+
+	/**
+	 * Build a (new) parser for the given query.  The parser is the caller's; it is not pooled.
+	 *
+	 * @param hql The query
+	 *
+	 * @return The parser, ready to parse the query
+	 */
 	public HqlParser parseHql(String hql) {
-		// Build the lexer
-		HqlLexer hqlLexer = new HqlLexer( new ANTLRInputStream( hql ) );
+		final PooledParser pooledParser = new PooledParser( dfaCaches );
+		pooledParser.attach( hql );
+
+		HqlParseTreePrinter.logParseTree( pooledParser.parser );
+
+		return pooledParser.parser;
+	}
+
+	/**
+	 * Parse the HQL/JPQL query into its (statement) parse tree using the given prediction mode.
+	 *
+	 * @param hql The query to parse
+	 * @param predictionMode The prediction mode to use
+	 *
+	 * @return The statement parse tree
+	 */
+	public HqlParser.StatementContext parseStatement(String hql, HqlPredictionMode predictionMode) {
+		return parseStatement( hql, predictionMode, HqlParseProfile.STANDARD );
+	}
+
+	/**
+	 * Parse the HQL/JPQL query into its (statement) parse tree using the given prediction mode and
+	 * parse profile.
+	 *
+	 * @param hql The query to parse
+	 * @param predictionMode The prediction mode to use
+	 * @param parseProfile The parse profile to use
+	 *
+	 * @return The statement parse tree
+	 *
+	 * @throws SyntaxException For syntax errors when using {@link HqlParseProfile#FAIL_FAST}
+	 */
+	public HqlParser.StatementContext parseStatement(
+			String hql,
+			HqlPredictionMode predictionMode,
+			HqlParseProfile parseProfile) {
+		return parseStatement( hql, predictionMode, parseProfile, ConsoleErrorListener.INSTANCE, null, statistics );
+	}
+
+	/**
+	 * Parse the HQL/JPQL query into its (statement) parse tree using the given prediction mode and
+	 * parse profile, enforcing the query limits of the given guard.
+	 *
+	 * @param hql The query to parse
+	 * @param predictionMode The prediction mode to use
+	 * @param parseProfile The parse profile to use
+	 * @param queryLimitGuard The guard for the query limits, counting tokens and nesting depth and
+	 * checking the deadline as the parse progresses; may be {@code null}
+	 *
+	 * @return The statement parse tree
+	 *
+	 * @throws SyntaxException For syntax errors when using {@link HqlParseProfile#FAIL_FAST}
+	 * @throws org.hibernate.sqm.parser.QueryLimitExceededException If the query exceeds the limits
+	 */
+	public HqlParser.StatementContext parseStatement(
+			String hql,
+			HqlPredictionMode predictionMode,
+			HqlParseProfile parseProfile,
+			QueryLimitGuard queryLimitGuard) {
+		return parseStatement(
+				hql,
+				predictionMode,
+				parseProfile,
+				ConsoleErrorListener.INSTANCE,
+				queryLimitGuard,
+				statistics
+		);
+	}
+
+	/**
+	 * Parse the HQL/JPQL query into its (statement) parse tree using the given prediction mode,
+	 * reporting syntax errors to the given listener.  The parse is not recorded in the
+	 * {@link #getStatistics() statistics}, which are meant to reflect the application's queries only.
+	 *
+	 * @param hql The query to parse
+	 * @param predictionMode The prediction mode to use
+	 * @param errorListener The listener for syntax errors
+	 *
+	 * @return The statement parse tree
+	 */
+	HqlParser.StatementContext parseStatement(
+			String hql,
+			HqlPredictionMode predictionMode,
+			ANTLRErrorListener errorListener) {
+		return parseStatement(
+				hql,
+				predictionMode,
+				HqlParseProfile.STANDARD,
+				errorListener,
+				null,
+				new HqlParseStatistics()
+		);
+	}
+
+	private HqlParser.StatementContext parseStatement(
+			String hql,
+			HqlPredictionMode predictionMode,
+			HqlParseProfile parseProfile,
+			ANTLRErrorListener errorListener,
+			QueryLimitGuard queryLimitGuard,
+			HqlParseStatistics statistics) {
+		// with pooling disabled, acquiring creates a new parser and releasing drops it
+		final PooledParser pooledParser = acquireParser();
+		try {
+			pooledParser.attach( hql );
+			pooledParser.guard( queryLimitGuard );
+			final HqlParser.StatementContext statement = parseStatement(
+					pooledParser.parser,
+					hql,
+					predictionMode,
+					parseProfile,
+					errorListener,
+					statistics
+			);
+			HqlParseTreePrinter.logParseTree( pooledParser.parser, statement );
+			return statement;
+		}
+		finally {
+			pooledParser.detach();
+			releaseParser( pooledParser );
+		}
+	}
+
+	/**
+	 * Parse the HQL/JPQL query in a single pass : instead of building the parse tree, the parser
+	 * reports its events to the given listener as it goes.  The parser attaches terminal nodes to the
+	 * rule contexts it reports, but never rule contexts to their parents; the listener decides what
+	 * to keep.
+	 * <p/>
+	 * Parsing stops at the first syntax error (from then on no events are reported), which is not
+	 * reported either : callers should fall back to {@link #parseStatement} for queries this rejects.
+	 * <p/>
+	 * The tokens are not buffered, so the parser's token stream does not support
+	 * {@link TokenStream#getText} : listeners need to use the text of the tokens themselves.
+	 *
+	 * @param hql The query to parse
+	 * @param predictionMode The prediction mode to use; with {@link HqlPredictionMode#SLL_WITH_LL_FALLBACK}
+	 * only SLL prediction is attempted
+	 * @param listener The listener for the parse events
+	 *
+	 * @return {@code true} if the query was parsed completely; {@code false} if a syntax error was
+	 * encountered (or SLL prediction was not sufficient)
+	 */
+	public boolean parseStatementSinglePass(String hql, HqlPredictionMode predictionMode, ParseTreeListener listener) {
+		return parseStatementSinglePass( hql, predictionMode, listener, null );
+	}
+
+	/**
+	 * Same as {@link #parseStatementSinglePass(String, HqlPredictionMode, ParseTreeListener)}, enforcing the
+	 * query limits of the given guard.
+	 *
+	 * @param hql The query to parse
+	 * @param predictionMode The prediction mode to use
+	 * @param listener The listener for the parse events
+	 * @param queryLimitGuard The guard for the query limits; may be {@code null}
+	 *
+	 * @return {@code true} if the query was parsed completely; {@code false} if a syntax error was
+	 * encountered (or SLL prediction was not sufficient)
+	 *
+	 * @throws org.hibernate.sqm.parser.QueryLimitExceededException If the query exceeds the limits
+	 */
+	public boolean parseStatementSinglePass(
+			String hql,
+			HqlPredictionMode predictionMode,
+			ParseTreeListener listener,
+			QueryLimitGuard queryLimitGuard) {
+		return parseStatementSinglePass( hql, predictionMode, HqlParseProfile.STANDARD, listener, queryLimitGuard );
+	}
+
+	/**
+	 * Same as {@link #parseStatementSinglePass(String, HqlPredictionMode, ParseTreeListener, QueryLimitGuard)},
+	 * using the given parse profile.  With {@link HqlParseProfile#FAIL_FAST}, syntax errors which are known
+	 * to be such - those found by the lexer, and any found using {@link HqlPredictionMode#LL} prediction -
+	 * are reported directly rather than left to a re-parse.
+	 *
+	 * @param hql The query to parse
+	 * @param predictionMode The prediction mode to use
+	 * @param parseProfile The parse profile to use
+	 * @param listener The listener for the parse events
+	 * @param queryLimitGuard The guard for the query limits; may be {@code null}
+	 *
+	 * @return {@code true} if the query was parsed completely; {@code false} if a syntax error was
+	 * encountered (or SLL prediction was not sufficient)
+	 *
+	 * @throws SyntaxException For syntax errors known to be such when using {@link HqlParseProfile#FAIL_FAST}
+	 * @throws org.hibernate.sqm.parser.QueryLimitExceededException If the query exceeds the limits
+	 */
+	public boolean parseStatementSinglePass(
+			String hql,
+			HqlPredictionMode predictionMode,
+			HqlParseProfile parseProfile,
+			ParseTreeListener listener,
+			QueryLimitGuard queryLimitGuard) {
+		final boolean failFast = parseProfile == HqlParseProfile.FAIL_FAST;
+		final PooledParser pooledParser = acquireParser();
+		try {
+			pooledParser.attachUnbuffered( hql );
+			pooledParser.guard( queryLimitGuard );
+
+			final HqlParser parser = pooledParser.parser;
+			final Lexer lexer = (Lexer) parser.getTokenStream().getTokenSource();
+			lexer.removeErrorListeners();
+			lexer.addErrorListener(
+					new SinglePassLexerErrorListener( parser, failFast ? new FailFastLexerErrorListener( hql ) : null )
+			);
+			parser.removeErrorListeners();
+			parser.setErrorHandler( new SinglePassErrorStrategy() );
+			parser.setBuildParseTree( false );
+			parser.addParseListener( listener );
+
+			if ( predictionMode == HqlPredictionMode.LL ) {
+				statistics.llParse();
+			}
+			else {
+				statistics.sllParse();
+				parser.getInterpreter().setPredictionMode( PredictionMode.SLL );
+			}
+
+			try {
+				parser.statement();
+				return true;
+			}
+			catch (ParseCancellationException e) {
+				if ( failFast && predictionMode == HqlPredictionMode.LL ) {
+					throw syntaxException( parser, hql, e );
+				}
+				log.debugf( "Single-pass parse failed : %s", hql );
+				return false;
+			}
+		}
+		finally {
+			pooledParser.detach();
+			releaseParser( pooledParser );
+		}
+	}
+
+	/**
+	 * Diagnostic mode : parse the given queries with ANTLR's decision profiling enabled and report how
+	 * each parser decision performed.  The parses use DFA caches of their own, so the profile does not
+	 * depend on (and does not add to) the caches used by other parses; decisions therefore start out
+	 * "cold" and the profile reflects the DFA misses of the corpus itself.
+	 * <p/>
+	 * Profiling adds considerable overhead; this is not meant to be used for regular parsing.  Syntax
+	 * errors are counted, not reported.
+	 *
+	 * @param queries The queries to parse
+	 * @param predictionMode The prediction mode to use
+	 *
+	 * @return The decision profile
+	 */
+	public HqlDecisionProfile profileDecisions(Iterable<String> queries, HqlPredictionMode predictionMode) {
+		final PooledParser pooledParser = new PooledParser( new DfaCaches() );
+		final HqlParser parser = pooledParser.parser;
+		parser.setProfile( true );
+
+		final SyntaxErrorCounter errorCounter = new SyntaxErrorCounter();
+		int queryCount = 0;
+		int failureCount = 0;
+		for ( String query : queries ) {
+			queryCount++;
+			errorCounter.errorCount = 0;
+			pooledParser.attach( query );
+			try {
+				final Lexer lexer = (Lexer) parser.getTokenStream().getTokenSource();
+				lexer.removeErrorListeners();
+				lexer.addErrorListener( errorCounter );
+				parser.removeErrorListeners();
+				parser.addErrorListener( errorCounter );
+				profileStatement( parser, predictionMode );
+			}
+			finally {
+				pooledParser.detach();
+			}
+			if ( errorCounter.errorCount > 0 ) {
+				failureCount++;
+			}
+		}
+
+		final String[] ruleNames = parser.getRuleNames();
+		final List<HqlDecisionProfile.Decision> decisions = new ArrayList<HqlDecisionProfile.Decision>();
+		for ( DecisionInfo decisionInfo : parser.getParseInfo().getDecisionInfo() ) {
+			if ( decisionInfo.invocations == 0 ) {
+				continue;
+			}
+			decisions.add(
+					new HqlDecisionProfile.Decision(
+							decisionInfo.decision,
+							ruleNames[ parser.getATN().getDecisionState( decisionInfo.decision ).ruleIndex ],
+							decisionInfo.invocations,
+							decisionInfo.timeInPrediction,
+							decisionInfo.SLL_TotalLook,
+							decisionInfo.SLL_MaxLook,
+							decisionInfo.LL_Fallback,
+							decisionInfo.LL_TotalLook,
+							decisionInfo.LL_MaxLook,
+							decisionInfo.SLL_ATNTransitions + decisionInfo.LL_ATNTransitions,
+							decisionInfo.ambiguities.size(),
+							decisionInfo.contextSensitivities.size(),
+							decisionInfo.predicateEvals.size(),
+							decisionInfo.errors.size()
+					)
+			);
+		}
+		return new HqlDecisionProfile( queryCount, failureCount, decisions );
+	}
 
-		// Build the parser...
-		final HqlParser parser = new HqlParser( new CommonTokenStream( hqlLexer ) ) {
-			@Override
-			protected void logUseOfReservedWordAsIdentifier(Token token) {
-				log.debugf( "Encountered use of reserved word as identifier : " + token.getText() );
+	private static void profileStatement(HqlParser parser, HqlPredictionMode predictionMode) {
+		if ( predictionMode != HqlPredictionMode.LL ) {
+			// as for regular parses : SLL first, full LL only if that fails
+			// (the bail strategy does not report the error)
+			parser.getInterpreter().setPredictionMode( PredictionMode.SLL );
+			parser.setErrorHandler( new BailErrorStrategy() );
+			try {
+				parser.statement();
+				return;
 			}
-		};
+			catch (ParseCancellationException e) {
+				parser.reset();
+				parser.setErrorHandler( new DefaultErrorStrategy() );
+			}
+		}
+		parser.getInterpreter().setPredictionMode( PredictionMode.LL );
+		parser.statement();
+	}
+
+	private PooledParser acquireParser() {
+		final DfaCaches dfaCaches = this.dfaCaches;
+		PooledParser pooledParser;
+		while ( ( pooledParser = parserPool.poll() ) != null ) {
+			pooledParserCount.decrementAndGet();
+			if ( pooledParser.dfaCaches == dfaCaches ) {
+				return pooledParser;
+			}
+			// built against caches which have been cleared since; let it go
+		}
+		return new PooledParser( dfaCaches );
+	}
+
+	private void releaseParser(PooledParser pooledParser) {
+		if ( pooledParser.dfaCaches != dfaCaches ) {
+			return;
+		}
+		if ( pooledParserCount.incrementAndGet() > maxPooledParsers ) {
+			pooledParserCount.decrementAndGet();
+			return;
+		}
+		parserPool.offer( pooledParser );
+	}
+
+	private HqlParser.StatementContext parseStatement(
+			HqlParser parser,
+			String hql,
+			HqlPredictionMode predictionMode,
+			HqlParseProfile parseProfile,
+			ANTLRErrorListener errorListener,
+			HqlParseStatistics statistics) {
+		if ( parseProfile == HqlParseProfile.FAIL_FAST ) {
+			return parseStatementFailFast( parser, hql, predictionMode, statistics );
+		}
+
+		final Lexer lexer = (Lexer) parser.getTokenStream().getTokenSource();
+		lexer.removeErrorListeners();
+		lexer.addErrorListener( errorListener );
+
+		if ( predictionMode == HqlPredictionMode.LL ) {
+			statistics.llParse();
+			parser.removeErrorListeners();
+			parser.addErrorListener( errorListener );
+			return parser.statement();
+		}
+
+		// first stage : SLL prediction, bailing on the first error
+		statistics.sllParse();
+		parser.getInterpreter().setPredictionMode( PredictionMode.SLL );
+		parser.removeErrorListeners();
+		parser.setErrorHandler( new BailErrorStrategy() );
+		try {
+			return parser.statement();
+		}
+		catch (ParseCancellationException e) {
+			// either a true syntax error or SLL was not powerful enough for this query;
+			// 	either way we need to re-parse using full LL prediction (and normal error reporting)
+			// 	to know which
+			log.debugf( "SLL parse failed, falling back to LL : %s", hql );
+		}
+
+		// second stage : full LL prediction
+		statistics.llFallback();
+		statistics.llParse();
+		// NOTE : resetting the parser also rewinds the token stream
+		parser.reset();
+		parser.addErrorListener( errorListener );
+		parser.setErrorHandler( new DefaultErrorStrategy() );
+		parser.getInterpreter().setPredictionMode( PredictionMode.LL );
+		return parser.statement();
+	}
+
+	private HqlParser.StatementContext parseStatementFailFast(
+			HqlParser parser,
+			String hql,
+			HqlPredictionMode predictionMode,
+			HqlParseStatistics statistics) {
+		// no listeners on the parser (the bail strategy does not report anyway), and a lexer listener
+		// which stops at the first unrecognizable character
+		final Lexer lexer = (Lexer) parser.getTokenStream().getTokenSource();
+		lexer.removeErrorListeners();
+		lexer.addErrorListener( new FailFastLexerErrorListener( hql ) );
+		parser.removeErrorListeners();
+		parser.setErrorHandler( new BailErrorStrategy() );
+
+		if ( predictionMode != HqlPredictionMode.LL ) {
+			statistics.sllParse();
+			parser.getInterpreter().setPredictionMode( PredictionMode.SLL );
+			try {
+				return parser.statement();
+			}
+			catch (ParseCancellationException e) {
+				// as above, this might still be SLL not being powerful enough
+				log.debugf( "SLL parse failed, falling back to LL : %s", hql );
+			}
+			statistics.llFallback();
+			parser.reset();
+		}
+
+		statistics.llParse();
+		parser.getInterpreter().setPredictionMode( PredictionMode.LL );
+		try {
+			return parser.statement();
+		}
+		catch (ParseCancellationException e) {
+			throw syntaxException( parser, hql, e );
+		}
+	}
+
+	private static SyntaxException syntaxException(Parser parser, String hql, ParseCancellationException e) {
+		Token offendingToken = null;
+		if ( e.getCause() instanceof RecognitionException ) {
+			offendingToken = ( (RecognitionException) e.getCause() ).getOffendingToken();
+		}
+		if ( offendingToken == null ) {
+			offendingToken = parser.getCurrentToken();
+		}
+		return new SyntaxException(
+				hql,
+				offendingToken.getLine(),
+				offendingToken.getCharPositionInLine(),
+				offendingToken.getText(),
+				e.getCause() == null ? e : e.getCause()
+		);
+	}
+
+	/**
+	 * Bails on the first syntax error like BailErrorStrategy, but first stops the parse events : the
+	 * rules being unwound are incomplete
+	 */
+	private static class SinglePassErrorStrategy extends BailErrorStrategy {
+		@Override
+		public void recover(Parser recognizer, RecognitionException e) {
+			recognizer.removeParseListeners();
+			super.recover( recognizer, e );
+		}
+
+		@Override
+		public Token recoverInline(Parser recognizer) throws RecognitionException {
+			recognizer.removeParseListeners();
+			return super.recoverInline( recognizer );
+		}
+	}
+
+	private static class SinglePassLexerErrorListener extends BaseErrorListener {
+		private final Parser parser;
+		private final ANTLRErrorListener failFastListener;
+
+		private SinglePassLexerErrorListener(Parser parser, ANTLRErrorListener failFastListener) {
+			this.parser = parser;
+			this.failFastListener = failFastListener;
+		}
+
+		@Override
+		public void syntaxError(
+				Recognizer<?, ?> recognizer,
+				Object offendingSymbol,
+				int line,
+				int charPositionInLine,
+				String msg,
+				RecognitionException e) {
+			parser.removeParseListeners();
+			if ( failFastListener != null ) {
+				failFastListener.syntaxError( recognizer, offendingSymbol, line, charPositionInLine, msg, e );
+			}
+			throw new ParseCancellationException( msg, e );
+		}
+	}
+
+	private static class SyntaxErrorCounter extends BaseErrorListener {
+		private int errorCount;
+
+		@Override
+		public void syntaxError(
+				Recognizer<?, ?> recognizer,
+				Object offendingSymbol,
+				int line,
+				int charPositionInLine,
+				String msg,
+				RecognitionException e) {
+			errorCount++;
+		}
+	}
+
+	private static class FailFastLexerErrorListener extends BaseErrorListener {
+		private final String hql;
+
+		private FailFastLexerErrorListener(String hql) {
+			this.hql = hql;
+		}
+
+		@Override
+		public void syntaxError(
+				Recognizer<?, ?> recognizer,
+				Object offendingSymbol,
+				int line,
+				int charPositionInLine,
+				String msg,
+				RecognitionException e) {
+			String offendingText = null;
+			if ( e instanceof LexerNoViableAltException ) {
+				final int start = ( (LexerNoViableAltException) e ).getStartIndex();
+				if ( start >= 0 && start < hql.length() ) {
+					offendingText = hql.substring( start, start + 1 );
+				}
+			}
+			throw new SyntaxException( hql, line, charPositionInLine, offendingText, e );
+		}
+	}
+
+	/**
+	 * A lexer and parser (with their ATN simulators) which can be re-targeted at another query
+	 */
+	private static class PooledParser {
+		private final DfaCaches dfaCaches;
+		private final GuardedHqlLexer lexer;
+		private final GuardedHqlParser parser;
+
+		private PooledParser(DfaCaches dfaCaches) {
+			this.dfaCaches = dfaCaches;
+
+			this.lexer = new GuardedHqlLexer( null );
+			lexer.setTokenFactory( HqlTokenFactory.INSTANCE );
+			lexer.setInterpreter(
+					new LexerATNSimulator( lexer, HqlLexer._ATN, dfaCaches.lexerDfa, dfaCaches.lexerContextCache )
+			);
+
+			this.parser = new GuardedHqlParser( null );
+			lexer.parser = parser;
+			parser.setInterpreter(
+					new DetachingParserATNSimulator( parser, dfaCaches.parserDfa, dfaCaches.parserContextCache )
+			);
+		}
 
-		HqlParseTreePrinter.logParseTree( parser );
+		/**
+		 * Point the lexer and parser at the given query, resetting any state left by a previous parse
+		 */
+		private void attach(String hql) {
+			attachLexer( hql );
+			// a new token stream each time : CommonTokenStream cannot be rewound to a new token source,
+			// and a reused one would keep the token list of the largest query parsed so far
+			parser.setTokenStream( new CommonTokenStream( lexer ) );
+			resetParser();
+		}
 
-		return parser;
+		/**
+		 * Same as {@link #attach}, but with a token stream which only keeps the tokens still needed.  Such a
+		 * stream cannot be rewound to its start, so {@link Parser#reset()} cannot be used.
+		 */
+		private void attachUnbuffered(String hql) {
+			attachLexer( hql );
+			parser.setTokenStream( new UnbufferedTokenStream<CommonToken>( lexer ) );
+			resetParser();
+		}
+
+		/**
+		 * Enforce the limits of the given guard during the parse (if it enforces any)
+		 */
+		private void guard(QueryLimitGuard queryLimitGuard) {
+			if ( queryLimitGuard == null || !queryLimitGuard.isEnforcing() ) {
+				return;
+			}
+			queryLimitGuard.startParse();
+			lexer.queryLimitGuard = queryLimitGuard;
+			parser.queryLimitGuard = queryLimitGuard;
+		}
+
+		private void attachLexer(String hql) {
+			lexer.setInputStream( new CharSequenceCharStream( hql ) );
+			lexer.removeErrorListeners();
+			lexer.addErrorListener( ConsoleErrorListener.INSTANCE );
+		}
+
+		private void resetParser() {
+			parser.removeErrorListeners();
+			parser.addErrorListener( ConsoleErrorListener.INSTANCE );
+			parser.setErrorHandler( new DefaultErrorStrategy() );
+			parser.getInterpreter().setPredictionMode( PredictionMode.LL );
+			parser.setBuildParseTree( true );
+		}
+
+		/**
+		 * Release everything referring to the last query
+		 */
+		private void detach() {
+			lexer.queryLimitGuard = null;
+			parser.queryLimitGuard = null;
+			parser.setTokenStream( null );
+			parser.removeErrorListeners();
+			parser.removeParseListeners();
+			lexer.setInputStream( null );
+			lexer.removeErrorListeners();
+		}
+	}
+
+	/**
+	 * A ParserATNSimulator letting go of the token stream and rule context of the last prediction when
+	 * reset (which {@link Parser#setTokenStream} does) : the standard one keeps both until its next
+	 * prediction, and with them every token of the last query and its parse tree.
+	 */
+	private static class DetachingParserATNSimulator extends ParserATNSimulator {
+		private DetachingParserATNSimulator(Parser parser, DFA[] decisionToDFA, PredictionContextCache contextCache) {
+			super( parser, HqlParser._ATN, decisionToDFA, contextCache );
+		}
+
+		@Override
+		public void reset() {
+			super.reset();
+			_input = null;
+			_outerContext = null;
+		}
+	}
+
+	/**
+	 * Reports the tokens read to the query limit guard, if any
+	 */
+	private static class GuardedHqlLexer extends HqlLexer {
+		private QueryLimitGuard queryLimitGuard;
+		private GuardedHqlParser parser;
+
+		private GuardedHqlLexer(CharStream input) {
+			super( input );
+		}
+
+		@Override
+		public Token nextToken() {
+			final Token token = super.nextToken();
+			if ( queryLimitGuard != null && token.getType() != Token.EOF ) {
+				try {
+					queryLimitGuard.tokenRead();
+				}
+				catch (QueryLimitExceededException e) {
+					parser.abandon();
+					throw e;
+				}
+			}
+			return token;
+		}
+	}
+
+	/**
+	 * Reports the nesting of rules to the query limit guard, if any, and logs the use of reserved words
+	 * as identifiers.
+	 * <p/>
+	 * The depth tracked is that of the parse tree : a left-recursive rule (e.g. {@code predicate}) nests
+	 * another level for each operator applied, although the parser itself loops rather than recurses;
+	 * the levels are all exited at once, when the rule is done.
+	 * <p/>
+	 * A limit being exceeded abandons the parse : the rules unwound by the exception are incomplete,
+	 * so the parse listeners are removed first, as for syntax errors in single-pass parses.
+	 */
+	private static class GuardedHqlParser extends HqlParser {
+		private QueryLimitGuard queryLimitGuard;
+
+		private GuardedHqlParser(TokenStream input) {
+			super( input );
+		}
+
+		@Override
+		public void enterRule(ParserRuleContext localctx, int state, int ruleIndex) {
+			if ( queryLimitGuard != null ) {
+				nestingEntered();
+			}
+			super.enterRule( localctx, state, ruleIndex );
+		}
+
+		@Override
+		public void exitRule() {
+			super.exitRule();
+			if ( queryLimitGuard != null ) {
+				queryLimitGuard.nestingExited();
+			}
+		}
+
+		@Override
+		public void enterRecursionRule(ParserRuleContext localctx, int state, int ruleIndex, int precedence) {
+			if ( queryLimitGuard != null ) {
+				try {
+					queryLimitGuard.recursionEntered();
+				}
+				catch (QueryLimitExceededException e) {
+					abandon();
+					throw e;
+				}
+			}
+			super.enterRecursionRule( localctx, state, ruleIndex, precedence );
+		}
+
+		@Override
+		public void pushNewRecursionContext(ParserRuleContext localctx, int state, int ruleIndex) {
+			if ( queryLimitGuard != null ) {
+				nestingEntered();
+			}
+			super.pushNewRecursionContext( localctx, state, ruleIndex );
+		}
+
+		@Override
+		public void unrollRecursionContexts(ParserRuleContext parentctx) {
+			super.unrollRecursionContexts( parentctx );
+			if ( queryLimitGuard != null ) {
+				queryLimitGuard.recursionExited();
+			}
+		}
+
+		private void nestingEntered() {
+			try {
+				queryLimitGuard.nestingEntered();
+			}
+			catch (QueryLimitExceededException e) {
+				abandon();
+				throw e;
+			}
+		}
+
+		private void abandon() {
+			removeParseListeners();
+		}
+
+		@Override
+		protected void logUseOfReservedWordAsIdentifier(Token token) {
+			if ( log.isDebugEnabled() ) {
+				log.debugf( "Encountered use of reserved word as identifier : %s", token.getText() );
+			}
+		}
+	}
+
+	private static class DfaCaches {
+		private final DFA[] lexerDfa = buildDfaArray( HqlLexer._ATN );
+		private final PredictionContextCache lexerContextCache = new PredictionContextCache();
+		private final DFA[] parserDfa = buildDfaArray( HqlParser._ATN );
+		private final PredictionContextCache parserContextCache = new PredictionContextCache();
+
+		private static DFA[] buildDfaArray(ATN atn) {
+			final DFA[] dfaArray = new DFA[ atn.getNumberOfDecisions() ];
+			for ( int i = 0; i < dfaArray.length; i++ ) {
+				dfaArray[i] = new DFA( atn.getDecisionState( i ), i );
+			}
+			return dfaArray;
+		}
+
+		private int countStates() {
+			return countStates( lexerDfa ) + countStates( parserDfa );
+		}
+
+		private static int countStates(DFA[] dfaArray) {
+			int count = 0;
+			for ( DFA dfa : dfaArray ) {
+				count += dfa.states.size();
+			}
+			return count;
+		}
 	}
 }
@@ -13,6 +13,7 @@ import org.jboss.logging.Logger;
 
 import org.antlr.v4.runtime.ParserRuleContext;
 import org.antlr.v4.runtime.misc.NotNull;
+import org.antlr.v4.runtime.tree.ParseTree;
 import org.antlr.v4.runtime.tree.ParseTreeWalker;
 
 /**
@@ -30,6 +31,20 @@ public class HqlParseTreePrinter extends HqlParserBaseListener {
 		parser.reset();
 	}
 
+	/**
+	 * Log an already built parse tree.
+	 *
+	 * @param parser The parser which built the tree
+	 * @param tree The parse tree
+	 */
+	public static void logParseTree(HqlParser parser, ParseTree tree) {
+		if ( !HQL_LOGGER.isDebugEnabled() ) {
+			return;
+		}
+
+		ParseTreeWalker.DEFAULT.walk( new HqlParseTreePrinter( parser ), tree );
+	}
+
 	private final HqlParser parser;
 
 	private int depth = 0;
@@ -0,0 +1,93 @@
+/*
+ * Hibernate, Relational Persistence for Idiomatic Java
+ *
+ * License: Apache License, Version 2.0
+ * See the LICENSE file in the root directory or visit http://www.apache.org/licenses/LICENSE-2.0
+ */
+package org.hibernate.sqm.parser.internal.hql;
+
+import org.hibernate.sqm.parser.internal.hql.antlr.HqlLexer;
+
+import org.antlr.v4.runtime.CharStream;
+import org.antlr.v4.runtime.CommonToken;
+import org.antlr.v4.runtime.TokenFactory;
+import org.antlr.v4.runtime.TokenSource;
+import org.antlr.v4.runtime.misc.Interval;
+import org.antlr.v4.runtime.misc.Pair;
+
+/**
+ * Creates the tokens for the HQL lexer.  Token text is read from the input on demand, as with
+ * {@link org.antlr.v4.runtime.CommonTokenFactory#DEFAULT}, except for character and String literals
+ * whose text is the literal value : without the enclosing quotes and, for single-quoted Strings, with
+ * doubled quotes collapsed.  That is extracted from the input here, while the lexer still holds the
+ * token's characters, in a single copy.
+ *
+ * @author agent
+ */
+public class HqlTokenFactory implements TokenFactory<CommonToken> {
+	/**
+	 * Singleton access
+	 */
+	public static final HqlTokenFactory INSTANCE = new HqlTokenFactory();
+
+	private HqlTokenFactory() {
+	}
+
+	@Override
+	public CommonToken create(
+			Pair<TokenSource, CharStream> source,
+			int type,
+			String text,
+			int channel,
+			int start,
+			int stop,
+			int line,
+			int charPositionInLine) {
+		final CommonToken token = new CommonToken( source, type, channel, start, stop );
+		token.setLine( line );
+		token.setCharPositionInLine( charPositionInLine );
+		if ( text != null ) {
+			token.setText( text );
+		}
+		else if ( source.b != null && stop > start
+				&& ( type == HqlLexer.STRING_LITERAL || type == HqlLexer.CHARACTER_LITERAL ) ) {
+			token.setText( literalValue( source.b, start, stop ) );
+		}
+		return token;
+	}
+
+	@Override
+	public CommonToken create(int type, String text) {
+		return new CommonToken( type, text );
+	}
+
+	/**
+	 * The value of a quoted literal whose characters (quotes included) span {@code start} to {@code stop}.
+	 * These are all still available from the input : the lexer marks the stream for the current token.
+	 */
+	private static String literalValue(CharStream input, int start, int stop) {
+		// LA() is relative to the current position, which is past the token
+		final int offset = -input.index();
+		final int quote = input.LA( start + offset );
+		if ( quote == '\'' ) {
+			for ( int i = start + 1; i < stop - 1; i++ ) {
+				if ( input.LA( i + offset ) == '\'' && input.LA( i + 1 + offset ) == '\'' ) {
+					return collapseDoubledQuotes( input, start + 1, stop - 1, offset );
+				}
+			}
+		}
+		return input.getText( Interval.of( start + 1, stop - 1 ) );
+	}
+
+	private static String collapseDoubledQuotes(CharStream input, int start, int stop, int offset) {
+		final StringBuilder buffer = new StringBuilder( stop - start + 1 );
+		for ( int i = start; i <= stop; i++ ) {
+			final int c = input.LA( i + offset );
+			buffer.append( (char) c );
+			if ( c == '\'' && i < stop && input.LA( i + 1 + offset ) == '\'' ) {
+				i++;
+			}
+		}
+		return buffer.toString();
+	}
+}
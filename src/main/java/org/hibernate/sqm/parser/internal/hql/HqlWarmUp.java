@@ -0,0 +1,154 @@
+/*
+ * Hibernate, Relational Persistence for Idiomatic Java
+ *
+ * License: Apache License, Version 2.0
+ * See the LICENSE file in the root directory or visit http://www.apache.org/licenses/LICENSE-2.0
+ */
+package org.hibernate.sqm.parser.internal.hql;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.Callable;
+
+import org.hibernate.sqm.parser.HqlPredictionMode;
+import org.hibernate.sqm.parser.HqlWarmUpResult;
+
+import org.jboss.logging.Logger;
+
+import org.antlr.v4.runtime.BaseErrorListener;
+import org.antlr.v4.runtime.RecognitionException;
+import org.antlr.v4.runtime.Recognizer;
+
+/**
+ * Warms up the HQL lexer and parser by parsing a corpus of queries, which deserializes the ATNs
+ * and populates the shared DFA caches.  A built-in {@link #SYNTHETIC_CORPUS synthetic corpus}
+ * exercising every parser rule is always parsed first; callers can supply a corpus of their own
+ * (generally the application's named queries) in addition.
+ * <p/>
+ * Only syntactic analysis is performed; the queries need not be valid against any domain model.
+ *
+ * @author agent
+ */
+public class HqlWarmUp implements Callable<HqlWarmUpResult> {
+	private static final Logger log = Logger.getLogger( HqlWarmUp.class );
+
+	/**
+	 * Queries which, between them, exercise every HqlParser rule
+	 */
+	public static final List<String> SYNTHETIC_CORPUS = Collections.unmodifiableList(
+			Arrays.asList(
+					// general structure
+					"select distinct e.name as n, e.id from com.acme.Entity as e cross join Other o " +
+							"left outer join fetch e.items i with i.qty > 1 " +
+							"where e.id = :id and not (e.name is not null or e.name is empty) " +
+							"group by e.name collate latin having count(*) > 1 " +
+							"order by e.name collate latin asc, e.id desc",
+					// selections and joins
+					"select new com.acme.Dto(e.id as i, new list(e.name), e.code c), new map(e.id), object(e) " +
+							"from Entity e, in (e.items) it inner join treat(e.parent as Special).children ch on ch.x = 1 " +
+							"right outer join e.map m full outer join e.other o2 join value(e.map).x v join key(e.map).y k " +
+							"where e.items[0].name like 'a%' escape '!' and e.x between 1 and 10 " +
+							"and entry(e.map) = e.x and member of e.items",
+					// predicates
+					"from Entity e where e.a <> 1 and e.b > 2 and e.c >= 3 and e.d < 4 and e.e <= 5 " +
+							"and e.f in (1, 2) and e.g in elements(e.items) and e.h in (select s.id from Sub s)",
+					// expressions
+					"select e.a || e.b, e.a + 1 - 2 * 3 / 4 % 5, -e.a, +e.b, " +
+							"case e.a when 1 then 'one' else 'other' end, case when e.a > 1 then 1L end, " +
+							"coalesce(e.a, e.b), nullif(e.a, e.b), ?1, (select max(s.id) from Sub s) from Entity e",
+					// literals
+					"select 'str', 'c', \"dq\", 1, 1L, 1BI, 1.0F, 1.0D, 1.0BD, 0xFF, 017, null, true, false, " +
+							"{ts '2015-01-01 00:00:00'}, {d '2015-01-01'}, {t '00:00:00'} from Entity e",
+					// functions
+					"select function(f, e.a), myfunc(e.a, e.b), size(e.items), index(i), maxindex(e.items), " +
+							"maxelement(e.items), minindex(e.items), minelement(e.items), avg(distinct e.a), " +
+							"sum(e.a), min(e.a), max(e.a), count(e.a), cast(e.a as string), concat(e.a, e.b), " +
+							"substring(e.a, 1, 2), trim(leading 'x' from e.a), upper(e.a), lower(e.a), length(e.a), " +
+							"locate('a', e.a, 1), abs(e.a), sqrt(e.a), mod(e.a, 2), current_date(), current_time, " +
+							"current_timestamp, extract(year from e.d), extract(second from e.d), " +
+							"extract(timezone_hour from e.d), position('a' in e.a), cast(e.a), " +
+							"octet_length(e.a), bit_length(e.a) from Entity e join e.items i",
+					// keywords used as identifiers
+					"select e.order, e.from.select from Entity e where e.key = e.value",
+					// DML
+					"update Entity e set e.a = 1 where e.id = 1",
+					"delete from Entity e where e.id = 1",
+					"insert into com.acme.Target (id, name) select e.id, e.name from Entity e"
+			)
+	);
+
+	private final Iterable<String> corpus;
+	private final HqlPredictionMode predictionMode;
+
+	public HqlWarmUp(Iterable<String> corpus, HqlPredictionMode predictionMode) {
+		this.corpus = corpus;
+		this.predictionMode = predictionMode;
+	}
+
+	@Override
+	public HqlWarmUpResult call() {
+		final FailureTrackingErrorListener errorListener = new FailureTrackingErrorListener();
+
+		int queryCount = 0;
+		int failureCount = 0;
+
+		final long start = System.nanoTime();
+		for ( String query : SYNTHETIC_CORPUS ) {
+			queryCount++;
+			if ( !parse( query, errorListener ) ) {
+				failureCount++;
+			}
+		}
+		if ( corpus != null ) {
+			for ( String query : corpus ) {
+				queryCount++;
+				if ( !parse( query, errorListener ) ) {
+					failureCount++;
+				}
+			}
+		}
+		final long elapsed = System.nanoTime() - start;
+
+		final HqlWarmUpResult result = new HqlWarmUpResult(
+				queryCount,
+				failureCount,
+				elapsed,
+				HqlParseTreeBuilder.INSTANCE.getDfaStateCount(),
+				HqlParseTreeBuilder.INSTANCE.getPredictionContextCacheSize()
+		);
+		log.debugf( "HQL parser warm-up complete : %s", result );
+		return result;
+	}
+
+	private boolean parse(String query, FailureTrackingErrorListener errorListener) {
+		errorListener.failed = false;
+		try {
+			HqlParseTreeBuilder.INSTANCE.parseStatement( query, predictionMode, errorListener );
+		}
+		catch (RuntimeException e) {
+			log.debugf( "Unable to parse warm-up query [%s] : %s", query, e.getMessage() );
+			return false;
+		}
+		if ( errorListener.failed ) {
+			log.debugf( "Warm-up query [%s] contained syntax errors", query );
+			return false;
+		}
+		return true;
+	}
+
+	private static class FailureTrackingErrorListener extends BaseErrorListener {
+		private boolean failed;
+
+		@Override
+		public void syntaxError(
+				Recognizer<?, ?> recognizer,
+				Object offendingSymbol,
+				int line,
+				int charPositionInLine,
+				String msg,
+				RecognitionException e) {
+			failed = true;
+		}
+	}
+}
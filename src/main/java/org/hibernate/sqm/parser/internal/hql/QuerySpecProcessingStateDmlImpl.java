@@ -59,8 +59,10 @@ public class QuerySpecProcessingStateDmlImpl implements QuerySpecProcessingState
 
 	@Override
 	public FromElement findFromElementByIdentificationVariable(String identificationVariable) {
-		return fromClause.fromElementSpace.getRoot().getIdentificationVariable().equals( identificationVariable )
-				? fromClause.fromElementSpace.getRoot()
+		final RootEntityFromElement root = fromClause.fromElementSpace.getRoot();
+		// implicit aliases cannot be referenced, so there is no need to render them
+		return !root.isImplicitlyAliased() && root.getIdentificationVariable().equals( identificationVariable )
+				? root
 				: null;
 	}
 
@@ -133,7 +135,7 @@ public class QuerySpecProcessingStateDmlImpl implements QuerySpecProcessingState
 
 		@Override
 		public CrossJoinedFromElement makeCrossJoinedFromElement(
-				FromElementSpace fromElementSpace, String uid, EntityType entityType, String alias) {
+				FromElementSpace fromElementSpace, int uid, EntityType entityType, String alias) {
 			throw new ParsingException( "DML from-clause cannot define joins" );
 		}
 
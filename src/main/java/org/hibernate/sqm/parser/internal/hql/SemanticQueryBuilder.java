@@ -11,6 +11,7 @@ import java.lang.reflect.Modifier;
 import java.math.BigDecimal;
 import java.math.BigInteger;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 import java.util.Locale;
 import java.util.Map;
@@ -26,7 +27,7 @@ import org.hibernate.sqm.parser.SemanticException;
 import org.hibernate.sqm.StrictJpaComplianceViolation;
 import org.hibernate.sqm.parser.internal.ExpressionTypeHelper;
 import org.hibernate.sqm.parser.internal.FromElementBuilder;
-import org.hibernate.sqm.parser.internal.ImplicitAliasGenerator;
+import org.hibernate.sqm.parser.internal.LiteralInterner;
 import org.hibernate.sqm.parser.internal.ParsingContext;
 import org.hibernate.sqm.parser.internal.hql.antlr.HqlParser;
 import org.hibernate.sqm.parser.internal.hql.antlr.HqlParserBaseVisitor;
@@ -56,7 +57,7 @@ import org.hibernate.sqm.query.expression.CoalesceExpression;
 import org.hibernate.sqm.query.expression.CollectionIndexFunction;
 import org.hibernate.sqm.query.expression.CollectionSizeFunction;
 import org.hibernate.sqm.query.expression.CollectionValuePathExpression;
-import org.hibernate.sqm.query.expression.ConcatExpression;
+import org.hibernate.sqm.query.expression.ConcatListExpression;
 import org.hibernate.sqm.query.expression.ConstantEnumExpression;
 import org.hibernate.sqm.query.expression.ConstantExpression;
 import org.hibernate.sqm.query.expression.ConstantFieldExpression;
@@ -71,13 +72,9 @@ import org.hibernate.sqm.query.expression.LiteralBigIntegerExpression;
 import org.hibernate.sqm.query.expression.LiteralCharacterExpression;
 import org.hibernate.sqm.query.expression.LiteralDoubleExpression;
 import org.hibernate.sqm.query.expression.LiteralExpression;
-import org.hibernate.sqm.query.expression.LiteralFalseExpression;
 import org.hibernate.sqm.query.expression.LiteralFloatExpression;
 import org.hibernate.sqm.query.expression.LiteralIntegerExpression;
 import org.hibernate.sqm.query.expression.LiteralLongExpression;
-import org.hibernate.sqm.query.expression.LiteralNullExpression;
-import org.hibernate.sqm.query.expression.LiteralStringExpression;
-import org.hibernate.sqm.query.expression.LiteralTrueExpression;
 import org.hibernate.sqm.query.expression.MapEntryFunction;
 import org.hibernate.sqm.query.expression.MapKeyPathExpression;
 import org.hibernate.sqm.query.expression.MaxElementFunction;
@@ -88,6 +85,7 @@ import org.hibernate.sqm.query.expression.MinFunction;
 import org.hibernate.sqm.query.expression.MinIndexFunction;
 import org.hibernate.sqm.query.expression.NamedParameterExpression;
 import org.hibernate.sqm.query.expression.NullifExpression;
+import org.hibernate.sqm.query.expression.ParameterExpression;
 import org.hibernate.sqm.query.expression.PluralAttributeIndexedReference;
 import org.hibernate.sqm.query.expression.PositionalParameterExpression;
 import org.hibernate.sqm.query.expression.CaseSimpleExpression;
@@ -105,17 +103,17 @@ import org.hibernate.sqm.query.from.RootEntityFromElement;
 import org.hibernate.sqm.query.order.OrderByClause;
 import org.hibernate.sqm.query.order.SortOrder;
 import org.hibernate.sqm.query.order.SortSpecification;
-import org.hibernate.sqm.query.predicate.AndPredicate;
 import org.hibernate.sqm.query.predicate.BetweenPredicate;
 import org.hibernate.sqm.query.predicate.EmptinessPredicate;
 import org.hibernate.sqm.query.predicate.GroupedPredicate;
 import org.hibernate.sqm.query.predicate.InSubQueryPredicate;
 import org.hibernate.sqm.query.predicate.InListPredicate;
+import org.hibernate.sqm.query.predicate.JunctionPredicate;
 import org.hibernate.sqm.query.predicate.LikePredicate;
+import org.hibernate.sqm.query.predicate.LiteralInListPredicate;
 import org.hibernate.sqm.query.predicate.MemberOfPredicate;
 import org.hibernate.sqm.query.predicate.NegatedPredicate;
 import org.hibernate.sqm.query.predicate.NullnessPredicate;
-import org.hibernate.sqm.query.predicate.OrPredicate;
 import org.hibernate.sqm.query.predicate.Predicate;
 import org.hibernate.sqm.query.predicate.RelationalPredicate;
 import org.hibernate.sqm.query.predicate.WhereClause;
@@ -126,6 +124,7 @@ import org.hibernate.sqm.query.select.Selection;
 
 import org.jboss.logging.Logger;
 
+import org.antlr.v4.runtime.ParserRuleContext;
 import org.antlr.v4.runtime.Token;
 import org.antlr.v4.runtime.tree.TerminalNode;
 
@@ -172,48 +171,53 @@ public class SemanticQueryBuilder extends HqlParserBaseVisitor {
 
 	@Override
 	public SelectStatement visitSelectStatement(HqlParser.SelectStatementContext ctx) {
+		validateSelectClause( ctx.querySpec() );
+
+		final SelectStatement selectStatement = new SelectStatement();
+		selectStatement.applyQuerySpec( visitQuerySpec( ctx.querySpec() ) );
+		applyOrderByClause( selectStatement, ctx.orderByClause() );
+
+		return selectStatement;
+	}
+
+	/**
+	 * Check the (root) query spec for an implicit select clause, which is not allowed by JPQL
+	 */
+	protected void validateSelectClause(HqlParser.QuerySpecContext ctx) {
 		if ( parsingContext.getConsumerContext().useStrictJpaCompliance() ) {
-			if ( ctx.querySpec().selectClause() == null ) {
+			if ( ctx.selectClause() == null ) {
 				throw new StrictJpaComplianceViolation(
 						"Encountered implicit select-clause, but strict JPQL compliance was requested",
 						StrictJpaComplianceViolation.Type.IMPLICIT_SELECT
 				);
 			}
 		}
+	}
 
-		final SelectStatement selectStatement = new SelectStatement();
-		selectStatement.applyQuerySpec( visitQuerySpec( ctx.querySpec() ) );
-		if ( ctx.orderByClause() != null ) {
-			pathResolverStack.push(
-					new PathResolverBasicImpl( new OrderByResolutionContext( parsingContext, selectStatement ) )
-			);
-			try {
-				selectStatement.applyOrderByClause( visitOrderByClause( ctx.orderByClause() ) );
-			}
-			finally {
-				pathResolverStack.pop();
-			}
+	protected void applyOrderByClause(SelectStatement selectStatement, HqlParser.OrderByClauseContext ctx) {
+		if ( ctx == null ) {
+			return;
 		}
 
-		return selectStatement;
+		pathResolverStack.push(
+				new PathResolverBasicImpl( new OrderByResolutionContext( parsingContext, selectStatement ) )
+		);
+		try {
+			selectStatement.applyOrderByClause( visitOrderByClause( ctx ) );
+		}
+		finally {
+			pathResolverStack.pop();
+		}
 	}
 
 	@Override
 	public QuerySpec visitQuerySpec(HqlParser.QuerySpecContext ctx) {
-		currentQuerySpecProcessingState = new QuerySpecProcessingStateStandardImpl( parsingContext, currentQuerySpecProcessingState );
-		pathResolverStack.push( new PathResolverBasicImpl( currentQuerySpecProcessingState ) );
+		beginQuerySpec();
 		try {
 			// visit from-clause first!!!
 			visitFromClause( ctx.fromClause() );
 
-			final SelectClause selectClause;
-			if ( ctx.selectClause() != null ) {
-				selectClause = visitSelectClause( ctx.selectClause() );
-			}
-			else {
-				log.info( "Encountered implicit select clause which is a deprecated feature : " + ctx.getText() );
-				selectClause = buildInferredSelectClause( currentQuerySpecProcessingState.getFromClause() );
-			}
+			final SelectClause selectClause = interpretSelectClause( ctx );
 
 			final WhereClause whereClause;
 			if ( ctx.whereClause() != null ) {
@@ -222,14 +226,51 @@ public class SemanticQueryBuilder extends HqlParserBaseVisitor {
 			else {
 				whereClause = null;
 			}
-			return new QuerySpec( currentQuerySpecProcessingState.getFromClause(), selectClause, whereClause );
+			return new QuerySpec( getCurrentFromClause(), selectClause, whereClause );
 		}
 		finally {
-			pathResolverStack.pop();
-			currentQuerySpecProcessingState = currentQuerySpecProcessingState.getParent();
+			endQuerySpec();
 		}
 	}
 
+	/**
+	 * Start processing a (sub) query spec; must be balanced by {@link #endQuerySpec()}
+	 */
+	protected void beginQuerySpec() {
+		if ( currentQuerySpecProcessingState != null ) {
+			parsingContext.getQueryLimitGuard().subQueryStarted();
+		}
+		currentQuerySpecProcessingState = new QuerySpecProcessingStateStandardImpl( parsingContext, currentQuerySpecProcessingState );
+		pathResolverStack.push( new PathResolverBasicImpl( currentQuerySpecProcessingState ) );
+	}
+
+	protected void endQuerySpec() {
+		pathResolverStack.pop();
+		currentQuerySpecProcessingState = currentQuerySpecProcessingState.getParent();
+	}
+
+	/**
+	 * The FromClause of the query spec currently being processed
+	 */
+	protected FromClause getCurrentFromClause() {
+		return currentQuerySpecProcessingState.getFromClause();
+	}
+
+	/**
+	 * Interpret the select clause of the query spec, or infer one if it has none.  The from clause
+	 * must have been processed already.
+	 */
+	protected SelectClause interpretSelectClause(HqlParser.QuerySpecContext ctx) {
+		if ( ctx.selectClause() != null ) {
+			return visitSelectClause( ctx.selectClause() );
+		}
+
+		if ( log.isInfoEnabled() ) {
+			log.info( "Encountered implicit select clause which is a deprecated feature : " + ctx.getText() );
+		}
+		return buildInferredSelectClause( getCurrentFromClause() );
+	}
+
 	protected SelectClause buildInferredSelectClause(FromClause fromClause) {
 		// for now, this is slightly different than the legacy behavior where
 		// the root and each non-fetched-join was selected.  For now, here, we simply
@@ -282,7 +323,7 @@ public class SemanticQueryBuilder extends HqlParserBaseVisitor {
 				}
 			}
 			else {
-				explicitAlias = resultIdentifierContext.getText();
+				explicitAlias = resultIdentifierContext.IDENTIFIER().getText();
 			}
 			return explicitAlias;
 		}
@@ -291,10 +332,11 @@ public class SemanticQueryBuilder extends HqlParserBaseVisitor {
 	}
 
 	private String interpretAlias(HqlParser.IdentifierContext identifier) {
-		if ( identifier == null || identifier.getText() == null ) {
+		final String alias = PathHelper.text( identifier );
+		if ( alias == null ) {
 			return parsingContext.getImplicitAliasGenerator().buildUniqueImplicitAlias();
 		}
-		return identifier.getText();
+		return alias;
 	}
 
 	private String interpretAlias(TerminalNode aliasNode) {
@@ -337,7 +379,7 @@ public class SemanticQueryBuilder extends HqlParserBaseVisitor {
 			dynamicInstantiation = DynamicInstantiation.forListInstantiation( listType );
 		}
 		else {
-			final String className = ctx.dynamicInstantiationTarget().dotIdentifierSequence().getText();
+			final String className = PathHelper.join( ctx.dynamicInstantiationTarget().dotIdentifierSequence() );
 			try {
 				final BasicType instantiationType = parsingContext.getConsumerContext().getDomainMetamodel().getBasicType(
 						parsingContext.getConsumerContext().classByName( className )
@@ -361,7 +403,7 @@ public class SemanticQueryBuilder extends HqlParserBaseVisitor {
 	public DynamicInstantiationArgument visitDynamicInstantiationArg(HqlParser.DynamicInstantiationArgContext ctx) {
 		return new DynamicInstantiationArgument(
 				visitDynamicInstantiationArgExpression( ctx.dynamicInstantiationArgExpression() ),
-				ctx.identifier() == null ? null : ctx.identifier().getText()
+				PathHelper.text( ctx.identifier() )
 		);
 	}
 
@@ -379,7 +421,7 @@ public class SemanticQueryBuilder extends HqlParserBaseVisitor {
 
 	@Override
 	public FromElement visitJpaSelectObjectSyntax(HqlParser.JpaSelectObjectSyntaxContext ctx) {
-		final String alias = ctx.identifier().getText();
+		final String alias = PathHelper.text( ctx.identifier() );
 		final FromElement fromElement = currentQuerySpecProcessingState.getFromElementBuilder().getAliasRegistry().findFromElementByAlias( alias );
 		if ( fromElement == null ) {
 			throw new SemanticException( "Unable to resolve alias [" +  alias + "] in selection [" + ctx.getText() + "]" );
@@ -389,16 +431,20 @@ public class SemanticQueryBuilder extends HqlParserBaseVisitor {
 
 	@Override
 	public WhereClause visitWhereClause(HqlParser.WhereClauseContext ctx) {
-		inWhereClause = true;
+		setInWhereClause( true );
 
 		try {
 			return new WhereClause( (Predicate) ctx.predicate().accept( this ) );
 		}
 		finally {
-			inWhereClause = false;
+			setInWhereClause( false );
 		}
 	}
 
+	protected void setInWhereClause(boolean inWhereClause) {
+		this.inWhereClause = inWhereClause;
+	}
+
 	@Override
 	public Object visitGroupByClause(HqlParser.GroupByClauseContext ctx) {
 		return super.visitGroupByClause( ctx );
@@ -426,12 +472,15 @@ public class SemanticQueryBuilder extends HqlParserBaseVisitor {
 		@Override
 		public FromElement findFromElementByIdentificationVariable(String identificationVariable) {
 			for ( FromElementSpace fromElementSpace : selectStatement.getQuerySpec().getFromClause().getFromElementSpaces() ) {
-				if ( fromElementSpace.getRoot().getIdentificationVariable().equals( identificationVariable ) ) {
-					return fromElementSpace.getRoot();
+				// implicit aliases cannot be referenced, so there is no need to render them
+				final RootEntityFromElement root = fromElementSpace.getRoot();
+				if ( !root.isImplicitlyAliased() && root.getIdentificationVariable().equals( identificationVariable ) ) {
+					return root;
 				}
 
 				for ( JoinedFromElement joinedFromElement : fromElementSpace.getJoins() ) {
-					if ( joinedFromElement.getIdentificationVariable().equals( identificationVariable ) ) {
+					if ( !joinedFromElement.isImplicitlyAliased()
+							&& joinedFromElement.getIdentificationVariable().equals( identificationVariable ) ) {
 						return joinedFromElement;
 					}
 				}
@@ -489,14 +538,14 @@ public class SemanticQueryBuilder extends HqlParserBaseVisitor {
 		final Expression sortExpression = (Expression) ctx.expression().accept( this );
 		final String collation;
 		if ( ctx.collationSpecification() != null && ctx.collationSpecification().collateName() != null ) {
-			collation = ctx.collationSpecification().collateName().dotIdentifierSequence().getText();
+			collation = PathHelper.join( ctx.collationSpecification().collateName().dotIdentifierSequence() );
 		}
 		else {
 			collation = null;
 		}
 		final SortOrder sortOrder;
 		if ( ctx.orderingSpecification() != null ) {
-			final String ordering = ctx.orderingSpecification().getText();
+			final String ordering = ctx.orderingSpecification().getStart().getText();
 			try {
 				sortOrder = interpretSortOrder( ordering );
 			}
@@ -528,40 +577,39 @@ public class SemanticQueryBuilder extends HqlParserBaseVisitor {
 
 	@Override
 	public DeleteStatement visitDeleteStatement(HqlParser.DeleteStatementContext ctx) {
-		currentQuerySpecProcessingState = new QuerySpecProcessingStateDmlImpl( parsingContext );
+		final DeleteStatement deleteStatement = beginDeleteStatement( ctx.mainEntityPersisterReference() );
 		try {
-			final RootEntityFromElement root = resolveDmlRootEntityReference( ctx.mainEntityPersisterReference() );
-			final DeleteStatement deleteStatement = new DeleteStatement( root );
-
-			pathResolverStack.push( new PathResolverBasicImpl( currentQuerySpecProcessingState ) );
-			try {
-				deleteStatement.getWhereClause().setPredicate( (Predicate) ctx.whereClause()
-						.predicate()
-						.accept( this ) );
-			}
-			finally {
-				pathResolverStack.pop();
-			}
-
-			return deleteStatement;
+			deleteStatement.getWhereClause().setPredicate( (Predicate) ctx.whereClause()
+					.predicate()
+					.accept( this ) );
 		}
 		finally {
-			currentQuerySpecProcessingState = null;
+			endDeleteStatement();
 		}
+
+		return deleteStatement;
+	}
+
+	/**
+	 * Start processing a DELETE statement by resolving its target, after which the where clause can be
+	 * processed; must be balanced by {@link #endDeleteStatement()}
+	 */
+	protected DeleteStatement beginDeleteStatement(HqlParser.MainEntityPersisterReferenceContext ctx) {
+		currentQuerySpecProcessingState = new QuerySpecProcessingStateDmlImpl( parsingContext );
+		final RootEntityFromElement root = resolveDmlRootEntityReference( ctx );
+		pathResolverStack.push( new PathResolverBasicImpl( currentQuerySpecProcessingState ) );
+		return new DeleteStatement( root );
+	}
+
+	protected void endDeleteStatement() {
+		pathResolverStack.pop();
+		currentQuerySpecProcessingState = null;
 	}
 
 	protected RootEntityFromElement resolveDmlRootEntityReference(HqlParser.MainEntityPersisterReferenceContext rootEntityContext) {
 		final EntityType entityType = resolveEntityReference( rootEntityContext.dotIdentifierSequence() );
-		String alias = interpretIdentificationVariable( rootEntityContext.identificationVariableDef() );
-		if ( alias == null ) {
-			alias = parsingContext.getImplicitAliasGenerator().buildUniqueImplicitAlias();
-			log.debugf(
-					"Generated implicit alias [%s] for DML root entity reference [%s]",
-					alias,
-					entityType.getName()
-			);
-		}
-		final RootEntityFromElement root = new RootEntityFromElement( null, parsingContext.makeUniqueIdentifier(), alias, entityType );
+		final String alias = interpretIdentificationVariable( rootEntityContext.identificationVariableDef() );
+		final RootEntityFromElement root = new RootEntityFromElement( null, parsingContext.makeUniqueId(), alias, entityType );
 		parsingContext.registerFromElementByUniqueId( root );
 		currentQuerySpecProcessingState.getFromElementBuilder().getAliasRegistry().registerAlias( root );
 		currentQuerySpecProcessingState.getFromClause().getFromElementSpaces().get( 0 ).setRoot( root );
@@ -595,7 +643,8 @@ public class SemanticQueryBuilder extends HqlParserBaseVisitor {
 			return explicitAlias;
 		}
 
-		return parsingContext.getImplicitAliasGenerator().buildUniqueImplicitAlias();
+		// the FromElement is implicitly aliased
+		return null;
 	}
 
 	@Override
@@ -634,9 +683,7 @@ public class SemanticQueryBuilder extends HqlParserBaseVisitor {
 	}
 
 	private String[] splitPathParts(HqlParser.DotIdentifierSequenceContext path) {
-		final String pathText = path.getText();
-		log.debugf( "Splitting dotIdentifierSequence into path parts : %s", pathText );
-		return PathHelper.split( pathText );
+		return PathHelper.split( path );
 	}
 
 	@Override
@@ -644,14 +691,8 @@ public class SemanticQueryBuilder extends HqlParserBaseVisitor {
 		currentQuerySpecProcessingState = new QuerySpecProcessingStateDmlImpl( parsingContext );
 		try {
 			final EntityType entityType = resolveEntityReference( ctx.insertSpec().intoSpec().dotIdentifierSequence() );
-			String alias = parsingContext.getImplicitAliasGenerator().buildUniqueImplicitAlias();
-			log.debugf(
-					"Generated implicit alias [%s] for INSERT target [%s]",
-					alias,
-					entityType.getName()
-			);
-
-			RootEntityFromElement root = new RootEntityFromElement( null, parsingContext.makeUniqueIdentifier(), alias, entityType );
+			// the INSERT target is always implicitly aliased
+			RootEntityFromElement root = new RootEntityFromElement( null, parsingContext.makeUniqueId(), null, entityType );
 			parsingContext.registerFromElementByUniqueId( root );
 			currentQuerySpecProcessingState.getFromElementBuilder().getAliasRegistry().registerAlias( root );
 			currentQuerySpecProcessingState.getFromClause().getFromElementSpaces().get( 0 ).setRoot( root );
@@ -738,7 +779,7 @@ public class SemanticQueryBuilder extends HqlParserBaseVisitor {
 	}
 
 	private EntityType resolveEntityReference(HqlParser.DotIdentifierSequenceContext dotIdentifierSequenceContext) {
-		final String entityName = dotIdentifierSequenceContext.getText();
+		final String entityName = PathHelper.join( dotIdentifierSequenceContext );
 		final EntityType entityTypeDescriptor = parsingContext.getConsumerContext()
 				.getDomainMetamodel()
 				.resolveEntityType( entityName );
@@ -763,7 +804,7 @@ public class SemanticQueryBuilder extends HqlParserBaseVisitor {
 
 		return currentQuerySpecProcessingState.getFromElementBuilder().makeCrossJoinedFromElement(
 				currentFromElementSpace,
-				parsingContext.makeUniqueIdentifier(),
+				parsingContext.makeUniqueId(),
 				entityType,
 				interpretIdentificationVariable( ctx.mainEntityPersisterReference().identificationVariableDef() )
 		);
@@ -855,7 +896,7 @@ public class SemanticQueryBuilder extends HqlParserBaseVisitor {
 			}
 
 			if ( parsingContext.getConsumerContext().useStrictJpaCompliance() ) {
-				if ( !ImplicitAliasGenerator.isImplicitAlias( joinedFromElement.getIdentificationVariable() ) ) {
+				if ( !joinedFromElement.isImplicitlyAliased() ) {
 					if ( QualifiedAttributeJoinFromElement.class.isInstance( joinedPath ) ) {
 						if ( QualifiedAttributeJoinFromElement.class.cast( joinedPath ).isFetched() ) {
 							throw new StrictJpaComplianceViolation(
@@ -899,19 +940,41 @@ public class SemanticQueryBuilder extends HqlParserBaseVisitor {
 		}
 	}
 	@Override
-	public AndPredicate visitAndPredicate(HqlParser.AndPredicateContext ctx) {
-		return new AndPredicate(
-				(Predicate) ctx.predicate( 0 ).accept( this ),
-				(Predicate) ctx.predicate( 1 ).accept( this )
-		);
+	public JunctionPredicate visitAndPredicate(HqlParser.AndPredicateContext ctx) {
+		return buildJunction( JunctionPredicate.Nature.CONJUNCTION, ctx );
 	}
 
 	@Override
-	public OrPredicate visitOrPredicate(HqlParser.OrPredicateContext ctx) {
-		return new OrPredicate(
-				(Predicate) ctx.predicate( 0 ).accept( this ),
-				(Predicate) ctx.predicate( 1 ).accept( this )
-		);
+	public JunctionPredicate visitOrPredicate(HqlParser.OrPredicateContext ctx) {
+		return buildJunction( JunctionPredicate.Nature.DISJUNCTION, ctx );
+	}
+
+	private JunctionPredicate buildJunction(JunctionPredicate.Nature nature, HqlParser.PredicateContext ctx) {
+		final List<HqlParser.PredicateContext> operands = collectChainOperands( ctx, HqlParser.PredicateContext.class );
+		final List<Predicate> predicates = new ArrayList<Predicate>( operands.size() );
+		for ( HqlParser.PredicateContext operand : operands ) {
+			predicates.add( (Predicate) operand.accept( this ) );
+		}
+		return new JunctionPredicate( nature, predicates );
+	}
+
+	/**
+	 * A chain of the same associative operator, like {@code a or b or c}, is parsed left-recursively as
+	 * {@code (a or b) or c}.  Rather than recursing down the chain, walk it to collect all of its operands,
+	 * in their order in the query.
+	 */
+	@SuppressWarnings("unchecked")
+	private static <T extends ParserRuleContext> List<T> collectChainOperands(ParserRuleContext ctx, Class<T> operandType) {
+		final Class chainType = ctx.getClass();
+		final List<T> operands = new ArrayList<T>();
+		ParserRuleContext current = ctx;
+		while ( current.getClass() == chainType ) {
+			operands.add( current.getRuleContext( operandType, 1 ) );
+			current = current.getRuleContext( operandType, 0 );
+		}
+		operands.add( (T) current );
+		Collections.reverse( operands );
+		return operands;
 	}
 
 	@Override
@@ -985,9 +1048,19 @@ public class SemanticQueryBuilder extends HqlParserBaseVisitor {
 
 	@Override
 	public Object visitBetweenPredicate(HqlParser.BetweenPredicateContext ctx) {
-		final Expression expression = (Expression) ctx.expression().get( 0 ).accept( this );
-		final Expression lowerBound = (Expression) ctx.expression().get( 1 ).accept( this );
-		final Expression upperBound = (Expression) ctx.expression().get( 2 ).accept( this );
+		return buildBetweenPredicate(
+				(Expression) ctx.expression().get( 0 ).accept( this ),
+				(Expression) ctx.expression().get( 1 ).accept( this ),
+				(Expression) ctx.expression().get( 2 ).accept( this )
+		);
+	}
+
+	protected BetweenPredicate buildBetweenPredicate(Expression expression, Expression lowerBound, Expression upperBound) {
+		// the types implied below must not leak into shared literals
+		final LiteralInterner literalInterner = parsingContext.getLiteralInterner();
+		expression = literalInterner.unshare( expression );
+		lowerBound = literalInterner.unshare( lowerBound );
+		upperBound = literalInterner.unshare( upperBound );
 
 		if ( expression.getInferableType() != null ) {
 			if ( lowerBound instanceof ImpliedTypeExpression ) {
@@ -1061,15 +1134,29 @@ public class SemanticQueryBuilder extends HqlParserBaseVisitor {
 				tupleExpressions.add( (Expression) expressionContext.accept( this ) );
 			}
 
-			return new InListPredicate(
-					(Expression) ctx.expression().accept( this ),
-					tupleExpressions
+			final Expression testExpression = (Expression) ctx.expression().accept( this );
+			final LiteralInListPredicate literalInList = LiteralInListPredicate.from(
+					testExpression,
+					tupleExpressions,
+					false
 			);
+			if ( literalInList != null ) {
+				return literalInList;
+			}
+			return new InListPredicate( testExpression, tupleExpressions );
 		}
 		else if ( HqlParser.SubQueryInListContext.class.isInstance( ctx.inList() ) ) {
 			final HqlParser.SubQueryInListContext subQueryContext = (HqlParser.SubQueryInListContext) ctx.inList();
 			final Expression subQueryExpression = (Expression) subQueryContext.expression().accept( this );
 
+			if ( ParameterExpression.class.isInstance( subQueryExpression ) ) {
+				// `in :ids` : a parameter list, see ParameterListExpander
+				return new InListPredicate(
+						(Expression) ctx.expression().accept( this ),
+						subQueryExpression
+				);
+			}
+
 			if ( !SubQueryExpression.class.isInstance( subQueryExpression ) ) {
 				throw new ParsingException(
 						"Was expecting a SubQueryExpression, but found " + subQueryExpression.getClass().getSimpleName()
@@ -1090,13 +1177,15 @@ public class SemanticQueryBuilder extends HqlParserBaseVisitor {
 
 	@Override
 	public Object visitSimplePath(HqlParser.SimplePathContext ctx) {
+		parsingContext.getQueryLimitGuard().progress();
+
 		// SimplePath might represent any number of things
 		final Binding binding = pathResolverStack.getCurrent().resolvePath( splitPathParts( ctx.dotIdentifierSequence() ) );
 		if ( binding != null ) {
 			return binding;
 		}
 
-		final String pathText = ctx.getText();
+		final String pathText = PathHelper.join( ctx.dotIdentifierSequence() );
 
 		try {
 			final EntityType entityType = parsingContext.getConsumerContext().getDomainMetamodel().resolveEntityType( pathText );
@@ -1191,7 +1280,7 @@ public class SemanticQueryBuilder extends HqlParserBaseVisitor {
 
 		return pathResolverStack.getCurrent().resolvePath(
 				indexedReference,
-				PathHelper.split( ctx.pathTerminal().getText() )
+				PathHelper.split( ctx.pathTerminal() )
 		);
 	}
 
@@ -1199,11 +1288,13 @@ public class SemanticQueryBuilder extends HqlParserBaseVisitor {
 	public Binding visitCompoundPath(HqlParser.CompoundPathContext ctx) {
 		final Binding root = (Binding) ctx.pathRoot().accept( this );
 
-		log.debugf(
-				"Resolved CompoundPath.pathRoot [%s] : %s",
-				ctx.pathRoot().getText(),
-				root.asLoggableText()
-		);
+		if ( log.isDebugEnabled() ) {
+			log.debugf(
+					"Resolved CompoundPath.pathRoot [%s] : %s",
+					ctx.pathRoot().getText(),
+					root.asLoggableText()
+			);
+		}
 
 		if ( ctx.pathTerminal() == null ) {
 			return root;
@@ -1228,7 +1319,7 @@ public class SemanticQueryBuilder extends HqlParserBaseVisitor {
 
 		return pathResolverStack.getCurrent().resolvePath(
 				attributeBindingSource,
-				PathHelper.split( ctx.pathTerminal().getText() )
+				PathHelper.split( ctx.pathTerminal() )
 		);
 	}
 
@@ -1298,7 +1389,7 @@ public class SemanticQueryBuilder extends HqlParserBaseVisitor {
 
 	@Override
 	public Binding visitTreatedPathRoot(HqlParser.TreatedPathRootContext ctx) {
-		final String treatAsName = ctx.dotIdentifierSequence().get( 1 ).getText();
+		final String treatAsName = PathHelper.join( ctx.dotIdentifierSequence().get( 1 ) );
 		final EntityType treatAsTypeDescriptor = parsingContext.getConsumerContext()
 				.getDomainMetamodel()
 				.resolveEntityType( treatAsName );
@@ -1361,14 +1452,19 @@ public class SemanticQueryBuilder extends HqlParserBaseVisitor {
 	}
 
 	@Override
-	public ConcatExpression visitConcatenationExpression(HqlParser.ConcatenationExpressionContext ctx) {
+	public ConcatListExpression visitConcatenationExpression(HqlParser.ConcatenationExpressionContext ctx) {
 		if ( ctx.expression().size() != 2 ) {
 			throw new ParsingException( "Expecting 2 operands to the concat operator" );
 		}
-		return new ConcatExpression(
-				(Expression) ctx.expression( 0 ).accept( this ),
-				(Expression) ctx.expression( 1 ).accept( this )
+		final List<HqlParser.ExpressionContext> operandContexts = collectChainOperands(
+				ctx,
+				HqlParser.ExpressionContext.class
 		);
+		final List<Expression> operands = new ArrayList<Expression>( operandContexts.size() );
+		for ( HqlParser.ExpressionContext operandContext : operandContexts ) {
+			operands.add( (Expression) operandContext.accept( this ) );
+		}
+		return new ConcatListExpression( operands, (BasicType) operands.get( 0 ).getExpressionType() );
 	}
 
 	@Override
@@ -1377,18 +1473,10 @@ public class SemanticQueryBuilder extends HqlParserBaseVisitor {
 			throw new ParsingException( "Expecting 2 operands to the + operator" );
 		}
 
-		final Expression firstOperand = (Expression) ctx.expression( 0 ).accept( this );
-		final Expression secondOperand = (Expression) ctx.expression( 1 ).accept( this );
-		return new BinaryArithmeticExpression(
+		return buildBinaryArithmeticExpression(
 				BinaryArithmeticExpression.Operation.ADD,
-				firstOperand,
-				secondOperand,
-				ExpressionTypeHelper.resolveArithmeticType(
-						(BasicType) firstOperand.getExpressionType(),
-						(BasicType) secondOperand.getExpressionType(),
-						parsingContext.getConsumerContext(),
-						false
-				)
+				(Expression) ctx.expression( 0 ).accept( this ),
+				(Expression) ctx.expression( 1 ).accept( this )
 		);
 	}
 
@@ -1398,18 +1486,10 @@ public class SemanticQueryBuilder extends HqlParserBaseVisitor {
 			throw new ParsingException( "Expecting 2 operands to the - operator" );
 		}
 
-		final Expression firstOperand = (Expression) ctx.expression( 0 ).accept( this );
-		final Expression secondOperand = (Expression) ctx.expression( 1 ).accept( this );
-		return new BinaryArithmeticExpression(
+		return buildBinaryArithmeticExpression(
 				BinaryArithmeticExpression.Operation.SUBTRACT,
-				firstOperand,
-				secondOperand,
-				ExpressionTypeHelper.resolveArithmeticType(
-						(BasicType) firstOperand.getExpressionType(),
-						(BasicType) secondOperand.getExpressionType(),
-						parsingContext.getConsumerContext(),
-						false
-				)
+				(Expression) ctx.expression( 0 ).accept( this ),
+				(Expression) ctx.expression( 1 ).accept( this )
 		);
 	}
 
@@ -1419,18 +1499,10 @@ public class SemanticQueryBuilder extends HqlParserBaseVisitor {
 			throw new ParsingException( "Expecting 2 operands to the * operator" );
 		}
 
-		final Expression firstOperand = (Expression) ctx.expression( 0 ).accept( this );
-		final Expression secondOperand = (Expression) ctx.expression( 1 ).accept( this );
-		return new BinaryArithmeticExpression(
+		return buildBinaryArithmeticExpression(
 				BinaryArithmeticExpression.Operation.MULTIPLY,
-				firstOperand,
-				secondOperand,
-				ExpressionTypeHelper.resolveArithmeticType(
-						(BasicType) firstOperand.getExpressionType(),
-						(BasicType) secondOperand.getExpressionType(),
-						parsingContext.getConsumerContext(),
-						false
-				)
+				(Expression) ctx.expression( 0 ).accept( this ),
+				(Expression) ctx.expression( 1 ).accept( this )
 		);
 	}
 
@@ -1440,18 +1512,10 @@ public class SemanticQueryBuilder extends HqlParserBaseVisitor {
 			throw new ParsingException( "Expecting 2 operands to the / operator" );
 		}
 
-		final Expression firstOperand = (Expression) ctx.expression( 0 ).accept( this );
-		final Expression secondOperand = (Expression) ctx.expression( 1 ).accept( this );
-		return new BinaryArithmeticExpression(
+		return buildBinaryArithmeticExpression(
 				BinaryArithmeticExpression.Operation.DIVIDE,
-				firstOperand,
-				secondOperand,
-				ExpressionTypeHelper.resolveArithmeticType(
-						(BasicType) firstOperand.getExpressionType(),
-						(BasicType) secondOperand.getExpressionType(),
-						parsingContext.getConsumerContext(),
-						true
-				)
+				(Expression) ctx.expression( 0 ).accept( this ),
+				(Expression) ctx.expression( 1 ).accept( this )
 		);
 	}
 
@@ -1461,17 +1525,26 @@ public class SemanticQueryBuilder extends HqlParserBaseVisitor {
 			throw new ParsingException( "Expecting 2 operands to the % operator" );
 		}
 
-		final Expression firstOperand = (Expression) ctx.expression( 0 ).accept( this );
-		final Expression secondOperand = (Expression) ctx.expression( 1 ).accept( this );
-		return new BinaryArithmeticExpression(
+		return buildBinaryArithmeticExpression(
 				BinaryArithmeticExpression.Operation.MODULO,
+				(Expression) ctx.expression( 0 ).accept( this ),
+				(Expression) ctx.expression( 1 ).accept( this )
+		);
+	}
+
+	protected BinaryArithmeticExpression buildBinaryArithmeticExpression(
+			BinaryArithmeticExpression.Operation operation,
+			Expression firstOperand,
+			Expression secondOperand) {
+		return new BinaryArithmeticExpression(
+				operation,
 				firstOperand,
 				secondOperand,
 				ExpressionTypeHelper.resolveArithmeticType(
 						(BasicType) firstOperand.getExpressionType(),
 						(BasicType) secondOperand.getExpressionType(),
 						parsingContext.getConsumerContext(),
-						false
+						operation == BinaryArithmeticExpression.Operation.DIVIDE
 				)
 		);
 	}
@@ -1550,6 +1623,8 @@ public class SemanticQueryBuilder extends HqlParserBaseVisitor {
 	@Override
 	@SuppressWarnings("UnnecessaryBoxing")
 	public LiteralExpression visitLiteralExpression(HqlParser.LiteralExpressionContext ctx) {
+		parsingContext.getQueryLimitGuard().progress();
+
 		if ( ctx.literal().CHARACTER_LITERAL() != null ) {
 			return characterLiteral( ctx.literal().CHARACTER_LITERAL().getText() );
 		}
@@ -1593,13 +1668,13 @@ public class SemanticQueryBuilder extends HqlParserBaseVisitor {
 			return bigDecimalLiteral( ctx.literal().BIG_DECIMAL_LITERAL().getText() );
 		}
 		else if ( ctx.literal().FALSE() != null ) {
-			booleanLiteral( false );
+			return booleanLiteral( false );
 		}
 		else if ( ctx.literal().TRUE() != null ) {
-			booleanLiteral( true );
+			return booleanLiteral( true );
 		}
 		else if ( ctx.literal().NULL() != null ) {
-			return new LiteralNullExpression();
+			return parsingContext.getLiteralInterner().nullLiteral();
 		}
 
 		// otherwise we have a problem
@@ -1607,11 +1682,7 @@ public class SemanticQueryBuilder extends HqlParserBaseVisitor {
 	}
 
 	private LiteralExpression<Boolean> booleanLiteral(boolean value) {
-		final BasicType<Boolean> type = parsingContext.getConsumerContext().getDomainMetamodel().getBasicType( Boolean.class );
-
-		return value
-				? new LiteralTrueExpression( type )
-				: new LiteralFalseExpression( type );
+		return parsingContext.getLiteralInterner().booleanLiteral( value );
 	}
 
 	private LiteralCharacterExpression characterLiteral(String text) {
@@ -1621,24 +1692,17 @@ public class SemanticQueryBuilder extends HqlParserBaseVisitor {
 		}
 		return new LiteralCharacterExpression(
 				text.charAt( 0 ),
-				parsingContext.getConsumerContext().getDomainMetamodel().getBasicType( Character.class )
+				parsingContext.getBasicTypeCache().getCharacterType()
 		);
 	}
 
 	private LiteralExpression stringLiteral(String text) {
-		return new LiteralStringExpression(
-				text,
-				parsingContext.getConsumerContext().getDomainMetamodel().getBasicType( String.class )
-		);
+		return parsingContext.getLiteralInterner().stringLiteral( text );
 	}
 
 	protected LiteralIntegerExpression integerLiteral(String text) {
 		try {
-			final Integer value = Integer.valueOf( text );
-			return new LiteralIntegerExpression(
-					value,
-					parsingContext.getConsumerContext().getDomainMetamodel().getBasicType( Integer.class )
-			);
+			return parsingContext.getLiteralInterner().integerLiteral( Integer.parseInt( text ) );
 		}
 		catch (NumberFormatException e) {
 			throw new LiteralNumberFormatException(
@@ -1657,7 +1721,7 @@ public class SemanticQueryBuilder extends HqlParserBaseVisitor {
 			final Long value = Long.valueOf( text );
 			return new LiteralLongExpression(
 					value,
-					parsingContext.getConsumerContext().getDomainMetamodel().getBasicType( Long.class )
+					parsingContext.getBasicTypeCache().getLongType()
 			);
 		}
 		catch (NumberFormatException e) {
@@ -1676,7 +1740,7 @@ public class SemanticQueryBuilder extends HqlParserBaseVisitor {
 			}
 			return new LiteralBigIntegerExpression(
 					new BigInteger( text ),
-					parsingContext.getConsumerContext().getDomainMetamodel().getBasicType( BigInteger.class )
+					parsingContext.getBasicTypeCache().getBigIntegerType()
 			);
 		}
 		catch (NumberFormatException e) {
@@ -1691,7 +1755,7 @@ public class SemanticQueryBuilder extends HqlParserBaseVisitor {
 		try {
 			return new LiteralFloatExpression(
 					Float.valueOf( text ),
-					parsingContext.getConsumerContext().getDomainMetamodel().getBasicType( Float.class )
+					parsingContext.getBasicTypeCache().getFloatType()
 			);
 		}
 		catch (NumberFormatException e) {
@@ -1706,7 +1770,7 @@ public class SemanticQueryBuilder extends HqlParserBaseVisitor {
 		try {
 			return new LiteralDoubleExpression(
 					Double.valueOf( text ),
-					parsingContext.getConsumerContext().getDomainMetamodel().getBasicType( Double.class )
+					parsingContext.getBasicTypeCache().getDoubleType()
 			);
 		}
 		catch (NumberFormatException e) {
@@ -1725,7 +1789,7 @@ public class SemanticQueryBuilder extends HqlParserBaseVisitor {
 			}
 			return new LiteralBigDecimalExpression(
 					new BigDecimal( text ),
-					parsingContext.getConsumerContext().getDomainMetamodel().getBasicType( BigDecimal.class )
+					parsingContext.getBasicTypeCache().getBigDecimalType()
 			);
 		}
 		catch (NumberFormatException e) {
@@ -1743,7 +1807,7 @@ public class SemanticQueryBuilder extends HqlParserBaseVisitor {
 
 	@Override
 	public NamedParameterExpression visitNamedParameter(HqlParser.NamedParameterContext ctx) {
-		return new NamedParameterExpression( ctx.identifier().getText() );
+		return new NamedParameterExpression( PathHelper.text( ctx.identifier() ) );
 	}
 
 	@Override
@@ -1761,7 +1825,7 @@ public class SemanticQueryBuilder extends HqlParserBaseVisitor {
 			);
 		}
 
-		final String functionName = ctx.nonStandardFunctionName().getText();
+		final String functionName = PathHelper.join( ctx.nonStandardFunctionName().dotIdentifierSequence() );
 		final List<Expression> functionArguments = visitNonStandardFunctionArguments( ctx.nonStandardFunctionArguments() );
 
 		// todo : integrate some form of SqlFunction look-up using the ParsingContext so we can resolve the "type"
@@ -1796,7 +1860,7 @@ public class SemanticQueryBuilder extends HqlParserBaseVisitor {
 
 	@Override
 	public AggregateFunction visitCountFunction(HqlParser.CountFunctionContext ctx) {
-		final BasicType longType = parsingContext.getConsumerContext().getDomainMetamodel().getBasicType( Long.class );
+		final BasicType longType = parsingContext.getBasicTypeCache().getLongType();
 		if ( ctx.ASTERISK() != null ) {
 			return new CountStarFunction( ctx.DISTINCT() != null, longType );
 		}
@@ -1863,13 +1927,13 @@ public class SemanticQueryBuilder extends HqlParserBaseVisitor {
 
 		return new CollectionSizeFunction(
 				attributeBinding,
-				parsingContext.getConsumerContext().getDomainMetamodel().getBasicType( Long.class )
+				parsingContext.getBasicTypeCache().getLongType()
 		);
 	}
 
 	@Override
 	public CollectionIndexFunction visitCollectionIndexFunction(HqlParser.CollectionIndexFunctionContext ctx) {
-		final String alias = ctx.identifier().getText();
+		final String alias = PathHelper.text( ctx.identifier() );
 		final FromElement fromElement = currentQuerySpecProcessingState.getFromElementBuilder().getAliasRegistry().findFromElementByAlias( alias );
 
 		if ( !PluralAttribute.class.isInstance( fromElement.getBoundModelType() ) ) {
@@ -1943,7 +2007,7 @@ public class SemanticQueryBuilder extends HqlParserBaseVisitor {
 			if ( pluralAttribute.getCollectionClassification() == PluralAttribute.CollectionClassification.LIST ) {
 				return new MaxIndexFunction(
 						pathResolution.getBoundFromElementBinding().getFromElement(),
-						parsingContext.getConsumerContext().getDomainMetamodel().getBasicType( Integer.class )
+						parsingContext.getBasicTypeCache().getIntegerType()
 				);
 			}
 			else if ( pluralAttribute.getCollectionClassification() == PluralAttribute.CollectionClassification.MAP ) {
@@ -1973,7 +2037,7 @@ public class SemanticQueryBuilder extends HqlParserBaseVisitor {
 			if ( pluralAttribute.getCollectionClassification() == PluralAttribute.CollectionClassification.LIST ) {
 				return new MinIndexFunction(
 						pathResolution.getBoundFromElementBinding().getFromElement(),
-						parsingContext.getConsumerContext().getDomainMetamodel().getBasicType( Integer.class )
+						parsingContext.getBasicTypeCache().getIntegerType()
 				);
 			}
 			else if ( pluralAttribute.getCollectionClassification() == PluralAttribute.CollectionClassification.MAP ) {
@@ -1993,7 +2057,10 @@ public class SemanticQueryBuilder extends HqlParserBaseVisitor {
 
 	@Override
 	public SubQueryExpression visitSubQueryExpression(HqlParser.SubQueryExpressionContext ctx) {
-		final QuerySpec querySpec = visitQuerySpec( ctx.querySpec() );
+		return buildSubQueryExpression( visitQuerySpec( ctx.querySpec() ) );
+	}
+
+	protected SubQueryExpression buildSubQueryExpression(QuerySpec querySpec) {
 		return new SubQueryExpression( querySpec, determineTypeDescriptor( querySpec.getSelectClause() ) );
 	}
 
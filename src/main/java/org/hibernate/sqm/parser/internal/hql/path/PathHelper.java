@@ -6,7 +6,20 @@
  */
 package org.hibernate.sqm.parser.internal.hql.path;
 
+import org.hibernate.sqm.parser.internal.hql.antlr.HqlParser;
+
+import org.antlr.v4.runtime.ParserRuleContext;
+import org.antlr.v4.runtime.tree.ErrorNode;
+import org.antlr.v4.runtime.tree.ParseTree;
+
 /**
+ * Helpers for extracting path parts and names from the parse tree.
+ * <p/>
+ * The parse-tree based variants read the identifier tokens directly rather than calling
+ * {@link ParserRuleContext#getText()}, which concatenates the text of all child tokens into a new String
+ * (which {@link #split(String)} then has to take apart again).  Should the parser have recovered from a syntax
+ * error within the rule, they fall back to the text as before so that the outcome does not change.
+ *
  * @author Steve Ebersole
  */
 public class PathHelper {
@@ -19,4 +32,94 @@ public class PathHelper {
 		}
 		return path.split( "\\." );
 	}
+
+	/**
+	 * Split a {@code dotIdentifierSequence} into its parts.
+	 *
+	 * @param ctx The dotIdentifierSequence
+	 *
+	 * @return The text of each identifier, in order
+	 */
+	public static String[] split(HqlParser.DotIdentifierSequenceContext ctx) {
+		return identifierTexts( ctx );
+	}
+
+	/**
+	 * Split a {@code pathTerminal} ({@code .a.b.c}) into its parts.
+	 *
+	 * @param ctx The pathTerminal
+	 *
+	 * @return The text of each identifier, in order
+	 */
+	public static String[] split(HqlParser.PathTerminalContext ctx) {
+		return identifierTexts( ctx );
+	}
+
+	/**
+	 * The (dotted) name represented by a {@code dotIdentifierSequence}, e.g. an entity or class name.  Same
+	 * as {@link ParserRuleContext#getText()}, but without building a String for the (common) single
+	 * identifier case and building it in one go otherwise.
+	 *
+	 * @param ctx The dotIdentifierSequence
+	 *
+	 * @return The name
+	 */
+	public static String join(HqlParser.DotIdentifierSequenceContext ctx) {
+		final int childCount = ctx.getChildCount();
+		if ( childCount == 1 ) {
+			return ctx.getStart().getText();
+		}
+
+		final StringBuilder buffer = new StringBuilder( ctx.getStop().getStopIndex() - ctx.getStart().getStartIndex() + 1 );
+		for ( int i = 0; i < childCount; i++ ) {
+			final ParseTree child = ctx.getChild( i );
+			if ( child instanceof ErrorNode ) {
+				return ctx.getText();
+			}
+			if ( child instanceof HqlParser.IdentifierContext ) {
+				if ( buffer.length() > 0 ) {
+					buffer.append( '.' );
+				}
+				buffer.append( ( (HqlParser.IdentifierContext) child ).getStart().getText() );
+			}
+		}
+		return buffer.toString();
+	}
+
+	/**
+	 * The text of an {@code identifier}, which is always a single token (either an IDENTIFIER or a
+	 * keyword used as an identifier).
+	 *
+	 * @param ctx The identifier; may be {@code null}
+	 *
+	 * @return The identifier text, or {@code null}
+	 */
+	public static String text(HqlParser.IdentifierContext ctx) {
+		return ctx == null ? null : ctx.getStart().getText();
+	}
+
+	private static String[] identifierTexts(ParserRuleContext ctx) {
+		final int childCount = ctx.getChildCount();
+
+		int identifierCount = 0;
+		for ( int i = 0; i < childCount; i++ ) {
+			final ParseTree child = ctx.getChild( i );
+			if ( child instanceof ErrorNode ) {
+				return split( ctx.getText() );
+			}
+			if ( child instanceof HqlParser.IdentifierContext ) {
+				identifierCount++;
+			}
+		}
+
+		final String[] parts = new String[identifierCount];
+		int position = 0;
+		for ( int i = 0; i < childCount; i++ ) {
+			final ParseTree child = ctx.getChild( i );
+			if ( child instanceof HqlParser.IdentifierContext ) {
+				parts[position++] = ( (HqlParser.IdentifierContext) child ).getStart().getText();
+			}
+		}
+		return parts;
+	}
 }
@@ -117,7 +117,9 @@ public class PathResolverBasicImpl extends AbstractPathResolverImpl {
 			AttributeBindingSource lhs,
 			String terminalName) {
 		final Attribute attribute = resolveAttributeDescriptor( lhs, terminalName );
-		log.debugf( "Resolved terminal attribute-binding [%s -> %s] : %s", lhs.asLoggableText(), terminalName, attribute );
+		if ( log.isDebugEnabled() ) {
+			log.debugf( "Resolved terminal attribute-binding [%s -> %s] : %s", lhs.asLoggableText(), terminalName, attribute );
+		}
 		return new AttributeReferenceExpression( lhs, attribute );
 	}
 
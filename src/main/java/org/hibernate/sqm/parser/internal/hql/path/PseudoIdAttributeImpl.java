@@ -17,7 +17,7 @@ import org.hibernate.sqm.domain.Type;
  *
  * @author Steve Ebersole
  */
-class PseudoIdAttributeImpl implements SingularAttribute {
+public class PseudoIdAttributeImpl implements SingularAttribute {
 	private final EntityType entityType;
 
 	public PseudoIdAttributeImpl(EntityType entityType) {
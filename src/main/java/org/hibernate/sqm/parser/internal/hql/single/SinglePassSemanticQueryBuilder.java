@@ -0,0 +1,560 @@
+/*
+ * Hibernate, Relational Persistence for Idiomatic Java
+ *
+ * License: Apache License, Version 2.0
+ * See the LICENSE file in the root directory or visit http://www.apache.org/licenses/LICENSE-2.0
+ */
+package org.hibernate.sqm.parser.internal.hql.single;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.hibernate.sqm.domain.BasicType;
+import org.hibernate.sqm.parser.ParsingException;
+import org.hibernate.sqm.parser.QueryException;
+import org.hibernate.sqm.parser.QueryLimitExceededException;
+import org.hibernate.sqm.parser.internal.ParsingContext;
+import org.hibernate.sqm.parser.internal.hql.SemanticQueryBuilder;
+import org.hibernate.sqm.parser.internal.hql.antlr.HqlParser;
+import org.hibernate.sqm.query.DeleteStatement;
+import org.hibernate.sqm.query.QuerySpec;
+import org.hibernate.sqm.query.SelectStatement;
+import org.hibernate.sqm.query.Statement;
+import org.hibernate.sqm.query.expression.BinaryArithmeticExpression;
+import org.hibernate.sqm.query.expression.ConcatListExpression;
+import org.hibernate.sqm.query.expression.Expression;
+import org.hibernate.sqm.query.expression.ParameterExpression;
+import org.hibernate.sqm.query.expression.SubQueryExpression;
+import org.hibernate.sqm.query.expression.UnaryOperationExpression;
+import org.hibernate.sqm.query.predicate.EmptinessPredicate;
+import org.hibernate.sqm.query.predicate.GroupedPredicate;
+import org.hibernate.sqm.query.predicate.InListPredicate;
+import org.hibernate.sqm.query.predicate.InSubQueryPredicate;
+import org.hibernate.sqm.query.predicate.JunctionPredicate;
+import org.hibernate.sqm.query.predicate.LikePredicate;
+import org.hibernate.sqm.query.predicate.LiteralInListPredicate;
+import org.hibernate.sqm.query.predicate.NegatedPredicate;
+import org.hibernate.sqm.query.predicate.NullnessPredicate;
+import org.hibernate.sqm.query.predicate.Predicate;
+import org.hibernate.sqm.query.predicate.RelationalPredicate;
+import org.hibernate.sqm.query.predicate.WhereClause;
+import org.hibernate.sqm.query.select.SelectClause;
+
+import org.antlr.v4.runtime.ParserRuleContext;
+import org.antlr.v4.runtime.tree.ErrorNode;
+import org.antlr.v4.runtime.tree.ParseTree;
+import org.antlr.v4.runtime.tree.ParseTreeListener;
+import org.antlr.v4.runtime.tree.TerminalNode;
+
+/**
+ * Builds the semantic representation of a query from the events of a parser which does not build
+ * the parse tree, as reported to the {@link #getParseTreeListener() listener} (see {@link org.hibernate.sqm.parser.internal.hql.HqlParseTreeBuilder#parseStatementSinglePass}).
+ * <p/>
+ * The rules making up the bulk of large queries - statements, query specs, where clauses, predicates,
+ * IN lists and expressions - are handled here directly : as each of them completes, its semantic node
+ * is built from the nodes of its sub-rules (kept on a value stack) and its context is dropped.  Any
+ * other rule encountered directly beneath one of those is built as a parse tree (an "island") which is
+ * attached to its parent, to be interpreted by the regular {@link SemanticQueryBuilder} visitor methods
+ * once that parent completes.  Islands are small (paths, literals, parameters, function calls...) with
+ * the exception of the select and from clauses; the from clause is interpreted as soon as it completes,
+ * and the select clause (which comes first but refers to the from clause) right after it, so that
+ * everything is processed in the same order as by the visitor.
+ * <p/>
+ * Only the order of evaluation within an IN predicate differs from the visitor (the tested expression
+ * is interpreted before the list), which at most affects the numbering of implicit joins.
+ *
+ * @author agent
+ */
+public class SinglePassSemanticQueryBuilder extends SemanticQueryBuilder {
+	private final List<Object> values = new ArrayList<Object>();
+	private int[] marks = new int[32];
+	private int markCount;
+
+	private int depth;
+	private int islandDepth = -1;
+
+	private final ParseTreeListener listener = new ParseEventListener();
+
+	private boolean failed;
+	private QueryException failure;
+	private Statement statement;
+
+	public SinglePassSemanticQueryBuilder(ParsingContext parsingContext) {
+		super( parsingContext );
+	}
+
+	/**
+	 * The listener to register with the parser
+	 *
+	 * @return The listener
+	 */
+	public ParseTreeListener getParseTreeListener() {
+		return listener;
+	}
+
+	/**
+	 * The statement built, once the parse has completed
+	 *
+	 * @return The statement
+	 *
+	 * @throws QueryException The (first) error encountered interpreting the query
+	 */
+	public Statement getStatement() {
+		if ( failure != null ) {
+			throw failure;
+		}
+		if ( statement == null ) {
+			throw new ParsingException( "Single-pass interpretation did not complete" );
+		}
+		return statement;
+	}
+
+
+	// ~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+	// Parse events
+
+	/**
+	 * The parse event callbacks; a separate class as the visitor and listener contracts clash
+	 */
+	private class ParseEventListener implements ParseTreeListener {
+		@Override
+		public void enterEveryRule(ParserRuleContext ctx) {
+			enterRule( ctx );
+		}
+
+		@Override
+		public void exitEveryRule(ParserRuleContext ctx) {
+			exitRule( ctx );
+		}
+
+		@Override
+		public void visitTerminal(TerminalNode node) {
+			// the parser attaches terminals to their rule context itself; those of the rules handled
+			// directly are not needed (think of the commas of a long IN list), nor are any once failed
+			if ( islandDepth < 0 || failed ) {
+				( (ParserRuleContext) node.getParent() ).removeLastChild();
+			}
+		}
+
+		@Override
+		public void visitErrorNode(ErrorNode node) {
+			// the parser bails on syntax errors
+		}
+	}
+
+	private void enterRule(ParserRuleContext ctx) {
+		if ( failed ) {
+			return;
+		}
+
+		try {
+			adoptRecursionOperand( ctx );
+			if ( islandDepth < 0 ) {
+				if ( isHandledDirectly( ctx.getRuleIndex() ) ) {
+					pushMark();
+					enterDirectRule( ctx );
+				}
+				else {
+					islandDepth = depth;
+					enterIsland( ctx );
+				}
+			}
+			depth++;
+		}
+		catch (RuntimeException e) {
+			fail( e );
+		}
+	}
+
+	private void exitRule(ParserRuleContext ctx) {
+		if ( failed ) {
+			return;
+		}
+
+		try {
+			depth--;
+			if ( islandDepth >= 0 ) {
+				// build the island as the parser would have
+				final ParserRuleContext parent = (ParserRuleContext) ctx.getParent();
+				if ( parent != null ) {
+					parent.addChild( ctx );
+				}
+				if ( depth == islandDepth ) {
+					islandDepth = -1;
+					exitIsland( ctx );
+				}
+			}
+			else {
+				exitDirectRule( ctx, popMark() );
+			}
+		}
+		catch (RuntimeException e) {
+			fail( e );
+		}
+	}
+
+	/**
+	 * Stops handling the parse events.  Errors in the query are recorded rather than thrown, so that the
+	 * parse can go on to report any syntax error further on : a query is checked for syntax errors before
+	 * being interpreted, no matter how it is interpreted.
+	 */
+	private void fail(RuntimeException e) {
+		failed = true;
+		if ( e instanceof QueryException && !( e instanceof QueryLimitExceededException ) ) {
+			failure = (QueryException) e;
+		}
+		else {
+			throw e;
+		}
+	}
+
+	/**
+	 * For left-recursive rules the parser reports the left operand as completed before it reports
+	 * entering the (binary) rule which turns out to contain it.  Within an island the operand has by then
+	 * been attached to the rule's parent, from where it is moved to the rule itself.
+	 */
+	private static void adoptRecursionOperand(ParserRuleContext ctx) {
+		final ParserRuleContext parent = (ParserRuleContext) ctx.getParent();
+		if ( parent == null || parent.getChildCount() == 0 ) {
+			return;
+		}
+
+		final ParseTree lastChild = parent.getChild( parent.getChildCount() - 1 );
+		if ( lastChild instanceof ParserRuleContext && lastChild.getParent() == ctx ) {
+			parent.removeLastChild();
+			ctx.addChild( (ParserRuleContext) lastChild );
+		}
+	}
+
+	private static boolean isHandledDirectly(int ruleIndex) {
+		switch ( ruleIndex ) {
+			case HqlParser.RULE_statement:
+			case HqlParser.RULE_selectStatement:
+			case HqlParser.RULE_deleteStatement:
+			case HqlParser.RULE_querySpec:
+			case HqlParser.RULE_whereClause:
+			case HqlParser.RULE_predicate:
+			case HqlParser.RULE_inList:
+			case HqlParser.RULE_likeEscape:
+			case HqlParser.RULE_expression: {
+				return true;
+			}
+			default: {
+				return false;
+			}
+		}
+	}
+
+
+	// ~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+	// Islands
+
+	private void enterIsland(ParserRuleContext ctx) {
+		if ( ctx.getRuleIndex() == HqlParser.RULE_fromClause ) {
+			final HqlParser.QuerySpecContext querySpec = (HqlParser.QuerySpecContext) ctx.getParent();
+			if ( querySpec.getParent() instanceof HqlParser.SelectStatementContext ) {
+				// the select clause, if any, has been attached by now
+				validateSelectClause( querySpec );
+			}
+		}
+	}
+
+	private void exitIsland(ParserRuleContext ctx) {
+		if ( ctx instanceof HqlParser.FromClauseContext ) {
+			visitFromClause( (HqlParser.FromClauseContext) ctx );
+			values.add( interpretSelectClause( (HqlParser.QuerySpecContext) ctx.getParent() ) );
+		}
+		else if ( ctx instanceof HqlParser.MainEntityPersisterReferenceContext
+				&& ctx.getParent() instanceof HqlParser.DeleteStatementContext ) {
+			values.add( beginDeleteStatement( (HqlParser.MainEntityPersisterReferenceContext) ctx ) );
+		}
+		// otherwise the parent interprets the island once it completes
+	}
+
+
+	// ~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+	// Rules handled directly
+
+	private void enterDirectRule(ParserRuleContext ctx) {
+		if ( ctx.getRuleIndex() == HqlParser.RULE_querySpec ) {
+			beginQuerySpec();
+		}
+		else if ( ctx.getRuleIndex() == HqlParser.RULE_whereClause
+				&& ctx.getParent() instanceof HqlParser.QuerySpecContext ) {
+			setInWhereClause( true );
+		}
+	}
+
+	private void exitDirectRule(ParserRuleContext ctx, int mark) {
+		final int valueCount = values.size() - mark;
+
+		// binary operators : the left operand completed before the rule was entered
+		if ( ctx instanceof HqlParser.OrPredicateContext ) {
+			completeJunction( mark, JunctionPredicate.Nature.DISJUNCTION );
+		}
+		else if ( ctx instanceof HqlParser.AndPredicateContext ) {
+			completeJunction( mark, JunctionPredicate.Nature.CONJUNCTION );
+		}
+		else if ( ctx instanceof HqlParser.ConcatenationExpressionContext ) {
+			completeConcat( mark );
+		}
+		else if ( ctx instanceof HqlParser.AdditionExpressionContext ) {
+			completeArithmetic( mark, BinaryArithmeticExpression.Operation.ADD );
+		}
+		else if ( ctx instanceof HqlParser.SubtractionExpressionContext ) {
+			completeArithmetic( mark, BinaryArithmeticExpression.Operation.SUBTRACT );
+		}
+		else if ( ctx instanceof HqlParser.MultiplicationExpressionContext ) {
+			completeArithmetic( mark, BinaryArithmeticExpression.Operation.MULTIPLY );
+		}
+		else if ( ctx instanceof HqlParser.DivisionExpressionContext ) {
+			completeArithmetic( mark, BinaryArithmeticExpression.Operation.DIVIDE );
+		}
+		else if ( ctx instanceof HqlParser.ModuloExpressionContext ) {
+			completeArithmetic( mark, BinaryArithmeticExpression.Operation.MODULO );
+		}
+
+		// other predicates
+		else if ( ctx instanceof HqlParser.GroupedPredicateContext ) {
+			complete( mark, new GroupedPredicate( (Predicate) values.get( mark ) ) );
+		}
+		else if ( ctx instanceof HqlParser.NegatedPredicateContext ) {
+			complete( mark, new NegatedPredicate( (Predicate) values.get( mark ) ) );
+		}
+		else if ( ctx instanceof HqlParser.IsNullPredicateContext ) {
+			complete( mark, new NullnessPredicate( (Expression) values.get( mark ) ) );
+		}
+		else if ( ctx instanceof HqlParser.IsEmptyPredicateContext ) {
+			complete( mark, new EmptinessPredicate( (Expression) values.get( mark ) ) );
+		}
+		else if ( ctx instanceof HqlParser.EqualityPredicateContext ) {
+			completeRelational( mark, RelationalPredicate.Type.EQUAL );
+		}
+		else if ( ctx instanceof HqlParser.InequalityPredicateContext ) {
+			completeRelational( mark, RelationalPredicate.Type.NOT_EQUAL );
+		}
+		else if ( ctx instanceof HqlParser.GreaterThanPredicateContext ) {
+			completeRelational( mark, RelationalPredicate.Type.GT );
+		}
+		else if ( ctx instanceof HqlParser.GreaterThanOrEqualPredicateContext ) {
+			completeRelational( mark, RelationalPredicate.Type.GE );
+		}
+		else if ( ctx instanceof HqlParser.LessThanPredicateContext ) {
+			completeRelational( mark, RelationalPredicate.Type.LT );
+		}
+		else if ( ctx instanceof HqlParser.LessThanOrEqualPredicateContext ) {
+			completeRelational( mark, RelationalPredicate.Type.LE );
+		}
+		else if ( ctx instanceof HqlParser.InPredicateContext ) {
+			complete( mark, buildInPredicate( (HqlParser.InPredicateContext) ctx, mark ) );
+		}
+		else if ( ctx instanceof HqlParser.BetweenPredicateContext ) {
+			complete(
+					mark,
+					buildBetweenPredicate(
+							(Expression) values.get( mark ),
+							(Expression) values.get( mark + 1 ),
+							(Expression) values.get( mark + 2 )
+					)
+			);
+		}
+		else if ( ctx instanceof HqlParser.LikePredicateContext ) {
+			if ( valueCount == 3 ) {
+				complete(
+						mark,
+						new LikePredicate(
+								(Expression) values.get( mark ),
+								(Expression) values.get( mark + 1 ),
+								(Expression) values.get( mark + 2 )
+						)
+				);
+			}
+			else {
+				complete( mark, new LikePredicate( (Expression) values.get( mark ), (Expression) values.get( mark + 1 ) ) );
+			}
+		}
+		else if ( ctx instanceof HqlParser.LikeEscapeContext ) {
+			complete( mark, values.get( mark ) );
+		}
+
+		// IN lists
+		else if ( ctx instanceof HqlParser.ExplicitTupleInListContext ) {
+			complete( mark, new ArrayList<Object>( values.subList( mark, values.size() ) ) );
+		}
+		else if ( ctx instanceof HqlParser.SubQueryInListContext ) {
+			complete( mark, values.get( mark ) );
+		}
+		else if ( ctx instanceof HqlParser.PersistentCollectionReferenceInListContext ) {
+			// not supported by the visitor either; see buildInPredicate
+			complete( mark, ctx );
+		}
+
+		// other expressions
+		else if ( ctx instanceof HqlParser.UnaryMinusExpressionContext ) {
+			complete(
+					mark,
+					new UnaryOperationExpression( UnaryOperationExpression.Operation.MINUS, (Expression) values.get( mark ) )
+			);
+		}
+		else if ( ctx instanceof HqlParser.UnaryPlusExpressionContext ) {
+			complete(
+					mark,
+					new UnaryOperationExpression( UnaryOperationExpression.Operation.PLUS, (Expression) values.get( mark ) )
+			);
+		}
+		else if ( ctx instanceof HqlParser.SubQueryExpressionContext ) {
+			complete( mark, buildSubQueryExpression( (QuerySpec) values.get( mark ) ) );
+		}
+		else if ( ctx instanceof HqlParser.ExpressionContext || ctx instanceof HqlParser.MemberOfPredicateContext ) {
+			// literal, parameter, path, function, case... : the sub-rule is an island
+			complete( mark, ctx.accept( this ) );
+		}
+
+		// clauses and statements
+		else if ( ctx instanceof HqlParser.WhereClauseContext ) {
+			if ( ctx.getParent() instanceof HqlParser.QuerySpecContext ) {
+				setInWhereClause( false );
+			}
+			complete( mark, new WhereClause( (Predicate) values.get( mark ) ) );
+		}
+		else if ( ctx instanceof HqlParser.QuerySpecContext ) {
+			// the select clause (interpreted along with the from clause) and the where clause, if any
+			final SelectClause selectClause = (SelectClause) values.get( mark );
+			final WhereClause whereClause = valueCount > 1 ? (WhereClause) values.get( mark + 1 ) : null;
+			final QuerySpec querySpec = new QuerySpec( getCurrentFromClause(), selectClause, whereClause );
+			endQuerySpec();
+			complete( mark, querySpec );
+		}
+		else if ( ctx instanceof HqlParser.SelectStatementContext ) {
+			final SelectStatement selectStatement = new SelectStatement();
+			selectStatement.applyQuerySpec( (QuerySpec) values.get( mark ) );
+			applyOrderByClause( selectStatement, ( (HqlParser.SelectStatementContext) ctx ).orderByClause() );
+			complete( mark, selectStatement );
+		}
+		else if ( ctx instanceof HqlParser.DeleteStatementContext ) {
+			final DeleteStatement deleteStatement = (DeleteStatement) values.get( mark );
+			deleteStatement.getWhereClause().setPredicate( ( (WhereClause) values.get( mark + 1 ) ).getPredicate() );
+			endDeleteStatement();
+			complete( mark, deleteStatement );
+		}
+		else if ( ctx instanceof HqlParser.StatementContext ) {
+			if ( valueCount == 1 ) {
+				statement = (Statement) values.get( mark );
+			}
+			else {
+				// UPDATE and INSERT statements are islands
+				statement = visitStatement( (HqlParser.StatementContext) ctx );
+			}
+			complete( mark, statement );
+		}
+		else {
+			throw new ParsingException( "Unexpected rule context type : " + ctx.getClass().getSimpleName() );
+		}
+	}
+
+	private Predicate buildInPredicate(HqlParser.InPredicateContext ctx, int mark) {
+		final Expression testExpression = (Expression) values.get( mark );
+		final Object inList = values.get( mark + 1 );
+
+		if ( inList instanceof List ) {
+			@SuppressWarnings("unchecked")
+			final List<Expression> listExpressions = (List<Expression>) inList;
+			final LiteralInListPredicate literalInList = LiteralInListPredicate.from(
+					testExpression,
+					listExpressions,
+					false
+			);
+			if ( literalInList != null ) {
+				return literalInList;
+			}
+			return new InListPredicate( testExpression, listExpressions );
+		}
+		else if ( inList instanceof ParameterExpression ) {
+			// `in :ids` : a parameter list, see ParameterListExpander
+			return new InListPredicate( testExpression, (Expression) inList );
+		}
+		else if ( inList instanceof Expression ) {
+			if ( !SubQueryExpression.class.isInstance( inList ) ) {
+				throw new ParsingException(
+						"Was expecting a SubQueryExpression, but found " + inList.getClass().getSimpleName()
+				);
+			}
+			return new InSubQueryPredicate( testExpression, (SubQueryExpression) inList );
+		}
+
+		// todo : handle PersistentCollectionReferenceInList labeled branch
+
+		throw new ParsingException( "Unexpected IN predicate type [" + ctx.getClass().getSimpleName() + "] : " + ctx.getText() );
+	}
+
+	// the left operand of a chain like "a or b or c" is the junction built for the previous operator of
+	// the chain : it is extended rather than nested
+	private void completeJunction(int mark, JunctionPredicate.Nature nature) {
+		final Predicate lhs = (Predicate) values.get( mark - 1 );
+		final JunctionPredicate junction;
+		if ( lhs instanceof JunctionPredicate && ( (JunctionPredicate) lhs ).getNature() == nature ) {
+			junction = (JunctionPredicate) lhs;
+		}
+		else {
+			junction = new JunctionPredicate( nature );
+			junction.addPredicate( lhs );
+		}
+		junction.addPredicate( (Predicate) values.get( mark ) );
+		complete( mark - 1, junction );
+	}
+
+	private void completeConcat(int mark) {
+		final Expression lhs = (Expression) values.get( mark - 1 );
+		final ConcatListExpression concat;
+		if ( lhs instanceof ConcatListExpression ) {
+			concat = (ConcatListExpression) lhs;
+		}
+		else {
+			concat = new ConcatListExpression( (BasicType) lhs.getExpressionType() );
+			concat.addOperand( lhs );
+		}
+		concat.addOperand( (Expression) values.get( mark ) );
+		complete( mark - 1, concat );
+	}
+
+	private void completeArithmetic(int mark, BinaryArithmeticExpression.Operation operation) {
+		complete(
+				mark - 1,
+				buildBinaryArithmeticExpression(
+						operation,
+						(Expression) values.get( mark - 1 ),
+						(Expression) values.get( mark )
+				)
+		);
+	}
+
+	private void completeRelational(int mark, RelationalPredicate.Type type) {
+		complete(
+				mark,
+				new RelationalPredicate( type, (Expression) values.get( mark ), (Expression) values.get( mark + 1 ) )
+		);
+	}
+
+	/**
+	 * Replace the values from {@code position} on by the given one
+	 */
+	private void complete(int position, Object value) {
+		for ( int i = values.size() - 1; i >= position; i-- ) {
+			values.remove( i );
+		}
+		values.add( value );
+	}
+
+	private void pushMark() {
+		if ( markCount == marks.length ) {
+			final int[] newMarks = new int[marks.length * 2];
+			System.arraycopy( marks, 0, newMarks, 0, markCount );
+			marks = newMarks;
+		}
+		marks[markCount++] = values.size();
+	}
+
+	private int popMark() {
+		return marks[--markCount];
+	}
+}
@@ -0,0 +1,81 @@
+/*
+ * Hibernate, Relational Persistence for Idiomatic Java
+ *
+ * License: Apache License, Version 2.0
+ * See the LICENSE file in the root directory or visit http://www.apache.org/licenses/LICENSE-2.0
+ */
+package org.hibernate.sqm.query;
+
+import org.hibernate.sqm.SemanticQueryTraversal;
+import org.hibernate.sqm.StatementFingerprinter;
+import org.hibernate.sqm.StatementFreezer;
+import org.hibernate.sqm.query.from.FromElement;
+
+/**
+ * Base support for Statement implementations.
+ *
+ * @author agent
+ */
+public abstract class AbstractStatement implements Statement {
+	// NOTE : benign race - concurrent first calls may each compute the (same) fingerprint
+	private volatile StatementFingerprint fingerprint;
+	private volatile boolean frozen;
+	// the FromElements indexed by unique id, once frozen
+	private FromElement[] fromElements;
+
+	@Override
+	public StatementFingerprint getFingerprint() {
+		StatementFingerprint fingerprint = this.fingerprint;
+		if ( fingerprint == null ) {
+			fingerprint = StatementFingerprinter.fingerprint( this );
+			this.fingerprint = fingerprint;
+		}
+		return fingerprint;
+	}
+
+	@Override
+	public void freeze() {
+		if ( !frozen ) {
+			final StatementFreezer freezer = new StatementFreezer();
+			SemanticQueryTraversal.traverse( this, freezer );
+			fromElements = freezer.getFromElements();
+			frozen = true;
+		}
+	}
+
+	@Override
+	public FromElement findFromElementByUniqueId(final int uniqueId) {
+		if ( frozen ) {
+			return uniqueId >= 0 && uniqueId < fromElements.length ? fromElements[uniqueId] : null;
+		}
+
+		// the tree may still change, so nothing is kept
+		final FromElement[] found = new FromElement[1];
+		SemanticQueryTraversal.traverse(
+				this,
+				new SemanticQueryTraversal.Callback() {
+					@Override
+					public boolean enter(Object node) {
+						if ( node instanceof FromElement && ( (FromElement) node ).getUniqueId() == uniqueId ) {
+							found[0] = (FromElement) node;
+						}
+						return found[0] == null;
+					}
+
+					@Override
+					public void leave(Object node) {
+					}
+				}
+		);
+		return found[0];
+	}
+
+	@Override
+	public boolean isFrozen() {
+		return frozen;
+	}
+
+	protected void verifyNotFrozen() {
+		Helper.verifyNotFrozen( frozen, this );
+	}
+}
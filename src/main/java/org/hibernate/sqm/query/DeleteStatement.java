@@ -16,7 +16,7 @@ import org.hibernate.sqm.query.predicate.WhereClauseContainer;
 /**
  * @author Steve Ebersole
  */
-public class DeleteStatement implements NonSelectStatement, WhereClauseContainer {
+public class DeleteStatement extends AbstractStatement implements NonSelectStatement, WhereClauseContainer {
 	private final RootEntityFromElement entityFromElement;
 	private final WhereClause whereClause = new WhereClause();
 
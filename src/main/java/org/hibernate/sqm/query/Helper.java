@@ -6,6 +6,10 @@
  */
 package org.hibernate.sqm.query;
 
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
 import org.hibernate.sqm.domain.Bindable;
 import org.hibernate.sqm.domain.ManagedType;
 
@@ -32,6 +36,42 @@ public class Helper {
 	private Helper() {
 	}
 
+	/**
+	 * Builds the compact, immutable form of a list for a frozen tree.
+	 *
+	 * @param list The list to freeze; may be {@code null}
+	 *
+	 * @return The immutable form of the list; an empty list if {@code list} was {@code null}
+	 *
+	 * @see Statement#freeze()
+	 */
+	@SuppressWarnings("unchecked")
+	public static <T> List<T> freezeList(List<T> list) {
+		if ( list == null || list.isEmpty() ) {
+			return Collections.emptyList();
+		}
+		if ( list.size() == 1 ) {
+			return Collections.singletonList( list.get( 0 ) );
+		}
+		return Collections.unmodifiableList( (List<T>) Arrays.asList( list.toArray() ) );
+	}
+
+	/**
+	 * Verifies that a tree node is not frozen before it is changed.
+	 *
+	 * @param frozen Whether the node is frozen
+	 * @param node The node about to be changed
+	 *
+	 * @throws TreeException if the node is frozen
+	 *
+	 * @see Statement#freeze()
+	 */
+	public static void verifyNotFrozen(boolean frozen, Object node) {
+		if ( frozen ) {
+			throw new TreeException( "Cannot change [" + node.getClass().getSimpleName() + "] node of a frozen tree" );
+		}
+	}
+
 	public static ManagedType determineManagedType(Bindable bindableModelDescriptor) {
 		if ( bindableModelDescriptor.getBoundType() instanceof ManagedType ) {
 			return (ManagedType) bindableModelDescriptor.getBoundType();
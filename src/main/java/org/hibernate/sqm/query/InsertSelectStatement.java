@@ -17,7 +17,7 @@ import org.hibernate.sqm.query.from.RootEntityFromElement;
 /**
  * @author Steve Ebersole
  */
-public class InsertSelectStatement implements InsertStatement {
+public class InsertSelectStatement extends AbstractStatement implements InsertStatement {
 	private final RootEntityFromElement insertTarget;
 	private List<AttributeReferenceExpression> stateFields;
 	private QuerySpec selectQuery;
@@ -46,6 +46,7 @@ public class InsertSelectStatement implements InsertStatement {
 	}
 
 	public void addInsertTargetStateField(AttributeReferenceExpression stateField) {
+		verifyNotFrozen();
 		if ( stateFields == null ) {
 			stateFields = new ArrayList<AttributeReferenceExpression>();
 		}
@@ -57,9 +58,16 @@ public class InsertSelectStatement implements InsertStatement {
 	}
 
 	public void setSelectQuery(QuerySpec selectQuery) {
+		verifyNotFrozen();
 		this.selectQuery = selectQuery;
 	}
 
+	@Override
+	public void freeze() {
+		stateFields = Helper.freezeList( stateFields );
+		super.freeze();
+	}
+
 	@Override
 	public <T> T accept(SemanticQueryWalker<T> walker) {
 		return walker.visitInsertSelectStatement( this );
@@ -12,7 +12,7 @@ import org.hibernate.sqm.query.order.OrderByClause;
 /**
  * @author Steve Ebersole
  */
-public class SelectStatement implements Statement {
+public class SelectStatement extends AbstractStatement {
 	private QuerySpec querySpec;
 	private OrderByClause orderByClause;
 
@@ -28,6 +28,7 @@ public class SelectStatement implements Statement {
 	}
 
 	public void applyQuerySpec(QuerySpec querySpec) {
+		verifyNotFrozen();
 		if ( this.querySpec != null ) {
 			throw new IllegalStateException( "QuerySpec was already defined for select-statement" );
 		}
@@ -35,6 +36,7 @@ public class SelectStatement implements Statement {
 	}
 
 	public void applyOrderByClause(OrderByClause orderByClause) {
+		verifyNotFrozen();
 		if ( this.orderByClause != null ) {
 			throw new IllegalStateException( "OrderByClause was already defined for select-statement" );
 		}
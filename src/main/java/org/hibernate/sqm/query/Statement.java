@@ -7,6 +7,7 @@
 package org.hibernate.sqm.query;
 
 import org.hibernate.sqm.SemanticQueryWalker;
+import org.hibernate.sqm.query.from.FromElement;
 
 /**
  * @author Steve Ebersole
@@ -22,4 +23,38 @@ public interface Statement {
 	Type getType();
 
 	<T> T accept(SemanticQueryWalker<T> walker);
+
+	/**
+	 * Locate one of the FromElements of this statement (from any of its query specs) by its unique id.
+	 * Frozen statements index their FromElements by id; others are searched.
+	 *
+	 * @param uniqueId The {@link FromElement#getUniqueId() unique id}
+	 *
+	 * @return The FromElement, or {@code null} if this statement has none with that id
+	 */
+	FromElement findFromElementByUniqueId(int uniqueId);
+
+	/**
+	 * The structural fingerprint of this statement, calculated on first access.  The statement should
+	 * not be changed after the fingerprint was first accessed.
+	 *
+	 * @return The fingerprint
+	 */
+	StatementFingerprint getFingerprint();
+
+	/**
+	 * Freezes the statement, making the entire tree immutable: collections are replaced by compact
+	 * immutable forms and any later attempt to change the tree results in a {@link TreeException}.
+	 * A frozen statement can be shared between threads (once safely published, e.g. by a cache).
+	 * <p/>
+	 * Statements returned by {@link org.hibernate.sqm.SemanticQueryInterpreter} are already frozen.
+	 */
+	void freeze();
+
+	/**
+	 * Has this statement been frozen?
+	 *
+	 * @return {@code true} if {@link #freeze()} has been called
+	 */
+	boolean isFrozen();
 }
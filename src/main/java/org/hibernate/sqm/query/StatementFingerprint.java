@@ -0,0 +1,85 @@
+/*
+ * Hibernate, Relational Persistence for Idiomatic Java
+ *
+ * License: Apache License, Version 2.0
+ * See the LICENSE file in the root directory or visit http://www.apache.org/licenses/LICENSE-2.0
+ */
+package org.hibernate.sqm.query;
+
+import java.io.Serializable;
+
+/**
+ * A 128-bit hash of the structure of a {@link Statement}.  Two statements have the same fingerprint
+ * if they have the same shape (node kinds, entity and attribute names, operators, literal values and
+ * parameters) regardless of the aliases and unique identifiers generated while interpreting them.
+ * <p/>
+ * The fingerprint depends only on the statement itself, so it is stable across JVMs and can be used
+ * as a key for storing interpretations externally.
+ *
+ * @author agent
+ *
+ * @see Statement#getFingerprint()
+ */
+public final class StatementFingerprint implements Serializable {
+	private final long high;
+	private final long low;
+
+	public StatementFingerprint(long high, long low) {
+		this.high = high;
+		this.low = low;
+	}
+
+	public long getHigh() {
+		return high;
+	}
+
+	public long getLow() {
+		return low;
+	}
+
+	/**
+	 * The 64-bit form of the fingerprint.
+	 *
+	 * @return The 64-bit fingerprint
+	 */
+	public long asLong() {
+		return high;
+	}
+
+	@Override
+	public boolean equals(Object o) {
+		if ( this == o ) {
+			return true;
+		}
+		if ( !( o instanceof StatementFingerprint ) ) {
+			return false;
+		}
+		final StatementFingerprint that = (StatementFingerprint) o;
+		return high == that.high && low == that.low;
+	}
+
+	@Override
+	public int hashCode() {
+		return (int) ( high ^ ( high >>> 32 ) );
+	}
+
+	/**
+	 * The fingerprint as 32 hexadecimal digits
+	 */
+	@Override
+	public String toString() {
+		return toHex( high ) + toHex( low );
+	}
+
+	private static String toHex(long value) {
+		final String hex = Long.toHexString( value );
+		if ( hex.length() == 16 ) {
+			return hex;
+		}
+		final StringBuilder buffer = new StringBuilder( 16 );
+		for ( int i = hex.length(); i < 16; i++ ) {
+			buffer.append( '0' );
+		}
+		return buffer.append( hex ).toString();
+	}
+}
@@ -17,7 +17,7 @@ import org.hibernate.sqm.query.set.SetClause;
 /**
  * @author Steve Ebersole
  */
-public class UpdateStatement implements NonSelectStatement, WhereClauseContainer {
+public class UpdateStatement extends AbstractStatement implements NonSelectStatement, WhereClauseContainer {
 	private final RootEntityFromElement entityFromElement;
 	private final SetClause setClause = new SetClause();
 	private final WhereClause whereClause = new WhereClause();
@@ -8,6 +8,7 @@ package org.hibernate.sqm.query.expression;
 
 import org.hibernate.sqm.domain.BasicType;
 import org.hibernate.sqm.domain.Type;
+import org.hibernate.sqm.query.Helper;
 
 /**
  * @author Steve Ebersole
@@ -15,6 +16,7 @@ import org.hibernate.sqm.domain.Type;
 public abstract class AbstractLiteralExpressionImpl<T> implements LiteralExpression<T> {
 	private final T value;
 	private BasicType<T> typeDescriptor;
+	private boolean frozen;
 
 	public AbstractLiteralExpressionImpl(T value, BasicType<T> typeDescriptor) {
 		this.value = value;
@@ -36,9 +38,14 @@ public abstract class AbstractLiteralExpressionImpl<T> implements LiteralExpress
 		return null;
 	}
 
+	public void freeze() {
+		frozen = true;
+	}
+
 	@Override
 	@SuppressWarnings("unchecked")
 	public void impliedType(Type type) {
+		Helper.verifyNotFrozen( frozen, this );
 		if ( type != null ) {
 			if ( !BasicType.class.isAssignableFrom( type.getClass() ) ) {
 				throw new TypeInferenceException( "Inferred type descriptor [" + type + "] was not castable to javax.persistence.metamodel.BasicType" );
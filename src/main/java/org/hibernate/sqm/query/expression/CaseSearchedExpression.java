@@ -11,6 +11,7 @@ import java.util.List;
 
 import org.hibernate.sqm.SemanticQueryWalker;
 import org.hibernate.sqm.domain.Type;
+import org.hibernate.sqm.query.Helper;
 import org.hibernate.sqm.query.predicate.Predicate;
 
 /**
@@ -19,6 +20,7 @@ import org.hibernate.sqm.query.predicate.Predicate;
 public class CaseSearchedExpression implements Expression, ImpliedTypeExpression {
 	private List<WhenFragment> whenFragments = new ArrayList<WhenFragment>();
 	private Expression otherwise;
+	private boolean frozen;
 
 	private Type type;
 	private Type impliedType;
@@ -32,15 +34,25 @@ public class CaseSearchedExpression implements Expression, ImpliedTypeExpression
 	}
 
 	public void when(Predicate predicate, Expression result) {
+		Helper.verifyNotFrozen( frozen, this );
 		whenFragments.add( new WhenFragment( predicate, result ) );
 	}
 
 	public void otherwise(Expression otherwiseExpression) {
+		Helper.verifyNotFrozen( frozen, this );
 		this.otherwise = otherwiseExpression;
 		// todo : inject implied type?
 	}
+	public void freeze() {
+		if ( !frozen ) {
+			whenFragments = Helper.freezeList( whenFragments );
+			frozen = true;
+		}
+	}
+
 	@Override
 	public void impliedType(Type type) {
+		Helper.verifyNotFrozen( frozen, this );
 		this.impliedType = type;
 		// todo : visit whenFragments and otherwise
 	}
@@ -11,6 +11,7 @@ import java.util.List;
 
 import org.hibernate.sqm.SemanticQueryWalker;
 import org.hibernate.sqm.domain.Type;
+import org.hibernate.sqm.query.Helper;
 
 /**
  * @author Steve Ebersole
@@ -19,6 +20,7 @@ public class CaseSimpleExpression implements Expression, ImpliedTypeExpression {
 	private final Expression fixture;
 	private List<WhenFragment> whenFragments = new ArrayList<WhenFragment>();
 	private Expression otherwise;
+	private boolean frozen;
 
 	private Type type;
 	private Type impliedType;
@@ -40,17 +42,27 @@ public class CaseSimpleExpression implements Expression, ImpliedTypeExpression {
 	}
 
 	public void otherwise(Expression otherwiseExpression) {
+		Helper.verifyNotFrozen( frozen, this );
 		this.otherwise = otherwiseExpression;
 		// todo : inject implied type?
 	}
 
 	public void when(Expression test, Expression result) {
+		Helper.verifyNotFrozen( frozen, this );
 		whenFragments.add( new WhenFragment( test, result ) );
 		// todo : inject implied type?
 	}
 
+	public void freeze() {
+		if ( !frozen ) {
+			whenFragments = Helper.freezeList( whenFragments );
+			frozen = true;
+		}
+	}
+
 	@Override
 	public void impliedType(Type type) {
+		Helper.verifyNotFrozen( frozen, this );
 		this.impliedType = type;
 		// todo : visit whenFragments and elseExpression
 	}
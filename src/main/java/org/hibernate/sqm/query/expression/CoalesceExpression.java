@@ -11,21 +11,31 @@ import java.util.List;
 
 import org.hibernate.sqm.SemanticQueryWalker;
 import org.hibernate.sqm.domain.Type;
+import org.hibernate.sqm.query.Helper;
 
 /**
  * @author Steve Ebersole
  */
 public class CoalesceExpression implements Expression {
 	private List<Expression> values = new ArrayList<Expression>();
+	private boolean frozen;
 
 	public List<Expression> getValues() {
 		return values;
 	}
 
 	public void value(Expression expression) {
+		Helper.verifyNotFrozen( frozen, this );
 		values.add( expression );
 	}
 
+	public void freeze() {
+		if ( !frozen ) {
+			values = Helper.freezeList( values );
+			frozen = true;
+		}
+	}
+
 	@Override
 	public Type getExpressionType() {
 		return values.get( 0 ).getExpressionType();
@@ -0,0 +1,73 @@
+/*
+ * Hibernate, Relational Persistence for Idiomatic Java
+ *
+ * License: Apache License, Version 2.0
+ * See the LICENSE file in the root directory or visit http://www.apache.org/licenses/LICENSE-2.0
+ */
+package org.hibernate.sqm.query.expression;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.hibernate.sqm.SemanticQueryWalker;
+import org.hibernate.sqm.domain.BasicType;
+import org.hibernate.sqm.domain.Type;
+import org.hibernate.sqm.query.Helper;
+
+/**
+ * An n-ary concatenation : {@code x || y || z} is a single node of 3 operands, rather than nested
+ * binary {@link ConcatExpression}s.
+ *
+ * @author agent
+ */
+public class ConcatListExpression implements Expression {
+	private List<Expression> operands;
+	private final BasicType resultType;
+	private boolean frozen;
+
+	public ConcatListExpression(BasicType resultType) {
+		this( new ArrayList<Expression>(), resultType );
+	}
+
+	public ConcatListExpression(List<Expression> operands, BasicType resultType) {
+		this.operands = operands;
+		this.resultType = resultType;
+	}
+
+	public List<Expression> getOperands() {
+		return operands;
+	}
+
+	public void addOperand(Expression operand) {
+		Helper.verifyNotFrozen( frozen, this );
+		operands.add( operand );
+	}
+
+	public void freeze() {
+		if ( !frozen ) {
+			operands = Helper.freezeList( operands );
+			frozen = true;
+		}
+	}
+
+	@Override
+	public BasicType getExpressionType() {
+		return resultType;
+	}
+
+	@Override
+	public Type getInferableType() {
+		for ( Expression operand : operands ) {
+			final Type inferableType = operand.getInferableType();
+			if ( inferableType != null ) {
+				return inferableType;
+			}
+		}
+		return null;
+	}
+
+	@Override
+	public <T> T accept(SemanticQueryWalker<T> walker) {
+		return walker.visitConcatListExpression( this );
+	}
+}
@@ -9,6 +9,7 @@ package org.hibernate.sqm.query.expression;
 import org.hibernate.sqm.SemanticQueryWalker;
 import org.hibernate.sqm.domain.BasicType;
 import org.hibernate.sqm.domain.Type;
+import org.hibernate.sqm.query.Helper;
 
 /**
  * @author Steve Ebersole
@@ -16,6 +17,7 @@ import org.hibernate.sqm.domain.Type;
 public class ConstantEnumExpression<T extends Enum> implements ConstantExpression<T> {
 	private final T value;
 	private BasicType<T> typeDescriptor;
+	private boolean frozen;
 
 	public ConstantEnumExpression(T value, BasicType<T> typeDescriptor) {
 		this.value = value;
@@ -37,9 +39,14 @@ public class ConstantEnumExpression<T extends Enum> implements ConstantExpressio
 		return getExpressionType();
 	}
 
+	public void freeze() {
+		frozen = true;
+	}
+
 	@Override
 	@SuppressWarnings("unchecked")
 	public void impliedType(Type type) {
+		Helper.verifyNotFrozen( frozen, this );
 		if ( type != null ) {
 			if ( !BasicType.class.isAssignableFrom( type.getClass() ) ) {
 				throw new TypeInferenceException( "Inferred type descriptor [" + type + "] was not castable to javax.persistence.metamodel.BasicType" );
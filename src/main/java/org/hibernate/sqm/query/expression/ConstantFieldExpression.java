@@ -9,6 +9,7 @@ package org.hibernate.sqm.query.expression;
 import org.hibernate.sqm.SemanticQueryWalker;
 import org.hibernate.sqm.domain.BasicType;
 import org.hibernate.sqm.domain.Type;
+import org.hibernate.sqm.query.Helper;
 
 /**
  * Represents a constant that came from a static field reference.
@@ -20,6 +21,7 @@ import org.hibernate.sqm.domain.Type;
 public class ConstantFieldExpression<T> implements ConstantExpression<T> {
 	private final T value;
 	private BasicType<T> typeDescriptor;
+	private boolean frozen;
 
 	public ConstantFieldExpression(T value, BasicType<T> typeDescriptor) {
 		this.value = value;
@@ -41,9 +43,14 @@ public class ConstantFieldExpression<T> implements ConstantExpression<T> {
 		return getExpressionType();
 	}
 
+	public void freeze() {
+		frozen = true;
+	}
+
 	@Override
 	@SuppressWarnings("unchecked")
 	public void impliedType(Type type) {
+		Helper.verifyNotFrozen( frozen, this );
 		if ( type != null ) {
 			if ( !BasicType.class.isAssignableFrom( type.getClass() ) ) {
 				throw new TypeInferenceException( "Inferred type descriptor [" + type + "] was not castable to javax.persistence.metamodel.BasicType" );
@@ -33,7 +33,7 @@ public class CountStarFunction extends AbstractAggregateFunction {
 		return walker.visitCountStarFunction( this );
 	}
 
-	private static Expression STAR = new Expression() {
+	private static final Expression STAR = new Expression() {
 		@Override
 		public Type getExpressionType() {
 			return null;
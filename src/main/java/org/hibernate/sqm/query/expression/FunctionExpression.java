@@ -11,13 +11,14 @@ import java.util.List;
 import org.hibernate.sqm.SemanticQueryWalker;
 import org.hibernate.sqm.domain.BasicType;
 import org.hibernate.sqm.domain.Type;
+import org.hibernate.sqm.query.Helper;
 
 /**
  * @author Steve Ebersole
  */
 public class FunctionExpression implements Expression {
 	private final String functionName;
-	private final List<Expression> arguments;
+	private List<Expression> arguments;
 	private final BasicType resultTypeDescriptor;
 
 	public FunctionExpression(
@@ -37,6 +38,10 @@ public class FunctionExpression implements Expression {
 		return arguments;
 	}
 
+	public void freeze() {
+		arguments = Helper.freezeList( arguments );
+	}
+
 	@Override
 	public BasicType getExpressionType() {
 		return resultTypeDescriptor;
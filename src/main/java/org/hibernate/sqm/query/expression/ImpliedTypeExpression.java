@@ -18,6 +18,9 @@ public interface ImpliedTypeExpression extends Expression {
 	 * Used to inject the Type implied by the expression's context.
 	 *
 	 * @param type The implied type.
+	 *
+	 * @throws org.hibernate.sqm.query.TreeException if the expression is part of a
+	 * {@link org.hibernate.sqm.query.Statement#freeze() frozen} tree
 	 */
 	void impliedType(Type type);
 }
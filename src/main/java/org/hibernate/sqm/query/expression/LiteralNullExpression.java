@@ -39,7 +39,7 @@ public class LiteralNullExpression implements LiteralExpression<Void> {
 		return walker.visitLiteralNullExpression( this );
 	}
 
-	private static BasicType<Void> NULL_TYPE = new BasicType<Void>() {
+	private static final BasicType<Void> NULL_TYPE = new BasicType<Void>() {
 		@Override
 		public String getTypeName() {
 			return void.class.getName();
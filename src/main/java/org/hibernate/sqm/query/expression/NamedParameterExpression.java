@@ -8,6 +8,7 @@ package org.hibernate.sqm.query.expression;
 
 import org.hibernate.sqm.SemanticQueryWalker;
 import org.hibernate.sqm.domain.Type;
+import org.hibernate.sqm.query.Helper;
 
 /**
  * @author Steve Ebersole
@@ -15,6 +16,7 @@ import org.hibernate.sqm.domain.Type;
 public class NamedParameterExpression implements ParameterExpression {
 	private final String name;
 	private Type typeDescriptor;
+	private boolean frozen;
 
 	public NamedParameterExpression(String name) {
 		this.name = name;
@@ -35,8 +37,13 @@ public class NamedParameterExpression implements ParameterExpression {
 		return null;
 	}
 
+	public void freeze() {
+		frozen = true;
+	}
+
 	@Override
 	public void impliedType(Type type) {
+		Helper.verifyNotFrozen( frozen, this );
 		if ( type != null ) {
 			this.typeDescriptor = type;
 		}
@@ -8,6 +8,7 @@ package org.hibernate.sqm.query.expression;
 
 import org.hibernate.sqm.SemanticQueryWalker;
 import org.hibernate.sqm.domain.Type;
+import org.hibernate.sqm.query.Helper;
 
 /**
  * @author Steve Ebersole
@@ -15,6 +16,7 @@ import org.hibernate.sqm.domain.Type;
 public class PositionalParameterExpression implements ParameterExpression {
 	private final int position;
 	private Type typeDescriptor;
+	private boolean frozen;
 
 	public PositionalParameterExpression(int position) {
 		this.position = position;
@@ -50,8 +52,13 @@ public class PositionalParameterExpression implements ParameterExpression {
 		return position;
 	}
 
+	public void freeze() {
+		frozen = true;
+	}
+
 	@Override
 	public void impliedType(Type type) {
+		Helper.verifyNotFrozen( frozen, this );
 		if ( type != null ) {
 			this.typeDescriptor = type;
 		}
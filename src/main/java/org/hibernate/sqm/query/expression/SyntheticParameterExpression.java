@@ -0,0 +1,76 @@
+/*
+ * Hibernate, Relational Persistence for Idiomatic Java
+ *
+ * License: Apache License, Version 2.0
+ * See the LICENSE file in the root directory or visit http://www.apache.org/licenses/LICENSE-2.0
+ */
+package org.hibernate.sqm.query.expression;
+
+import org.hibernate.sqm.SemanticQueryWalker;
+import org.hibernate.sqm.domain.Type;
+import org.hibernate.sqm.query.Helper;
+
+/**
+ * A parameter which was not part of the query as written, but introduced in place of a literal
+ * (see {@link org.hibernate.sqm.parser.LiteralParameterizer}).  It is neither named nor positional;
+ * its value is found at its {@link #getSyntheticPosition() synthetic position} in the values extracted
+ * from the query.
+ *
+ * @author agent
+ */
+public class SyntheticParameterExpression implements ParameterExpression {
+	private final int syntheticPosition;
+	private Type typeDescriptor;
+	private boolean frozen;
+
+	public SyntheticParameterExpression(int syntheticPosition, Type typeDescriptor) {
+		this.syntheticPosition = syntheticPosition;
+		this.typeDescriptor = typeDescriptor;
+	}
+
+	/**
+	 * The (zero-based) position of this parameter amongst the synthetic parameters of the query.
+	 *
+	 * @return The synthetic position
+	 */
+	public int getSyntheticPosition() {
+		return syntheticPosition;
+	}
+
+	@Override
+	public Type getExpressionType() {
+		return typeDescriptor;
+	}
+
+	@Override
+	public Type getInferableType() {
+		return null;
+	}
+
+	public void freeze() {
+		frozen = true;
+	}
+
+	@Override
+	public void impliedType(Type type) {
+		Helper.verifyNotFrozen( frozen, this );
+		if ( type != null ) {
+			this.typeDescriptor = type;
+		}
+	}
+
+	@Override
+	public <T> T accept(SemanticQueryWalker<T> walker) {
+		return walker.visitSyntheticParameterExpression( this );
+	}
+
+	@Override
+	public String getName() {
+		return null;
+	}
+
+	@Override
+	public Integer getPosition() {
+		return null;
+	}
+}
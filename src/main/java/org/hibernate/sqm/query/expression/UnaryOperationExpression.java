@@ -8,6 +8,7 @@ package org.hibernate.sqm.query.expression;
 
 import org.hibernate.sqm.SemanticQueryWalker;
 import org.hibernate.sqm.domain.Type;
+import org.hibernate.sqm.query.Helper;
 
 /**
  * @author Steve Ebersole
@@ -21,6 +22,7 @@ public class UnaryOperationExpression implements ImpliedTypeExpression {
 	private final Operation operation;
 	private final Expression operand;
 	private Type typeDescriptor;
+	private boolean frozen;
 
 	public UnaryOperationExpression(Operation operation, Expression operand) {
 		this( operation, operand, operand.getExpressionType() );
@@ -42,8 +44,13 @@ public class UnaryOperationExpression implements ImpliedTypeExpression {
 		return operand.getExpressionType();
 	}
 
+	public void freeze() {
+		frozen = true;
+	}
+
 	@Override
 	public void impliedType(Type type) {
+		Helper.verifyNotFrozen( frozen, this );
 		if ( type != null ) {
 			this.typeDescriptor = type;
 			if ( operand instanceof ImpliedTypeExpression ) {
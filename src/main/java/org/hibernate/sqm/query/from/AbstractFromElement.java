@@ -6,6 +6,7 @@
  */
 package org.hibernate.sqm.query.from;
 
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.HashMap;
@@ -25,7 +26,8 @@ import org.hibernate.sqm.query.Helper;
  */
 public abstract class AbstractFromElement implements FromElement {
 	private final FromElementSpace fromElementSpace;
-	private final String uid;
+	private final int uid;
+	// null for implicit aliases, which are rendered from the uid on demand
 	private final String alias;
 	private final Bindable bindableModelDescriptor;
 	private final EntityType subclassIndicator;
@@ -34,10 +36,11 @@ public abstract class AbstractFromElement implements FromElement {
 	private final ManagedType attributeContributingType;
 
 	private Map<EntityType,Downcast> downcastMap;
+	private Collection<Downcast> frozenDowncasts;
 
 	protected AbstractFromElement(
 			FromElementSpace fromElementSpace,
-			String uid,
+			int uid,
 			String alias,
 			Bindable bindableModelDescriptor,
 			EntityType subclassIndicator,
@@ -58,13 +61,24 @@ public abstract class AbstractFromElement implements FromElement {
 	}
 
 	@Override
-	public String getUniqueIdentifier() {
+	public int getUniqueId() {
 		return uid;
 	}
 
+	@Override
+	public String getUniqueIdentifier() {
+		return "<uid:" + uid + ">";
+	}
+
 	@Override
 	public String getIdentificationVariable() {
-		return alias;
+		// distinct from the "<gen:n>" aliases of ImplicitAliasGenerator, whose count also starts at 0
+		return alias == null ? "<uid-gen:" + uid + ">" : alias;
+	}
+
+	@Override
+	public boolean isImplicitlyAliased() {
+		return alias == null;
 	}
 
 	@Override
@@ -114,6 +128,7 @@ public abstract class AbstractFromElement implements FromElement {
 
 	@Override
 	public void addDowncast(Downcast downcast) {
+		verifyNotFrozen();
 		Downcast existing = null;
 		if ( downcastMap == null ) {
 			downcastMap = new HashMap<EntityType, Downcast>();
@@ -137,6 +152,9 @@ public abstract class AbstractFromElement implements FromElement {
 
 	@Override
 	public Collection<Downcast> getDowncasts() {
+		if ( frozenDowncasts != null ) {
+			return frozenDowncasts;
+		}
 		if ( downcastMap == null ) {
 			return Collections.emptySet();
 		}
@@ -144,4 +162,17 @@ public abstract class AbstractFromElement implements FromElement {
 			return downcastMap.values();
 		}
 	}
+
+	public void freeze() {
+		if ( frozenDowncasts == null ) {
+			frozenDowncasts = downcastMap == null
+					? Collections.<Downcast>emptyList()
+					: Helper.freezeList( new ArrayList<Downcast>( downcastMap.values() ) );
+			downcastMap = null;
+		}
+	}
+
+	protected void verifyNotFrozen() {
+		Helper.verifyNotFrozen( frozenDowncasts != null, this );
+	}
 }
@@ -18,7 +18,7 @@ public abstract class AbstractJoinedFromElement extends AbstractFromElement impl
 
 	public AbstractJoinedFromElement(
 			FromElementSpace fromElementSpace,
-			String uid,
+			int uid,
 			String alias,
 			Bindable bindableModelDescriptor,
 			EntityType intrinsicSubclassIndicator,
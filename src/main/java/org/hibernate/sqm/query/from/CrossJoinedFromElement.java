@@ -18,7 +18,7 @@ public class CrossJoinedFromElement extends AbstractFromElement implements Joine
 
 	public CrossJoinedFromElement(
 			FromElementSpace fromElementSpace,
-			String uid,
+			int uid,
 			String alias,
 			EntityType entityTypeDescriptor) {
 		super( fromElementSpace, uid, alias, entityTypeDescriptor, entityTypeDescriptor, alias );
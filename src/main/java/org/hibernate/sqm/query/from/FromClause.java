@@ -9,6 +9,8 @@ package org.hibernate.sqm.query.from;
 import java.util.ArrayList;
 import java.util.List;
 
+import org.hibernate.sqm.query.Helper;
+
 /**
  * Contract representing a from clause.
  * <p/>
@@ -19,17 +21,27 @@ import java.util.List;
  */
 public class FromClause {
 	private List<FromElementSpace> fromElementSpaces = new ArrayList<FromElementSpace>();
+	private boolean frozen;
 
 	public List<FromElementSpace> getFromElementSpaces() {
 		return fromElementSpaces;
 	}
 
 	public void addFromElementSpace(FromElementSpace space) {
+		Helper.verifyNotFrozen( frozen, this );
 
 	}
 	public FromElementSpace makeFromElementSpace() {
+		Helper.verifyNotFrozen( frozen, this );
 		final FromElementSpace space = new FromElementSpace( this );
 		fromElementSpaces.add( space );
 		return space;
 	}
+
+	public void freeze() {
+		if ( !frozen ) {
+			fromElementSpaces = Helper.freezeList( fromElementSpaces );
+			frozen = true;
+		}
+	}
 }
@@ -17,12 +17,20 @@ import org.hibernate.sqm.path.FromElementBinding;
 public interface FromElement extends FromElementBinding, Downcastable {
 	/**
 	 * A unique identifier across all QuerySpecs (all AliasRegistry instances) for a given query.
+	 * The identifiers are dense, starting at 0, so that they can index arrays.
 	 * <p/>
 	 * Can be used to locate a FromElement outside the context of a particular AliasRegistry.
 	 *
 	 * @return This FromElement's unique identifier
 	 *
-	 * @see org.hibernate.sqm.parser.internal.ParsingContext#globalFromElementMap
+	 * @see org.hibernate.sqm.query.Statement#findFromElementByUniqueId
+	 */
+	int getUniqueId();
+
+	/**
+	 * The {@link #getUniqueId() unique identifier} rendered as a String (for logging, e.g.).
+	 *
+	 * @return This FromElement's unique identifier, as a String
 	 */
 	String getUniqueIdentifier();
 
@@ -67,9 +75,21 @@ public interface FromElement extends FromElementBinding, Downcastable {
 	 * @return The identification variable (alias) for this FromElement.  Never returns
 	 * {@code null}; if the query did not specify an identification variable, one is implicitly
 	 * generated.
+	 *
+	 * @see #isImplicitlyAliased()
 	 */
 	String getIdentificationVariable();
 
+	/**
+	 * Was the identification variable implicitly generated, rather than given in the source query?
+	 * Implicit identification variables cannot be referenced from the query; they are derived from
+	 * the {@link #getUniqueId() unique id} and only rendered when {@link #getIdentificationVariable()}
+	 * is called.
+	 *
+	 * @return {@code true} if the identification variable is implicit
+	 */
+	boolean isImplicitlyAliased();
+
 	/**
 	 * TODO : Remove this?
 	 *
@@ -10,6 +10,8 @@ import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
 
+import org.hibernate.sqm.query.Helper;
+
 import org.jboss.logging.Logger;
 
 /**
@@ -25,6 +27,7 @@ public class FromElementSpace {
 
 	private RootEntityFromElement root;
 	private List<JoinedFromElement> joins;
+	private boolean frozen;
 
 	public FromElementSpace(FromClause fromClause) {
 		this.fromClause = fromClause;
@@ -39,6 +42,7 @@ public class FromElementSpace {
 	}
 
 	public void setRoot(RootEntityFromElement root) {
+		Helper.verifyNotFrozen( frozen, this );
 		if ( this.root != null ) {
 			// we already had a root defined...
 			if ( this.root == root ) {
@@ -58,9 +62,17 @@ public class FromElementSpace {
 	}
 
 	public void addJoin(JoinedFromElement join) {
+		Helper.verifyNotFrozen( frozen, this );
 		if ( joins == null ) {
 			joins = new ArrayList<JoinedFromElement>();
 		}
 		joins.add( join );
 	}
+
+	public void freeze() {
+		if ( !frozen ) {
+			joins = Helper.freezeList( joins );
+			frozen = true;
+		}
+	}
 }
@@ -0,0 +1,71 @@
+/*
+ * Hibernate, Relational Persistence for Idiomatic Java
+ *
+ * License: Apache License, Version 2.0
+ * See the LICENSE file in the root directory or visit http://www.apache.org/licenses/LICENSE-2.0
+ */
+package org.hibernate.sqm.query.from;
+
+import java.util.Arrays;
+
+/**
+ * The FromElements of a statement, in an array indexed by their (dense)
+ * {@link FromElement#getUniqueId() unique ids}.
+ * <p/>
+ * Not thread-safe.
+ *
+ * @author agent
+ */
+public class FromElementTable {
+	private FromElement[] fromElements = new FromElement[8];
+	private int size;
+
+	/**
+	 * Registers the FromElement under its unique id
+	 *
+	 * @param fromElement The FromElement
+	 *
+	 * @return The FromElement previously registered under the same id, or {@code null}
+	 */
+	public FromElement put(FromElement fromElement) {
+		return put( fromElement.getUniqueId(), fromElement );
+	}
+
+	/**
+	 * Registers a FromElement under the given unique id, which need not be its own (e.g. a copy
+	 * under the id of its original).
+	 *
+	 * @param uniqueId The unique id
+	 * @param fromElement The FromElement
+	 *
+	 * @return The FromElement previously registered under the same id, or {@code null}
+	 */
+	public FromElement put(int uniqueId, FromElement fromElement) {
+		if ( uniqueId >= fromElements.length ) {
+			fromElements = Arrays.copyOf( fromElements, Math.max( uniqueId + 1, fromElements.length * 2 ) );
+		}
+		final FromElement previous = fromElements[uniqueId];
+		fromElements[uniqueId] = fromElement;
+		if ( uniqueId >= size ) {
+			size = uniqueId + 1;
+		}
+		return previous;
+	}
+
+	/**
+	 * @param uniqueId The unique id
+	 *
+	 * @return The FromElement registered under the id, or {@code null}
+	 */
+	public FromElement get(int uniqueId) {
+		return uniqueId >= 0 && uniqueId < size ? fromElements[uniqueId] : null;
+	}
+
+	/**
+	 * @return The registered FromElements, indexed by unique id; an array just large enough for the
+	 * highest id.
+	 */
+	public FromElement[] toArray() {
+		return Arrays.copyOf( fromElements, size );
+	}
+}
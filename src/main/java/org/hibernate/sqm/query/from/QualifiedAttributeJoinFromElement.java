@@ -39,7 +39,7 @@ public class QualifiedAttributeJoinFromElement
 
 	public QualifiedAttributeJoinFromElement(
 			FromElementSpace fromElementSpace,
-			String uid,
+			int uid,
 			String alias,
 			Attribute joinedAttributeDescriptor,
 			EntityType intrinsicSubclassIndicator,
@@ -133,6 +133,7 @@ public class QualifiedAttributeJoinFromElement
 	}
 
 	public void setOnClausePredicate(Predicate predicate) {
+		verifyNotFrozen();
 		log.tracef(
 				"Setting join predicate [%s] (was [%s])",
 				predicate.toString(),
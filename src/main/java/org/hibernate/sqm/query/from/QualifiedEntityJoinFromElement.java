@@ -24,7 +24,7 @@ public class QualifiedEntityJoinFromElement
 
 	public QualifiedEntityJoinFromElement(
 			FromElementSpace fromElementSpace,
-			String uid,
+			int uid,
 			String alias,
 			EntityType joinedEntityDescriptor,
 			JoinType joinType) {
@@ -52,6 +52,7 @@ public class QualifiedEntityJoinFromElement
 	}
 
 	public void setOnClausePredicate(Predicate predicate) {
+		verifyNotFrozen();
 		this.onClausePredicate = predicate;
 	}
 
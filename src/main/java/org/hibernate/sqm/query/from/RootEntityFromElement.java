@@ -16,7 +16,7 @@ import org.hibernate.sqm.domain.EntityType;
 public class RootEntityFromElement extends AbstractFromElement {
 	public RootEntityFromElement(
 			FromElementSpace fromElementSpace,
-			String uid,
+			int uid,
 			String alias,
 			EntityType entityTypeDescriptor) {
 		super( fromElementSpace, uid, alias, entityTypeDescriptor, entityTypeDescriptor, alias );
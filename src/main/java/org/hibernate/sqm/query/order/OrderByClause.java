@@ -10,6 +10,7 @@ import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
 
+import org.hibernate.sqm.query.Helper;
 import org.hibernate.sqm.query.expression.Expression;
 
 /**
@@ -17,11 +18,13 @@ import org.hibernate.sqm.query.expression.Expression;
  */
 public class OrderByClause {
 	private List<SortSpecification> sortSpecifications;
+	private boolean frozen;
 
 	public OrderByClause() {
 	}
 
 	public OrderByClause addSortSpecification(SortSpecification sortSpecification) {
+		Helper.verifyNotFrozen( frozen, this );
 		if ( sortSpecifications == null ) {
 			sortSpecifications = new ArrayList<SortSpecification>();
 		}
@@ -38,8 +41,18 @@ public class OrderByClause {
 		if ( sortSpecifications == null ) {
 			return Collections.emptyList();
 		}
+		else if ( frozen ) {
+			return sortSpecifications;
+		}
 		else {
 			return Collections.unmodifiableList( sortSpecifications );
 		}
 	}
+
+	public void freeze() {
+		if ( !frozen ) {
+			sortSpecifications = Helper.freezeList( sortSpecifications );
+			frozen = true;
+		}
+	}
 }
@@ -9,6 +9,8 @@ package org.hibernate.sqm.query.predicate;
 import org.hibernate.sqm.SemanticQueryWalker;
 
 /**
+ * A binary junction; the HQL and criteria interpreters build n-ary {@link JunctionPredicate}s instead.
+ *
  * @author Steve Ebersole
  */
 public class AndPredicate implements Predicate {
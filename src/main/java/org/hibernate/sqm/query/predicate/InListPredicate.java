@@ -9,8 +9,8 @@ package org.hibernate.sqm.query.predicate;
 import java.util.ArrayList;
 import java.util.List;
 
-import org.hibernate.sqm.Helper;
 import org.hibernate.sqm.SemanticQueryWalker;
+import org.hibernate.sqm.query.Helper;
 import org.hibernate.sqm.query.expression.Expression;
 
 /**
@@ -18,15 +18,16 @@ import org.hibernate.sqm.query.expression.Expression;
  */
 public class InListPredicate implements InPredicate {
 	private final Expression testExpression;
-	private final List<Expression> listExpressions;
+	private List<Expression> listExpressions;
 	private final boolean negated;
+	private boolean frozen;
 
 	public InListPredicate(Expression testExpression) {
 		this( testExpression, new ArrayList<Expression>() );
 	}
 
 	public InListPredicate(Expression testExpression, Expression... listExpressions) {
-		this( testExpression, Helper.toExpandableList( listExpressions ) );
+		this( testExpression, org.hibernate.sqm.Helper.toExpandableList( listExpressions ) );
 	}
 
 	public InListPredicate(
@@ -54,9 +55,17 @@ public class InListPredicate implements InPredicate {
 	}
 
 	public void addExpression(Expression expression) {
+		Helper.verifyNotFrozen( frozen, this );
 		listExpressions.add( expression );
 	}
 
+	public void freeze() {
+		if ( !frozen ) {
+			listExpressions = Helper.freezeList( listExpressions );
+			frozen = true;
+		}
+	}
+
 	@Override
 	public boolean isNegated() {
 		return negated;
@@ -0,0 +1,64 @@
+/*
+ * Hibernate, Relational Persistence for Idiomatic Java
+ *
+ * License: Apache License, Version 2.0
+ * See the LICENSE file in the root directory or visit http://www.apache.org/licenses/LICENSE-2.0
+ */
+package org.hibernate.sqm.query.predicate;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.hibernate.sqm.SemanticQueryWalker;
+import org.hibernate.sqm.query.Helper;
+
+/**
+ * An n-ary conjunction (AND) or disjunction (OR) of predicates.  A chain like {@code a or b or c or d}
+ * is a single junction of 4 predicates, rather than nested binary {@link OrPredicate}s.
+ *
+ * @author agent
+ */
+public class JunctionPredicate implements Predicate {
+	public enum Nature {
+		CONJUNCTION,
+		DISJUNCTION
+	}
+
+	private final Nature nature;
+	private List<Predicate> predicates;
+	private boolean frozen;
+
+	public JunctionPredicate(Nature nature) {
+		this( nature, new ArrayList<Predicate>() );
+	}
+
+	public JunctionPredicate(Nature nature, List<Predicate> predicates) {
+		this.nature = nature;
+		this.predicates = predicates;
+	}
+
+	public Nature getNature() {
+		return nature;
+	}
+
+	public List<Predicate> getPredicates() {
+		return predicates;
+	}
+
+	public void addPredicate(Predicate predicate) {
+		Helper.verifyNotFrozen( frozen, this );
+		predicates.add( predicate );
+	}
+
+	public void freeze() {
+		if ( !frozen ) {
+			predicates = Helper.freezeList( predicates );
+			frozen = true;
+		}
+	}
+
+	@Override
+	public <T> T accept(SemanticQueryWalker<T> walker) {
+		return walker.visitJunctionPredicate( this );
+	}
+}
@@ -0,0 +1,299 @@
+/*
+ * Hibernate, Relational Persistence for Idiomatic Java
+ *
+ * License: Apache License, Version 2.0
+ * See the LICENSE file in the root directory or visit http://www.apache.org/licenses/LICENSE-2.0
+ */
+package org.hibernate.sqm.query.predicate;
+
+import java.util.List;
+
+import org.hibernate.sqm.SemanticQueryWalker;
+import org.hibernate.sqm.domain.BasicType;
+import org.hibernate.sqm.domain.Type;
+import org.hibernate.sqm.query.expression.Expression;
+import org.hibernate.sqm.query.expression.LiteralExpression;
+import org.hibernate.sqm.query.expression.LiteralIntegerExpression;
+import org.hibernate.sqm.query.expression.LiteralLongExpression;
+import org.hibernate.sqm.query.expression.LiteralStringExpression;
+import org.hibernate.sqm.query.expression.UnaryOperationExpression;
+
+/**
+ * An IN predicate whose list is made up of literals all of the same kind (integer, long or string) and
+ * type.  Rather than a literal node per value, the values are kept in a single array : {@code int[]},
+ * {@code long[]} or {@code String[]}.  Large literal lists ({@code where e.id in (1, 2, ..., 20000)})
+ * take a fraction of the memory this way.
+ * <p/>
+ * The values are accessed by index, which does not allocate :
+ * <pre>
+ *     for ( int i = 0; i < predicate.getSize(); i++ ) {
+ *         final long value = predicate.getLongValue( i );
+ *         ...
+ *     }
+ * </pre>
+ * Unlike {@link InListPredicate} this predicate is immutable.
+ *
+ * @author agent
+ */
+public class LiteralInListPredicate implements InPredicate {
+	public enum ValueKind {
+		INTEGER,
+		LONG,
+		STRING
+	}
+
+	private final Expression testExpression;
+	private final ValueKind valueKind;
+	private final BasicType valueType;
+	private final int[] intValues;
+	private final long[] longValues;
+	private final String[] stringValues;
+	private final boolean negated;
+
+	/**
+	 * Creates the predicate for a list of integer literals.  The array is used as-is, not copied.
+	 */
+	public LiteralInListPredicate(Expression testExpression, BasicType<Integer> valueType, int[] values, boolean negated) {
+		this( testExpression, ValueKind.INTEGER, valueType, values, null, null, negated );
+	}
+
+	/**
+	 * Creates the predicate for a list of long literals.  The array is used as-is, not copied.
+	 */
+	public LiteralInListPredicate(Expression testExpression, BasicType<Long> valueType, long[] values, boolean negated) {
+		this( testExpression, ValueKind.LONG, valueType, null, values, null, negated );
+	}
+
+	/**
+	 * Creates the predicate for a list of string literals.  The array is used as-is, not copied.
+	 */
+	public LiteralInListPredicate(Expression testExpression, BasicType<String> valueType, String[] values, boolean negated) {
+		this( testExpression, ValueKind.STRING, valueType, null, null, values, negated );
+	}
+
+	/**
+	 * Creates a predicate testing another expression against the (shared) values of the given predicate.
+	 */
+	public LiteralInListPredicate(Expression testExpression, LiteralInListPredicate values) {
+		this(
+				testExpression,
+				values.valueKind,
+				values.valueType,
+				values.intValues,
+				values.longValues,
+				values.stringValues,
+				values.negated
+		);
+	}
+
+	private LiteralInListPredicate(
+			Expression testExpression,
+			ValueKind valueKind,
+			BasicType valueType,
+			int[] intValues,
+			long[] longValues,
+			String[] stringValues,
+			boolean negated) {
+		this.testExpression = testExpression;
+		this.valueKind = valueKind;
+		this.valueType = valueType;
+		this.intValues = intValues;
+		this.longValues = longValues;
+		this.stringValues = stringValues;
+		this.negated = negated;
+	}
+
+	/**
+	 * Builds the compact equivalent of an {@link InListPredicate} over the given list, if it can be
+	 * represented as one.
+	 *
+	 * @param testExpression The expression tested against the list
+	 * @param listExpressions The list
+	 * @param negated Whether the predicate is negated
+	 *
+	 * @return The predicate, or {@code null} if the list is empty, or not made up of integer, long or
+	 * string literals all of the same kind and type (numeric literals may be signed)
+	 */
+	@SuppressWarnings("unchecked")
+	public static LiteralInListPredicate from(
+			Expression testExpression,
+			List<Expression> listExpressions,
+			boolean negated) {
+		if ( listExpressions.isEmpty() ) {
+			return null;
+		}
+
+		final int size = listExpressions.size();
+		final Expression first = unsigned( listExpressions.get( 0 ) );
+		if ( first instanceof LiteralIntegerExpression ) {
+			final int[] values = new int[size];
+			for ( int i = 0; i < size; i++ ) {
+				final Expression literal = unsigned( listExpressions.get( i ) );
+				if ( !isSameKindAndType( first, literal ) ) {
+					return null;
+				}
+				final int value = ( (LiteralIntegerExpression) literal ).getLiteralValue();
+				values[i] = isNegative( listExpressions.get( i ) ) ? -value : value;
+			}
+			return new LiteralInListPredicate(
+					testExpression,
+					( (LiteralIntegerExpression) first ).getExpressionType(),
+					values,
+					negated
+			);
+		}
+		else if ( first instanceof LiteralLongExpression ) {
+			final long[] values = new long[size];
+			for ( int i = 0; i < size; i++ ) {
+				final Expression literal = unsigned( listExpressions.get( i ) );
+				if ( !isSameKindAndType( first, literal ) ) {
+					return null;
+				}
+				final long value = ( (LiteralLongExpression) literal ).getLiteralValue();
+				values[i] = isNegative( listExpressions.get( i ) ) ? -value : value;
+			}
+			return new LiteralInListPredicate(
+					testExpression,
+					( (LiteralLongExpression) first ).getExpressionType(),
+					values,
+					negated
+			);
+		}
+		else if ( listExpressions.get( 0 ) instanceof LiteralStringExpression ) {
+			final String[] values = new String[size];
+			for ( int i = 0; i < size; i++ ) {
+				if ( !isSameKindAndType( first, listExpressions.get( i ) ) ) {
+					return null;
+				}
+				values[i] = ( (LiteralStringExpression) listExpressions.get( i ) ).getLiteralValue();
+			}
+			return new LiteralInListPredicate(
+					testExpression,
+					( (LiteralStringExpression) first ).getExpressionType(),
+					values,
+					negated
+			);
+		}
+
+		return null;
+	}
+
+	/**
+	 * Numeric literals with a sign ({@code -1}) are unary operations over the (unsigned) literal
+	 */
+	private static Expression unsigned(Expression expression) {
+		if ( expression instanceof UnaryOperationExpression ) {
+			return ( (UnaryOperationExpression) expression ).getOperand();
+		}
+		return expression;
+	}
+
+	private static boolean isNegative(Expression expression) {
+		return expression instanceof UnaryOperationExpression
+				&& ( (UnaryOperationExpression) expression ).getOperation() == UnaryOperationExpression.Operation.MINUS;
+	}
+
+	private static boolean isSameKindAndType(Expression first, Expression expression) {
+		if ( expression.getClass() != first.getClass() ) {
+			return false;
+		}
+		final Type firstType = first.getExpressionType();
+		final Type type = expression.getExpressionType();
+		return firstType == null ? type == null : firstType.equals( type );
+	}
+
+	@Override
+	public Expression getTestExpression() {
+		return testExpression;
+	}
+
+	public ValueKind getValueKind() {
+		return valueKind;
+	}
+
+	/**
+	 * The type of each of the values (the type of the literals they were given as)
+	 */
+	public BasicType getValueType() {
+		return valueType;
+	}
+
+	/**
+	 * The number of values in the list
+	 */
+	public int getSize() {
+		switch ( valueKind ) {
+			case INTEGER: {
+				return intValues.length;
+			}
+			case LONG: {
+				return longValues.length;
+			}
+			default: {
+				return stringValues.length;
+			}
+		}
+	}
+
+	/**
+	 * Access an {@link ValueKind#INTEGER} value
+	 */
+	public int getIntValue(int index) {
+		if ( valueKind != ValueKind.INTEGER ) {
+			throw new IllegalStateException( "IN list values are of kind " + valueKind );
+		}
+		return intValues[index];
+	}
+
+	/**
+	 * Access an {@link ValueKind#INTEGER} or {@link ValueKind#LONG} value
+	 */
+	public long getLongValue(int index) {
+		if ( valueKind == ValueKind.INTEGER ) {
+			return intValues[index];
+		}
+		if ( valueKind != ValueKind.LONG ) {
+			throw new IllegalStateException( "IN list values are of kind " + valueKind );
+		}
+		return longValues[index];
+	}
+
+	/**
+	 * Access a {@link ValueKind#STRING} value
+	 */
+	public String getStringValue(int index) {
+		if ( valueKind != ValueKind.STRING ) {
+			throw new IllegalStateException( "IN list values are of kind " + valueKind );
+		}
+		return stringValues[index];
+	}
+
+	/**
+	 * Access a value as a literal node.  Creates a new node every time; meant for consumers which
+	 * need not care about the compact representation.
+	 */
+	@SuppressWarnings("unchecked")
+	public LiteralExpression getValueExpression(int index) {
+		switch ( valueKind ) {
+			case INTEGER: {
+				return new LiteralIntegerExpression( intValues[index], valueType );
+			}
+			case LONG: {
+				return new LiteralLongExpression( longValues[index], valueType );
+			}
+			default: {
+				return new LiteralStringExpression( stringValues[index], valueType );
+			}
+		}
+	}
+
+	@Override
+	public boolean isNegated() {
+		return negated;
+	}
+
+	@Override
+	public <T> T accept(SemanticQueryWalker<T> walker) {
+		return walker.visitLiteralInListPredicate( this );
+	}
+}
@@ -6,11 +6,14 @@
  */
 package org.hibernate.sqm.query.predicate;
 
+import org.hibernate.sqm.query.Helper;
+
 /**
  * @author Steve Ebersole
  */
 public class WhereClause {
 	private Predicate predicate;
+	private boolean frozen;
 
 	public WhereClause() {
 	}
@@ -24,9 +27,14 @@ public class WhereClause {
 	}
 
 	public void setPredicate(Predicate predicate) {
+		Helper.verifyNotFrozen( frozen, this );
 		this.predicate = predicate;
 	}
 
+	public void freeze() {
+		frozen = true;
+	}
+
 	@Override
 	public String toString() {
 		return "where " + predicate;
@@ -14,6 +14,7 @@ import org.hibernate.sqm.domain.BasicType;
 
 import org.hibernate.sqm.SemanticQueryWalker;
 import org.hibernate.sqm.domain.Type;
+import org.hibernate.sqm.query.Helper;
 import org.hibernate.sqm.query.expression.Expression;
 
 import org.jboss.logging.Logger;
@@ -53,6 +54,7 @@ public class DynamicInstantiation implements Expression, AliasedExpressionContai
 
 	private final DynamicInstantiationTarget instantiationTarget;
 	private List<DynamicInstantiationArgument> arguments;
+	private boolean frozen;
 
 	private DynamicInstantiation(DynamicInstantiationTarget instantiationTarget) {
 		this.instantiationTarget = instantiationTarget;
@@ -77,6 +79,7 @@ public class DynamicInstantiation implements Expression, AliasedExpressionContai
 	}
 
 	public void addArgument(DynamicInstantiationArgument argument) {
+		Helper.verifyNotFrozen( frozen, this );
 		if ( instantiationTarget.getNature() == DynamicInstantiationTarget.Nature.LIST ) {
 			// really should not have an alias...
 			if ( argument.getAlias() != null ) {
@@ -126,6 +129,15 @@ public class DynamicInstantiation implements Expression, AliasedExpressionContai
 		return new DynamicInstantiation( getInstantiationTarget() );
 	}
 
+	public void freeze() {
+		if ( !frozen ) {
+			if ( arguments != null ) {
+				arguments = Helper.freezeList( arguments );
+			}
+			frozen = true;
+		}
+	}
+
 	private static class DynamicInstantiationTargetImpl implements DynamicInstantiationTarget {
 		private final Nature nature;
 		private final Type typeDescriptor;
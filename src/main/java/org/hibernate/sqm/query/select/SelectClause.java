@@ -11,6 +11,7 @@ import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
 
+import org.hibernate.sqm.query.Helper;
 import org.hibernate.sqm.query.expression.Expression;
 
 /**
@@ -21,6 +22,7 @@ import org.hibernate.sqm.query.expression.Expression;
 public class SelectClause implements AliasedExpressionContainer<Selection> {
 	private final boolean distinct;
 	private List<Selection> selections;
+	private boolean frozen;
 
 	public SelectClause(boolean distinct) {
 		this.distinct = distinct;
@@ -43,12 +45,16 @@ public class SelectClause implements AliasedExpressionContainer<Selection> {
 		if ( selections == null ) {
 			return Collections.emptyList();
 		}
+		else if ( frozen ) {
+			return selections;
+		}
 		else {
 			return Collections.unmodifiableList( selections );
 		}
 	}
 
 	public void addSelection(Selection selection) {
+		Helper.verifyNotFrozen( frozen, this );
 		if ( selections == null ) {
 			selections = new ArrayList<Selection>();
 		}
@@ -66,4 +72,11 @@ public class SelectClause implements AliasedExpressionContainer<Selection> {
 	public void add(Selection aliasExpression) {
 		addSelection( aliasExpression );
 	}
+
+	public void freeze() {
+		if ( !frozen ) {
+			selections = Helper.freezeList( selections );
+			frozen = true;
+		}
+	}
 }
@@ -10,6 +10,7 @@ import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
 
+import org.hibernate.sqm.query.Helper;
 import org.hibernate.sqm.query.expression.AttributeReferenceExpression;
 import org.hibernate.sqm.query.expression.Expression;
 
@@ -18,16 +19,25 @@ import org.hibernate.sqm.query.expression.Expression;
  */
 public class SetClause {
 	private List<Assignment> assignments = new ArrayList<Assignment>();
+	private boolean frozen;
 
 	public List<Assignment> getAssignments() {
-		return Collections.unmodifiableList( assignments );
+		return frozen ? assignments : Collections.unmodifiableList( assignments );
 	}
 
 	public void addAssignment(Assignment assignment) {
+		Helper.verifyNotFrozen( frozen, this );
 		assignments.add( assignment );
 	}
 
 	public void addAssignment(AttributeReferenceExpression stateField, Expression value) {
 		addAssignment( new Assignment( stateField, value ) );
 	}
+
+	public void freeze() {
+		if ( !frozen ) {
+			assignments = Helper.freezeList( assignments );
+			frozen = true;
+		}
+	}
 }
@@ -6,14 +6,26 @@
  */
 package org.hibernate.sqm.parser.internal.hql.single;
 
+import java.util.Arrays;
+
+import org.hibernate.sqm.SemanticQueryInterpreter;
+import org.hibernate.sqm.codec.StatementCodec;
 import org.hibernate.sqm.domain.DomainMetamodel;
 import org.hibernate.sqm.domain.SingularAttribute;
+import org.hibernate.sqm.parser.HqlInterpretationMode;
+import org.hibernate.sqm.parser.HqlParseProfile;
+import org.hibernate.sqm.parser.HqlPredictionMode;
+import org.hibernate.sqm.parser.SemanticException;
+import org.hibernate.sqm.parser.SyntaxException;
 import org.hibernate.sqm.parser.internal.ParsingContext;
 import org.hibernate.sqm.parser.internal.hql.HqlParseTreeBuilder;
 import org.hibernate.sqm.parser.internal.hql.SemanticQueryBuilder;
 import org.hibernate.sqm.parser.internal.hql.antlr.HqlParser;
 import org.hibernate.sqm.path.FromElementBinding;
+import org.hibernate.sqm.query.DeleteStatement;
 import org.hibernate.sqm.query.SelectStatement;
+import org.hibernate.sqm.query.Statement;
+import org.hibernate.sqm.query.predicate.LiteralInListPredicate;
 import org.hibernate.sqm.query.select.Selection;
 
 import org.hibernate.test.query.parser.ConsumerContextImpl;
@@ -26,8 +38,10 @@ import org.junit.Test;
 import org.junit.rules.ExpectedException;
 
 import static org.hamcrest.CoreMatchers.instanceOf;
+import static org.junit.Assert.assertArrayEquals;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertThat;
+import static org.junit.Assert.fail;
 
 /**
  * @author Steve Ebersole
@@ -105,6 +119,123 @@ public class SinglePassSmokeTest {
 		assertThat( selection.getExpression(), instanceOf( FromElementBinding.class ) );
 	}
 
+	@Test
+	public void testSameInterpretationAsTwoPass() {
+		assertSameInterpretation( "select o from Entity o" );
+		assertSameInterpretation( "from Entity" );
+		assertSameInterpretation( "from Entity o where o.basic = 1 and o.basic1 <> 2 or not o.basic2 = 'x'" );
+		assertSameInterpretation( "select o.basic, o.basic2 from Entity o where o.basic > 1 and ( o.basic < 10 or o.basic1 >= 2 )" );
+		assertSameInterpretation( "select o.basic + o.basic1 * 2 - -o.basic / 3 % 2 from Entity o where o.basic <= +5" );
+		assertSameInterpretation( "from Entity o where o.basic2 || o.basic3 = 'ab' and o.basic2 like 'a%' escape '!'" );
+		assertSameInterpretation( "from Entity o where o.basic2 like :pattern and o.basic3 is null and o.basic4 is not null" );
+		assertSameInterpretation( "from Entity o where o.basic between ?1 and ?2 order by o.basic desc, o.basic2" );
+		assertSameInterpretation( "from Entity o where o.basic in (1, 2, 3) and not o.basic1 in (4)" );
+		assertSameInterpretation( "from Entity o where o.basic in (select e.basic1 from Entity2 e where e.basic1 > o.basic)" );
+		assertSameInterpretation( "from Entity o where o.basic = (select max(e.basic1) from Entity2 e)" );
+		assertSameInterpretation( "select o, e from Entity o, Entity2 e where o.basic = e.basic1" );
+		assertSameInterpretation( "select t from Trip t join t.collectionLegs l where t.collectionLegs is empty" );
+		assertSameInterpretation( "select case when o.basic = 1 then 'a' else 'b' end from Entity o" );
+		assertSameInterpretation( "select coalesce(o.basic2, 'x'), nullif(o.basic2, o.basic3) from Entity o" );
+		assertSameInterpretation( "delete from Entity o where o.basic = 1 or o.basic1 in (1, 2)" );
+		assertSameInterpretation( "update Entity o set o.basic = 2 where o.basic = 1" );
+	}
+
+	@Test
+	public void testLargeInList() {
+		final StringBuilder query = new StringBuilder( "from Entity o where o.basic in (" );
+		for ( int i = 0; i < 5000; i++ ) {
+			if ( i > 0 ) {
+				query.append( ", " );
+			}
+			query.append( i );
+		}
+		query.append( ")" );
+
+		final Statement statement = assertSameInterpretation( query.toString() );
+		final LiteralInListPredicate predicate = (LiteralInListPredicate) ( (SelectStatement) statement ).getQuerySpec()
+				.getWhereClause()
+				.getPredicate();
+		assertEquals( 5000, predicate.getSize() );
+		assertEquals( 4999, predicate.getIntValue( 4999 ) );
+	}
+
+	@Test
+	public void testDelete() {
+		consumerContext.setHqlInterpretationMode( HqlInterpretationMode.SINGLE_PASS );
+		final Statement statement = SemanticQueryInterpreter.interpret( "delete Entity o where o.basic = 1", consumerContext );
+		assertThat( statement, instanceOf( DeleteStatement.class ) );
+		assertEquals(
+				"o",
+				( (DeleteStatement) statement ).getEntityFromElement().getIdentificationVariable()
+		);
+	}
+
+	@Test
+	public void testSyntaxErrorFallsBackToTwoPass() {
+		// the (default) lenient profile recovers from syntax errors, which only the two-pass interpretation can
+		assertSameInterpretation( "select o.basic from Entity o where o.basic = = 1" );
+	}
+
+	@Test
+	public void testSyntaxErrorReportedWhenFailingFast() {
+		consumerContext.setHqlInterpretationMode( HqlInterpretationMode.SINGLE_PASS );
+		consumerContext.setHqlParseProfile( HqlParseProfile.FAIL_FAST );
+
+		expectedException.expect( SyntaxException.class );
+		SemanticQueryInterpreter.interpret( "select o.basic from Entity o where o.basic = = 1", consumerContext );
+	}
+
+	@Test
+	public void testSyntaxErrorReportedBeforeSemanticError() {
+		// same as the two-pass interpretation, even though the semantic error comes first
+		consumerContext.setHqlInterpretationMode( HqlInterpretationMode.SINGLE_PASS );
+		consumerContext.setHqlParseProfile( HqlParseProfile.FAIL_FAST );
+
+		expectedException.expect( SyntaxException.class );
+		SemanticQueryInterpreter.interpret( "from Entity o where o.doesNotExist = 1 and o.basic = = 2", consumerContext );
+	}
+
+	@Test
+	public void testSyntaxErrorReportedWithoutReparse() {
+		consumerContext.setHqlInterpretationMode( HqlInterpretationMode.SINGLE_PASS );
+		consumerContext.setHqlParseProfile( HqlParseProfile.FAIL_FAST );
+		consumerContext.setHqlPredictionMode( HqlPredictionMode.LL );
+
+		final long parseCount = SemanticQueryInterpreter.getHqlParseStatistics().getLlParseCount();
+		try {
+			SemanticQueryInterpreter.interpret( "select o.basic from Entity o where o.basic = = 1", consumerContext );
+			fail( "Expecting a SyntaxException" );
+		}
+		catch (SyntaxException expected) {
+		}
+		assertEquals( parseCount + 1, SemanticQueryInterpreter.getHqlParseStatistics().getLlParseCount() );
+	}
+
+	@Test
+	public void testSemanticErrorReported() {
+		consumerContext.setHqlInterpretationMode( HqlInterpretationMode.SINGLE_PASS );
+
+		expectedException.expect( SemanticException.class );
+		SemanticQueryInterpreter.interpret( "select o.doesNotExist from Entity o where o.basic = 1", consumerContext );
+	}
+
+	private Statement assertSameInterpretation(String query) {
+		consumerContext.setHqlInterpretationMode( HqlInterpretationMode.TWO_PASS );
+		final Statement twoPass = SemanticQueryInterpreter.interpret( query, consumerContext );
+
+		consumerContext.setHqlInterpretationMode( HqlInterpretationMode.SINGLE_PASS );
+		final Statement singlePass = SemanticQueryInterpreter.interpret( query, consumerContext );
+
+		final StatementCodec codec = new StatementCodec( consumerContext.getDomainMetamodel() );
+		final byte[] expected = codec.encode( twoPass );
+		final byte[] actual = codec.encode( singlePass );
+		if ( !Arrays.equals( expected, actual ) ) {
+			assertEquals( query, codec.decode( expected ).toString(), codec.decode( actual ).toString() );
+		}
+		assertArrayEquals( query, expected, actual );
+		return singlePass;
+	}
+
 	private SelectStatement interpret(String query) {
 		final HqlParser parser = HqlParseTreeBuilder.INSTANCE.parseHql( query );
 
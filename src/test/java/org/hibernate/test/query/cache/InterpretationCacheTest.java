@@ -0,0 +1,123 @@
+/*
+ * Hibernate, Relational Persistence for Idiomatic Java
+ *
+ * License: Apache License, Version 2.0
+ * See the LICENSE file in the root directory or visit http://www.apache.org/licenses/LICENSE-2.0
+ */
+package org.hibernate.test.query.cache;
+
+import org.hibernate.sqm.SemanticQueryInterpreter;
+import org.hibernate.sqm.cache.InterpretationCache;
+import org.hibernate.sqm.parser.HqlParseProfile;
+import org.hibernate.sqm.query.Statement;
+
+import org.hibernate.test.query.parser.ConsumerContextImpl;
+import org.hibernate.test.sqm.domain.EntityTypeImpl;
+import org.hibernate.test.sqm.domain.ExplicitDomainMetamodel;
+import org.hibernate.test.sqm.domain.StandardBasicTypeDescriptors;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+
+/**
+ * @author agent
+ */
+public class InterpretationCacheTest {
+	@Test
+	public void testHitsAndMisses() {
+		final ConsumerContextImpl consumerContext = new ConsumerContextImpl( buildMetamodel() );
+		final InterpretationCache cache = new InterpretationCache( 10 );
+
+		final Statement first = interpret( "select a.basic from Something a", consumerContext, cache );
+		assertEquals( 0, cache.getHitCount() );
+		assertEquals( 1, cache.getMissCount() );
+		assertEquals( 1, cache.size() );
+
+		final Statement second = interpret( "select a.basic from Something a", consumerContext, cache );
+		assertSame( first, second );
+		assertEquals( 1, cache.getHitCount() );
+		assertEquals( 1, cache.getMissCount() );
+
+		interpret( "select a.basic2 from Something a", consumerContext, cache );
+		assertEquals( 2, cache.getMissCount() );
+		assertEquals( 2, cache.size() );
+
+		cache.clear();
+		assertEquals( 0, cache.size() );
+		assertNotSame( first, interpret( "select a.basic from Something a", consumerContext, cache ) );
+	}
+
+	@Test
+	public void testKeyIncludesStrictnessParseProfileAndMetamodel() {
+		final ConsumerContextImpl consumerContext = new ConsumerContextImpl( buildMetamodel() );
+		final InterpretationCache cache = new InterpretationCache( 10 );
+
+		final Statement lenient = interpret( "select a.basic from Something a", consumerContext, cache );
+
+		consumerContext.enableStrictJpaCompliance();
+		final Statement strict = interpret( "select a.basic from Something a", consumerContext, cache );
+		assertNotSame( lenient, strict );
+
+		consumerContext.setHqlParseProfile( HqlParseProfile.FAIL_FAST );
+		final Statement failFast = interpret( "select a.basic from Something a", consumerContext, cache );
+		assertNotSame( strict, failFast );
+
+		final ConsumerContextImpl otherContext = new ConsumerContextImpl( buildMetamodel() );
+		final Statement otherMetamodel = interpret( "select a.basic from Something a", otherContext, cache );
+		assertNotSame( lenient, otherMetamodel );
+
+		assertEquals( 4, cache.getMissCount() );
+		assertEquals( 0, cache.getHitCount() );
+	}
+
+	@Test
+	public void testEviction() {
+		final ConsumerContextImpl consumerContext = new ConsumerContextImpl( buildMetamodel() );
+		final InterpretationCache cache = new InterpretationCache( 2 );
+
+		final Statement frequent = interpret( "select a.basic from Something a", consumerContext, cache );
+		interpret( "select a.basic1 from Something a", consumerContext, cache );
+		// reference the first entry so that the clock hand gives it a second chance
+		interpret( "select a.basic from Something a", consumerContext, cache );
+		interpret( "select a.basic2 from Something a", consumerContext, cache );
+
+		assertEquals( 2, cache.size() );
+		assertEquals( 1, cache.getEvictionCount() );
+		assertSame( frequent, interpret( "select a.basic from Something a", consumerContext, cache ) );
+	}
+
+	@Test
+	public void testNullCacheIsAllowed() {
+		final ConsumerContextImpl consumerContext = new ConsumerContextImpl( buildMetamodel() );
+		assertNotSame(
+				interpret( "select a.basic from Something a", consumerContext, null ),
+				interpret( "select a.basic from Something a", consumerContext, null )
+		);
+	}
+
+	private static Statement interpret(String query, ConsumerContextImpl consumerContext, InterpretationCache cache) {
+		return SemanticQueryInterpreter.interpret( query, consumerContext, cache );
+	}
+
+	private static ExplicitDomainMetamodel buildMetamodel() {
+		ExplicitDomainMetamodel metamodel = new ExplicitDomainMetamodel();
+
+		EntityTypeImpl entityType = metamodel.makeEntityType( "com.acme.Something" );
+		entityType.makeSingularAttribute(
+				"basic",
+				StandardBasicTypeDescriptors.INSTANCE.LONG
+		);
+		entityType.makeSingularAttribute(
+				"basic1",
+				StandardBasicTypeDescriptors.INSTANCE.LONG
+		);
+		entityType.makeSingularAttribute(
+				"basic2",
+				StandardBasicTypeDescriptors.INSTANCE.LONG
+		);
+
+		return metamodel;
+	}
+}
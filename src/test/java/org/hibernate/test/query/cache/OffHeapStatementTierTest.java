@@ -0,0 +1,191 @@
+/*
+ * Hibernate, Relational Persistence for Idiomatic Java
+ *
+ * License: Apache License, Version 2.0
+ * See the LICENSE file in the root directory or visit http://www.apache.org/licenses/LICENSE-2.0
+ */
+package org.hibernate.test.query.cache;
+
+import org.hibernate.sqm.SemanticQueryInterpreter;
+import org.hibernate.sqm.cache.InterpretationCache;
+import org.hibernate.sqm.cache.InterpretationCacheKey;
+import org.hibernate.sqm.cache.OffHeapStatementTier;
+import org.hibernate.sqm.codec.StatementCodec;
+import org.hibernate.sqm.parser.HqlParseProfile;
+import org.hibernate.sqm.parser.QueryLimits;
+import org.hibernate.sqm.query.Statement;
+
+import org.hibernate.test.query.parser.ConsumerContextImpl;
+import org.hibernate.test.sqm.domain.EntityTypeImpl;
+import org.hibernate.test.sqm.domain.ExplicitDomainMetamodel;
+import org.hibernate.test.sqm.domain.StandardBasicTypeDescriptors;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * @author agent
+ */
+public class OffHeapStatementTierTest {
+	private final ExplicitDomainMetamodel metamodel = buildMetamodel();
+	private final ConsumerContextImpl consumerContext = new ConsumerContextImpl( metamodel );
+
+	@Test
+	public void testDemotionAndPromotion() {
+		final OffHeapStatementTier tier = new OffHeapStatementTier( new StatementCodec( metamodel ), 4096, 100, 1024 );
+		final InterpretationCache cache = new InterpretationCache( 1, tier );
+
+		final Statement first = interpret( "select a.basic from Something a", cache );
+		interpret( "select a.basic1 from Something a", cache );
+		assertEquals( 1, cache.getEvictionCount() );
+		assertEquals( 1, tier.size() );
+		assertEquals( 0, tier.getHitCount() );
+
+		// found off-heap, so no re-interpretation; promoted back on-heap (evicting the other entry)
+		final Statement promoted = interpret( "select a.basic from Something a", cache );
+		assertNotSame( first, promoted );
+		assertEquals( first.getFingerprint(), promoted.getFingerprint() );
+		assertTrue( promoted.isFrozen() );
+		assertEquals( 1, cache.getHitCount() );
+		assertEquals( 2, cache.getMissCount() );
+		assertEquals( 1, tier.getHitCount() );
+		assertEquals( 2, tier.size() );
+
+		assertSame( promoted, interpret( "select a.basic from Something a", cache ) );
+		assertEquals( 1, tier.getHitCount() );
+
+		cache.clear();
+		assertEquals( 0, cache.size() );
+		assertEquals( 0, tier.size() );
+		assertEquals( 0, tier.getUsedBytes() );
+	}
+
+	@Test
+	public void testKeyIncludesInterpretationSettingsAndMetamodel() {
+		final OffHeapStatementTier tier = new OffHeapStatementTier( new StatementCodec( metamodel ), 4096, 100, 1024 );
+		final Statement statement = SemanticQueryInterpreter.interpret( "select a.basic from Something a", consumerContext );
+
+		final InterpretationCacheKey lenient = new InterpretationCacheKey( "select a.basic from Something a", false, metamodel );
+		final InterpretationCacheKey strict = new InterpretationCacheKey( "select a.basic from Something a", true, metamodel );
+		final InterpretationCacheKey failFast = new InterpretationCacheKey(
+				"select a.basic from Something a",
+				false,
+				HqlParseProfile.FAIL_FAST,
+				QueryLimits.NONE,
+				metamodel
+		);
+		final InterpretationCacheKey limited = new InterpretationCacheKey(
+				"select a.basic from Something a",
+				false,
+				HqlParseProfile.STANDARD,
+				QueryLimits.NONE.withMaxJoinCount( 2 ),
+				metamodel
+		);
+		final InterpretationCacheKey foreign = new InterpretationCacheKey( "select a.basic from Something a", false, buildMetamodel() );
+
+		assertTrue( tier.put( lenient, statement ) );
+		assertFalse( tier.put( foreign, statement ) );
+		assertEquals( 1, tier.size() );
+
+		assertNotNull( tier.get( lenient ) );
+		assertNull( tier.get( strict ) );
+		assertNull( tier.get( failFast ) );
+		assertNull( tier.get( limited ) );
+		assertNull( tier.get( foreign ) );
+
+		// already kept
+		assertTrue( tier.put( lenient, statement ) );
+		assertEquals( 1, tier.size() );
+	}
+
+	@Test
+	public void testBoundedByEntries() {
+		final OffHeapStatementTier tier = new OffHeapStatementTier( new StatementCodec( metamodel ), 4096, 2, 4096 );
+		final Statement statement = SemanticQueryInterpreter.interpret( "select a.basic from Something a", consumerContext );
+
+		for ( int i = 0; i < 5; i++ ) {
+			assertTrue( tier.put( key( "select a.basic from Something a where a.basic = " + i ), statement ) );
+			assertTrue( tier.size() <= 2 );
+		}
+		assertNotNull( tier.get( key( "select a.basic from Something a where a.basic = 4" ) ) );
+		assertNull( tier.get( key( "select a.basic from Something a where a.basic = 0" ) ) );
+		assertTrue( tier.getEvictionCount() >= 3 );
+	}
+
+	@Test
+	public void testBoundedByBytes() {
+		final OffHeapStatementTier tier = new OffHeapStatementTier( new StatementCodec( metamodel ), 1024, 1000, 256 );
+		final Statement statement = SemanticQueryInterpreter.interpret( "select a.basic from Something a", consumerContext );
+
+		for ( int i = 0; i < 100; i++ ) {
+			assertTrue( tier.put( key( "select a.basic from Something a where a.basic = " + i ), statement ) );
+			assertTrue( tier.getUsedBytes() <= 1024 );
+			assertTrue( tier.getAllocatedBytes() <= 1024 );
+		}
+		assertTrue( tier.size() < 100 );
+		assertEquals( 100, tier.size() + tier.getEvictionCount() );
+
+		// the most recent entries survive, and still decode correctly
+		for ( int i = 99; i > 99 - 3; i-- ) {
+			assertEquals(
+					statement.getFingerprint(),
+					tier.get( key( "select a.basic from Something a where a.basic = " + i ) ).getFingerprint()
+			);
+		}
+		assertNull( tier.get( key( "select a.basic from Something a where a.basic = 0" ) ) );
+
+		// evicting slabs left every remaining entry reachable
+		int found = 0;
+		for ( int i = 0; i < 100; i++ ) {
+			if ( tier.get( key( "select a.basic from Something a where a.basic = " + i ) ) != null ) {
+				found++;
+			}
+		}
+		assertEquals( tier.size(), found );
+	}
+
+	@Test
+	public void testEntryLargerThanSlab() {
+		final OffHeapStatementTier tier = new OffHeapStatementTier( new StatementCodec( metamodel ), 64, 10, 64 );
+		final Statement statement = SemanticQueryInterpreter.interpret(
+				"select a.basic, a.basic1, a.basic2 from Something a where a.basic = 1 and a.basic1 = 2 and a.basic2 = 3",
+				consumerContext
+		);
+		assertFalse( tier.put( key( "q" ), statement ) );
+		assertEquals( 0, tier.size() );
+	}
+
+	private InterpretationCacheKey key(String query) {
+		return new InterpretationCacheKey( query, false, metamodel );
+	}
+
+	private Statement interpret(String query, InterpretationCache cache) {
+		return SemanticQueryInterpreter.interpret( query, consumerContext, cache );
+	}
+
+	private static ExplicitDomainMetamodel buildMetamodel() {
+		ExplicitDomainMetamodel metamodel = new ExplicitDomainMetamodel();
+
+		EntityTypeImpl entityType = metamodel.makeEntityType( "com.acme.Something" );
+		entityType.makeSingularAttribute(
+				"basic",
+				StandardBasicTypeDescriptors.INSTANCE.LONG
+		);
+		entityType.makeSingularAttribute(
+				"basic1",
+				StandardBasicTypeDescriptors.INSTANCE.LONG
+		);
+		entityType.makeSingularAttribute(
+				"basic2",
+				StandardBasicTypeDescriptors.INSTANCE.LONG
+		);
+
+		return metamodel;
+	}
+}
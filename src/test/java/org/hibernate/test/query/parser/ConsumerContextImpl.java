@@ -8,6 +8,10 @@ package org.hibernate.test.query.parser;
 
 import org.hibernate.sqm.ConsumerContext;
 import org.hibernate.sqm.domain.DomainMetamodel;
+import org.hibernate.sqm.parser.HqlInterpretationMode;
+import org.hibernate.sqm.parser.HqlParseProfile;
+import org.hibernate.sqm.parser.HqlPredictionMode;
+import org.hibernate.sqm.parser.QueryLimits;
 
 /**
  * @author Steve Ebersole
@@ -18,6 +22,14 @@ public class ConsumerContextImpl implements ConsumerContext {
 	// false (full HQL support) by default
 	private boolean strictJpaCompliance;
 
+	private HqlPredictionMode hqlPredictionMode = HqlPredictionMode.SLL_WITH_LL_FALLBACK;
+
+	private HqlParseProfile hqlParseProfile = HqlParseProfile.STANDARD;
+
+	private HqlInterpretationMode hqlInterpretationMode = HqlInterpretationMode.TWO_PASS;
+
+	private QueryLimits queryLimits = QueryLimits.NONE;
+
 	public ConsumerContextImpl(DomainMetamodel modelMetadata) {
 		this.modelMetadata = modelMetadata;
 	}
@@ -44,4 +56,40 @@ public class ConsumerContextImpl implements ConsumerContext {
 	public void disableStrictJpaCompliance() {
 		strictJpaCompliance = false;
 	}
+
+	@Override
+	public HqlPredictionMode getHqlPredictionMode() {
+		return hqlPredictionMode;
+	}
+
+	public void setHqlPredictionMode(HqlPredictionMode hqlPredictionMode) {
+		this.hqlPredictionMode = hqlPredictionMode;
+	}
+
+	@Override
+	public HqlParseProfile getHqlParseProfile() {
+		return hqlParseProfile;
+	}
+
+	public void setHqlParseProfile(HqlParseProfile hqlParseProfile) {
+		this.hqlParseProfile = hqlParseProfile;
+	}
+
+	@Override
+	public HqlInterpretationMode getHqlInterpretationMode() {
+		return hqlInterpretationMode;
+	}
+
+	public void setHqlInterpretationMode(HqlInterpretationMode hqlInterpretationMode) {
+		this.hqlInterpretationMode = hqlInterpretationMode;
+	}
+
+	@Override
+	public QueryLimits getQueryLimits() {
+		return queryLimits;
+	}
+
+	public void setQueryLimits(QueryLimits queryLimits) {
+		this.queryLimits = queryLimits;
+	}
 }
@@ -21,8 +21,8 @@ import org.hibernate.sqm.query.expression.SubQueryExpression;
 import org.hibernate.sqm.query.from.FromClause;
 import org.hibernate.sqm.query.from.FromElementSpace;
 import org.hibernate.sqm.query.from.RootEntityFromElement;
-import org.hibernate.sqm.query.predicate.AndPredicate;
 import org.hibernate.sqm.query.predicate.InSubQueryPredicate;
+import org.hibernate.sqm.query.predicate.JunctionPredicate;
 import org.hibernate.sqm.query.predicate.RelationalPredicate;
 import org.hibernate.sqm.query.predicate.WhereClause;
 import org.hibernate.sqm.query.select.Selection;
@@ -381,16 +381,16 @@ public class AliasTest {
 
 	private SubQueryExpression getLeftAndPredicateSubQueryExpression(QuerySpec querySpec) {
 		WhereClause whereClause = querySpec.getWhereClause();
-		AndPredicate predicate = (AndPredicate) whereClause.getPredicate();
+		JunctionPredicate predicate = (JunctionPredicate) whereClause.getPredicate();
 
-		return ((InSubQueryPredicate) predicate.getLeftHandPredicate()).getSubQueryExpression();
+		return ((InSubQueryPredicate) predicate.getPredicates().get( 0 )).getSubQueryExpression();
 	}
 
 	private SubQueryExpression getRightAndPredicateSubQueryExpression(QuerySpec querySpec) {
 		WhereClause whereClause = querySpec.getWhereClause();
-		AndPredicate predicate = (AndPredicate) whereClause.getPredicate();
+		JunctionPredicate predicate = (JunctionPredicate) whereClause.getPredicate();
 
-		return ((InSubQueryPredicate) predicate.getRightHandPredicate()).getSubQueryExpression();
+		return ((InSubQueryPredicate) predicate.getPredicates().get( 1 )).getSubQueryExpression();
 	}
 
 	private SubQueryExpression getRelationaSubQueryExpression(QuerySpec querySpec) {
@@ -0,0 +1,93 @@
+/*
+ * Hibernate, Relational Persistence for Idiomatic Java
+ *
+ * License: Apache License, Version 2.0
+ * See the LICENSE file in the root directory or visit http://www.apache.org/licenses/LICENSE-2.0
+ */
+package org.hibernate.test.query.parser.hql;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import org.hibernate.sqm.SemanticQueryInterpreter;
+import org.hibernate.sqm.parser.BatchInterpretationResult;
+import org.hibernate.sqm.parser.SemanticException;
+import org.hibernate.sqm.query.SelectStatement;
+
+import org.hibernate.test.query.parser.ConsumerContextImpl;
+import org.hibernate.test.sqm.domain.EntityTypeImpl;
+import org.hibernate.test.sqm.domain.ExplicitDomainMetamodel;
+import org.hibernate.test.sqm.domain.StandardBasicTypeDescriptors;
+import org.junit.Test;
+
+import static org.hamcrest.CoreMatchers.instanceOf;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertThat;
+
+/**
+ * @author agent
+ */
+public class BatchInterpretationTest {
+	private final ConsumerContextImpl consumerContext = new ConsumerContextImpl( buildMetamodel() );
+
+	@Test
+	public void testAllInterpretedAndFailuresCollected() {
+		final Map<String,String> queries = new LinkedHashMap<String, String>();
+		for ( int i = 0; i < 200; i++ ) {
+			queries.put( "q" + i, "select a.basic from Something a where a.basic = " + i );
+		}
+		queries.put( "bad1", "select a.nonexistent from Something a" );
+		queries.put( "bad2", "select a.basic from Something a where a.basic = b.basic" );
+
+		final BatchInterpretationResult result = SemanticQueryInterpreter.interpretAll( queries, consumerContext );
+
+		assertEquals( 200, result.getStatements().size() );
+		assertThat( result.getStatements().get( "q42" ), instanceOf( SelectStatement.class ) );
+
+		assertEquals( 2, result.getFailures().size() );
+		final List<String> failedNames = new ArrayList<String>();
+		for ( BatchInterpretationResult.Failure failure : result.getFailures() ) {
+			failedNames.add( failure.getName() );
+			assertThat( failure.getCause(), instanceOf( SemanticException.class ) );
+		}
+		assertEquals( "bad1", failedNames.get( 0 ) );
+		assertEquals( "bad2", failedNames.get( 1 ) );
+	}
+
+	@Test
+	public void testCallerSuppliedExecutor() {
+		final Map<String,String> queries = new LinkedHashMap<String, String>();
+		queries.put( "first", "select a from Something a" );
+		queries.put( "second", "select a.basic from Something a" );
+
+		final ExecutorService executor = Executors.newFixedThreadPool( 2 );
+		try {
+			final BatchInterpretationResult result = SemanticQueryInterpreter.interpretAll(
+					queries,
+					consumerContext,
+					executor
+			);
+			assertEquals( 2, result.getStatements().size() );
+			assertEquals( 0, result.getFailures().size() );
+		}
+		finally {
+			executor.shutdown();
+		}
+	}
+
+	private static ExplicitDomainMetamodel buildMetamodel() {
+		ExplicitDomainMetamodel metamodel = new ExplicitDomainMetamodel();
+
+		EntityTypeImpl entityType = metamodel.makeEntityType( "com.acme.Something" );
+		entityType.makeSingularAttribute(
+				"basic",
+				StandardBasicTypeDescriptors.INSTANCE.LONG
+		);
+
+		return metamodel;
+	}
+}
@@ -0,0 +1,136 @@
+/*
+ * Hibernate, Relational Persistence for Idiomatic Java
+ *
+ * License: Apache License, Version 2.0
+ * See the LICENSE file in the root directory or visit http://www.apache.org/licenses/LICENSE-2.0
+ */
+package org.hibernate.test.query.parser.hql;
+
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+
+import org.hibernate.sqm.SemanticQueryInterpreter;
+import org.hibernate.sqm.parser.HqlParseProfile;
+import org.hibernate.sqm.parser.HqlPredictionMode;
+import org.hibernate.sqm.parser.SyntaxException;
+import org.hibernate.sqm.query.Statement;
+
+import org.hibernate.test.query.parser.ConsumerContextImpl;
+import org.hibernate.test.sqm.domain.EntityTypeImpl;
+import org.hibernate.test.sqm.domain.ExplicitDomainMetamodel;
+import org.hibernate.test.sqm.domain.StandardBasicTypeDescriptors;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * Tests for {@link HqlParseProfile#FAIL_FAST}
+ *
+ * @author agent
+ */
+public class FailFastParseProfileTest {
+	@Test
+	public void testValidQuery() {
+		for ( HqlPredictionMode predictionMode : HqlPredictionMode.values() ) {
+			final ConsumerContextImpl consumerContext = failFastContext();
+			consumerContext.setHqlPredictionMode( predictionMode );
+			final Statement statement = SemanticQueryInterpreter.interpret(
+					"select a.basic from Something a where a.basic = 1 order by a.basic",
+					consumerContext
+			);
+			assertNotNull( statement );
+		}
+	}
+
+	@Test
+	public void testUnexpectedToken() {
+		for ( HqlPredictionMode predictionMode : HqlPredictionMode.values() ) {
+			final SyntaxException e = expectSyntaxError( "select a.basic from Something a where a.basic = = 1", predictionMode );
+			assertEquals( 1, e.getLine() );
+			assertEquals( 48, e.getColumn() );
+			assertEquals( "=", e.getOffendingToken() );
+			assertEquals( "select a.basic from Something a where a.basic = = 1", e.getQuery() );
+		}
+	}
+
+	@Test
+	public void testPositionOnLaterLine() {
+		final SyntaxException e = expectSyntaxError(
+				"select a.basic\nfrom Something a\nwhere a.basic = = 1",
+				HqlPredictionMode.SLL_WITH_LL_FALLBACK
+		);
+		assertEquals( 3, e.getLine() );
+		assertEquals( 16, e.getColumn() );
+		assertEquals( "=", e.getOffendingToken() );
+	}
+
+	@Test
+	public void testUnexpectedEnd() {
+		final SyntaxException e = expectSyntaxError( "select a.basic from Something a where", HqlPredictionMode.SLL_WITH_LL_FALLBACK );
+		assertEquals( "<EOF>", e.getOffendingToken() );
+	}
+
+	@Test
+	public void testUnrecognizedCharacter() {
+		final SyntaxException e = expectSyntaxError( "select a.basic from Something a where a.basic # 1", HqlPredictionMode.SLL_WITH_LL_FALLBACK );
+		assertEquals( 1, e.getLine() );
+		assertEquals( 46, e.getColumn() );
+		assertEquals( "#", e.getOffendingToken() );
+	}
+
+	@Test
+	public void testNothingWrittenToConsole() {
+		final PrintStream originalErr = System.err;
+		final ByteArrayOutputStream err = new ByteArrayOutputStream();
+		System.setErr( new PrintStream( err ) );
+		try {
+			expectSyntaxError( "select a.basic from from Something a", HqlPredictionMode.SLL_WITH_LL_FALLBACK );
+			expectSyntaxError( "garbage ) ( 1 2 3 'x", HqlPredictionMode.LL );
+		}
+		finally {
+			System.setErr( originalErr );
+		}
+		assertEquals( "", err.toString() );
+	}
+
+	@Test
+	public void testGarbage() {
+		final SyntaxException e = expectSyntaxError( ") ( select from where ,,, 1 2 3", HqlPredictionMode.SLL_WITH_LL_FALLBACK );
+		assertEquals( 0, e.getColumn() );
+		assertTrue( e.getMessage().contains( "line 1, column 0" ) );
+	}
+
+	private SyntaxException expectSyntaxError(String query, HqlPredictionMode predictionMode) {
+		final ConsumerContextImpl consumerContext = failFastContext();
+		consumerContext.setHqlPredictionMode( predictionMode );
+		try {
+			SemanticQueryInterpreter.interpret( query, consumerContext );
+			fail( "Expecting SyntaxException" );
+			return null;
+		}
+		catch (SyntaxException expected) {
+			return expected;
+		}
+	}
+
+	private static ConsumerContextImpl failFastContext() {
+		final ConsumerContextImpl consumerContext = new ConsumerContextImpl( buildMetamodel() );
+		consumerContext.setHqlParseProfile( HqlParseProfile.FAIL_FAST );
+		return consumerContext;
+	}
+
+	private static ExplicitDomainMetamodel buildMetamodel() {
+		ExplicitDomainMetamodel metamodel = new ExplicitDomainMetamodel();
+
+		EntityTypeImpl entityType = metamodel.makeEntityType( "com.acme.Something" );
+		entityType.makeSingularAttribute(
+				"basic",
+				StandardBasicTypeDescriptors.INSTANCE.LONG
+		);
+
+		return metamodel;
+	}
+}
@@ -0,0 +1,99 @@
+/*
+ * Hibernate, Relational Persistence for Idiomatic Java
+ *
+ * License: Apache License, Version 2.0
+ * See the LICENSE file in the root directory or visit http://www.apache.org/licenses/LICENSE-2.0
+ */
+package org.hibernate.test.query.parser.hql;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.hibernate.sqm.SemanticQueryInterpreter;
+import org.hibernate.sqm.parser.HqlDecisionProfile;
+import org.hibernate.sqm.parser.HqlPredictionMode;
+import org.hibernate.sqm.parser.internal.hql.HqlParseTreeBuilder;
+import org.hibernate.sqm.parser.internal.hql.HqlWarmUp;
+
+import org.hibernate.test.query.parser.ConsumerContextImpl;
+import org.hibernate.test.sqm.domain.ExplicitDomainMetamodel;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Tests for the HQL parser decision profiling
+ *
+ * @author agent
+ */
+public class HqlDecisionProfileTest {
+	@Test
+	public void testProfile() {
+		final List<String> queries = new ArrayList<String>( HqlWarmUp.SYNTHETIC_CORPUS );
+		queries.add( "select a.b from from Something a" );
+
+		final int dfaStateCount = HqlParseTreeBuilder.INSTANCE.getDfaStateCount();
+		final HqlDecisionProfile profile = SemanticQueryInterpreter.profileHqlDecisions(
+				queries,
+				new ConsumerContextImpl( new ExplicitDomainMetamodel() )
+		);
+		// profiling uses DFA caches of its own
+		assertEquals( dfaStateCount, HqlParseTreeBuilder.INSTANCE.getDfaStateCount() );
+
+		assertEquals( queries.size(), profile.getQueryCount() );
+		assertEquals( 1, profile.getFailureCount() );
+		assertFalse( profile.getDecisions().isEmpty() );
+
+		// ranked by time spent in prediction
+		long previousNanos = Long.MAX_VALUE;
+		long invocations = 0;
+		for ( HqlDecisionProfile.Decision decision : profile.getDecisions() ) {
+			assertTrue( decision.getPredictionNanos() <= previousNanos );
+			previousNanos = decision.getPredictionNanos();
+			assertTrue( decision.getInvocations() > 0 );
+			assertNotNull( decision.getRuleName() );
+			invocations += decision.getInvocations();
+		}
+		assertTrue( invocations > queries.size() );
+
+		final HqlDecisionProfile.Decision first = profile.getDecisions().get( 0 );
+		assertTrue( first == profile.getDecision( first.getDecisionNumber() ) );
+		assertNull( profile.getDecision( -1 ) );
+
+		final String report = profile.toReport();
+		assertTrue( report, report.contains( queries.size() + " queries (1 with syntax errors)" ) );
+		assertTrue( report, report.contains( first.getRuleName() ) );
+		// header, column names and one line per decision
+		assertEquals( report, profile.getDecisions().size() + 2, report.split( "\n" ).length );
+	}
+
+	@Test
+	public void testDfaMisses() {
+		final List<String> queries = new ArrayList<String>();
+		for ( int i = 0; i < 10; i++ ) {
+			queries.add( "select a.b from Something a where a.c = " + i );
+		}
+
+		final HqlDecisionProfile once = HqlParseTreeBuilder.INSTANCE.profileDecisions(
+				queries.subList( 0, 1 ),
+				HqlPredictionMode.SLL_WITH_LL_FALLBACK
+		);
+		final HqlDecisionProfile repeated = HqlParseTreeBuilder.INSTANCE.profileDecisions(
+				queries,
+				HqlPredictionMode.SLL_WITH_LL_FALLBACK
+		);
+
+		// the same decisions, made 10 times as often, but the DFA is built on the first query only
+		assertEquals( once.getDecisions().size(), repeated.getDecisions().size() );
+		for ( HqlDecisionProfile.Decision decision : once.getDecisions() ) {
+			final HqlDecisionProfile.Decision repeatedDecision = repeated.getDecision( decision.getDecisionNumber() );
+			assertEquals( decision.getInvocations() * 10, repeatedDecision.getInvocations() );
+			assertEquals( decision.getDfaMissCount(), repeatedDecision.getDfaMissCount() );
+			assertEquals( 0, repeatedDecision.getLlFallbackCount() );
+		}
+	}
+}
@@ -14,6 +14,7 @@ import org.hibernate.sqm.query.JoinType;
 import org.hibernate.sqm.query.SelectStatement;
 import org.hibernate.sqm.query.from.FromClause;
 import org.hibernate.sqm.query.from.FromElementSpace;
+import org.hibernate.sqm.query.from.JoinedFromElement;
 import org.hibernate.sqm.query.from.RootEntityFromElement;
 
 import org.hibernate.test.query.parser.ConsumerContextImpl;
@@ -23,7 +24,9 @@ import org.hibernate.test.sqm.domain.StandardBasicTypeDescriptors;
 import org.junit.Test;
 
 import static org.hamcrest.core.Is.is;
+import static org.hamcrest.core.IsNot.not;
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertThat;
 import static org.junit.Assert.assertTrue;
@@ -126,7 +129,30 @@ public class HqlFromClauseProcessorPocTest {
 		assertNotNull( space1 );
 		assertNotNull( space1.getRoot() );
 		assertEquals( 0, space1.getJoins().size() );
+		assertTrue( space1.getRoot().isImplicitlyAliased() );
 		assertTrue( ImplicitAliasGenerator.isImplicitAlias( space1.getRoot().getIdentificationVariable() ) );
+
+		// implicit aliases are unique within the query, across FromElements and selections
+		final String selectionAlias = selectStatement.getQuerySpec().getSelectClause().getSelections().get( 0 ).getAlias();
+		assertNotNull( selectionAlias );
+		assertTrue( ImplicitAliasGenerator.isImplicitAlias( selectionAlias ) );
+		assertThat( space1.getRoot().getIdentificationVariable(), not( is( selectionAlias ) ) );
+	}
+
+	@Test
+	public void testImplicitJoinAlias() throws Exception {
+		final SelectStatement selectStatement = interpret( "select a.b from Something a join a.entity" );
+
+		final FromElementSpace space1 = selectStatement.getQuerySpec().getFromClause().getFromElementSpaces().get( 0 );
+		assertFalse( space1.getRoot().isImplicitlyAliased() );
+		assertThat( space1.getRoot().getIdentificationVariable(), is( "a" ) );
+
+		final JoinedFromElement join = space1.getJoins().get( 0 );
+		assertTrue( join.isImplicitlyAliased() );
+		assertTrue( ImplicitAliasGenerator.isImplicitAlias( join.getIdentificationVariable() ) );
+		// rendered the same way each time it is asked for
+		assertEquals( join.getIdentificationVariable(), join.getIdentificationVariable() );
+		assertThat( join.getIdentificationVariable(), not( space1.getRoot().getIdentificationVariable() ) );
 	}
 
 	@Test
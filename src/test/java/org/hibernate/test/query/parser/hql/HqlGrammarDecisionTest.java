@@ -0,0 +1,64 @@
+/*
+ * Hibernate, Relational Persistence for Idiomatic Java
+ *
+ * License: Apache License, Version 2.0
+ * See the LICENSE file in the root directory or visit http://www.apache.org/licenses/LICENSE-2.0
+ */
+package org.hibernate.test.query.parser.hql;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.hibernate.sqm.parser.HqlDecisionProfile;
+import org.hibernate.sqm.parser.HqlPredictionMode;
+import org.hibernate.sqm.parser.internal.hql.HqlParseTreeBuilder;
+import org.hibernate.sqm.parser.internal.hql.HqlWarmUp;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Guards the prediction behavior of the grammar's decisions, using ANTLR's decision profiling : no
+ * semantic predicates (which defeat the DFA caching) and no ambiguous path decisions (which forced
+ * full-context prediction for nearly every path).
+ * <p/>
+ * Some ambiguities remain by design, resolved by the order of the alternatives : e.g. {@code max(x)}
+ * is the aggregate function although it could also be a non-standard function named "max".
+ *
+ * @author agent
+ */
+public class HqlGrammarDecisionTest {
+	private static final String[] QUERIES = new String[] {
+			"select a.b.c from Something a where a.c.d = 1",
+			"select a from Something a join a.b b left outer join a.c c where b.d in (1, 2)",
+			"select key(m), value(m), entry(m) from Something a join a.map m",
+			"select treat(a.b as com.acme.Sub).c from Something a",
+			"select o from Order o where o.items[0].id = 1234",
+			"select abs from Something as abs where abs.select = abs.from",
+			"select e.basic as abs from Entity as e order by e.basic",
+			"update Something a set a.b = 1 where a.c = 2",
+			"delete Something where id = 1",
+	};
+
+	@Test
+	public void testNoPredicatesOrAmbiguousPaths() {
+		final List<String> queries = new ArrayList<String>( HqlWarmUp.SYNTHETIC_CORPUS );
+		queries.addAll( Arrays.asList( QUERIES ) );
+
+		// full LL prediction, so that all ambiguities are reported
+		final HqlDecisionProfile profile = HqlParseTreeBuilder.INSTANCE.profileDecisions(
+				queries,
+				HqlPredictionMode.LL
+		);
+		assertEquals( 0, profile.getFailureCount() );
+
+		for ( HqlDecisionProfile.Decision decision : profile.getDecisions() ) {
+			assertEquals( decision.toString(), 0, decision.getPredicateEvaluationCount() );
+			if ( "path".equals( decision.getRuleName() ) || "pathRoot".equals( decision.getRuleName() ) ) {
+				assertEquals( decision.toString(), 0, decision.getAmbiguityCount() );
+			}
+		}
+	}
+}
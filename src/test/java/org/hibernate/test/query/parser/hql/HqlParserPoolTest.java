@@ -0,0 +1,170 @@
+/*
+ * Hibernate, Relational Persistence for Idiomatic Java
+ *
+ * License: Apache License, Version 2.0
+ * See the LICENSE file in the root directory or visit http://www.apache.org/licenses/LICENSE-2.0
+ */
+package org.hibernate.test.query.parser.hql;
+
+import java.lang.ref.WeakReference;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.hibernate.sqm.parser.HqlPredictionMode;
+import org.hibernate.sqm.parser.internal.hql.HqlParseTreeBuilder;
+import org.hibernate.sqm.parser.internal.hql.antlr.HqlParser;
+
+import org.junit.After;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Tests for the reuse of lexer/parser instances by {@link HqlParseTreeBuilder#parseStatement}
+ *
+ * @author agent
+ */
+public class HqlParserPoolTest {
+	private static final String[] QUERIES = new String[] {
+			"select a.basic from Something a where a.basic = :param or a.basic in (1, 2, 3) order by a.basic",
+			"select a from Something a join a.entity e where e.basic1 > 5 and a.basic2 like 'x%'",
+			"update Something a set a.basic = 1 where a.basic is null",
+			"delete Something a where a.basic between 1 and 10",
+	};
+
+	private final HqlParseTreeBuilder builder = HqlParseTreeBuilder.INSTANCE;
+
+	@After
+	public void restoreDefault() {
+		builder.setMaxPooledParsers( HqlParseTreeBuilder.DEFAULT_MAX_POOLED_PARSERS );
+	}
+
+	@Test
+	public void testReusedParserProducesSameTree() {
+		builder.setMaxPooledParsers( 1 );
+		for ( int i = 0; i < 3; i++ ) {
+			for ( String query : QUERIES ) {
+				assertEquals( unpooledTree( query ), pooledTree( query ) );
+				assertEquals( 1, builder.getPooledParserCount() );
+			}
+		}
+	}
+
+	@Test
+	public void testReuseAfterSyntaxError() {
+		builder.setMaxPooledParsers( 1 );
+		builder.parseStatement( "select a.basic from from Something a", HqlPredictionMode.SLL_WITH_LL_FALLBACK );
+		builder.parseStatement( "select a.basic from from Something a", HqlPredictionMode.LL );
+		assertEquals( 1, builder.getPooledParserCount() );
+
+		assertEquals( unpooledTree( QUERIES[0] ), pooledTree( QUERIES[0] ) );
+	}
+
+	@Test
+	public void testReuseAfterLargeQuery() {
+		builder.setMaxPooledParsers( 1 );
+		builder.parseStatement( largeQuery(), HqlPredictionMode.SLL_WITH_LL_FALLBACK );
+
+		assertEquals( unpooledTree( QUERIES[1] ), pooledTree( QUERIES[1] ) );
+	}
+
+	@Test
+	public void testIdleParserKeepsNoTokens() throws Exception {
+		builder.setMaxPooledParsers( 1 );
+		// the tokens reference the query (through their CharStream), so the query can only be
+		// collected once neither the token stream nor the tree is reachable from the idle parser
+		final WeakReference<String> query = new WeakReference<String>( largeQuery() );
+		final WeakReference<HqlParser.StatementContext> tree = new WeakReference<HqlParser.StatementContext>(
+				builder.parseStatement( query.get(), HqlPredictionMode.SLL_WITH_LL_FALLBACK )
+		);
+		assertEquals( 1, builder.getPooledParserCount() );
+
+		for ( int i = 0; i < 50 && ( query.get() != null || tree.get() != null ); i++ ) {
+			System.gc();
+			Thread.sleep( 10 );
+		}
+		assertNull( tree.get() );
+		assertNull( query.get() );
+	}
+
+	@Test
+	public void testPoolBounds() {
+		builder.setMaxPooledParsers( 2 );
+		builder.parseStatement( QUERIES[0], HqlPredictionMode.SLL_WITH_LL_FALLBACK );
+		assertEquals( 1, builder.getPooledParserCount() );
+
+		builder.clearDfaCaches();
+		assertEquals( 0, builder.getPooledParserCount() );
+
+		builder.parseStatement( QUERIES[0], HqlPredictionMode.SLL_WITH_LL_FALLBACK );
+		assertEquals( 1, builder.getPooledParserCount() );
+
+		builder.setMaxPooledParsers( 0 );
+		assertEquals( 0, builder.getPooledParserCount() );
+		assertEquals( unpooledTree( QUERIES[2] ), pooledTree( QUERIES[2] ) );
+		assertEquals( 0, builder.getPooledParserCount() );
+	}
+
+	@Test
+	public void testConcurrentParsing() throws Exception {
+		builder.setMaxPooledParsers( 2 );
+
+		final List<String> expected = new ArrayList<String>();
+		for ( String query : QUERIES ) {
+			expected.add( unpooledTree( query ) );
+		}
+
+		final ExecutorService executor = Executors.newFixedThreadPool( 4 );
+		try {
+			final List<Future<Boolean>> results = new ArrayList<Future<Boolean>>();
+			for ( int t = 0; t < 8; t++ ) {
+				results.add(
+						executor.submit(
+								new Callable<Boolean>() {
+									@Override
+									public Boolean call() throws Exception {
+										for ( int i = 0; i < 50; i++ ) {
+											final int position = i % QUERIES.length;
+											if ( !expected.get( position ).equals( pooledTree( QUERIES[position] ) ) ) {
+												return false;
+											}
+										}
+										return true;
+									}
+								}
+						)
+				);
+			}
+			for ( Future<Boolean> result : results ) {
+				assertTrue( result.get() );
+			}
+		}
+		finally {
+			executor.shutdownNow();
+		}
+		assertTrue( builder.getPooledParserCount() <= 2 );
+	}
+
+	private static String largeQuery() {
+		final StringBuilder large = new StringBuilder( "select a from Something a where a.basic in (0" );
+		for ( int i = 1; i < 5000; i++ ) {
+			large.append( ", " ).append( i );
+		}
+		return large.append( ")" ).toString();
+	}
+
+	private String pooledTree(String query) {
+		return builder.parseStatement( query, HqlPredictionMode.SLL_WITH_LL_FALLBACK ).toStringTree();
+	}
+
+	private String unpooledTree(String query) {
+		final HqlParser parser = builder.parseHql( query );
+		return parser.statement().toStringTree();
+	}
+}
@@ -0,0 +1,60 @@
+/*
+ * Hibernate, Relational Persistence for Idiomatic Java
+ *
+ * License: Apache License, Version 2.0
+ * See the LICENSE file in the root directory or visit http://www.apache.org/licenses/LICENSE-2.0
+ */
+package org.hibernate.test.query.parser.hql;
+
+import org.hibernate.sqm.parser.HqlParseStatistics;
+import org.hibernate.sqm.parser.HqlPredictionMode;
+import org.hibernate.sqm.parser.internal.hql.HqlParseTreeBuilder;
+import org.hibernate.sqm.parser.internal.hql.antlr.HqlParser;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * @author agent
+ */
+public class HqlPredictionModeTest {
+	private static final String QUERY = "select a.basic from Something a where a.basic = :param or a.basic in (1, 2, 3) order by a.basic";
+
+	@Test
+	public void testSllParseNeedsNoFallback() {
+		final HqlParseStatistics statistics = HqlParseTreeBuilder.INSTANCE.getStatistics();
+		final long sll = statistics.getSllParseCount();
+		final long fallbacks = statistics.getLlFallbackCount();
+
+		HqlParseTreeBuilder.INSTANCE.parseStatement( QUERY, HqlPredictionMode.SLL_WITH_LL_FALLBACK );
+
+		assertEquals( sll + 1, statistics.getSllParseCount() );
+		assertEquals( fallbacks, statistics.getLlFallbackCount() );
+	}
+
+	@Test
+	public void testSyntaxErrorFallsBackToLl() {
+		final HqlParseStatistics statistics = HqlParseTreeBuilder.INSTANCE.getStatistics();
+		final long ll = statistics.getLlParseCount();
+		final long fallbacks = statistics.getLlFallbackCount();
+
+		HqlParseTreeBuilder.INSTANCE.parseStatement( "select a.basic from from Something a", HqlPredictionMode.SLL_WITH_LL_FALLBACK );
+
+		assertEquals( ll + 1, statistics.getLlParseCount() );
+		assertEquals( fallbacks + 1, statistics.getLlFallbackCount() );
+	}
+
+	@Test
+	public void testModesProduceSameTree() {
+		final HqlParser.StatementContext sll = HqlParseTreeBuilder.INSTANCE.parseStatement(
+				QUERY,
+				HqlPredictionMode.SLL_WITH_LL_FALLBACK
+		);
+		final HqlParser.StatementContext ll = HqlParseTreeBuilder.INSTANCE.parseStatement(
+				QUERY,
+				HqlPredictionMode.LL
+		);
+		assertEquals( ll.toStringTree(), sll.toStringTree() );
+	}
+}
@@ -0,0 +1,88 @@
+/*
+ * Hibernate, Relational Persistence for Idiomatic Java
+ *
+ * License: Apache License, Version 2.0
+ * See the LICENSE file in the root directory or visit http://www.apache.org/licenses/LICENSE-2.0
+ */
+package org.hibernate.test.query.parser.hql;
+
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.concurrent.TimeUnit;
+
+import org.hibernate.sqm.SemanticQueryInterpreter;
+import org.hibernate.sqm.parser.HqlParseStatistics;
+import org.hibernate.sqm.parser.HqlWarmUpResult;
+import org.hibernate.sqm.parser.internal.hql.HqlParseTreeBuilder;
+import org.hibernate.sqm.parser.internal.hql.HqlWarmUp;
+import org.hibernate.sqm.parser.internal.hql.antlr.HqlParser;
+import org.hibernate.sqm.parser.internal.hql.antlr.HqlParserBaseListener;
+
+import org.hibernate.test.query.parser.ConsumerContextImpl;
+import org.hibernate.test.sqm.domain.ExplicitDomainMetamodel;
+import org.junit.Test;
+
+import org.antlr.v4.runtime.ParserRuleContext;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * @author agent
+ */
+public class HqlWarmUpTest {
+	@Test
+	public void testSyntheticCorpusCoversAllRules() {
+		final BitSet enteredRules = new BitSet();
+		for ( String query : HqlWarmUp.SYNTHETIC_CORPUS ) {
+			final HqlParser parser = HqlParseTreeBuilder.INSTANCE.parseHql( query );
+			parser.addParseListener(
+					new HqlParserBaseListener() {
+						@Override
+						public void enterEveryRule(ParserRuleContext ctx) {
+							enteredRules.set( ctx.getRuleIndex() );
+						}
+					}
+			);
+			parser.statement();
+			assertEquals( "Syntax error in [" + query + "]", 0, parser.getNumberOfSyntaxErrors() );
+		}
+
+		for ( int i = 0; i < HqlParser.ruleNames.length; i++ ) {
+			if ( !enteredRules.get( i ) ) {
+				fail( "Synthetic warm-up corpus does not exercise rule " + HqlParser.ruleNames[i] );
+			}
+		}
+	}
+
+	@Test
+	public void testWarmUp() throws Exception {
+		final ConsumerContextImpl consumerContext = new ConsumerContextImpl( new ExplicitDomainMetamodel() );
+
+		SemanticQueryInterpreter.clearHqlParserCaches();
+		assertEquals( 0, SemanticQueryInterpreter.getHqlParserDfaStateCount() );
+
+		final HqlParseStatistics statistics = SemanticQueryInterpreter.getHqlParseStatistics();
+		final long sllParseCount = statistics.getSllParseCount();
+		final long llParseCount = statistics.getLlParseCount();
+
+		final HqlWarmUpResult result = SemanticQueryInterpreter.warmUp(
+				Arrays.asList( "select a.b from Something a", "select from from" ),
+				consumerContext
+		).get( 1, TimeUnit.MINUTES );
+
+		assertEquals( HqlWarmUp.SYNTHETIC_CORPUS.size() + 2, result.getQueryCount() );
+		assertEquals( 1, result.getFailureCount() );
+		assertTrue( result.getElapsedNanos() > 0 );
+		assertTrue( result.getDfaStateCount() > 0 );
+		assertTrue( result.getPredictionContextCacheSize() > 0 );
+
+		// warm-up parses are not part of the application's parse statistics
+		assertEquals( sllParseCount, statistics.getSllParseCount() );
+		assertEquals( llParseCount, statistics.getLlParseCount() );
+
+		SemanticQueryInterpreter.clearHqlParserCaches();
+		assertEquals( 0, SemanticQueryInterpreter.getHqlParserDfaStateCount() );
+	}
+}
@@ -0,0 +1,146 @@
+/*
+ * Hibernate, Relational Persistence for Idiomatic Java
+ *
+ * License: Apache License, Version 2.0
+ * See the LICENSE file in the root directory or visit http://www.apache.org/licenses/LICENSE-2.0
+ */
+package org.hibernate.test.query.parser.hql;
+
+import java.util.List;
+
+import org.hibernate.sqm.SemanticQueryInterpreter;
+import org.hibernate.sqm.parser.HqlInterpretationMode;
+import org.hibernate.sqm.query.SelectStatement;
+import org.hibernate.sqm.query.expression.AttributeReferenceExpression;
+import org.hibernate.sqm.query.expression.ConcatListExpression;
+import org.hibernate.sqm.query.expression.Expression;
+import org.hibernate.sqm.query.expression.LiteralStringExpression;
+import org.hibernate.sqm.query.predicate.GroupedPredicate;
+import org.hibernate.sqm.query.predicate.JunctionPredicate;
+import org.hibernate.sqm.query.predicate.Predicate;
+import org.hibernate.sqm.query.predicate.RelationalPredicate;
+
+import org.hibernate.test.query.parser.ConsumerContextImpl;
+import org.hibernate.test.sqm.domain.EntityTypeImpl;
+import org.hibernate.test.sqm.domain.ExplicitDomainMetamodel;
+import org.hibernate.test.sqm.domain.StandardBasicTypeDescriptors;
+import org.junit.Test;
+
+import static org.hamcrest.CoreMatchers.instanceOf;
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertThat;
+
+/**
+ * Tests that chains of AND, OR and || are interpreted as single n-ary nodes
+ *
+ * @author agent
+ */
+public class JunctionFlatteningTest {
+	private final ConsumerContextImpl consumerContext = new ConsumerContextImpl( buildMetamodel() );
+
+	@Test
+	public void testDisjunctionChain() {
+		for ( HqlInterpretationMode mode : HqlInterpretationMode.values() ) {
+			final SelectStatement statement = interpret(
+					"select e from Entity e where e.basic = 'aa' or e.basic = 'bb' or e.basic = 'cc' or e.basic = 'dd'",
+					mode
+			);
+			final JunctionPredicate junction = assertJunction(
+					statement.getQuerySpec().getWhereClause().getPredicate(),
+					JunctionPredicate.Nature.DISJUNCTION,
+					4
+			);
+			final String[] values = new String[] { "aa", "bb", "cc", "dd" };
+			for ( int i = 0; i < values.length; i++ ) {
+				final RelationalPredicate predicate = (RelationalPredicate) junction.getPredicates().get( i );
+				assertThat( ( (LiteralStringExpression) predicate.getRightHandExpression() ).getLiteralValue(), is( values[i] ) );
+			}
+		}
+	}
+
+	@Test
+	public void testNestedJunctions() {
+		for ( HqlInterpretationMode mode : HqlInterpretationMode.values() ) {
+			final SelectStatement statement = interpret(
+					"select e from Entity e where e.basic = 'aa' and e.basic = 'bb' and ( e.basic = 'cc' or e.basic = 'dd' )",
+					mode
+			);
+			final JunctionPredicate conjunction = assertJunction(
+					statement.getQuerySpec().getWhereClause().getPredicate(),
+					JunctionPredicate.Nature.CONJUNCTION,
+					3
+			);
+			assertThat( conjunction.getPredicates().get( 0 ), instanceOf( RelationalPredicate.class ) );
+			assertThat( conjunction.getPredicates().get( 1 ), instanceOf( RelationalPredicate.class ) );
+			assertThat( conjunction.getPredicates().get( 2 ), instanceOf( GroupedPredicate.class ) );
+			assertJunction(
+					( (GroupedPredicate) conjunction.getPredicates().get( 2 ) ).getSubPredicate(),
+					JunctionPredicate.Nature.DISJUNCTION,
+					2
+			);
+		}
+	}
+
+	@Test
+	public void testConcatenationChain() {
+		for ( HqlInterpretationMode mode : HqlInterpretationMode.values() ) {
+			final SelectStatement statement = interpret(
+					"select e.basic || 'xx' || e.basic || 'yy' from Entity e",
+					mode
+			);
+			final Expression expression = statement.getQuerySpec().getSelectClause().getSelections().get( 0 ).getExpression();
+			assertThat( expression, instanceOf( ConcatListExpression.class ) );
+			final List<Expression> operands = ( (ConcatListExpression) expression ).getOperands();
+			assertEquals( 4, operands.size() );
+			assertThat( operands.get( 0 ), instanceOf( AttributeReferenceExpression.class ) );
+			assertThat( operands.get( 1 ), instanceOf( LiteralStringExpression.class ) );
+			assertThat( operands.get( 2 ), instanceOf( AttributeReferenceExpression.class ) );
+			assertThat( operands.get( 3 ), instanceOf( LiteralStringExpression.class ) );
+			assertThat( expression.getExpressionType().getTypeName(), is( String.class.getName() ) );
+		}
+	}
+
+	@Test
+	public void testLongChain() {
+		// the two-pass interpretation walks down the parse tree of the chain rather than recursing
+		final int conditions = 5000;
+		final StringBuilder query = new StringBuilder( "select e from Entity e where e.basic = '0'" );
+		for ( int i = 1; i < conditions; i++ ) {
+			query.append( " or e.basic = '" ).append( i ).append( "'" );
+		}
+		for ( HqlInterpretationMode mode : HqlInterpretationMode.values() ) {
+			final SelectStatement statement = interpret( query.toString(), mode );
+			assertJunction(
+					statement.getQuerySpec().getWhereClause().getPredicate(),
+					JunctionPredicate.Nature.DISJUNCTION,
+					conditions
+			);
+		}
+	}
+
+	private static JunctionPredicate assertJunction(Predicate predicate, JunctionPredicate.Nature nature, int size) {
+		assertThat( predicate, instanceOf( JunctionPredicate.class ) );
+		final JunctionPredicate junction = (JunctionPredicate) predicate;
+		assertThat( junction.getNature(), is( nature ) );
+		assertEquals( size, junction.getPredicates().size() );
+		return junction;
+	}
+
+	private SelectStatement interpret(String query, HqlInterpretationMode mode) {
+		consumerContext.setHqlInterpretationMode( mode );
+		return (SelectStatement) SemanticQueryInterpreter.interpret( query, consumerContext );
+	}
+
+	private static ExplicitDomainMetamodel buildMetamodel() {
+		ExplicitDomainMetamodel metamodel = new ExplicitDomainMetamodel();
+
+		EntityTypeImpl entityType = metamodel.makeEntityType( "com.acme.Entity" );
+		entityType.makeSingularAttribute(
+				"basic",
+				StandardBasicTypeDescriptors.INSTANCE.STRING
+		);
+
+		return metamodel;
+	}
+}
@@ -0,0 +1,189 @@
+/*
+ * Hibernate, Relational Persistence for Idiomatic Java
+ *
+ * License: Apache License, Version 2.0
+ * See the LICENSE file in the root directory or visit http://www.apache.org/licenses/LICENSE-2.0
+ */
+package org.hibernate.test.query.parser.hql;
+
+import java.util.Arrays;
+
+import org.hibernate.sqm.SemanticQueryCopier;
+import org.hibernate.sqm.SemanticQueryInterpreter;
+import org.hibernate.sqm.StatementFingerprinter;
+import org.hibernate.sqm.parser.HqlInterpretationMode;
+import org.hibernate.sqm.parser.LiteralParameterizer;
+import org.hibernate.sqm.parser.ParameterizedStatement;
+import org.hibernate.sqm.query.SelectStatement;
+import org.hibernate.sqm.query.expression.LiteralIntegerExpression;
+import org.hibernate.sqm.query.expression.SyntheticParameterExpression;
+import org.hibernate.sqm.query.predicate.InListPredicate;
+import org.hibernate.sqm.query.predicate.LiteralInListPredicate;
+import org.hibernate.sqm.query.predicate.Predicate;
+
+import org.hibernate.test.query.parser.ConsumerContextImpl;
+import org.hibernate.test.sqm.domain.EntityTypeImpl;
+import org.hibernate.test.sqm.domain.ExplicitDomainMetamodel;
+import org.hibernate.test.sqm.domain.StandardBasicTypeDescriptors;
+import org.junit.Test;
+
+import static org.hamcrest.CoreMatchers.instanceOf;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertThat;
+
+/**
+ * Tests for the compact {@link LiteralInListPredicate} representation of IN lists of literals
+ *
+ * @author agent
+ */
+public class LiteralInListTest {
+	private final ConsumerContextImpl consumerContext = new ConsumerContextImpl( buildMetamodel() );
+
+	@Test
+	public void testHomogeneousListsAreCompact() {
+		for ( HqlInterpretationMode mode : HqlInterpretationMode.values() ) {
+			final LiteralInListPredicate integers = (LiteralInListPredicate) interpretWhereClause(
+					"select e from Entity e where e.code in (3, -1, 100000)",
+					mode
+			);
+			assertEquals( LiteralInListPredicate.ValueKind.INTEGER, integers.getValueKind() );
+			assertEquals( 3, integers.getSize() );
+			assertEquals( -1, integers.getIntValue( 1 ) );
+			assertEquals( 100000L, integers.getLongValue( 2 ) );
+			assertEquals( Integer.class.getName(), integers.getValueType().getTypeName() );
+
+			final LiteralInListPredicate longs = (LiteralInListPredicate) interpretWhereClause(
+					"select e from Entity e where e.code in (1L, 9999999999L)",
+					mode
+			);
+			assertEquals( LiteralInListPredicate.ValueKind.LONG, longs.getValueKind() );
+			assertEquals( 9999999999L, longs.getLongValue( 1 ) );
+
+			final LiteralInListPredicate strings = (LiteralInListPredicate) interpretWhereClause(
+					"select e from Entity e where e.basic in ('ab', 'cd')",
+					mode
+			);
+			assertEquals( LiteralInListPredicate.ValueKind.STRING, strings.getValueKind() );
+			assertEquals( "cd", strings.getStringValue( 1 ) );
+		}
+	}
+
+	@Test
+	public void testMixedListsAreNotCompact() {
+		for ( HqlInterpretationMode mode : HqlInterpretationMode.values() ) {
+			assertThat(
+					interpretWhereClause( "select e from Entity e where e.code in (1, 2L)", mode ),
+					instanceOf( InListPredicate.class )
+			);
+			assertThat(
+					interpretWhereClause( "select e from Entity e where e.code in (1, :param)", mode ),
+					instanceOf( InListPredicate.class )
+			);
+			assertThat(
+					interpretWhereClause( "select e from Entity e where e.code in (1, e.code + 1)", mode ),
+					instanceOf( InListPredicate.class )
+			);
+		}
+	}
+
+	@Test(expected = IllegalStateException.class)
+	public void testWrongValueKind() {
+		final LiteralInListPredicate strings = (LiteralInListPredicate) interpretWhereClause(
+				"select e from Entity e where e.basic in ('ab', 'cd')",
+				HqlInterpretationMode.TWO_PASS
+		);
+		strings.getLongValue( 0 );
+	}
+
+	@Test
+	public void testCopy() {
+		final SelectStatement statement = interpret( "select e from Entity e where e.code in (1, 2, 3)" );
+		final LiteralInListPredicate original = (LiteralInListPredicate) statement.getQuerySpec().getWhereClause().getPredicate();
+		final SelectStatement copy = (SelectStatement) new SemanticQueryCopier().copy( statement );
+		final LiteralInListPredicate copied = (LiteralInListPredicate) copy.getQuerySpec().getWhereClause().getPredicate();
+
+		assertNotSame( original.getTestExpression(), copied.getTestExpression() );
+		assertEquals( original.getSize(), copied.getSize() );
+		assertEquals( 3, copied.getIntValue( 2 ) );
+		assertEquals( statement.getFingerprint(), copy.getFingerprint() );
+	}
+
+	@Test
+	public void testFingerprint() {
+		final SelectStatement first = interpret( "select e from Entity e where e.code in (1, 2, 3)" );
+		final SelectStatement second = interpret( "select e from Entity e where e.code in (1, 2, 4)" );
+		assertNotEquals(
+				StatementFingerprinter.fingerprint( first, false ),
+				StatementFingerprinter.fingerprint( second, false )
+		);
+		assertEquals(
+				StatementFingerprinter.fingerprint( first, true ),
+				StatementFingerprinter.fingerprint( second, true )
+		);
+		assertNotEquals(
+				StatementFingerprinter.fingerprint( first, true ),
+				StatementFingerprinter.fingerprint( interpret( "select e from Entity e where e.code in (1, 2)" ), true )
+		);
+	}
+
+	@Test
+	public void testParameterization() {
+		final ParameterizedStatement parameterized = LiteralParameterizer.parameterize(
+				interpret( "select e from Entity e where e.code in (7, 8, 9)" )
+		);
+		assertEquals( Arrays.<Object>asList( 7, 8, 9 ), parameterized.getParameterValues() );
+
+		final InListPredicate predicate = (InListPredicate) ( (SelectStatement) parameterized.getStatement() ).getQuerySpec()
+				.getWhereClause()
+				.getPredicate();
+		assertEquals( 3, predicate.getListExpressions().size() );
+		final SyntheticParameterExpression parameter = (SyntheticParameterExpression) predicate.getListExpressions().get( 1 );
+		assertEquals( 8, parameterized.getParameterValue( parameter ) );
+		assertEquals( Integer.class.getName(), parameter.getExpressionType().getTypeName() );
+
+		// values in the select-clause are left inline
+		final ParameterizedStatement inline = LiteralParameterizer.parameterize(
+				interpret( "select case when e.code in (1, 2) then 1 else 0 end from Entity e" )
+		);
+		assertFalse( inline.getParameterValues().contains( 2 ) );
+	}
+
+	@Test
+	public void testValueExpression() {
+		final LiteralInListPredicate integers = (LiteralInListPredicate) interpretWhereClause(
+				"select e from Entity e where e.code in (5, 6)",
+				HqlInterpretationMode.TWO_PASS
+		);
+		final LiteralIntegerExpression value = (LiteralIntegerExpression) integers.getValueExpression( 1 );
+		assertEquals( 6, value.getLiteralValue().intValue() );
+		assertEquals( integers.getValueType(), value.getExpressionType() );
+	}
+
+	private Predicate interpretWhereClause(String query, HqlInterpretationMode mode) {
+		consumerContext.setHqlInterpretationMode( mode );
+		return interpret( query ).getQuerySpec().getWhereClause().getPredicate();
+	}
+
+	private SelectStatement interpret(String query) {
+		return (SelectStatement) SemanticQueryInterpreter.interpret( query, consumerContext );
+	}
+
+	private static ExplicitDomainMetamodel buildMetamodel() {
+		ExplicitDomainMetamodel metamodel = new ExplicitDomainMetamodel();
+
+		EntityTypeImpl entityType = metamodel.makeEntityType( "com.acme.Entity" );
+		entityType.makeSingularAttribute(
+				"basic",
+				StandardBasicTypeDescriptors.INSTANCE.STRING
+		);
+		entityType.makeSingularAttribute(
+				"code",
+				StandardBasicTypeDescriptors.INSTANCE.INTEGER
+		);
+
+		return metamodel;
+	}
+}
@@ -0,0 +1,135 @@
+/*
+ * Hibernate, Relational Persistence for Idiomatic Java
+ *
+ * License: Apache License, Version 2.0
+ * See the LICENSE file in the root directory or visit http://www.apache.org/licenses/LICENSE-2.0
+ */
+package org.hibernate.test.query.parser.hql;
+
+import org.hibernate.sqm.SemanticQueryInterpreter;
+import org.hibernate.sqm.parser.HqlInterpretationMode;
+import org.hibernate.sqm.parser.internal.BasicTypeCache;
+import org.hibernate.sqm.parser.internal.LiteralInterner;
+import org.hibernate.sqm.query.SelectStatement;
+import org.hibernate.sqm.query.TreeException;
+import org.hibernate.sqm.query.expression.LiteralIntegerExpression;
+import org.hibernate.sqm.query.expression.LiteralTrueExpression;
+import org.hibernate.sqm.query.predicate.BetweenPredicate;
+import org.hibernate.sqm.query.predicate.JunctionPredicate;
+import org.hibernate.sqm.query.predicate.RelationalPredicate;
+
+import org.hibernate.test.query.parser.ConsumerContextImpl;
+import org.hibernate.test.sqm.domain.EntityTypeImpl;
+import org.hibernate.test.sqm.domain.ExplicitDomainMetamodel;
+import org.hibernate.test.sqm.domain.StandardBasicTypeDescriptors;
+import org.junit.Test;
+
+import static org.hamcrest.CoreMatchers.instanceOf;
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.fail;
+
+/**
+ * Tests that literals are shared within an interpretation
+ *
+ * @author agent
+ */
+public class LiteralInterningTest {
+	private final ConsumerContextImpl consumerContext = new ConsumerContextImpl( buildMetamodel() );
+
+	@Test
+	public void testRepeatedLiteralsAreShared() {
+		for ( HqlInterpretationMode mode : HqlInterpretationMode.values() ) {
+			final JunctionPredicate junction = interpretWhereClause(
+					"select e from Entity e where e.basic = 'ab' or e.basic = 'ab' or e.code = 1 or e.code = 1 "
+							+ "or e.code = 100000 or e.code = 100000",
+					mode
+			);
+			assertSame( rhs( junction, 0 ), rhs( junction, 1 ) );
+			assertSame( rhs( junction, 2 ), rhs( junction, 3 ) );
+			// large integers are not shared
+			assertNotSame( rhs( junction, 4 ), rhs( junction, 5 ) );
+			assertEquals( 100000, ( (LiteralIntegerExpression) rhs( junction, 5 ) ).getLiteralValue().intValue() );
+		}
+	}
+
+	@Test
+	public void testBooleanLiterals() {
+		for ( HqlInterpretationMode mode : HqlInterpretationMode.values() ) {
+			final JunctionPredicate junction = interpretWhereClause(
+					"select e from Entity e where e.flag = true or e.flag = true or e.flag = false",
+					mode
+			);
+			assertThat( rhs( junction, 0 ), instanceOf( LiteralTrueExpression.class ) );
+			assertSame( rhs( junction, 0 ), rhs( junction, 1 ) );
+			assertThat( ( (RelationalPredicate) junction.getPredicates().get( 2 ) ).getRightHandExpression().getExpressionType().getTypeName(), is( Boolean.class.getName() ) );
+		}
+	}
+
+	@Test
+	public void testImpliedTypesDoNotAffectSharedLiterals() {
+		for ( HqlInterpretationMode mode : HqlInterpretationMode.values() ) {
+			final JunctionPredicate junction = interpretWhereClause(
+					"select e from Entity e where e.code between 1 and -1 or e.code = 1",
+					mode
+			);
+			final BetweenPredicate between = (BetweenPredicate) junction.getPredicates().get( 0 );
+			assertThat( between.getLowerBound(), instanceOf( LiteralIntegerExpression.class ) );
+			assertNotSame( between.getLowerBound(), rhs( junction, 1 ) );
+		}
+	}
+
+	@Test
+	public void testSharedLiteralsRejectImpliedTypes() {
+		final LiteralInterner literalInterner = new LiteralInterner(
+				new BasicTypeCache( consumerContext.getDomainMetamodel() )
+		);
+		final LiteralIntegerExpression shared = literalInterner.integerLiteral( 1 );
+		assertSame( shared, literalInterner.integerLiteral( 1 ) );
+		try {
+			shared.impliedType( StandardBasicTypeDescriptors.INSTANCE.LONG );
+			fail( "Expecting TreeException" );
+		}
+		catch (TreeException expected) {
+		}
+		assertEquals( Integer.class, shared.getExpressionType().getJavaType() );
+
+		// an unshared copy takes the implied type without affecting the shared literal
+		final LiteralIntegerExpression unshared = (LiteralIntegerExpression) literalInterner.unshare( shared );
+		assertNotSame( shared, unshared );
+		unshared.impliedType( StandardBasicTypeDescriptors.INSTANCE.INTEGER );
+	}
+
+	private JunctionPredicate interpretWhereClause(String query, HqlInterpretationMode mode) {
+		consumerContext.setHqlInterpretationMode( mode );
+		final SelectStatement statement = (SelectStatement) SemanticQueryInterpreter.interpret( query, consumerContext );
+		return (JunctionPredicate) statement.getQuerySpec().getWhereClause().getPredicate();
+	}
+
+	private static Object rhs(JunctionPredicate junction, int index) {
+		return ( (RelationalPredicate) junction.getPredicates().get( index ) ).getRightHandExpression();
+	}
+
+	private static ExplicitDomainMetamodel buildMetamodel() {
+		ExplicitDomainMetamodel metamodel = new ExplicitDomainMetamodel();
+
+		EntityTypeImpl entityType = metamodel.makeEntityType( "com.acme.Entity" );
+		entityType.makeSingularAttribute(
+				"basic",
+				StandardBasicTypeDescriptors.INSTANCE.STRING
+		);
+		entityType.makeSingularAttribute(
+				"code",
+				StandardBasicTypeDescriptors.INSTANCE.INTEGER
+		);
+		entityType.makeSingularAttribute(
+				"flag",
+				StandardBasicTypeDescriptors.INSTANCE.BOOLEAN
+		);
+
+		return metamodel;
+	}
+}
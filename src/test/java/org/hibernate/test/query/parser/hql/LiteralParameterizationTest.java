@@ -0,0 +1,226 @@
+/*
+ * Hibernate, Relational Persistence for Idiomatic Java
+ *
+ * License: Apache License, Version 2.0
+ * See the LICENSE file in the root directory or visit http://www.apache.org/licenses/LICENSE-2.0
+ */
+package org.hibernate.test.query.parser.hql;
+
+import java.util.Arrays;
+
+import org.hibernate.sqm.SemanticQueryInterpreter;
+import org.hibernate.sqm.cache.InterpretationCache;
+import org.hibernate.sqm.domain.DomainMetamodel;
+import org.hibernate.sqm.parser.LiteralParameterizer;
+import org.hibernate.sqm.parser.ParameterizedStatement;
+import org.hibernate.sqm.query.SelectStatement;
+import org.hibernate.sqm.query.UpdateStatement;
+import org.hibernate.sqm.query.expression.AttributeReferenceExpression;
+import org.hibernate.sqm.query.expression.LiteralCharacterExpression;
+import org.hibernate.sqm.query.expression.LiteralIntegerExpression;
+import org.hibernate.sqm.query.expression.LiteralStringExpression;
+import org.hibernate.sqm.query.expression.SyntheticParameterExpression;
+import org.hibernate.sqm.query.from.QualifiedAttributeJoinFromElement;
+import org.hibernate.sqm.query.predicate.JunctionPredicate;
+import org.hibernate.sqm.query.predicate.LikePredicate;
+import org.hibernate.sqm.query.predicate.RelationalPredicate;
+
+import org.hibernate.test.query.parser.ConsumerContextImpl;
+import org.hibernate.test.sqm.domain.EntityTypeImpl;
+import org.hibernate.test.sqm.domain.ExplicitDomainMetamodel;
+import org.hibernate.test.sqm.domain.StandardBasicTypeDescriptors;
+import org.junit.Test;
+
+import static org.hamcrest.CoreMatchers.instanceOf;
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.not;
+import static org.hamcrest.CoreMatchers.sameInstance;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertThat;
+
+/**
+ * Tests for {@link LiteralParameterizer}
+ *
+ * @author agent
+ */
+public class LiteralParameterizationTest {
+	private final ConsumerContextImpl consumerContext = new ConsumerContextImpl( buildMetamodel() );
+
+	@Test
+	public void testLiteralsInWhereClauseAreParameterized() {
+		final SelectStatement original = interpret( "select t.basicName from Trip t where t.basicName = 'OPEN' and t.code = 42" );
+		final ParameterizedStatement parameterized = LiteralParameterizer.parameterize( original );
+
+		assertEquals( Arrays.<Object>asList( "OPEN", 42 ), parameterized.getParameterValues() );
+		assertEquals( 2, parameterized.getSyntheticParameters().size() );
+
+		final SelectStatement copy = (SelectStatement) parameterized.getStatement();
+		final JunctionPredicate and = (JunctionPredicate) copy.getQuerySpec().getWhereClause().getPredicate();
+		final RelationalPredicate first = (RelationalPredicate) and.getPredicates().get( 0 );
+		assertThat( first.getRightHandExpression(), instanceOf( SyntheticParameterExpression.class ) );
+		final SyntheticParameterExpression parameter = (SyntheticParameterExpression) first.getRightHandExpression();
+		assertThat( parameter.getSyntheticPosition(), is( 0 ) );
+		assertThat( parameter.getExpressionType().getTypeName(), is( String.class.getName() ) );
+		assertThat( parameterized.getParameterValue( parameter ), is( (Object) "OPEN" ) );
+
+		// the copy refers to its own from-elements
+		final AttributeReferenceExpression attributeReference = (AttributeReferenceExpression) first.getLeftHandExpression();
+		assertThat(
+				attributeReference.getAttributeBindingSource().getFromElement(),
+				sameInstance( copy.getQuerySpec().getFromClause().getFromElementSpaces().get( 0 ).getRoot() )
+		);
+
+		// the original is left alone
+		final JunctionPredicate originalAnd = (JunctionPredicate) original.getQuerySpec().getWhereClause().getPredicate();
+		assertThat(
+				( (RelationalPredicate) originalAnd.getPredicates().get( 0 ) ).getRightHandExpression(),
+				instanceOf( LiteralStringExpression.class )
+		);
+	}
+
+	@Test
+	public void testStructurallyIdenticalQueriesShareShape() {
+		final ParameterizedStatement first = LiteralParameterizer.parameterize(
+				interpret( "select t from Trip t where t.code = 1 or t.basicName = 'aa'" )
+		);
+		final ParameterizedStatement second = LiteralParameterizer.parameterize(
+				interpret( "select t from Trip t where t.code = 2 or t.basicName = 'bb'" )
+		);
+
+		assertEquals( first.getSyntheticParameters().size(), second.getSyntheticParameters().size() );
+		assertEquals( Arrays.<Object>asList( 1, "aa" ), first.getParameterValues() );
+		assertEquals( Arrays.<Object>asList( 2, "bb" ), second.getParameterValues() );
+	}
+
+	@Test
+	public void testCachedQueriesShareParameterizedStatement() {
+		final InterpretationCache cache = new InterpretationCache( 10 );
+		final ParameterizedStatement first = SemanticQueryInterpreter.interpretParameterized(
+				"select t from Trip t where t.code = 1 or t.basicName = 'aa'",
+				consumerContext,
+				cache
+		);
+		final ParameterizedStatement second = SemanticQueryInterpreter.interpretParameterized(
+				"select t from Trip t where t.code = 2 or t.basicName = 'bb'",
+				consumerContext,
+				cache
+		);
+
+		assertThat( second.getStatement(), sameInstance( first.getStatement() ) );
+		assertEquals( Arrays.<Object>asList( 1, "aa" ), first.getParameterValues() );
+		assertEquals( Arrays.<Object>asList( 2, "bb" ), second.getParameterValues() );
+		assertEquals( 1, cache.getParameterizedShapeCount() );
+
+		// the same query again is a cache hit
+		assertThat(
+				SemanticQueryInterpreter.interpretParameterized(
+						"select t from Trip t where t.code = 2 or t.basicName = 'bb'",
+						consumerContext,
+						cache
+				),
+				sameInstance( second )
+		);
+		assertEquals( 1, cache.getHitCount() );
+
+		// literals left inline are part of the shape
+		final ParameterizedStatement selectLiteral = SemanticQueryInterpreter.interpretParameterized(
+				"select t, 1 from Trip t where t.code = 1 or t.basicName = 'aa'",
+				consumerContext,
+				cache
+		);
+		final ParameterizedStatement otherSelectLiteral = SemanticQueryInterpreter.interpretParameterized(
+				"select t, 2 from Trip t where t.code = 1 or t.basicName = 'aa'",
+				consumerContext,
+				cache
+		);
+		assertThat( otherSelectLiteral.getStatement(), not( sameInstance( selectLiteral.getStatement() ) ) );
+		assertEquals( 3, cache.getParameterizedShapeCount() );
+	}
+
+	@Test
+	public void testSemanticLiteralsStayInline() {
+		final ParameterizedStatement parameterized = LiteralParameterizer.parameterize(
+				interpret( "select t.code, 1 from Trip t where t.basicName like 'a!%' escape '!'" )
+		);
+		assertEquals( Arrays.<Object>asList( "a!%" ), parameterized.getParameterValues() );
+
+		final SelectStatement copy = (SelectStatement) parameterized.getStatement();
+		assertThat(
+				copy.getQuerySpec().getSelectClause().getSelections().get( 1 ).getExpression(),
+				instanceOf( LiteralIntegerExpression.class )
+		);
+		final LikePredicate like = (LikePredicate) copy.getQuerySpec().getWhereClause().getPredicate();
+		assertThat( like.getPattern(), instanceOf( SyntheticParameterExpression.class ) );
+		assertThat( like.getEscapeCharacter(), instanceOf( LiteralCharacterExpression.class ) );
+	}
+
+	@Test
+	public void testJoinPredicatesAndSubQueriesAreParameterized() {
+		final ParameterizedStatement parameterized = LiteralParameterizer.parameterize(
+				interpret(
+						"select t from Trip t join t.legs l on l.basicName = 'xx' " +
+								"where t.code in (select t2.code from Trip t2 where t2.code > 5)"
+				)
+		);
+		assertEquals( Arrays.<Object>asList( "xx", 5 ), parameterized.getParameterValues() );
+
+		final SelectStatement copy = (SelectStatement) parameterized.getStatement();
+		final QualifiedAttributeJoinFromElement join = (QualifiedAttributeJoinFromElement) copy.getQuerySpec()
+				.getFromClause()
+				.getFromElementSpaces()
+				.get( 0 )
+				.getJoins()
+				.get( 0 );
+		assertThat(
+				join.getAttributeBindingSource().getFromElement(),
+				sameInstance( copy.getQuerySpec().getFromClause().getFromElementSpaces().get( 0 ).getRoot() )
+		);
+		final RelationalPredicate onClause = (RelationalPredicate) join.getOnClausePredicate();
+		assertThat( onClause.getRightHandExpression(), instanceOf( SyntheticParameterExpression.class ) );
+	}
+
+	@Test
+	public void testUpdateStatement() {
+		final ParameterizedStatement parameterized = LiteralParameterizer.parameterize(
+				SemanticQueryInterpreter.interpret( "update Trip t set t.code = 7 where t.basicName = 'xx'", consumerContext )
+		);
+		assertEquals( Arrays.<Object>asList( 7, "xx" ), parameterized.getParameterValues() );
+
+		final UpdateStatement copy = (UpdateStatement) parameterized.getStatement();
+		assertThat(
+				copy.getSetClause().getAssignments().get( 0 ).getValue(),
+				instanceOf( SyntheticParameterExpression.class )
+		);
+	}
+
+	private SelectStatement interpret(String query) {
+		return (SelectStatement) SemanticQueryInterpreter.interpret( query, consumerContext );
+	}
+
+	private DomainMetamodel buildMetamodel() {
+		ExplicitDomainMetamodel metamodel = new ExplicitDomainMetamodel();
+
+		EntityTypeImpl legType = metamodel.makeEntityType( "com.acme.Leg" );
+		legType.makeSingularAttribute(
+				"basicName",
+				StandardBasicTypeDescriptors.INSTANCE.STRING
+		);
+
+		EntityTypeImpl tripType = metamodel.makeEntityType( "com.acme.Trip" );
+		tripType.makeSingularAttribute(
+				"basicName",
+				StandardBasicTypeDescriptors.INSTANCE.STRING
+		);
+		tripType.makeSingularAttribute(
+				"code",
+				StandardBasicTypeDescriptors.INSTANCE.INTEGER
+		);
+		tripType.makeListAttribute(
+				"legs",
+				StandardBasicTypeDescriptors.INSTANCE.INTEGER,
+				legType
+		);
+
+		return metamodel;
+	}
+}
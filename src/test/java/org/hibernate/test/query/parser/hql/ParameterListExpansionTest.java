@@ -0,0 +1,210 @@
+/*
+ * Hibernate, Relational Persistence for Idiomatic Java
+ *
+ * License: Apache License, Version 2.0
+ * See the LICENSE file in the root directory or visit http://www.apache.org/licenses/LICENSE-2.0
+ */
+package org.hibernate.test.query.parser.hql;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.hibernate.sqm.SemanticQueryInterpreter;
+import org.hibernate.sqm.parser.ExpandedStatement;
+import org.hibernate.sqm.parser.HqlInterpretationMode;
+import org.hibernate.sqm.parser.LiteralParameterizer;
+import org.hibernate.sqm.parser.ParameterListExpander;
+import org.hibernate.sqm.parser.ParameterListPadding;
+import org.hibernate.sqm.query.SelectStatement;
+import org.hibernate.sqm.query.Statement;
+import org.hibernate.sqm.query.expression.NamedParameterExpression;
+import org.hibernate.sqm.query.expression.SyntheticParameterExpression;
+import org.hibernate.sqm.query.predicate.InListPredicate;
+import org.hibernate.sqm.query.predicate.JunctionPredicate;
+import org.hibernate.sqm.query.predicate.Predicate;
+
+import org.hibernate.test.query.parser.ConsumerContextImpl;
+import org.hibernate.test.sqm.domain.EntityTypeImpl;
+import org.hibernate.test.sqm.domain.ExplicitDomainMetamodel;
+import org.hibernate.test.sqm.domain.StandardBasicTypeDescriptors;
+import org.junit.Test;
+
+import static org.hamcrest.CoreMatchers.instanceOf;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * Tests for {@link ParameterListExpander}
+ *
+ * @author agent
+ */
+public class ParameterListExpansionTest {
+	private final ConsumerContextImpl consumerContext = new ConsumerContextImpl( buildMetamodel() );
+
+	@Test
+	public void testPowersOfTwo() {
+		final ParameterListPadding padding = ParameterListPadding.POWERS_OF_TWO;
+		assertEquals( 1, padding.getBucketSize( 1 ) );
+		assertEquals( 2, padding.getBucketSize( 2 ) );
+		assertEquals( 4, padding.getBucketSize( 3 ) );
+		assertEquals( 8, padding.getBucketSize( 5 ) );
+		assertEquals( 1024, padding.getBucketSize( 1000 ) );
+		assertEquals( 7, ParameterListPadding.NONE.getBucketSize( 7 ) );
+	}
+
+	@Test
+	public void testLadder() {
+		final ParameterListPadding padding = ParameterListPadding.ladder( 10, 50, 100 );
+		assertEquals( 10, padding.getBucketSize( 1 ) );
+		assertEquals( 10, padding.getBucketSize( 10 ) );
+		assertEquals( 50, padding.getBucketSize( 11 ) );
+		assertEquals( 100, padding.getBucketSize( 100 ) );
+		// beyond the ladder, multiples of the largest bucket
+		assertEquals( 200, padding.getBucketSize( 101 ) );
+
+		try {
+			ParameterListPadding.ladder( 10, 5 );
+			fail( "Expecting IllegalArgumentException" );
+		}
+		catch (IllegalArgumentException expected) {
+		}
+		try {
+			padding.getBucketSize( 0 );
+			fail( "Expecting IllegalArgumentException" );
+		}
+		catch (IllegalArgumentException expected) {
+		}
+	}
+
+	@Test
+	public void testExpansion() {
+		for ( HqlInterpretationMode mode : HqlInterpretationMode.values() ) {
+			for ( String query : Arrays.asList(
+					"select e from Entity e where e.code in (:ids)",
+					"select e from Entity e where e.code in :ids"
+			) ) {
+				final ParameterListExpander expander = new ParameterListExpander(
+						interpret( query, mode ),
+						ParameterListPadding.POWERS_OF_TWO
+				);
+				assertEquals( 1, expander.getParameterLists().size() );
+				assertEquals( "ids", expander.getParameterLists().get( 0 ).getName() );
+
+				final ExpandedStatement expanded = expander.expand( bindings( "ids", 1, 2, 3 ) );
+				assertTrue( expanded.getStatement().isFrozen() );
+				assertEquals( Arrays.<Object>asList( 1, 2, 3, 3 ), expanded.getParameterValues() );
+
+				final InListPredicate predicate = (InListPredicate) whereClausePredicate( expanded.getStatement() );
+				assertEquals( 4, predicate.getListExpressions().size() );
+				final SyntheticParameterExpression slot = (SyntheticParameterExpression) predicate.getListExpressions().get( 1 );
+				assertEquals( 2, expanded.getParameterValue( slot ) );
+				assertEquals( Integer.class.getName(), slot.getExpressionType().getTypeName() );
+			}
+		}
+	}
+
+	@Test
+	public void testExpansionsAreCachedPerBucket() {
+		final ParameterListExpander expander = new ParameterListExpander(
+				interpret( "select e from Entity e where e.code in (:ids)", HqlInterpretationMode.TWO_PASS ),
+				ParameterListPadding.POWERS_OF_TWO
+		);
+		final ExpandedStatement three = expander.expand( bindings( "ids", 1, 2, 3 ) );
+		final ExpandedStatement four = expander.expand( bindings( "ids", 4, 5, 6, 7 ) );
+		final ExpandedStatement five = expander.expand( bindings( "ids", 1, 2, 3, 4, 5 ) );
+
+		assertSame( three.getStatement(), four.getStatement() );
+		assertNotSame( four.getStatement(), five.getStatement() );
+		assertEquals( Arrays.<Object>asList( 4, 5, 6, 7 ), four.getParameterValues() );
+		assertEquals( Arrays.<Object>asList( 1, 2, 3, 4, 5, 5, 5, 5 ), five.getParameterValues() );
+	}
+
+	@Test
+	public void testPositionalAndRepeatedParameterLists() {
+		final ParameterListExpander expander = new ParameterListExpander(
+				interpret(
+						"select e from Entity e where e.code in (?1) or e.code in (:ids) or e.basic in (?1) or e.code = :other",
+						HqlInterpretationMode.TWO_PASS
+				),
+				ParameterListPadding.NONE
+		);
+		assertEquals( 2, expander.getParameterLists().size() );
+
+		final Map<Object, List<?>> bindings = new HashMap<Object, List<?>>();
+		bindings.put( 1, Arrays.asList( 10, 20 ) );
+		final ExpandedStatement expanded = expander.expand( bindings );
+		assertEquals( Arrays.<Object>asList( 10, 20 ), expanded.getParameterValues() );
+
+		final JunctionPredicate junction = (JunctionPredicate) whereClausePredicate( expanded.getStatement() );
+		final InListPredicate first = (InListPredicate) junction.getPredicates().get( 0 );
+		final InListPredicate repeated = (InListPredicate) junction.getPredicates().get( 2 );
+		assertEquals( 2, repeated.getListExpressions().size() );
+		for ( int i = 0; i < 2; i++ ) {
+			assertEquals(
+					( (SyntheticParameterExpression) first.getListExpressions().get( i ) ).getSyntheticPosition(),
+					( (SyntheticParameterExpression) repeated.getListExpressions().get( i ) ).getSyntheticPosition()
+			);
+		}
+
+		// :ids was not bound to a collection, and so is left alone
+		final InListPredicate unbound = (InListPredicate) junction.getPredicates().get( 1 );
+		assertThat( unbound.getListExpressions().get( 0 ), instanceOf( NamedParameterExpression.class ) );
+	}
+
+	@Test
+	public void testAfterParameterization() {
+		final Statement parameterized = LiteralParameterizer.parameterize(
+				interpret( "select e from Entity e where e.basic = 'ab' and e.code in (:ids)", HqlInterpretationMode.TWO_PASS )
+		).getStatement();
+		final ExpandedStatement expanded = new ParameterListExpander( parameterized, ParameterListPadding.NONE )
+				.expand( bindings( "ids", 5, 6 ) );
+
+		// the synthetic parameters standing for literals keep their positions
+		assertEquals( 1, expanded.getSyntheticParameters().get( 0 ).getSyntheticPosition() );
+		assertEquals( 6, expanded.getParameterValue( expanded.getSyntheticParameters().get( 1 ) ) );
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testEmptyParameterList() {
+		new ParameterListExpander(
+				interpret( "select e from Entity e where e.code in (:ids)", HqlInterpretationMode.TWO_PASS ),
+				ParameterListPadding.POWERS_OF_TWO
+		).expand( Collections.singletonMap( "ids", Collections.emptyList() ) );
+	}
+
+	private static Map<String, List<?>> bindings(String name, Object... values) {
+		return Collections.<String, List<?>>singletonMap( name, Arrays.asList( values ) );
+	}
+
+	private static Predicate whereClausePredicate(Statement statement) {
+		return ( (SelectStatement) statement ).getQuerySpec().getWhereClause().getPredicate();
+	}
+
+	private Statement interpret(String query, HqlInterpretationMode mode) {
+		consumerContext.setHqlInterpretationMode( mode );
+		return SemanticQueryInterpreter.interpret( query, consumerContext );
+	}
+
+	private static ExplicitDomainMetamodel buildMetamodel() {
+		ExplicitDomainMetamodel metamodel = new ExplicitDomainMetamodel();
+
+		EntityTypeImpl entityType = metamodel.makeEntityType( "com.acme.Entity" );
+		entityType.makeSingularAttribute(
+				"basic",
+				StandardBasicTypeDescriptors.INSTANCE.STRING
+		);
+		entityType.makeSingularAttribute(
+				"code",
+				StandardBasicTypeDescriptors.INSTANCE.INTEGER
+		);
+
+		return metamodel;
+	}
+}
@@ -0,0 +1,193 @@
+/*
+ * Hibernate, Relational Persistence for Idiomatic Java
+ *
+ * License: Apache License, Version 2.0
+ * See the LICENSE file in the root directory or visit http://www.apache.org/licenses/LICENSE-2.0
+ */
+package org.hibernate.test.query.parser.hql;
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+import org.hibernate.sqm.domain.DomainMetamodel;
+import org.hibernate.sqm.parser.HqlPredictionMode;
+import org.hibernate.sqm.parser.internal.ParsingContext;
+import org.hibernate.sqm.parser.internal.hql.HqlParseTreeBuilder;
+import org.hibernate.sqm.parser.internal.hql.SemanticQueryBuilder;
+import org.hibernate.sqm.parser.internal.hql.antlr.HqlParser;
+import org.hibernate.sqm.parser.internal.hql.path.PathHelper;
+import org.hibernate.sqm.query.Statement;
+
+import org.hibernate.test.query.parser.ConsumerContextImpl;
+import org.hibernate.test.sqm.domain.EntityTypeImpl;
+import org.hibernate.test.sqm.domain.ExplicitDomainMetamodel;
+import org.hibernate.test.sqm.domain.StandardBasicTypeDescriptors;
+
+import org.antlr.v4.runtime.ParserRuleContext;
+import org.antlr.v4.runtime.tree.ParseTree;
+
+/**
+ * Measures the heap allocated while extracting path parts and names from HQL parse trees : the
+ * {@code getText()}-and-split approach against reading the identifier tokens through {@link PathHelper},
+ * plus the total allocated by semantic analysis (excluding parsing) per query.  Relies on the HotSpot
+ * per-thread allocation counter.
+ * <p/>
+ * Not a test; run the main method, optionally passing the number of measured iterations.
+ *
+ * @author agent
+ */
+public class PathExtractionAllocationBenchmark {
+	private static final String[] QUERIES = new String[] {
+			"select t from Trip t",
+			"select t.basicName, l.code from Trip t join t.legs l where t.code between 1 and 10 order by t.code desc",
+			"select new list(t.code, t.basicName) from Trip t where t.basicName like 'ab%' or t.code in (1, 2, 3)",
+			"select t from Trip t where t.code in (select max(l.code) from Leg l where l.basicName = :name)",
+			"select t.basicName from com.acme.Trip t where t.code = 1 and t.basicName = 'x' or t.code = 2",
+			"update Trip t set t.code = 7 where t.basicName = 'xx'",
+	};
+
+	public static void main(String[] args) {
+		final int iterations = args.length > 0 ? Integer.parseInt( args[0] ) : 20000;
+
+		final com.sun.management.ThreadMXBean threadBean = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+		final long threadId = Thread.currentThread().getId();
+
+		final ConsumerContextImpl consumerContext = new ConsumerContextImpl( buildMetamodel() );
+		final HqlParser.StatementContext[] trees = new HqlParser.StatementContext[QUERIES.length];
+		final List<HqlParser.DotIdentifierSequenceContext> sequences = new ArrayList<HqlParser.DotIdentifierSequenceContext>();
+		final List<HqlParser.PathTerminalContext> terminals = new ArrayList<HqlParser.PathTerminalContext>();
+		for ( int i = 0; i < QUERIES.length; i++ ) {
+			trees[i] = HqlParseTreeBuilder.INSTANCE.parseStatement( QUERIES[i], HqlPredictionMode.SLL_WITH_LL_FALLBACK );
+			collect( trees[i], sequences, terminals );
+		}
+
+		// warm-up
+		runGetText( sequences, terminals, iterations / 4 );
+		runTokens( sequences, terminals, iterations / 4 );
+		runAnalysis( consumerContext, trees, iterations / 4 );
+
+		long start = threadBean.getThreadAllocatedBytes( threadId );
+		final int getTextSink = runGetText( sequences, terminals, iterations );
+		final long getTextBytes = threadBean.getThreadAllocatedBytes( threadId ) - start;
+
+		start = threadBean.getThreadAllocatedBytes( threadId );
+		final int tokensSink = runTokens( sequences, terminals, iterations );
+		final long tokensBytes = threadBean.getThreadAllocatedBytes( threadId ) - start;
+
+		start = threadBean.getThreadAllocatedBytes( threadId );
+		long nanos = System.nanoTime();
+		final int analysisSink = runAnalysis( consumerContext, trees, iterations );
+		nanos = System.nanoTime() - nanos;
+		final long analysisBytes = threadBean.getThreadAllocatedBytes( threadId ) - start;
+
+		final int operations = iterations * QUERIES.length;
+		System.out.println( String.format( Locale.ROOT, "queries          : %d x %d iterations", QUERIES.length, iterations ) );
+		System.out.println(
+				String.format(
+						Locale.ROOT,
+						"paths            : %d dotIdentifierSequence, %d pathTerminal",
+						sequences.size(),
+						terminals.size()
+				)
+		);
+		System.out.println( String.format( Locale.ROOT, "getText + split  : %,10.0f bytes/query", (double) getTextBytes / operations ) );
+		System.out.println( String.format( Locale.ROOT, "identifier tokens: %,10.0f bytes/query", (double) tokensBytes / operations ) );
+		System.out.println( String.format( Locale.ROOT, "analysis total   : %,10.0f bytes/query", (double) analysisBytes / operations ) );
+		System.out.println( String.format( Locale.ROOT, "analysis time    : %,10.0f ns/query", (double) nanos / operations ) );
+		// keep the results alive
+		System.out.println( "(" + ( getTextSink + tokensSink + analysisSink ) + ")" );
+	}
+
+	private static void collect(
+			ParseTree node,
+			List<HqlParser.DotIdentifierSequenceContext> sequences,
+			List<HqlParser.PathTerminalContext> terminals) {
+		if ( node instanceof HqlParser.DotIdentifierSequenceContext ) {
+			sequences.add( (HqlParser.DotIdentifierSequenceContext) node );
+		}
+		else if ( node instanceof HqlParser.PathTerminalContext ) {
+			terminals.add( (HqlParser.PathTerminalContext) node );
+		}
+		if ( node instanceof ParserRuleContext ) {
+			for ( int i = 0; i < node.getChildCount(); i++ ) {
+				collect( node.getChild( i ), sequences, terminals );
+			}
+		}
+	}
+
+	private static int runGetText(
+			List<HqlParser.DotIdentifierSequenceContext> sequences,
+			List<HqlParser.PathTerminalContext> terminals,
+			int iterations) {
+		int sink = 0;
+		for ( int i = 0; i < iterations; i++ ) {
+			for ( HqlParser.DotIdentifierSequenceContext sequence : sequences ) {
+				sink += PathHelper.split( sequence.getText() ).length;
+			}
+			for ( HqlParser.PathTerminalContext terminal : terminals ) {
+				sink += PathHelper.split( terminal.getText() ).length;
+			}
+		}
+		return sink;
+	}
+
+	private static int runTokens(
+			List<HqlParser.DotIdentifierSequenceContext> sequences,
+			List<HqlParser.PathTerminalContext> terminals,
+			int iterations) {
+		int sink = 0;
+		for ( int i = 0; i < iterations; i++ ) {
+			for ( HqlParser.DotIdentifierSequenceContext sequence : sequences ) {
+				sink += PathHelper.split( sequence ).length;
+			}
+			for ( HqlParser.PathTerminalContext terminal : terminals ) {
+				sink += PathHelper.split( terminal ).length;
+			}
+		}
+		return sink;
+	}
+
+	private static int runAnalysis(ConsumerContextImpl consumerContext, HqlParser.StatementContext[] trees, int iterations) {
+		int sink = 0;
+		for ( int i = 0; i < iterations; i++ ) {
+			for ( HqlParser.StatementContext tree : trees ) {
+				final Statement statement = new SemanticQueryBuilder( new ParsingContext( consumerContext ) ).visitStatement( tree );
+				sink += statement.getType().ordinal();
+			}
+		}
+		return sink;
+	}
+
+	private static DomainMetamodel buildMetamodel() {
+		ExplicitDomainMetamodel metamodel = new ExplicitDomainMetamodel();
+
+		EntityTypeImpl legType = metamodel.makeEntityType( "com.acme.Leg" );
+		legType.makeSingularAttribute(
+				"basicName",
+				StandardBasicTypeDescriptors.INSTANCE.STRING
+		);
+		legType.makeSingularAttribute(
+				"code",
+				StandardBasicTypeDescriptors.INSTANCE.INTEGER
+		);
+
+		EntityTypeImpl tripType = metamodel.makeEntityType( "com.acme.Trip" );
+		tripType.makeSingularAttribute(
+				"basicName",
+				StandardBasicTypeDescriptors.INSTANCE.STRING
+		);
+		tripType.makeSingularAttribute(
+				"code",
+				StandardBasicTypeDescriptors.INSTANCE.INTEGER
+		);
+		tripType.makeListAttribute(
+				"legs",
+				StandardBasicTypeDescriptors.INSTANCE.INTEGER,
+				legType
+		);
+
+		return metamodel;
+	}
+}
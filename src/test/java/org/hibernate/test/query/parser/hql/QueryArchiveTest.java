@@ -0,0 +1,249 @@
+/*
+ * Hibernate, Relational Persistence for Idiomatic Java
+ *
+ * License: Apache License, Version 2.0
+ * See the LICENSE file in the root directory or visit http://www.apache.org/licenses/LICENSE-2.0
+ */
+package org.hibernate.test.query.parser.hql;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.hibernate.sqm.SemanticQueryInterpreter;
+import org.hibernate.sqm.codec.DomainMetamodelFactory;
+import org.hibernate.sqm.codec.QueryArchive;
+import org.hibernate.sqm.codec.QueryArchiveBuilder;
+import org.hibernate.sqm.codec.QueryArchiveWriter;
+import org.hibernate.sqm.codec.StatementCodec;
+import org.hibernate.sqm.codec.StatementCodecException;
+import org.hibernate.sqm.domain.DomainMetamodel;
+import org.hibernate.sqm.query.Statement;
+
+import org.hibernate.test.query.parser.ConsumerContextImpl;
+import org.hibernate.test.sqm.domain.EntityTypeImpl;
+import org.hibernate.test.sqm.domain.ExplicitDomainMetamodel;
+import org.hibernate.test.sqm.domain.StandardBasicTypeDescriptors;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.sameInstance;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * Tests for {@link QueryArchive} and {@link QueryArchiveBuilder}
+ *
+ * @author agent
+ */
+public class QueryArchiveTest {
+	@Rule
+	public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+	private final DomainMetamodel metamodel = buildMetamodel();
+	private final ConsumerContextImpl consumerContext = new ConsumerContextImpl( metamodel );
+	private final StatementCodec codec = new StatementCodec( metamodel );
+
+	@Test
+	public void testLazyLookupByNameAndFingerprint() throws Exception {
+		final Map<String,String> queries = new LinkedHashMap<String, String>();
+		queries.put( "tripsByCode", "select t from Trip t where t.code = :code" );
+		queries.put( "legCodes", "select l.code from Trip t join t.legs l" );
+		queries.put( "renameTrips", "update Trip t set t.basicName = :name where t.code > 2" );
+
+		final File archiveFile = temporaryFolder.newFile( "queries.sqma" );
+		assertEquals( 3, QueryArchiveBuilder.build( metamodel, queries, archiveFile ) );
+
+		final QueryArchive archive = QueryArchive.open( archiveFile, codec );
+		assertEquals( 3, archive.size() );
+		assertEquals( Arrays.asList( "legCodes", "renameTrips", "tripsByCode" ), archive.getNames() );
+		assertEquals( 0, archive.getDecodedCount() );
+
+		final Statement expected = interpret( queries.get( "tripsByCode" ) );
+		assertEquals( expected.getFingerprint(), archive.getFingerprint( "tripsByCode" ) );
+		assertEquals( 0, archive.getDecodedCount() );
+
+		final Statement byName = archive.getStatement( "tripsByCode" );
+		assertEquals( expected.getFingerprint(), byName.getFingerprint() );
+		assertTrue( byName.isFrozen() );
+		assertEquals( 1, archive.getDecodedCount() );
+
+		assertThat( archive.getStatement( "tripsByCode" ), sameInstance( byName ) );
+		assertThat( archive.getStatement( expected.getFingerprint() ), sameInstance( byName ) );
+		assertEquals( 1, archive.getDecodedCount() );
+
+		assertEquals(
+				interpret( queries.get( "renameTrips" ) ).getFingerprint(),
+				archive.getStatement( "renameTrips" ).getFingerprint()
+		);
+		assertEquals( 2, archive.getDecodedCount() );
+
+		assertFalse( archive.contains( "unknown" ) );
+		assertNull( archive.getStatement( "unknown" ) );
+		assertNull( archive.getFingerprint( "unknown" ) );
+		assertNull( archive.getStatement( interpret( "select l from Leg l" ).getFingerprint() ) );
+	}
+
+	@Test
+	public void testSameStatementUnderSeveralNames() throws Exception {
+		final ByteArrayOutputStream single = new ByteArrayOutputStream();
+		new QueryArchiveWriter( codec )
+				.add( "a", interpret( "select t from Trip t" ) )
+				.write( single );
+
+		final ByteArrayOutputStream shared = new ByteArrayOutputStream();
+		new QueryArchiveWriter( codec )
+				.add( "a", interpret( "select t from Trip t" ) )
+				.add( "b", interpret( "select x from Trip x" ) )
+				.write( shared );
+
+		final QueryArchive archive = QueryArchive.from( ByteBuffer.wrap( shared.toByteArray() ), codec );
+		assertEquals( 2, archive.size() );
+		assertThat( archive.getFingerprint( "a" ), is( archive.getFingerprint( "b" ) ) );
+		assertEquals( archive.getFingerprint( "a" ), archive.getStatement( "b" ).getFingerprint() );
+
+		// ... and decoded once, whichever way it is looked up
+		assertThat( archive.getStatement( "a" ), sameInstance( archive.getStatement( "b" ) ) );
+		assertThat( archive.getStatement( archive.getFingerprint( "b" ) ), sameInstance( archive.getStatement( "b" ) ) );
+		assertEquals( 1, archive.getDecodedCount() );
+
+		// the encoded statement is only written once; the second entry only adds to the index
+		final int indexEntrySize = 4 + 1 + 8 + 8 + 4 + 4;
+		assertEquals( single.size() + indexEntrySize, shared.size() );
+	}
+
+	@Test
+	public void testDuplicateName() {
+		final QueryArchiveWriter writer = new QueryArchiveWriter( codec ).add( "a", interpret( "select t from Trip t" ) );
+		try {
+			writer.add( "a", interpret( "select l from Leg l" ) );
+			fail( "Expecting IllegalArgumentException" );
+		}
+		catch (IllegalArgumentException expected) {
+		}
+	}
+
+	@Test
+	public void testInvalidArchive() throws Exception {
+		final ByteArrayOutputStream stream = new ByteArrayOutputStream();
+		new QueryArchiveWriter( codec ).add( "a", interpret( "select t from Trip t" ) ).write( stream );
+		final byte[] bytes = stream.toByteArray();
+
+		final byte[] badMagic = bytes.clone();
+		badMagic[0] = 'X';
+		assertOpenFails( badMagic );
+
+		final byte[] badVersion = bytes.clone();
+		badVersion[QueryArchive.MAGIC.length + 3]++;
+		assertOpenFails( badVersion );
+
+		assertOpenFails( Arrays.copyOf( bytes, bytes.length - 1 ) );
+		assertOpenFails( Arrays.copyOf( bytes, 10 ) );
+	}
+
+	@Test
+	public void testInterpretationFailuresAreReported() throws Exception {
+		final Map<String,String> queries = new LinkedHashMap<String, String>();
+		queries.put( "good", "select t from Trip t" );
+		queries.put( "bad", "select t from NotAnEntity t" );
+
+		final File archiveFile = new File( temporaryFolder.getRoot(), "failed.sqma" );
+		try {
+			QueryArchiveBuilder.build( metamodel, queries, archiveFile );
+			fail( "Expecting StatementCodecException" );
+		}
+		catch (StatementCodecException expected) {
+			assertTrue( expected.getMessage().contains( "bad" ) );
+		}
+		assertFalse( archiveFile.exists() );
+	}
+
+	@Test
+	public void testMain() throws Exception {
+		final File queriesFile = temporaryFolder.newFile( "queries.properties" );
+		final Writer writer = new OutputStreamWriter( new FileOutputStream( queriesFile ), "UTF-8" );
+		try {
+			writer.write( "trips=select t from Trip t\n" );
+			writer.write( "legs=select l from Leg l where l.code = 1\n" );
+		}
+		finally {
+			writer.close();
+		}
+
+		final File archiveFile = new File( temporaryFolder.getRoot(), "archive/queries.sqma" );
+		QueryArchiveBuilder.main(
+				new String[] { MetamodelFactory.class.getName(), queriesFile.getPath(), archiveFile.getPath() }
+		);
+
+		final QueryArchive archive = QueryArchive.open( archiveFile, codec );
+		assertEquals( Arrays.asList( "legs", "trips" ), archive.getNames() );
+		assertEquals(
+				interpret( "select l from Leg l where l.code = 1" ).getFingerprint(),
+				archive.getStatement( "legs" ).getFingerprint()
+		);
+	}
+
+	private void assertOpenFails(byte[] bytes) throws IOException {
+		try {
+			QueryArchive.from( ByteBuffer.wrap( bytes ), codec ).getStatement( "a" );
+			fail( "Expecting StatementCodecException" );
+		}
+		catch (StatementCodecException expected) {
+		}
+	}
+
+	private Statement interpret(String query) {
+		return SemanticQueryInterpreter.interpret( query, consumerContext );
+	}
+
+	private static DomainMetamodel buildMetamodel() {
+		ExplicitDomainMetamodel metamodel = new ExplicitDomainMetamodel();
+
+		EntityTypeImpl legType = metamodel.makeEntityType( "com.acme.Leg" );
+		legType.makeSingularAttribute(
+				"basicName",
+				StandardBasicTypeDescriptors.INSTANCE.STRING
+		);
+		legType.makeSingularAttribute(
+				"code",
+				StandardBasicTypeDescriptors.INSTANCE.INTEGER
+		);
+
+		EntityTypeImpl tripType = metamodel.makeEntityType( "com.acme.Trip" );
+		tripType.makeSingularAttribute(
+				"basicName",
+				StandardBasicTypeDescriptors.INSTANCE.STRING
+		);
+		tripType.makeSingularAttribute(
+				"code",
+				StandardBasicTypeDescriptors.INSTANCE.INTEGER
+		);
+		tripType.makeListAttribute(
+				"legs",
+				StandardBasicTypeDescriptors.INSTANCE.INTEGER,
+				legType
+		);
+
+		return metamodel;
+	}
+
+	public static class MetamodelFactory implements DomainMetamodelFactory {
+		@Override
+		public DomainMetamodel buildDomainMetamodel() {
+			return buildMetamodel();
+		}
+	}
+}
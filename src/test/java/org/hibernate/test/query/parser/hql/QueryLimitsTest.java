@@ -0,0 +1,190 @@
+/*
+ * Hibernate, Relational Persistence for Idiomatic Java
+ *
+ * License: Apache License, Version 2.0
+ * See the LICENSE file in the root directory or visit http://www.apache.org/licenses/LICENSE-2.0
+ */
+package org.hibernate.test.query.parser.hql;
+
+import org.hibernate.sqm.SemanticQueryInterpreter;
+import org.hibernate.sqm.cache.InterpretationCache;
+import org.hibernate.sqm.parser.HqlInterpretationMode;
+import org.hibernate.sqm.parser.HqlParseProfile;
+import org.hibernate.sqm.parser.InterpretationTimeoutException;
+import org.hibernate.sqm.parser.NestingTooDeepException;
+import org.hibernate.sqm.parser.QueryLimitExceededException;
+import org.hibernate.sqm.parser.QueryLimits;
+import org.hibernate.sqm.parser.QueryTooLongException;
+import org.hibernate.sqm.parser.TooManyJoinsException;
+import org.hibernate.sqm.parser.TooManySubQueriesException;
+import org.hibernate.sqm.parser.TooManyTokensException;
+import org.hibernate.sqm.query.SelectStatement;
+
+import org.hibernate.test.query.parser.ConsumerContextImpl;
+import org.hibernate.test.sqm.domain.EntityTypeImpl;
+import org.hibernate.test.sqm.domain.ExplicitDomainMetamodel;
+import org.hibernate.test.sqm.domain.StandardBasicTypeDescriptors;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.fail;
+
+/**
+ * Tests for the {@link QueryLimits} guarding against hostile or pathological queries
+ *
+ * @author agent
+ */
+public class QueryLimitsTest {
+	private static final String QUERY = "select e from Entity e join Entity e2 on e2.basic = e.basic "
+			+ "where e.basic = (select s.basic from Entity s where s.basic = 'x')";
+
+	@Test
+	public void testNoLimitsExceeded() {
+		final QueryLimits limits = QueryLimits.NONE
+				.withMaxInputLength( QUERY.length() )
+				.withMaxTokenCount( 100 )
+				.withMaxNestingDepth( 100 )
+				.withMaxJoinCount( 1 )
+				.withMaxSubQueryCount( 1 )
+				.withTimeout( 60000 );
+		for ( HqlInterpretationMode mode : HqlInterpretationMode.values() ) {
+			assertNotNull( interpret( QUERY, limits, mode ) );
+		}
+	}
+
+	@Test
+	public void testInputLength() {
+		assertExceeds( QUERY, QueryLimits.NONE.withMaxInputLength( QUERY.length() - 1 ), QueryTooLongException.class );
+	}
+
+	@Test
+	public void testTokenCount() {
+		assertExceeds( QUERY, QueryLimits.NONE.withMaxTokenCount( 10 ), TooManyTokensException.class );
+	}
+
+	@Test
+	public void testNestingDepth() {
+		assertExceeds( nestedQuery( 50 ), QueryLimits.NONE.withMaxNestingDepth( 50 ), NestingTooDeepException.class );
+
+		// deep enough to overflow the stack of the parser if not stopped
+		assertExceeds( nestedQuery( 100000 ), QueryLimits.NONE.withMaxNestingDepth( 500 ), NestingTooDeepException.class );
+	}
+
+	@Test
+	public void testOperatorChainsNest() {
+		final StringBuilder query = new StringBuilder( "select e from Entity e where e.basic = '0'" );
+		for ( int i = 1; i < 100; i++ ) {
+			query.append( " or e.basic = '" ).append( i ).append( "'" );
+		}
+		assertExceeds( query.toString(), QueryLimits.NONE.withMaxNestingDepth( 50 ), NestingTooDeepException.class );
+	}
+
+	@Test
+	public void testJoinCount() {
+		assertExceeds( QUERY, QueryLimits.NONE.withMaxJoinCount( 0 ), TooManyJoinsException.class );
+	}
+
+	@Test
+	public void testSubQueryCount() {
+		assertExceeds( QUERY, QueryLimits.NONE.withMaxSubQueryCount( 0 ), TooManySubQueriesException.class );
+	}
+
+	@Test
+	public void testTimeout() {
+		final StringBuilder query = new StringBuilder( "select e from Entity e where e.basic = '0'" );
+		for ( int i = 1; i < 1000; i++ ) {
+			query.append( " and e.basic <> '" ).append( i ).append( "'" );
+		}
+		assertExceeds( query.toString(), QueryLimits.NONE.withTimeout( 0 ), InterpretationTimeoutException.class );
+	}
+
+	@Test
+	public void testFailFastParseProfile() {
+		final ConsumerContextImpl consumerContext = new ConsumerContextImpl( buildMetamodel() );
+		consumerContext.setHqlParseProfile( HqlParseProfile.FAIL_FAST );
+		consumerContext.setQueryLimits( QueryLimits.NONE.withMaxTokenCount( 10 ) );
+		try {
+			SemanticQueryInterpreter.interpret( QUERY, consumerContext );
+			fail( "Expecting TooManyTokensException" );
+		}
+		catch (TooManyTokensException expected) {
+			assertEquals( 10, expected.getLimit() );
+		}
+	}
+
+	@Test
+	public void testCachedInterpretationsRespectLimits() {
+		final InterpretationCache cache = new InterpretationCache( 10 );
+		final ConsumerContextImpl consumerContext = new ConsumerContextImpl( buildMetamodel() );
+		assertNotNull( SemanticQueryInterpreter.interpret( QUERY, consumerContext, cache ) );
+
+		consumerContext.setQueryLimits( QueryLimits.NONE.withMaxInputLength( QUERY.length() - 1 ) );
+		try {
+			SemanticQueryInterpreter.interpret( QUERY, consumerContext, cache );
+			fail( "Expecting QueryTooLongException" );
+		}
+		catch (QueryTooLongException expected) {
+		}
+
+		consumerContext.setQueryLimits( QueryLimits.NONE.withMaxJoinCount( 0 ) );
+		try {
+			SemanticQueryInterpreter.interpret( QUERY, consumerContext, cache );
+			fail( "Expecting TooManyJoinsException" );
+		}
+		catch (TooManyJoinsException expected) {
+		}
+		assertEquals( 0, cache.getHitCount() );
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testNegativeLimit() {
+		QueryLimits.NONE.withMaxJoinCount( -2 );
+	}
+
+	private static String nestedQuery(int depth) {
+		final StringBuilder query = new StringBuilder( "select e from Entity e where " );
+		for ( int i = 0; i < depth; i++ ) {
+			query.append( '(' );
+		}
+		query.append( "e.basic = 'x'" );
+		for ( int i = 0; i < depth; i++ ) {
+			query.append( ')' );
+		}
+		return query.toString();
+	}
+
+	private void assertExceeds(
+			String query,
+			QueryLimits limits,
+			Class<? extends QueryLimitExceededException> expectedType) {
+		for ( HqlInterpretationMode mode : HqlInterpretationMode.values() ) {
+			try {
+				interpret( query, limits, mode );
+				fail( "Expecting " + expectedType.getSimpleName() + " [" + mode + "]" );
+			}
+			catch (QueryLimitExceededException e) {
+				assertEquals( mode.toString(), expectedType, e.getClass() );
+			}
+		}
+	}
+
+	private SelectStatement interpret(String query, QueryLimits limits, HqlInterpretationMode mode) {
+		final ConsumerContextImpl consumerContext = new ConsumerContextImpl( buildMetamodel() );
+		consumerContext.setHqlInterpretationMode( mode );
+		consumerContext.setQueryLimits( limits );
+		return (SelectStatement) SemanticQueryInterpreter.interpret( query, consumerContext );
+	}
+
+	private static ExplicitDomainMetamodel buildMetamodel() {
+		ExplicitDomainMetamodel metamodel = new ExplicitDomainMetamodel();
+
+		EntityTypeImpl entityType = metamodel.makeEntityType( "com.acme.Entity" );
+		entityType.makeSingularAttribute(
+				"basic",
+				StandardBasicTypeDescriptors.INSTANCE.STRING
+		);
+
+		return metamodel;
+	}
+}
@@ -0,0 +1,235 @@
+/*
+ * Hibernate, Relational Persistence for Idiomatic Java
+ *
+ * License: Apache License, Version 2.0
+ * See the LICENSE file in the root directory or visit http://www.apache.org/licenses/LICENSE-2.0
+ */
+package org.hibernate.test.query.parser.hql;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.hibernate.sqm.BaseSemanticQueryWalker;
+import org.hibernate.sqm.SemanticQueryInterpreter;
+import org.hibernate.sqm.SemanticQueryTraversal;
+import org.hibernate.sqm.parser.HqlInterpretationMode;
+import org.hibernate.sqm.query.SelectStatement;
+import org.hibernate.sqm.query.expression.AttributeReferenceExpression;
+import org.hibernate.sqm.query.expression.BinaryArithmeticExpression;
+import org.hibernate.sqm.query.expression.Expression;
+import org.hibernate.sqm.query.expression.LiteralIntegerExpression;
+import org.hibernate.sqm.query.expression.LiteralStringExpression;
+import org.hibernate.sqm.query.expression.SubQueryExpression;
+import org.hibernate.sqm.query.from.FromElementSpace;
+import org.hibernate.sqm.query.from.QualifiedEntityJoinFromElement;
+import org.hibernate.sqm.query.from.RootEntityFromElement;
+import org.hibernate.sqm.query.predicate.JunctionPredicate;
+import org.hibernate.sqm.query.predicate.Predicate;
+import org.hibernate.sqm.query.predicate.RelationalPredicate;
+import org.hibernate.sqm.query.predicate.WhereClause;
+
+import org.hibernate.test.query.parser.ConsumerContextImpl;
+import org.hibernate.test.sqm.domain.EntityTypeImpl;
+import org.hibernate.test.sqm.domain.ExplicitDomainMetamodel;
+import org.hibernate.test.sqm.domain.StandardBasicTypeDescriptors;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Tests for {@link SemanticQueryTraversal}
+ *
+ * @author agent
+ */
+public class SemanticQueryTraversalTest {
+	private final ConsumerContextImpl consumerContext = new ConsumerContextImpl( buildMetamodel() );
+
+	@Test
+	public void testOrderMatchesWalker() {
+		final SelectStatement statement = interpret(
+				"select e.basic from Entity e join Entity e2 on e2.basic = e.basic "
+						+ "where e.basic = 'aa' or e.basic = (select s.basic from Entity s where s.basic = 'bb') "
+						+ "order by e.basic"
+		);
+
+		final RecordingCallback callback = new RecordingCallback();
+		SemanticQueryTraversal.traverse( statement, callback );
+		assertSame( statement, callback.entered.get( 0 ) );
+		assertSame( statement, callback.left.get( callback.left.size() - 1 ) );
+		assertEquals( callback.entered.size(), callback.left.size() );
+
+		// the predicates and expressions in the same (pre-)order as the recursive walker visits them
+		final List<Object> walked = new ArrayList<Object>();
+		new RecordingWalker( walked ).visitStatement( statement );
+		final List<Object> traversed = new ArrayList<Object>();
+		for ( Object node : callback.entered ) {
+			if ( node instanceof Predicate || node instanceof Expression ) {
+				traversed.add( node );
+			}
+		}
+		assertEquals( walked, traversed );
+	}
+
+	@Test
+	public void testSkippingChildren() {
+		final SelectStatement statement = interpret( "select e from Entity e where e.basic = 'a' or e.basic = 'b'" );
+
+		final RecordingCallback callback = new RecordingCallback() {
+			@Override
+			public boolean enter(Object node) {
+				super.enter( node );
+				return !( node instanceof WhereClause );
+			}
+		};
+		SemanticQueryTraversal.traverse( statement, callback );
+
+		final WhereClause whereClause = statement.getQuerySpec().getWhereClause();
+		assertTrue( callback.entered.contains( whereClause ) );
+		assertTrue( callback.left.contains( whereClause ) );
+		assertFalse( callback.entered.contains( whereClause.getPredicate() ) );
+	}
+
+	@Test
+	public void testSubtree() {
+		final SelectStatement statement = interpret( "select e from Entity e where e.basic = 'a'" );
+		final FromElementSpace space = statement.getQuerySpec().getFromClause().getFromElementSpaces().get( 0 );
+
+		final RecordingCallback callback = new RecordingCallback();
+		SemanticQueryTraversal.traverse( space, callback );
+		assertEquals( 2, callback.entered.size() );
+		assertSame( space, callback.entered.get( 0 ) );
+		assertSame( space.getRoot(), callback.entered.get( 1 ) );
+	}
+
+	@Test
+	public void testDeepTree() {
+		// OR chains are flattened into a single junction, but arithmetic is still nested
+		final int operands = 20000;
+		final StringBuilder query = new StringBuilder( "select e from Entity e where e.basic = 0" );
+		for ( int i = 1; i < operands; i++ ) {
+			query.append( " + " ).append( i );
+		}
+		// the single-pass interpretation builds the tree without recursion too
+		consumerContext.setHqlInterpretationMode( HqlInterpretationMode.SINGLE_PASS );
+		final SelectStatement statement = interpret( query.toString() );
+		assertTrue( statement.isFrozen() );
+
+		final int[] counts = new int[3];
+		SemanticQueryTraversal.traverse(
+				statement,
+				new SemanticQueryTraversal.Callback() {
+					private int depth;
+
+					@Override
+					public boolean enter(Object node) {
+						depth++;
+						counts[2] = Math.max( counts[2], depth );
+						if ( node instanceof BinaryArithmeticExpression ) {
+							counts[0]++;
+						}
+						else if ( node instanceof LiteralIntegerExpression ) {
+							counts[1]++;
+						}
+						return true;
+					}
+
+					@Override
+					public void leave(Object node) {
+						depth--;
+					}
+				}
+		);
+		assertEquals( operands - 1, counts[0] );
+		assertEquals( operands, counts[1] );
+		assertTrue( counts[2] > operands );
+	}
+
+	private SelectStatement interpret(String query) {
+		return (SelectStatement) SemanticQueryInterpreter.interpret( query, consumerContext );
+	}
+
+	private static class RecordingCallback implements SemanticQueryTraversal.Callback {
+		private final List<Object> entered = new ArrayList<Object>();
+		private final List<Object> left = new ArrayList<Object>();
+		private final List<Object> stack = new ArrayList<Object>();
+
+		@Override
+		public boolean enter(Object node) {
+			entered.add( node );
+			stack.add( node );
+			return true;
+		}
+
+		@Override
+		public void leave(Object node) {
+			// properly nested
+			assertSame( stack.remove( stack.size() - 1 ), node );
+			left.add( node );
+		}
+	}
+
+	private static class RecordingWalker extends BaseSemanticQueryWalker<Object> {
+		private final List<Object> visited;
+
+		private RecordingWalker(List<Object> visited) {
+			this.visited = visited;
+		}
+
+		@Override
+		public Object visitJunctionPredicate(JunctionPredicate predicate) {
+			visited.add( predicate );
+			return super.visitJunctionPredicate( predicate );
+		}
+
+		@Override
+		public Object visitRelationalPredicate(RelationalPredicate predicate) {
+			visited.add( predicate );
+			return super.visitRelationalPredicate( predicate );
+		}
+
+		@Override
+		public Object visitAttributeReferenceExpression(AttributeReferenceExpression expression) {
+			visited.add( expression );
+			return super.visitAttributeReferenceExpression( expression );
+		}
+
+		@Override
+		public Object visitLiteralStringExpression(LiteralStringExpression expression) {
+			visited.add( expression );
+			return super.visitLiteralStringExpression( expression );
+		}
+
+		@Override
+		public Object visitSubQueryExpression(SubQueryExpression expression) {
+			visited.add( expression );
+			return super.visitSubQueryExpression( expression );
+		}
+
+		@Override
+		public Object visitRootEntityFromElement(RootEntityFromElement rootEntityFromElement) {
+			visited.add( rootEntityFromElement );
+			return super.visitRootEntityFromElement( rootEntityFromElement );
+		}
+
+		@Override
+		public Object visitQualifiedEntityJoinFromElement(QualifiedEntityJoinFromElement joinedFromElement) {
+			visited.add( joinedFromElement );
+			return super.visitQualifiedEntityJoinFromElement( joinedFromElement );
+		}
+	}
+
+	private static ExplicitDomainMetamodel buildMetamodel() {
+		ExplicitDomainMetamodel metamodel = new ExplicitDomainMetamodel();
+
+		EntityTypeImpl entityType = metamodel.makeEntityType( "com.acme.Entity" );
+		entityType.makeSingularAttribute(
+				"basic",
+				StandardBasicTypeDescriptors.INSTANCE.STRING
+		);
+
+		return metamodel;
+	}
+}
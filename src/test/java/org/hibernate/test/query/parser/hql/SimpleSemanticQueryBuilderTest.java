@@ -16,8 +16,8 @@ import org.hibernate.sqm.query.expression.LiteralIntegerExpression;
 import org.hibernate.sqm.query.expression.LiteralLongExpression;
 import org.hibernate.sqm.query.from.FromClause;
 import org.hibernate.sqm.query.from.FromElementSpace;
-import org.hibernate.sqm.query.predicate.AndPredicate;
 import org.hibernate.sqm.query.predicate.InSubQueryPredicate;
+import org.hibernate.sqm.query.predicate.JunctionPredicate;
 import org.hibernate.sqm.query.predicate.RelationalPredicate;
 
 import org.hibernate.test.query.parser.ConsumerContextImpl;
@@ -224,18 +224,18 @@ public class SimpleSemanticQueryBuilderTest {
 		assertThat( selectStatement.getQuerySpec().getWhereClause().getPredicate(), notNullValue() );
 		assertThat(
 				selectStatement.getQuerySpec().getWhereClause().getPredicate(),
-				is( instanceOf( AndPredicate.class ) )
+				is( instanceOf( JunctionPredicate.class ) )
 		);
 
-		AndPredicate andPredicate = (AndPredicate) selectStatement.getQuerySpec()
+		JunctionPredicate andPredicate = (JunctionPredicate) selectStatement.getQuerySpec()
 				.getWhereClause()
 				.getPredicate();
 
-		assertThat( andPredicate.getLeftHandPredicate(), is( instanceOf( InSubQueryPredicate.class ) ) );
+		assertThat( andPredicate.getPredicates().get( 0 ), is( instanceOf( InSubQueryPredicate.class ) ) );
 
-		assertThat( andPredicate.getRightHandPredicate(), is( instanceOf( InSubQueryPredicate.class ) ) );
+		assertThat( andPredicate.getPredicates().get( 1 ), is( instanceOf( InSubQueryPredicate.class ) ) );
 
-		InSubQueryPredicate leftHandPredicate = (InSubQueryPredicate) andPredicate.getLeftHandPredicate();
+		InSubQueryPredicate leftHandPredicate = (InSubQueryPredicate) andPredicate.getPredicates().get( 0 );
 
 		FromClause leftHandPredicateFromClause = leftHandPredicate.getSubQueryExpression()
 				.getQuerySpec()
@@ -254,7 +254,7 @@ public class SimpleSemanticQueryBuilderTest {
 		);
 		assertThat( leftHandPredicateFromElementSpace.getRoot().getIdentificationVariable(), is( "b" ) );
 
-		InSubQueryPredicate rightHandPredicate = (InSubQueryPredicate) andPredicate.getRightHandPredicate();
+		InSubQueryPredicate rightHandPredicate = (InSubQueryPredicate) andPredicate.getPredicates().get( 1 );
 
 		FromClause rightHandPredicateFromClause = rightHandPredicate.getSubQueryExpression()
 				.getQuerySpec()
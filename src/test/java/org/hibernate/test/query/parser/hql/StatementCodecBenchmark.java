@@ -0,0 +1,132 @@
+/*
+ * Hibernate, Relational Persistence for Idiomatic Java
+ *
+ * License: Apache License, Version 2.0
+ * See the LICENSE file in the root directory or visit http://www.apache.org/licenses/LICENSE-2.0
+ */
+package org.hibernate.test.query.parser.hql;
+
+import java.util.Locale;
+
+import org.hibernate.sqm.SemanticQueryInterpreter;
+import org.hibernate.sqm.codec.StatementCodec;
+import org.hibernate.sqm.domain.DomainMetamodel;
+import org.hibernate.sqm.query.Statement;
+
+import org.hibernate.test.query.parser.ConsumerContextImpl;
+import org.hibernate.test.sqm.domain.EntityTypeImpl;
+import org.hibernate.test.sqm.domain.ExplicitDomainMetamodel;
+import org.hibernate.test.sqm.domain.StandardBasicTypeDescriptors;
+
+/**
+ * Compares decoding {@link StatementCodec encoded} statements against interpreting their HQL.
+ * Not a test; run the main method, optionally passing the number of measured iterations.
+ *
+ * @author agent
+ */
+public class StatementCodecBenchmark {
+	private static final String[] QUERIES = new String[] {
+			"select t from Trip t",
+			"select t.basicName, l.code from Trip t join t.legs l where t.code between 1 and 10 order by t.code desc",
+			"select new list(t.code, t.basicName) from Trip t where t.basicName like 'ab%' or t.code in (1, 2, 3)",
+			"select t from Trip t where t.code in (select max(l.code) from Leg l where l.basicName = :name)",
+			"select key( l ), value( l ) from Trip t join t.mapLegs l where t.code = case when t.code > 2 then 1 else 2 end",
+			"update Trip t set t.code = 7 where t.basicName = 'xx'",
+	};
+
+	public static void main(String[] args) {
+		final int iterations = args.length > 0 ? Integer.parseInt( args[0] ) : 20000;
+
+		final DomainMetamodel metamodel = buildMetamodel();
+		final ConsumerContextImpl consumerContext = new ConsumerContextImpl( metamodel );
+		final StatementCodec codec = new StatementCodec( metamodel );
+
+		final byte[][] encoded = new byte[QUERIES.length][];
+		for ( int i = 0; i < QUERIES.length; i++ ) {
+			encoded[i] = codec.encode( SemanticQueryInterpreter.interpret( QUERIES[i], consumerContext ) );
+		}
+
+		// warm-up
+		runInterpret( consumerContext, iterations / 4 );
+		runDecode( codec, encoded, iterations / 4 );
+
+		long start = System.nanoTime();
+		final int interpreted = runInterpret( consumerContext, iterations );
+		final long interpretNanos = System.nanoTime() - start;
+
+		start = System.nanoTime();
+		final int decoded = runDecode( codec, encoded, iterations );
+		final long decodeNanos = System.nanoTime() - start;
+
+		final int operations = iterations * QUERIES.length;
+		System.out.println( String.format( Locale.ROOT, "queries    : %d x %d iterations", QUERIES.length, iterations ) );
+		System.out.println( String.format( Locale.ROOT, "interpret  : %,10.0f ns/statement", (double) interpretNanos / operations ) );
+		System.out.println( String.format( Locale.ROOT, "decode     : %,10.0f ns/statement", (double) decodeNanos / operations ) );
+		System.out.println( String.format( Locale.ROOT, "speed-up   : %10.1fx", (double) interpretNanos / decodeNanos ) );
+		for ( int i = 0; i < QUERIES.length; i++ ) {
+			System.out.println(
+					String.format( Locale.ROOT, "size       : %4d bytes encoded, %4d chars HQL", encoded[i].length, QUERIES[i].length() )
+			);
+		}
+		// keep the results alive
+		System.out.println( "(" + ( interpreted + decoded ) + ")" );
+	}
+
+	private static int runInterpret(ConsumerContextImpl consumerContext, int iterations) {
+		int sink = 0;
+		for ( int i = 0; i < iterations; i++ ) {
+			for ( String query : QUERIES ) {
+				final Statement statement = SemanticQueryInterpreter.interpret( query, consumerContext );
+				sink += statement.getType().ordinal();
+			}
+		}
+		return sink;
+	}
+
+	private static int runDecode(StatementCodec codec, byte[][] encoded, int iterations) {
+		int sink = 0;
+		for ( int i = 0; i < iterations; i++ ) {
+			for ( byte[] bytes : encoded ) {
+				final Statement statement = codec.decode( bytes );
+				sink += statement.getType().ordinal();
+			}
+		}
+		return sink;
+	}
+
+	private static DomainMetamodel buildMetamodel() {
+		ExplicitDomainMetamodel metamodel = new ExplicitDomainMetamodel();
+
+		EntityTypeImpl legType = metamodel.makeEntityType( "com.acme.Leg" );
+		legType.makeSingularAttribute(
+				"basicName",
+				StandardBasicTypeDescriptors.INSTANCE.STRING
+		);
+		legType.makeSingularAttribute(
+				"code",
+				StandardBasicTypeDescriptors.INSTANCE.INTEGER
+		);
+
+		EntityTypeImpl tripType = metamodel.makeEntityType( "com.acme.Trip" );
+		tripType.makeSingularAttribute(
+				"basicName",
+				StandardBasicTypeDescriptors.INSTANCE.STRING
+		);
+		tripType.makeSingularAttribute(
+				"code",
+				StandardBasicTypeDescriptors.INSTANCE.INTEGER
+		);
+		tripType.makeListAttribute(
+				"legs",
+				StandardBasicTypeDescriptors.INSTANCE.INTEGER,
+				legType
+		);
+		tripType.makeMapAttribute(
+				"mapLegs",
+				legType,
+				legType
+		);
+
+		return metamodel;
+	}
+}
@@ -0,0 +1,235 @@
+/*
+ * Hibernate, Relational Persistence for Idiomatic Java
+ *
+ * License: Apache License, Version 2.0
+ * See the LICENSE file in the root directory or visit http://www.apache.org/licenses/LICENSE-2.0
+ */
+package org.hibernate.test.query.parser.hql;
+
+import java.nio.ByteBuffer;
+
+import org.hibernate.sqm.SemanticQueryInterpreter;
+import org.hibernate.sqm.codec.StatementCodec;
+import org.hibernate.sqm.codec.StatementCodecException;
+import org.hibernate.sqm.domain.DomainMetamodel;
+import org.hibernate.sqm.parser.LiteralParameterizer;
+import org.hibernate.sqm.query.SelectStatement;
+import org.hibernate.sqm.query.Statement;
+import org.hibernate.sqm.query.expression.AttributeReferenceExpression;
+import org.hibernate.sqm.query.from.FromElementSpace;
+import org.hibernate.sqm.query.from.QualifiedAttributeJoinFromElement;
+
+import org.hibernate.test.query.parser.ConsumerContextImpl;
+import org.hibernate.test.sqm.domain.EntityTypeImpl;
+import org.hibernate.test.sqm.domain.ExplicitDomainMetamodel;
+import org.hibernate.test.sqm.domain.StandardBasicTypeDescriptors;
+import org.junit.Test;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.sameInstance;
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * Tests for {@link StatementCodec}
+ *
+ * @author agent
+ */
+public class StatementCodecTest {
+	private final DomainMetamodel metamodel = buildMetamodel();
+	private final ConsumerContextImpl consumerContext = new ConsumerContextImpl( metamodel );
+	private final StatementCodec codec = new StatementCodec( metamodel );
+
+	@Test
+	public void testFromClauseRoundTrip() {
+		assertRoundTrip( "select t from Trip t" );
+		assertRoundTrip( "select t.basicName, l.code from Trip t join t.legs l order by t.code desc, l.code" );
+		assertRoundTrip( "select t, l from Trip t, Leg l where t.code = l.code" );
+		assertRoundTrip( "select t from Trip t left outer join fetch t.legs l" );
+		assertRoundTrip( "select t from Trip t join t.legs l on l.basicName = 'xx'" );
+	}
+
+	@Test
+	public void testPredicateRoundTrip() {
+		assertRoundTrip( "select t from Trip t where t.code between 1 and 10 and not ( t.basicName is null )" );
+		assertRoundTrip( "select t from Trip t where t.basicName like 'a!%' escape '!' or t.basicName like 'bb'" );
+		assertRoundTrip( "select t from Trip t where t.code in (1, 2, 3) and t.code in (select l.code from Leg l)" );
+		assertRoundTrip( "select t from Trip t where t.basicName in ('a', 'bb', '') or t.code in (1L, -2L, 9999999999L)" );
+		assertRoundTrip( "select t from Trip t where t.legs is not empty and size( t.legs ) > 2" );
+		assertRoundTrip( "select t from Trip t where t.code = :code and t.basicName <> ?1" );
+	}
+
+	@Test
+	public void testExpressionRoundTrip() {
+		assertRoundTrip( "select t.code + 1, t.code * 2 / 3 from Trip t where -t.code < -1" );
+		assertRoundTrip( "select count(*), count(distinct t.code), max(t.code), min(t.code), sum(t.code), avg(t.code) from Trip t" );
+		assertRoundTrip( "select t from Trip t where t.code = 1L or t.code = 2.5 or t.code = 2.5f or t.basicName = 'xx'" );
+		assertRoundTrip( "select t from Trip t where t.basicName = case t.code when 1 then 'one' else 'many' end" );
+		assertRoundTrip( "select t from Trip t where t.basicName = case when t.code = 1 then 'one' end" );
+		assertRoundTrip( "select t from Trip t where coalesce(t.basicName, 'none') = nullif(t.basicName, 'xx')" );
+	}
+
+	@Test
+	public void testCollectionFunctionRoundTrip() {
+		assertRoundTrip( "select key( l ), value( l ) from Trip t join t.mapLegs l" );
+		assertRoundTrip( "select entry( l ) from Trip t join t.mapLegs l" );
+		assertRoundTrip( "select key( l ).code from Trip t join t.mapLegs l" );
+	}
+
+	@Test
+	public void testDynamicInstantiationRoundTrip() {
+		assertRoundTrip( "select new list(t.code, t.basicName) from Trip t" );
+		assertRoundTrip( "select new map(t.code as c, t.basicName as n) from Trip t" );
+		assertRoundTrip( "select new org.hibernate.test.query.parser.hql.StatementCodecTest$DTO(t.code, t.basicName) from Trip t" );
+	}
+
+	@Test
+	public void testDmlRoundTrip() {
+		assertRoundTrip( "update Trip t set t.code = 7 where t.code > 2" );
+		assertRoundTrip( "delete Trip t where t.basicName = 'xx'" );
+		assertRoundTrip( "insert into Leg (basicName, code) select t.basicName, t.code from Trip t" );
+	}
+
+	@Test
+	public void testParameterizedStatementRoundTrip() {
+		final Statement parameterized = LiteralParameterizer.parameterize(
+				interpret( "select t from Trip t where t.code = 1 or t.basicName = 'aa'" )
+		).getStatement();
+		assertRoundTrip( parameterized );
+	}
+
+	@Test
+	public void testDecodedStatementResolvesAgainstMetamodel() {
+		final SelectStatement original = (SelectStatement) interpret( "select l.code from Trip t join t.legs l" );
+		final SelectStatement decoded = (SelectStatement) codec.decode( codec.encode( original ) );
+
+		final FromElementSpace space = decoded.getQuerySpec().getFromClause().getFromElementSpaces().get( 0 );
+		assertThat( space.getRoot().getIdentificationVariable(), is( "t" ) );
+		assertThat( space.getRoot().getBoundModelType(), sameInstance( metamodel.resolveEntityType( "com.acme.Trip" ) ) );
+
+		final QualifiedAttributeJoinFromElement join = (QualifiedAttributeJoinFromElement) space.getJoins().get( 0 );
+		assertThat( join.getIdentificationVariable(), is( "l" ) );
+		assertThat( join.getAttributeBindingSource().getFromElement(), sameInstance( (Object) space.getRoot() ) );
+
+		final AttributeReferenceExpression selection = (AttributeReferenceExpression) decoded.getQuerySpec()
+				.getSelectClause()
+				.getSelections()
+				.get( 0 )
+				.getExpression();
+		assertThat( selection.getAttributeBindingSource().getFromElement(), sameInstance( (Object) join ) );
+		assertThat(
+				selection.getBoundAttribute(),
+				sameInstance( metamodel.resolveEntityType( "com.acme.Leg" ).findAttribute( "code" ) )
+		);
+	}
+
+	@Test
+	public void testDecodeFromBufferAdvancesPosition() {
+		final byte[] first = codec.encode( interpret( "select t from Trip t" ) );
+		final byte[] second = codec.encode( interpret( "select l from Leg l" ) );
+		final ByteBuffer buffer = ByteBuffer.allocate( first.length + second.length );
+		buffer.put( first ).put( second ).flip();
+
+		assertEquals( interpret( "select t from Trip t" ).getFingerprint(), codec.decode( buffer ).getFingerprint() );
+		assertEquals( first.length, buffer.position() );
+		assertEquals( interpret( "select l from Leg l" ).getFingerprint(), codec.decode( buffer ).getFingerprint() );
+		assertEquals( 0, buffer.remaining() );
+	}
+
+	@Test
+	public void testInvalidInput() {
+		final byte[] encoded = codec.encode( interpret( "select t from Trip t" ) );
+
+		final byte[] badMagic = encoded.clone();
+		badMagic[0] = 'X';
+		assertDecodeFails( badMagic );
+
+		final byte[] badVersion = encoded.clone();
+		badVersion[StatementCodec.MAGIC.length] = (byte) ( StatementCodec.FORMAT_VERSION + 1 );
+		assertDecodeFails( badVersion );
+
+		final byte[] truncated = new byte[encoded.length - 1];
+		System.arraycopy( encoded, 0, truncated, 0, truncated.length );
+		assertDecodeFails( truncated );
+	}
+
+	@Test
+	public void testUnknownEntity() {
+		final byte[] encoded = codec.encode( interpret( "select t from Trip t" ) );
+		try {
+			new StatementCodec( new ExplicitDomainMetamodel() ).decode( encoded );
+			fail( "Expecting StatementCodecException" );
+		}
+		catch (StatementCodecException expected) {
+		}
+	}
+
+	private void assertDecodeFails(byte[] encoded) {
+		try {
+			codec.decode( encoded );
+			fail( "Expecting StatementCodecException" );
+		}
+		catch (StatementCodecException expected) {
+		}
+	}
+
+	private void assertRoundTrip(String query) {
+		assertRoundTrip( interpret( query ) );
+	}
+
+	private void assertRoundTrip(Statement original) {
+		final byte[] encoded = codec.encode( original );
+		final Statement decoded = codec.decode( encoded );
+
+		assertTrue( decoded.isFrozen() );
+		assertEquals( original.getFingerprint(), decoded.getFingerprint() );
+		// the encoding is canonical, so re-encoding the decoded statement gives the same bytes
+		assertArrayEquals( encoded, codec.encode( decoded ) );
+	}
+
+	private Statement interpret(String query) {
+		return SemanticQueryInterpreter.interpret( query, consumerContext );
+	}
+
+	private DomainMetamodel buildMetamodel() {
+		ExplicitDomainMetamodel metamodel = new ExplicitDomainMetamodel();
+
+		EntityTypeImpl legType = metamodel.makeEntityType( "com.acme.Leg" );
+		legType.makeSingularAttribute(
+				"basicName",
+				StandardBasicTypeDescriptors.INSTANCE.STRING
+		);
+		legType.makeSingularAttribute(
+				"code",
+				StandardBasicTypeDescriptors.INSTANCE.INTEGER
+		);
+
+		EntityTypeImpl tripType = metamodel.makeEntityType( "com.acme.Trip" );
+		tripType.makeSingularAttribute(
+				"basicName",
+				StandardBasicTypeDescriptors.INSTANCE.STRING
+		);
+		tripType.makeSingularAttribute(
+				"code",
+				StandardBasicTypeDescriptors.INSTANCE.INTEGER
+		);
+		tripType.makeListAttribute(
+				"legs",
+				StandardBasicTypeDescriptors.INSTANCE.INTEGER,
+				legType
+		);
+		tripType.makeMapAttribute(
+				"mapLegs",
+				legType,
+				legType
+		);
+
+		return metamodel;
+	}
+
+	public static class DTO {
+	}
+}
@@ -0,0 +1,169 @@
+/*
+ * Hibernate, Relational Persistence for Idiomatic Java
+ *
+ * License: Apache License, Version 2.0
+ * See the LICENSE file in the root directory or visit http://www.apache.org/licenses/LICENSE-2.0
+ */
+package org.hibernate.test.query.parser.hql;
+
+import org.hibernate.sqm.SemanticQueryInterpreter;
+import org.hibernate.sqm.StatementFingerprinter;
+import org.hibernate.sqm.domain.DomainMetamodel;
+import org.hibernate.sqm.parser.LiteralParameterizer;
+import org.hibernate.sqm.query.Statement;
+import org.hibernate.sqm.query.StatementFingerprint;
+
+import org.hibernate.test.query.parser.ConsumerContextImpl;
+import org.hibernate.test.sqm.domain.EntityTypeImpl;
+import org.hibernate.test.sqm.domain.ExplicitDomainMetamodel;
+import org.hibernate.test.sqm.domain.StandardBasicTypeDescriptors;
+import org.junit.Test;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.not;
+import static org.hamcrest.CoreMatchers.sameInstance;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertThat;
+
+/**
+ * Tests for {@link Statement#getFingerprint()}
+ *
+ * @author agent
+ */
+public class StatementFingerprintTest {
+	private final ConsumerContextImpl consumerContext = new ConsumerContextImpl( buildMetamodel() );
+
+	@Test
+	public void testSameQuerySameFingerprint() {
+		final String query = "select t.basicName from Trip t join t.legs l where t.code = 42 and l.basicName like :name";
+		assertEquals( fingerprint( query ), fingerprint( query ) );
+	}
+
+	@Test
+	public void testFingerprintIsStable() {
+		// the fingerprint is intended to be usable outside of the JVM calculating it, so it must never change
+		// for a given statement
+		assertEquals(
+				"4c1db21ea250440662a40493571eabb4",
+				fingerprint( "select t.basicName from Trip t where t.code = 42" ).toString()
+		);
+	}
+
+	@Test
+	public void testAliasesAreIgnored() {
+		assertEquals(
+				fingerprint( "select t.basicName from Trip t join t.legs l where l.basicName = 'xx'" ),
+				fingerprint( "select trip.basicName from Trip as trip join trip.legs leg where leg.basicName = 'xx'" )
+		);
+	}
+
+	@Test
+	public void testImplicitAliasNumberingIsIgnored() {
+		// the implicit alias generated for the sub-query root differs between the two
+		assertEquals(
+				fingerprint( "select t from Trip t join t.legs where t.code in (select count(*) from Trip)" ),
+				fingerprint( "select t from Trip t join t.legs l where t.code in (select count(*) from Trip)" )
+		);
+	}
+
+	@Test
+	public void testStructuralDifferences() {
+		final StatementFingerprint base = fingerprint( "select t from Trip t where t.code = 42" );
+		assertThat( fingerprint( "select t from Trip t where t.code = 43" ), not( base ) );
+		assertThat( fingerprint( "select t from Trip t where t.code > 42" ), not( base ) );
+		assertThat( fingerprint( "select t from Trip t where t.code = 42L" ), not( base ) );
+		assertThat( fingerprint( "select t from Trip t where t.index = 42" ), not( base ) );
+		assertThat( fingerprint( "select t from Leg t where t.code = 42" ), not( base ) );
+		assertThat( fingerprint( "select t from Trip t where t.code = :code" ), not( base ) );
+		assertThat( fingerprint( "select t.code from Trip t where t.code = 42" ), not( base ) );
+		assertThat( fingerprint( "select t.code from Trip t where t.code = :code" ), not( fingerprint( "select t.code from Trip t where t.code = :other" ) ) );
+	}
+
+	@Test
+	public void testParameterizedStatementsShareFingerprint() {
+		final Statement first = LiteralParameterizer.parameterize(
+				interpret( "select t from Trip t where t.code = 1 or t.basicName = 'aa'" )
+		).getStatement();
+		final Statement second = LiteralParameterizer.parameterize(
+				interpret( "select t from Trip t where t.code = 2 or t.basicName = 'bb'" )
+		).getStatement();
+		assertEquals( first.getFingerprint(), second.getFingerprint() );
+	}
+
+	@Test
+	public void testLiteralsAsPlaceholders() {
+		final Statement first = interpret( "select t from Trip t where t.code = 1 or t.basicName = 'aa'" );
+		final Statement second = interpret( "select t from Trip t where t.code = 2 or t.basicName = 'bb'" );
+		assertThat( first.getFingerprint(), not( second.getFingerprint() ) );
+		assertEquals(
+				StatementFingerprinter.fingerprint( first, true ),
+				StatementFingerprinter.fingerprint( second, true )
+		);
+	}
+
+	@Test
+	public void testDmlFingerprints() {
+		assertEquals(
+				fingerprint( "update Trip t set t.code = 7 where t.basicName = 'xx'" ),
+				fingerprint( "update Trip x set x.code = 7 where x.basicName = 'xx'" )
+		);
+		assertThat(
+				fingerprint( "update Trip t set t.code = 7 where t.basicName = 'xx'" ),
+				not( fingerprint( "update Trip t set t.code = 8 where t.basicName = 'xx'" ) )
+		);
+		assertThat(
+				fingerprint( "delete Trip t where t.basicName = 'xx'" ),
+				not( fingerprint( "delete Trip t where t.basicName <> 'xx'" ) )
+		);
+	}
+
+	@Test
+	public void testFingerprintIsMemoized() {
+		final Statement statement = interpret( "select t from Trip t" );
+		assertThat( statement.getFingerprint(), sameInstance( statement.getFingerprint() ) );
+		assertThat( statement.getFingerprint(), is( StatementFingerprinter.fingerprint( statement ) ) );
+	}
+
+	private StatementFingerprint fingerprint(String query) {
+		return interpret( query ).getFingerprint();
+	}
+
+	private Statement interpret(String query) {
+		return SemanticQueryInterpreter.interpret( query, consumerContext );
+	}
+
+	private DomainMetamodel buildMetamodel() {
+		ExplicitDomainMetamodel metamodel = new ExplicitDomainMetamodel();
+
+		EntityTypeImpl legType = metamodel.makeEntityType( "com.acme.Leg" );
+		legType.makeSingularAttribute(
+				"basicName",
+				StandardBasicTypeDescriptors.INSTANCE.STRING
+		);
+		legType.makeSingularAttribute(
+				"code",
+				StandardBasicTypeDescriptors.INSTANCE.INTEGER
+		);
+
+		EntityTypeImpl tripType = metamodel.makeEntityType( "com.acme.Trip" );
+		tripType.makeSingularAttribute(
+				"basicName",
+				StandardBasicTypeDescriptors.INSTANCE.STRING
+		);
+		tripType.makeSingularAttribute(
+				"code",
+				StandardBasicTypeDescriptors.INSTANCE.INTEGER
+		);
+		tripType.makeSingularAttribute(
+				"index",
+				StandardBasicTypeDescriptors.INSTANCE.INTEGER
+		);
+		tripType.makeListAttribute(
+				"legs",
+				StandardBasicTypeDescriptors.INSTANCE.INTEGER,
+				legType
+		);
+
+		return metamodel;
+	}
+}
@@ -0,0 +1,251 @@
+/*
+ * Hibernate, Relational Persistence for Idiomatic Java
+ *
+ * License: Apache License, Version 2.0
+ * See the LICENSE file in the root directory or visit http://www.apache.org/licenses/LICENSE-2.0
+ */
+package org.hibernate.test.query.parser.hql;
+
+import org.hibernate.sqm.SemanticQueryCopier;
+import org.hibernate.sqm.SemanticQueryInterpreter;
+import org.hibernate.sqm.domain.DomainMetamodel;
+import org.hibernate.sqm.query.QuerySpec;
+import org.hibernate.sqm.query.SelectStatement;
+import org.hibernate.sqm.query.TreeException;
+import org.hibernate.sqm.query.UpdateStatement;
+import org.hibernate.sqm.query.expression.ImpliedTypeExpression;
+import org.hibernate.sqm.query.from.Downcast;
+import org.hibernate.sqm.query.from.FromElement;
+import org.hibernate.sqm.query.from.FromElementSpace;
+import org.hibernate.sqm.query.from.JoinedFromElement;
+import org.hibernate.sqm.query.from.RootEntityFromElement;
+import org.hibernate.sqm.query.predicate.RelationalPredicate;
+import org.hibernate.sqm.query.select.DynamicInstantiation;
+import org.hibernate.sqm.query.select.DynamicInstantiationArgument;
+import org.hibernate.sqm.query.select.Selection;
+
+import org.hibernate.test.query.parser.ConsumerContextImpl;
+import org.hibernate.test.sqm.domain.EntityTypeImpl;
+import org.hibernate.test.sqm.domain.ExplicitDomainMetamodel;
+import org.hibernate.test.sqm.domain.StandardBasicTypeDescriptors;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * Tests for {@link org.hibernate.sqm.query.Statement#freeze()}
+ *
+ * @author agent
+ */
+public class StatementFreezingTest {
+	private final ConsumerContextImpl consumerContext = new ConsumerContextImpl( buildMetamodel() );
+
+	@Test
+	public void testInterpretedStatementsAreFrozen() {
+		final SelectStatement statement = interpret( "select t from Trip t join t.legs l where t.code in (1, 2)" );
+		assertTrue( statement.isFrozen() );
+
+		final QuerySpec querySpec = statement.getQuerySpec();
+		final FromElementSpace space = querySpec.getFromClause().getFromElementSpaces().get( 0 );
+		final RootEntityFromElement root = space.getRoot();
+
+		try {
+			statement.applyQuerySpec( querySpec );
+			fail( "Expecting TreeException" );
+		}
+		catch (TreeException expected) {
+		}
+
+		try {
+			space.addJoin( (JoinedFromElement) space.getJoins().get( 0 ) );
+			fail( "Expecting TreeException" );
+		}
+		catch (TreeException expected) {
+		}
+
+		try {
+			root.addDowncast( new Downcast( root.getBoundModelType() ) );
+			fail( "Expecting TreeException" );
+		}
+		catch (TreeException expected) {
+		}
+
+		try {
+			querySpec.getSelectClause().addSelection( new Selection( root ) );
+			fail( "Expecting TreeException" );
+		}
+		catch (TreeException expected) {
+		}
+
+		try {
+			querySpec.getWhereClause().setPredicate( null );
+			fail( "Expecting TreeException" );
+		}
+		catch (TreeException expected) {
+		}
+	}
+
+	@Test
+	public void testFrozenCollectionsAreImmutable() {
+		final SelectStatement statement = interpret( "select t from Trip t join t.legs l" );
+		final FromElementSpace space = statement.getQuerySpec().getFromClause().getFromElementSpaces().get( 0 );
+
+		try {
+			space.getJoins().clear();
+			fail( "Expecting UnsupportedOperationException" );
+		}
+		catch (UnsupportedOperationException expected) {
+		}
+
+		try {
+			statement.getQuerySpec().getFromClause().getFromElementSpaces().clear();
+			fail( "Expecting UnsupportedOperationException" );
+		}
+		catch (UnsupportedOperationException expected) {
+		}
+	}
+
+	@Test
+	public void testDynamicInstantiationIsFrozen() {
+		final SelectStatement statement = interpret( "select new list(t.code, t.basicName) from Trip t" );
+		final DynamicInstantiation dynamicInstantiation = (DynamicInstantiation) statement.getQuerySpec()
+				.getSelectClause()
+				.getSelections()
+				.get( 0 )
+				.getExpression();
+		try {
+			dynamicInstantiation.addArgument( dynamicInstantiation.getArguments().get( 0 ) );
+			fail( "Expecting TreeException" );
+		}
+		catch (TreeException expected) {
+		}
+
+		try {
+			dynamicInstantiation.getArguments().add( (DynamicInstantiationArgument) null );
+			fail( "Expecting UnsupportedOperationException" );
+		}
+		catch (UnsupportedOperationException expected) {
+		}
+	}
+
+	@Test
+	public void testDmlStatementsAreFrozen() {
+		final UpdateStatement statement = (UpdateStatement) SemanticQueryInterpreter.interpret(
+				"update Trip t set t.code = 1 where t.basicName = 'xx'",
+				consumerContext
+		);
+		assertTrue( statement.isFrozen() );
+		try {
+			statement.getSetClause().addAssignment( statement.getSetClause().getAssignments().get( 0 ) );
+			fail( "Expecting TreeException" );
+		}
+		catch (TreeException expected) {
+		}
+	}
+
+	@Test
+	public void testImpliedTypesAreFrozen() {
+		final SelectStatement statement = interpret( "select t from Trip t where t.code = :code" );
+		final RelationalPredicate predicate = (RelationalPredicate) statement.getQuerySpec()
+				.getWhereClause()
+				.getPredicate();
+		try {
+			( (ImpliedTypeExpression) predicate.getRightHandExpression() ).impliedType(
+					StandardBasicTypeDescriptors.INSTANCE.LONG
+			);
+			fail( "Expecting TreeException" );
+		}
+		catch (TreeException expected) {
+		}
+
+		final SelectStatement literalStatement = interpret( "select t from Trip t where t.basicName = 'xx'" );
+		final RelationalPredicate literalPredicate = (RelationalPredicate) literalStatement.getQuerySpec()
+				.getWhereClause()
+				.getPredicate();
+		try {
+			( (ImpliedTypeExpression) literalPredicate.getRightHandExpression() ).impliedType(
+					StandardBasicTypeDescriptors.INSTANCE.STRING
+			);
+			fail( "Expecting TreeException" );
+		}
+		catch (TreeException expected) {
+		}
+	}
+
+	@Test
+	public void testCopiesAreNotFrozen() {
+		final SelectStatement statement = interpret( "select t from Trip t" );
+		final SelectStatement copy = (SelectStatement) new SemanticQueryCopier().copy( statement );
+		assertFalse( copy.isFrozen() );
+
+		final RootEntityFromElement root = copy.getQuerySpec().getFromClause().getFromElementSpaces().get( 0 ).getRoot();
+		copy.getQuerySpec().getSelectClause().addSelection( new Selection( root ) );
+
+		copy.freeze();
+		assertTrue( copy.isFrozen() );
+	}
+
+	@Test
+	public void testFromElementsByUniqueId() {
+		final SelectStatement statement = interpret(
+				"select t from Trip t join t.legs l where t.code in (select t2.code from Trip t2)"
+		);
+		final FromElementSpace space = statement.getQuerySpec().getFromClause().getFromElementSpaces().get( 0 );
+		final RootEntityFromElement root = space.getRoot();
+		final JoinedFromElement join = space.getJoins().get( 0 );
+
+		// the ids are dense across all of the query specs
+		for ( int i = 0; i < 3; i++ ) {
+			final FromElement fromElement = statement.findFromElementByUniqueId( i );
+			assertNotNull( fromElement );
+			assertEquals( i, fromElement.getUniqueId() );
+		}
+		assertNull( statement.findFromElementByUniqueId( 3 ) );
+		assertSame( root, statement.findFromElementByUniqueId( root.getUniqueId() ) );
+		assertSame( join, statement.findFromElementByUniqueId( join.getUniqueId() ) );
+
+		// copies keep the ids of their originals, whether frozen or not
+		final SelectStatement copy = (SelectStatement) new SemanticQueryCopier().copy( statement );
+		final RootEntityFromElement rootCopy = copy.getQuerySpec().getFromClause().getFromElementSpaces().get( 0 ).getRoot();
+		assertSame( rootCopy, copy.findFromElementByUniqueId( root.getUniqueId() ) );
+		copy.freeze();
+		assertSame( rootCopy, copy.findFromElementByUniqueId( root.getUniqueId() ) );
+	}
+
+	private SelectStatement interpret(String query) {
+		return (SelectStatement) SemanticQueryInterpreter.interpret( query, consumerContext );
+	}
+
+	private DomainMetamodel buildMetamodel() {
+		ExplicitDomainMetamodel metamodel = new ExplicitDomainMetamodel();
+
+		EntityTypeImpl legType = metamodel.makeEntityType( "com.acme.Leg" );
+		legType.makeSingularAttribute(
+				"basicName",
+				StandardBasicTypeDescriptors.INSTANCE.STRING
+		);
+
+		EntityTypeImpl tripType = metamodel.makeEntityType( "com.acme.Trip" );
+		tripType.makeSingularAttribute(
+				"basicName",
+				StandardBasicTypeDescriptors.INSTANCE.STRING
+		);
+		tripType.makeSingularAttribute(
+				"code",
+				StandardBasicTypeDescriptors.INSTANCE.INTEGER
+		);
+		tripType.makeListAttribute(
+				"legs",
+				StandardBasicTypeDescriptors.INSTANCE.INTEGER,
+				legType
+		);
+
+		return metamodel;
+	}
+}
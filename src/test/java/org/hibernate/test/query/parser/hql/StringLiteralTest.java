@@ -0,0 +1,109 @@
+/*
+ * Hibernate, Relational Persistence for Idiomatic Java
+ *
+ * License: Apache License, Version 2.0
+ * See the LICENSE file in the root directory or visit http://www.apache.org/licenses/LICENSE-2.0
+ */
+package org.hibernate.test.query.parser.hql;
+
+import org.hibernate.sqm.SemanticQueryInterpreter;
+import org.hibernate.sqm.parser.HqlInterpretationMode;
+import org.hibernate.sqm.parser.internal.hql.CharSequenceCharStream;
+import org.hibernate.sqm.query.SelectStatement;
+import org.hibernate.sqm.query.expression.LiteralCharacterExpression;
+import org.hibernate.sqm.query.expression.LiteralExpression;
+import org.hibernate.sqm.query.expression.LiteralStringExpression;
+import org.hibernate.sqm.query.predicate.RelationalPredicate;
+
+import org.hibernate.test.query.parser.ConsumerContextImpl;
+import org.hibernate.test.sqm.domain.EntityTypeImpl;
+import org.hibernate.test.sqm.domain.ExplicitDomainMetamodel;
+import org.hibernate.test.sqm.domain.StandardBasicTypeDescriptors;
+import org.junit.Test;
+
+import org.antlr.v4.runtime.IntStream;
+import org.antlr.v4.runtime.misc.Interval;
+
+import static org.hamcrest.CoreMatchers.instanceOf;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertThat;
+
+/**
+ * Tests for the value of String and character literals, which the lexer takes from the quoted text
+ *
+ * @author agent
+ */
+public class StringLiteralTest {
+	@Test
+	public void testStringLiterals() {
+		for ( HqlInterpretationMode mode : HqlInterpretationMode.values() ) {
+			assertStringValue( "'abc'", "abc", mode );
+			assertStringValue( "''", "", mode );
+			assertStringValue( "'it''s'", "it's", mode );
+			assertStringValue( "''''", "'", mode );
+			assertStringValue( "'a''''b'", "a''b", mode );
+			assertStringValue( "\"double\"", "double", mode );
+			assertStringValue( "\"it''s\"", "it''s", mode );
+			// escape sequences are left as they are
+			assertStringValue( "'a\\'b'", "a\\'b", mode );
+		}
+	}
+
+	@Test
+	public void testCharacterLiteral() {
+		for ( HqlInterpretationMode mode : HqlInterpretationMode.values() ) {
+			final LiteralExpression literal = interpretLiteral( "'x'", mode );
+			assertThat( literal, instanceOf( LiteralCharacterExpression.class ) );
+			assertEquals( 'x', literal.getLiteralValue() );
+		}
+	}
+
+	@Test
+	public void testCharSequenceCharStream() {
+		final CharSequenceCharStream stream = new CharSequenceCharStream( "abc" );
+		assertEquals( 3, stream.size() );
+		assertEquals( 'a', stream.LA( 1 ) );
+		assertEquals( IntStream.EOF, stream.LA( -1 ) );
+		stream.consume();
+		stream.consume();
+		assertEquals( 'c', stream.LA( 1 ) );
+		assertEquals( 'b', stream.LA( -1 ) );
+		assertEquals( 'a', stream.LA( -2 ) );
+		assertEquals( IntStream.EOF, stream.LA( 2 ) );
+		assertEquals( "bc", stream.getText( Interval.of( 1, 5 ) ) );
+		stream.seek( 0 );
+		assertEquals( 0, stream.index() );
+		assertEquals( "abc", stream.getText( Interval.of( 0, 2 ) ) );
+	}
+
+	private void assertStringValue(String literalText, String expectedValue, HqlInterpretationMode mode) {
+		final LiteralExpression literal = interpretLiteral( literalText, mode );
+		assertThat( literal, instanceOf( LiteralStringExpression.class ) );
+		assertEquals( literalText, expectedValue, literal.getLiteralValue() );
+	}
+
+	private LiteralExpression interpretLiteral(String literalText, HqlInterpretationMode mode) {
+		final ConsumerContextImpl consumerContext = new ConsumerContextImpl( buildMetamodel() );
+		consumerContext.setHqlInterpretationMode( mode );
+		final SelectStatement statement = (SelectStatement) SemanticQueryInterpreter.interpret(
+				"select a.basic from Something a where a.basic = " + literalText,
+				consumerContext
+		);
+		final RelationalPredicate predicate = (RelationalPredicate) statement.getQuerySpec()
+				.getWhereClause()
+				.getPredicate();
+		return (LiteralExpression) predicate.getRightHandExpression();
+	}
+
+	private static ExplicitDomainMetamodel buildMetamodel() {
+		ExplicitDomainMetamodel metamodel = new ExplicitDomainMetamodel();
+
+		EntityTypeImpl entityType = metamodel.makeEntityType( "com.acme.Something" );
+		entityType.makeSingularAttribute(
+				"basic",
+				StandardBasicTypeDescriptors.INSTANCE.STRING
+		);
+
+		return metamodel;
+	}
+}
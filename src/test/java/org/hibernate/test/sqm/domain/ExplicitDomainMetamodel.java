@@ -9,6 +9,8 @@ package org.hibernate.test.sqm.domain;
 import java.lang.reflect.Field;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 import javax.persistence.TemporalType;
 
 import org.hibernate.sqm.domain.BasicType;
@@ -26,7 +28,7 @@ public class ExplicitDomainMetamodel implements DomainMetamodel {
 
 	private Map<String,EntityTypeImpl> entityTypeMap = new HashMap<String, EntityTypeImpl>();
 
-	private Map<Class, BasicType> basicTypeMap = new HashMap<Class, BasicType>();
+	private ConcurrentMap<Class, BasicType> basicTypeMap = new ConcurrentHashMap<Class, BasicType>();
 
 	public ExplicitDomainMetamodel() {
 		// prime the basicTypeMap with the BasicTypeImpls from StandardBasicTypeDescriptors
@@ -110,7 +112,10 @@ public class ExplicitDomainMetamodel implements DomainMetamodel {
 		BasicType basicType = basicTypeMap.get( javaType );
 		if ( basicType == null ) {
 			basicType = new BasicTypeImpl( javaType );
-			basicTypeMap.put( javaType, basicType );
+			final BasicType existing = basicTypeMap.putIfAbsent( javaType, basicType );
+			if ( existing != null ) {
+				basicType = existing;
+			}
 		}
 		return basicType;
 	}